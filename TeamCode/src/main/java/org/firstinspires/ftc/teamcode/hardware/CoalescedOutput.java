@@ -0,0 +1,162 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * Caches the last value commanded to an actuator (a motor power, a servo position, etc.) so that redundant writes
+ *  never reach the hub.  A new value is only written if it differs from the last written value by at least the
+ *  output's epsilon, or if it is exactly zero and the actuator is not already stopped.
+ * <p>
+ * An output can also be deferred, in which case new values are held until {@link #flush()} is called.  This lets
+ *  every write of a control loop cycle be pushed at once, and lets a value that is overwritten several times within a
+ *  cycle be written only once.
+ */
+public final class CoalescedOutput {
+    /**
+     * The epsilon used when none is specified
+     */
+    public static final double DEFAULT_EPSILON = 0.001;
+
+    /**
+     * Writes a value to the actuator
+     */
+    private final DoubleConsumer writer;
+
+    /**
+     * The minimum change in value that will be written to the actuator
+     */
+    private double epsilon;
+
+    /**
+     * The last value that was written to the actuator, or {@link Double#NaN} if the actuator's state is unknown
+     */
+    private double lastWritten = Double.NaN;
+
+    /**
+     * The value waiting to be written by {@link #flush()}
+     */
+    private double pending;
+
+    /**
+     * Is there a value waiting to be written?
+     */
+    private boolean hasPending = false;
+
+    /**
+     * Are new values held until {@link #flush()} is called?
+     */
+    private boolean deferred = false;
+
+    private long writesIssued = 0;
+    private long writesSkipped = 0;
+
+    /**
+     * Creates an output
+     * @param writer Writes a value to the actuator
+     * @param epsilon The minimum change in value that will be written to the actuator
+     */
+    public CoalescedOutput(DoubleConsumer writer, double epsilon) {
+        this.writer = writer;
+        this.epsilon = epsilon;
+    }
+
+    /**
+     * Creates an output using the {@linkplain #DEFAULT_EPSILON default epsilon}
+     * @param writer Writes a value to the actuator
+     */
+    public CoalescedOutput(DoubleConsumer writer) {
+        this(writer, DEFAULT_EPSILON);
+    }
+
+    /**
+     * Commands a new value.  The value is dropped if it is too close to the last written value, held if the output is
+     *  deferred, and written immediately otherwise.
+     * @param value The value to command
+     */
+    public void set(double value) {
+        if (!needsWrite(value)) {
+            hasPending = false; // cancel any pending value, since the actuator is already where we want it
+            writesSkipped++;
+            return;
+        }
+        if (deferred) {
+            pending = value;
+            hasPending = true;
+            return;
+        }
+        write(value);
+    }
+
+    private boolean needsWrite(double value) {
+        if (Double.isNaN(lastWritten)) {
+            return true;
+        }
+        if (value == 0) {
+            return lastWritten != 0; // always honor stop commands exactly
+        }
+        return Math.abs(value - lastWritten) >= epsilon;
+    }
+
+    private void write(double value) {
+        writer.accept(value);
+        lastWritten = value;
+        hasPending = false;
+        writesIssued++;
+    }
+
+    /**
+     * Writes the pending value, if there is one
+     */
+    public void flush() {
+        if (hasPending) {
+            write(pending);
+        }
+    }
+
+    /**
+     * Sets whether new values are held until {@link #flush()} is called.  Ending deferral does not flush the pending
+     *  value.
+     * @param deferred True to hold new values, false to write them immediately
+     */
+    public void setDeferred(boolean deferred) {
+        this.deferred = deferred;
+    }
+
+    /**
+     * Forgets the last written value, so that the next value is always written.  This should be called whenever the
+     *  actuator's state changes without going through this output (for example, when a motor's encoder is reset).
+     */
+    public void invalidate() {
+        lastWritten = Double.NaN;
+    }
+
+    /**
+     * Gets the value the actuator was last commanded to have, which may not have been written yet
+     * @return The pending value if there is one, otherwise the last written value (NaN if nothing has been written)
+     */
+    public double getCommanded() {
+        return hasPending ? pending : lastWritten;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    public void setEpsilon(double epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    /**
+     * @return The amount of values that have been written to the actuator
+     */
+    public long getWritesIssued() {
+        return writesIssued;
+    }
+
+    /**
+     * @return The amount of values that were dropped because the actuator already had them
+     */
+    public long getWritesSkipped() {
+        return writesSkipped;
+    }
+}
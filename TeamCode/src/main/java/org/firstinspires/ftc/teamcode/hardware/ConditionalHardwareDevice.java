@@ -7,6 +7,7 @@ import com.qualcomm.robotcore.hardware.HardwareMap;
 
 import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.ObjDoubleConsumer;
 
 /**
  * Represents a hardware device that may or may not be accessible.
@@ -113,6 +114,20 @@ public final class ConditionalHardwareDevice<T extends HardwareDevice> {
         }
     }
 
+    /**
+     * Creates an output that coalesces writes to the hardware device
+     * @param writer Writes a value to the device, such as {@code DcMotor::setPower}
+     * @param epsilon The minimum change in value that will be written to the device
+     * @return The output.  If the device is inaccessible, values written to the output are discarded.
+     * @see CoalescedOutput
+     */
+    public CoalescedOutput createOutput(ObjDoubleConsumer<? super T> writer, double epsilon) {
+        if (!isAvailable()) {
+            return new CoalescedOutput(value -> {}, epsilon);
+        }
+        return new CoalescedOutput(value -> writer.accept(device, value), epsilon);
+    }
+
     @Override
     public boolean equals(@Nullable Object obj) {
         if (super.equals(obj)) {
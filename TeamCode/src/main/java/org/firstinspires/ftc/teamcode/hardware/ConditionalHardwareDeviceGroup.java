@@ -4,8 +4,13 @@ import android.util.Pair;
 import com.qualcomm.robotcore.hardware.HardwareDevice;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
+import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.ObjDoubleConsumer;
 
 /**
  * Represents a group of hardware devices that may or may not be available
@@ -25,6 +30,12 @@ public final class ConditionalHardwareDeviceGroup {
 
     private final HardwareMap hardwareMap;
 
+    /**
+     * Functions that are notified with the name and instance of every available device that is loaded into the group
+     * @see #addLoadListener(BiConsumer)
+     */
+    private final List<BiConsumer<String, HardwareDevice>> loadListeners;
+
     /**
      * Constructs an empty device group
      * @param hardwareMap The {@link HardwareMap} object to use
@@ -33,6 +44,7 @@ public final class ConditionalHardwareDeviceGroup {
         this.hardwareMap = hardwareMap;
         devices = new Hashtable<>();
         allAreAccessible = new AtomicBoolean(true);
+        loadListeners = new ArrayList<>();
     }
 
     public boolean areAllDevicesAvailable() {
@@ -55,6 +67,26 @@ public final class ConditionalHardwareDeviceGroup {
 
         allAreAccessible.compareAndSet(true, deviceExists); // if this is already false, no need to set it to something else
         devices.put(deviceName, maybeDevice);
+
+        if (deviceExists) {
+            for (BiConsumer<String, HardwareDevice> listener : loadListeners) {
+                listener.accept(deviceName, maybeDevice.requireDevice());
+            }
+        }
+    }
+
+    /**
+     * Registers a function to be notified of every available device in this group.  The function is immediately run
+     *  for every device that has already been loaded, then run again each time another available device is loaded.
+     * @param listener The function to notify, which takes the device's name and the device itself
+     */
+    public void addLoadListener(BiConsumer<String, HardwareDevice> listener) {
+        for (Map.Entry<String, ConditionalHardwareDevice<?>> device : devices.entrySet()) {
+            if (device.getValue().isAvailable()) {
+                listener.accept(device.getKey(), device.getValue().requireDevice());
+            }
+        }
+        loadListeners.add(listener);
     }
 
     /**
@@ -89,6 +121,29 @@ public final class ConditionalHardwareDeviceGroup {
         return expectedClass.cast(device);
     }
 
+    /**
+     * Creates an output that coalesces writes to a device loaded in this group
+     * @param expectedClass The class of the hardware device's expected type
+     * @param deviceName The name of the device
+     * @param writer Writes a value to the device, such as {@code DcMotor::setPower}
+     * @param epsilon The minimum change in value that will be written to the device
+     * @return The output.  If the device is inaccessible, values written to the output are discarded.
+     * @param <T> The expected type of the hardware device
+     * @throws IllegalArgumentException No device with the specified name belongs to this group
+     * @see CoalescedOutput
+     */
+    public <T extends HardwareDevice> CoalescedOutput createOutput(Class<? extends T> expectedClass, String deviceName, ObjDoubleConsumer<T> writer, double epsilon) {
+        final ConditionalHardwareDevice<?> maybeDevice = devices.get(deviceName);
+        if (maybeDevice == null) {
+            throw new IllegalArgumentException("No device was found with the specified name");
+        }
+        if (!maybeDevice.isAvailable()) {
+            return new CoalescedOutput(value -> {}, epsilon);
+        }
+        final T device = expectedClass.cast(maybeDevice.requireDevice());
+        return new CoalescedOutput(value -> writer.accept(device, value), epsilon);
+    }
+
     /**
      * Executes the given code only if all devices in this group are available
      * @param runnable The code to run.
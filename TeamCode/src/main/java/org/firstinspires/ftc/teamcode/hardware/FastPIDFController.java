@@ -0,0 +1,222 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+/**
+ * A PIDF controller that works only with primitives, so running it never allocates.  Its methods are named after
+ *  those of ftclib's {@code PIDFController}, which it replaces.
+ * <p>
+ * Unlike ftclib's controller, this one:
+ * <ul>
+ *     <li>takes the time each measurement was made, so uneven loop periods don't distort the integral or
+ *     derivative terms</li>
+ *     <li>takes the derivative of the measurement rather than of the error, so changing the set point doesn't
+ *     cause a spike in output ("derivative kick")</li>
+ *     <li>can clamp the integral term to {@link #setIntegralLimit(double) a maximum contribution to the output}
+ *     instead of ftclib's clamp of the accumulated error to &plusmn;1, which it uses until told otherwise</li>
+ *     <li>ignores gain updates that don't change anything, so gains can be copied from {@code @Config} fields every
+ *     cycle at no cost</li>
+ * </ul>
+ * The feedforward term is {@code kF * setPoint}, the same as ftclib's.
+ */
+public class FastPIDFController {
+    private double kP, kI, kD, kF;
+
+    private double setPoint = 0;
+
+    private double positionTolerance = 0.05;
+    private double velocityTolerance = Double.POSITIVE_INFINITY;
+
+    /**
+     * The largest magnitude that the integral term ({@code kI * integral}) can contribute to the output, or NaN to
+     *  clamp the accumulated error to &plusmn;1 as ftclib does, which limits the term to {@code |kI|}
+     */
+    private double integralLimit = Double.NaN;
+
+    /**
+     * The accumulated error, in error units times seconds
+     */
+    private double integral = 0;
+
+    /**
+     * The rate of change of the measurement, in measurement units per second
+     */
+    private double measurementRate = 0;
+
+    private boolean hasPreviousMeasurement = false;
+    /**
+     * The last measurement, or 0 before the first, as in ftclib
+     */
+    private double previousMeasurement = 0;
+    private long previousTimestampNanos;
+
+    private double positionError = 0;
+
+    public FastPIDFController(double kp, double ki, double kd, double kf) {
+        kP = kp;
+        kI = ki;
+        kD = kd;
+        kF = kf;
+    }
+
+    public FastPIDFController(double kp, double ki, double kd) {
+        this(kp, ki, kd, 0);
+    }
+
+    /**
+     * Calculates the output of the controller, using the current time as the time of the measurement
+     * @param measurement The current value of the process variable
+     * @return The output of the controller
+     * @see #calculate(double, long)
+     */
+    public double calculate(double measurement) {
+        return calculate(measurement, Clock.nanoTime());
+    }
+
+    /**
+     * Calculates the output of the controller
+     * @param measurement The current value of the process variable
+     * @param timestampNanos When the measurement was made, as given by {@link Clock#nanoTime()}.  If this is the
+     *                       same as the previous measurement's, the integral and derivative terms are not updated.
+     * @return The output of the controller
+     */
+    public double calculate(double measurement, long timestampNanos) {
+        positionError = setPoint - measurement;
+
+        if (hasPreviousMeasurement) {
+            final double dt = (timestampNanos - previousTimestampNanos) * 1e-9;
+            if (dt > 0) {
+                integral += positionError * dt;
+                clampIntegral();
+                measurementRate = (measurement - previousMeasurement) / dt;
+            }
+        }
+        hasPreviousMeasurement = true;
+        previousMeasurement = measurement;
+        previousTimestampNanos = timestampNanos;
+
+        return kP * positionError + kI * integral - kD * measurementRate + kF * setPoint;
+    }
+
+    private void clampIntegral() {
+        final double maxIntegral;
+        if (Double.isNaN(integralLimit)) {
+            maxIntegral = 1;
+        }
+        else if (kI == 0) {
+            return;
+        }
+        else {
+            maxIntegral = integralLimit / Math.abs(kI);
+        }
+        integral = Math.max(-maxIntegral, Math.min(maxIntegral, integral));
+    }
+
+    /**
+     * Sets all the gains at once.  If none of them changed, nothing happens.
+     * @return True if any gain changed, otherwise false
+     */
+    public boolean setPIDF(double kp, double ki, double kd, double kf) {
+        if (kp == kP && ki == kI && kd == kD && kf == kF) {
+            return false;
+        }
+        kP = kp;
+        kI = ki;
+        kD = kd;
+        kF = kf;
+        clampIntegral();
+        return true;
+    }
+
+    /**
+     * Sets the P, I and D gains at once, leaving F unchanged.  If none of them changed, nothing happens.
+     * @return True if any gain changed, otherwise false
+     */
+    public boolean setPID(double kp, double ki, double kd) {
+        return setPIDF(kp, ki, kd, kF);
+    }
+
+    public double getP() {
+        return kP;
+    }
+
+    public double getI() {
+        return kI;
+    }
+
+    public double getD() {
+        return kD;
+    }
+
+    public double getF() {
+        return kF;
+    }
+
+    public void setSetPoint(double sp) {
+        setPoint = sp;
+        // before the first measurement this treats the measurement as 0, so that a new set point isn't taken as reached
+        positionError = setPoint - previousMeasurement;
+    }
+
+    public double getSetPoint() {
+        return setPoint;
+    }
+
+    /**
+     * Sets the tolerance of the position error, leaving the velocity tolerance unchanged
+     * @see #atSetPoint()
+     */
+    public void setTolerance(double positionTolerance) {
+        this.positionTolerance = positionTolerance;
+    }
+
+    /**
+     * Sets the tolerances of the position error and of the velocity (the rate of change of the measurement)
+     * @see #atSetPoint()
+     */
+    public void setTolerance(double positionTolerance, double velocityTolerance) {
+        this.positionTolerance = positionTolerance;
+        this.velocityTolerance = velocityTolerance;
+    }
+
+    /**
+     * Sets the largest magnitude that the integral term can contribute to the output.  Until this is called, the
+     *  accumulated error is clamped to &plusmn;1, as in ftclib.
+     * @param integralLimit The limit, in output units
+     */
+    public void setIntegralLimit(double integralLimit) {
+        this.integralLimit = Math.abs(integralLimit);
+        clampIntegral();
+    }
+
+    /**
+     * Is the controller within tolerance of its set point, as of the last call to {@link #calculate(double, long)}?
+     */
+    public boolean atSetPoint() {
+        return Math.abs(positionError) < positionTolerance && Math.abs(measurementRate) < velocityTolerance;
+    }
+
+    /**
+     * @return The set point minus the last measurement
+     */
+    public double getPositionError() {
+        return positionError;
+    }
+
+    /**
+     * @return The rate of change of the error (the negated rate of change of the measurement), per second
+     */
+    public double getVelocityError() {
+        return -measurementRate;
+    }
+
+    /**
+     * Clears the integral and the previous measurement.  This should be called when the controller resumes after not
+     *  being used for a while, so that the gap isn't treated as one long period.
+     */
+    public void reset() {
+        integral = 0;
+        measurementRate = 0;
+        hasPreviousMeasurement = false;
+    }
+}
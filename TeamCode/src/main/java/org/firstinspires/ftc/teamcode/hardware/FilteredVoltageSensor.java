@@ -0,0 +1,80 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+/**
+ * Wraps a {@link VoltageSensor} so that it is read at most once per sample period, and smooths the readings with an
+ *  exponential moving average.  Reading the battery voltage is a separate hub transaction that isn't covered by bulk
+ *  caching, so reading it every loop slows the loop down; the voltage also doesn't change quickly enough to be worth
+ *  it, and a single noisy reading would otherwise show up directly in the motor powers.
+ */
+public final class FilteredVoltageSensor {
+    /**
+     * The voltage reported until the sensor gives a valid reading, in volts
+     */
+    public static final double NOMINAL_VOLTAGE = 12;
+
+    private final VoltageSensor sensor;
+
+    /**
+     * The minimum time between readings of the sensor, in nanoseconds
+     */
+    private final long samplePeriodNanos;
+
+    /**
+     * How much of each new reading is mixed into the filtered voltage, from 0 (ignore new readings) to 1 (no
+     *  filtering)
+     */
+    private final double filterGain;
+
+    /**
+     * The filtered voltage, or {@link Double#NaN} if the sensor hasn't given a valid reading yet
+     */
+    private double voltage = Double.NaN;
+    private long lastSampleNanos;
+
+    /**
+     * @param sensor The sensor to read
+     * @param samplePeriodMs The minimum time between readings of the sensor, in milliseconds
+     * @param filterGain How much of each new reading is mixed into the filtered voltage, from 0 to 1.  1 disables
+     *                   filtering.
+     * @throws IllegalArgumentException The filter gain is not in (0, 1]
+     */
+    public FilteredVoltageSensor(VoltageSensor sensor, long samplePeriodMs, double filterGain) {
+        if (!(filterGain > 0 && filterGain <= 1)) {
+            throw new IllegalArgumentException("Filter gain must be greater than 0 and at most 1");
+        }
+        this.sensor = sensor;
+        this.samplePeriodNanos = samplePeriodMs * 1_000_000;
+        this.filterGain = filterGain;
+    }
+
+    /**
+     * Gets the filtered voltage, reading the sensor if the sample period has passed since it was last read.  Until
+     *  the sensor has given a valid reading, it is read on every call.
+     * @return The filtered voltage, in volts, or {@link #NOMINAL_VOLTAGE} if there hasn't been a valid reading yet.
+     *  This is always positive.
+     */
+    public double getVoltage() {
+        final long now = Clock.nanoTime();
+        if (Double.isNaN(voltage) || now - lastSampleNanos >= samplePeriodNanos) {
+            lastSampleNanos = now;
+            final double reading = sensor.getVoltage();
+            // a reading of 0 means the hub didn't respond; dividing by it would give infinite motor powers
+            if (reading > 0) {
+                // with nothing to filter against yet, the first reading is used as is
+                voltage = Double.isNaN(voltage) ? reading : voltage + filterGain * (reading - voltage);
+            }
+        }
+        return Double.isNaN(voltage) ? NOMINAL_VOLTAGE : voltage;
+    }
+
+    /**
+     * @return The sensor being filtered
+     */
+    public VoltageSensor getSensor() {
+        return sensor;
+    }
+}
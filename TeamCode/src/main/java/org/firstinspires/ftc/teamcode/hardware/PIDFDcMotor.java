@@ -2,7 +2,6 @@ package org.firstinspires.ftc.teamcode.hardware;
 
 import androidx.annotation.NonNull;
 
-import com.arcrobotics.ftclib.controller.PIDFController;
 import com.qualcomm.robotcore.hardware.DcMotorController;
 import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.HardwareMap;
@@ -12,12 +11,20 @@ import com.qualcomm.robotcore.hardware.configuration.typecontainers.MotorConfigu
 
 import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
 import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+import org.firstinspires.ftc.teamcode.util.Clock;
 
-public class PIDFDcMotor extends PIDFController implements DcMotorEx {
+public class PIDFDcMotor extends FastPIDFController implements DcMotorEx {
     private final DcMotorEx internalMotor;
+
+    /**
+     * All power writes go through this, so that powers the motor already has are never re-sent to the hub
+     */
+    private final CoalescedOutput powerOutput;
+
     public PIDFDcMotor(DcMotorEx motor, double kp, double ki, double kd, double kf) {
         super(kp, ki, kd, kf);
         internalMotor = motor;
+        powerOutput = new CoalescedOutput(internalMotor::setPower);
     }
     public PIDFDcMotor(DcMotorEx motor) {
         this(motor, 0, 0, 0, 0);
@@ -33,9 +40,58 @@ public class PIDFDcMotor extends PIDFController implements DcMotorEx {
     }
 
     public void applyMotorPIDF() {
-        internalMotor.setPower(calculate(internalMotor.getCurrentPosition()));
+        applyMotorPIDF(internalMotor.getCurrentPosition());
+    }
+
+    /**
+     * Sets the motor's power using an encoder position that has already been read
+     * @param currentPosition The motor's current encoder position, in ticks
+     */
+    public void applyMotorPIDF(int currentPosition) {
+        setPower(calculate(currentPosition));
+    }
+
+    /**
+     * Sets the motor's power using an encoder position that has already been read
+     * @param currentPosition The motor's current encoder position, in ticks
+     * @param timestampNanos When the position was read, as given by {@link Clock#nanoTime()}
+     */
+    public void applyMotorPIDF(int currentPosition, long timestampNanos) {
+        setPower(calculate(currentPosition, timestampNanos));
+    }
+
+    /**
+     * Updates the motor's power using an encoder position that has already been read, then checks if the motor has
+     *  reached its set point
+     * @param currentPosition The motor's current encoder position, in ticks
+     * @return True if the motor is within tolerance of its set point, otherwise false
+     * @see #atSetPoint()
+     */
+    public boolean atSetPoint(int currentPosition) {
+        applyMotorPIDF(currentPosition);
+        return super.atSetPoint();
     }
 
+    /**
+     * Updates the motor's power using an encoder position that has already been read, then checks if the motor has
+     *  reached its set point
+     * @param currentPosition The motor's current encoder position, in ticks
+     * @param timestampNanos When the position was read, as given by {@link Clock#nanoTime()}
+     * @return True if the motor is within tolerance of its set point, otherwise false
+     * @see #atSetPoint()
+     */
+    public boolean atSetPoint(int currentPosition, long timestampNanos) {
+        applyMotorPIDF(currentPosition, timestampNanos);
+        return super.atSetPoint();
+    }
+
+    /**
+     * Applies the PIDF until the set point is reached
+     * @deprecated This spins without pausing between updates, which saturates the hub's bus and makes the PIDF's
+     *  {@code dt} jitter.  Write a loop paced by a
+     *  {@link org.firstinspires.ftc.teamcode.modules.core.LoopScheduler LoopScheduler} instead.
+     */
+    @Deprecated
     public void waitUntilPointReached() {
         do {
             applyMotorPIDF();
@@ -48,15 +104,25 @@ public class PIDFDcMotor extends PIDFController implements DcMotorEx {
         return super.atSetPoint();
     }
 
+    /**
+     * Gets the output that all of this motor's power writes go through
+     * @return The motor's power output
+     */
+    public CoalescedOutput getPowerOutput() {
+        return powerOutput;
+    }
+
 
     @Override
     public void setMotorEnable() {
         internalMotor.setMotorEnable();
+        powerOutput.invalidate();
     }
 
     @Override
     public void setMotorDisable() {
         internalMotor.setMotorDisable();
+        powerOutput.invalidate();
     }
 
     @Override
@@ -180,6 +246,7 @@ public class PIDFDcMotor extends PIDFController implements DcMotorEx {
     @Override
     public void setPowerFloat() {
         internalMotor.setPowerFloat();
+        powerOutput.invalidate();
     }
 
     @Override
@@ -210,6 +277,7 @@ public class PIDFDcMotor extends PIDFController implements DcMotorEx {
     @Override
     public void setMode(RunMode mode) {
         internalMotor.setMode(mode);
+        powerOutput.invalidate(); // some modes (e.g. STOP_AND_RESET_ENCODER) stop the motor
     }
 
     @Override
@@ -229,12 +297,16 @@ public class PIDFDcMotor extends PIDFController implements DcMotorEx {
 
     @Override
     public void setPower(double power) {
-        internalMotor.setPower(power);
+        powerOutput.set(power);
     }
 
     @Override
     public double getPower() {
-        return internalMotor.getPower();
+        final double commandedPower = powerOutput.getCommanded();
+        if (Double.isNaN(commandedPower)) {
+            return internalMotor.getPower(); // we don't know what the motor is doing
+        }
+        return commandedPower;
     }
 
     @Override
@@ -1,18 +1,19 @@
 package org.firstinspires.ftc.teamcode.modules;
 
 import com.acmerobotics.dashboard.config.Config;
-import com.arcrobotics.ftclib.controller.PIDController;
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
 import com.qualcomm.robotcore.hardware.TouchSensor;
 
-import org.firstinspires.ftc.robotcore.external.Telemetry;
 import org.firstinspires.ftc.teamcode.hardware.ConditionalHardwareDevice;
 import org.firstinspires.ftc.teamcode.hardware.ConditionalHardwareDeviceGroup;
+import org.firstinspires.ftc.teamcode.hardware.FastPIDFController;
 import org.firstinspires.ftc.teamcode.hardware.PIDFDcMotor;
+import org.firstinspires.ftc.teamcode.modules.core.HardwareSnapshot;
 import org.firstinspires.ftc.teamcode.modules.core.MotorPowerUpdater;
 import org.firstinspires.ftc.teamcode.modules.core.Module;
+import org.firstinspires.ftc.teamcode.modules.core.TelemetryChannels;
 
 /**
  * This module controls the arm, which rotates the intake mechanism around the robot
@@ -43,6 +44,19 @@ public class Arm extends Module implements MotorPowerUpdater {
 
     public static final String POSITION_SWITCH_NAME = "Position Switch";
 
+    /**
+     * The snapshot that all encoder and position switch readings come from
+     */
+    private final HardwareSnapshot snapshot;
+
+    /**
+     * The indices of the arm's devices in {@link #snapshot}, or -1 if the device is unavailable
+     */
+    private final int leftMotorIndex, rightMotorIndex, positionSwitchIndex;
+
+    private final TelemetryChannels.Channel powerChannel, activeChannel, leftPositionChannel, rightPositionChannel,
+            targetPositionChannel, errorChannel, rotationChannel;
+
     /**
      * The offset, in ticks, our intended 'zero position' is from the motor's actual 'zero position'
      * @deprecated this has been abandoned in favor of {@link #baseRotation} for use in resetting the arm
@@ -74,7 +88,7 @@ public class Arm extends Module implements MotorPowerUpdater {
     /**
      * The PID controller used to move the arm to its target position
      */
-    private final PIDController controller;
+    private final FastPIDFController controller;
 
     /**
      * The coefficients for the arm's PIDF controller
@@ -95,8 +109,8 @@ public class Arm extends Module implements MotorPowerUpdater {
         public static double D_COEF = 0.0003;
         /**
          * The feedforward coefficient <br>
-         * @implNote Instead of using ftclib's PIDFController, we use their
-         * PIDController and add a custom feedforward
+         * @implNote The controller's own feedforward (kF times the set point) doesn't suit an arm,
+         * so we leave it at 0 and add a custom feedforward
          */
         public static double F_COEF = 0.15;
         /**
@@ -160,16 +174,36 @@ public class Arm extends Module implements MotorPowerUpdater {
             final PIDFDcMotor rightMotor = motors.requireLoadedDevice(PIDFDcMotor.class, RIGHT_ARM_MOTOR_NAME);
             rightMotor.setDirection(DcMotorSimple.Direction.REVERSE);
             configureMotor(rightMotor);
+
+            // the motors already skip redundant powers; let them be held until the end of each cycle as well
+            getOutputStage().addMotorPower(leftMotor.getPowerOutput());
+            getOutputStage().addMotorPower(rightMotor.getPowerOutput());
         }, () -> getTelemetry().addLine("Failed to load arm motors!"));
         active = true;
 
-        controller = new PIDController(ArmConfig.P_COEF, ArmConfig.I_COEF, ArmConfig.D_COEF);
+        controller = new FastPIDFController(ArmConfig.P_COEF, ArmConfig.I_COEF, ArmConfig.D_COEF);
 
         controller.setPID(ArmConfig.P_COEF, ArmConfig.I_COEF, ArmConfig.D_COEF);
         controller.setTolerance(ArmConfig.TOLERANCE);
 
         positionSwitch = ConditionalHardwareDevice.tryGetHardwareDevice(registrar.hardwareMap, TouchSensor.class, POSITION_SWITCH_NAME);
         baseOffsetTicks = 0;
+
+        snapshot = getHardwareSnapshot();
+        snapshot.track(motors);
+        leftMotorIndex = snapshot.isTracked(LEFT_ARM_MOTOR_NAME) ? snapshot.indexOf(LEFT_ARM_MOTOR_NAME) : -1;
+        rightMotorIndex = snapshot.isTracked(RIGHT_ARM_MOTOR_NAME) ? snapshot.indexOf(RIGHT_ARM_MOTOR_NAME) : -1;
+        positionSwitchIndex = positionSwitch.isAvailable() ?
+                snapshot.register(POSITION_SWITCH_NAME, positionSwitch.requireDevice()) : -1;
+
+        final TelemetryChannels channels = getTelemetryChannels();
+        powerChannel = channels.addChannel("Arm power");
+        activeChannel = channels.addBooleanChannel("[Arm] Is Arm Active");
+        leftPositionChannel = channels.addChannel("[Arm] Current left motor position", "%.0f");
+        rightPositionChannel = channels.addChannel("[Arm] Current right motor position", "%.0f");
+        targetPositionChannel = channels.addChannel("[Arm] Target motor position", "%.0f");
+        errorChannel = channels.addChannel("[Arm] Position error", "%.0f");
+        rotationChannel = channels.addChannel("[Arm] Current arm rotation");
     }
 
     /**
@@ -212,11 +246,12 @@ public class Arm extends Module implements MotorPowerUpdater {
      * Between calling this method and calling any other method on this module that modifies
      * hardware devices, the module is guaranteed to not damage itself or anything else when
      * other modules modify hardware state
+     * @implNote This only targets the moving rotation; the arm gets there as its motor powers are updated each
+     *  cycle.  Waiting here would never end, since the arm's position is only read when a cycle begins.
      */
     @Override
     public void ensureSafety() {
-        // TODO find a safer alternative to rotateArmTo
-        this.rotateArmTo(ARM_ROTATION_MOVING);
+        setTargetRotation(ARM_ROTATION_MOVING);
     }
 
     /**
@@ -246,7 +281,7 @@ public class Arm extends Module implements MotorPowerUpdater {
      * @see #setTargetRotationAbsolute(double)
      */
     public double getCurrentRotationAbsolute() {
-        return (motors.requireLoadedDevice(DcMotor.class, LEFT_ARM_MOTOR_NAME).getCurrentPosition() - baseOffsetTicks) / TICKS_TO_DEGREES;
+        return (snapshot.getPosition(leftMotorIndex) - baseOffsetTicks) / TICKS_TO_DEGREES;
     }
 
     public double getCurrentRotation() {
@@ -266,23 +301,23 @@ public class Arm extends Module implements MotorPowerUpdater {
      */
     @Override
     public void updateMotorPowers() {
-        if (!active) { return; }
-        motors.executeIfAllAreAvailable(() -> {
-            controller.setPID(ArmConfig.P_COEF, ArmConfig.I_COEF, ArmConfig.D_COEF);
-            controller.setTolerance(ArmConfig.TOLERANCE);
-            final DcMotor leftMotor = motors.requireLoadedDevice(DcMotor.class, LEFT_ARM_MOTOR_NAME);
-            final DcMotor rightMotor = motors.requireLoadedDevice(DcMotor.class, RIGHT_ARM_MOTOR_NAME);
-            // use one encoder for safety and apply the same power to both motors
-            double power = controller.calculate(leftMotor.getCurrentPosition());
-            final double feedForward = calculateFeedForward();
-            // only apply feedforward if we arrived (so it does its job) it is in the direction the arm needs to move
-            if (controller.atSetPoint() || Math.signum(controller.getPositionError()) == Math.signum(feedForward)) {
-                power += feedForward;
-            }
-            leftMotor.setPower(power);
-            rightMotor.setPower(power);
-            getTelemetry().addData("Arm power", power);
-        });
+        // checked directly rather than through executeIfAllAreAvailable() so the loop doesn't allocate a lambda
+        if (!active || !motors.areAllDevicesAvailable()) { return; }
+        controller.setPID(ArmConfig.P_COEF, ArmConfig.I_COEF, ArmConfig.D_COEF); // does nothing unless tuned
+        controller.setTolerance(ArmConfig.TOLERANCE);
+        final DcMotor leftMotor = motors.requireLoadedDevice(DcMotor.class, LEFT_ARM_MOTOR_NAME);
+        final DcMotor rightMotor = motors.requireLoadedDevice(DcMotor.class, RIGHT_ARM_MOTOR_NAME);
+        // use one encoder for safety and apply the same power to both motors
+        double power = controller.calculate(snapshot.getPosition(leftMotorIndex), snapshot.getTimestampNanos());
+        final double feedForward = calculateFeedForward();
+        // only apply feedforward if we arrived (so it does its job) it is in the direction the arm needs to move
+        if (controller.atSetPoint() || Math.signum(controller.getPositionError()) == Math.signum(feedForward)) {
+            power += feedForward;
+        }
+        leftMotor.setPower(power);
+        rightMotor.setPower(power);
+        powerChannel.set(power);
+        errorChannel.set(controller.getPositionError());
     }
 
     /**
@@ -295,7 +330,7 @@ public class Arm extends Module implements MotorPowerUpdater {
         // check manually if we are within tolerance since the controller only gets updated with
         // the motor's current position when calculate() is called, which should only happen in
         // updateMotorPowers()
-        if (Math.abs(leftMotor.getCurrentPosition() - controller.getSetPoint()) < ArmConfig.TOLERANCE) {
+        if (Math.abs(snapshot.getPosition(leftMotorIndex) - controller.getSetPoint()) < ArmConfig.TOLERANCE) {
             // we are at our target position
             // since we will return false, the caller won't call updateMotorPowers(), so
             // we need to stop the motors ourselves
@@ -319,7 +354,7 @@ public class Arm extends Module implements MotorPowerUpdater {
      */
     public boolean monitorPositionSwitch() {
         assert motors.areAllDevicesAvailable();
-        if (!positionSwitch.isAvailable() || !positionSwitch.requireDevice().isPressed()) {
+        if (!positionSwitch.isAvailable() || !snapshot.isPressed(positionSwitchIndex)) {
             return false;
         }
         DcMotor leftMotor = motors.requireLoadedDevice(DcMotor.class, LEFT_ARM_MOTOR_NAME);
@@ -332,44 +367,23 @@ public class Arm extends Module implements MotorPowerUpdater {
         rightMotor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
         leftMotor.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
         rightMotor.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+        // the rest of this cycle would otherwise see the positions from before the reset
+        snapshot.zeroPosition(leftMotorIndex);
+        snapshot.zeroPosition(rightMotorIndex);
         baseRotation = ARM_ROTATION_INTERNAL_BASE_RESET;
+        controller.reset(); // the encoders jumped, which would otherwise look like a huge velocity
 //      baseOffsetTicks = DEFAULT_OFFSET_TICKS;
         return true;
     }
 
-    /**
-     * Rotates the arm to the specified rotation, not returning until the arm has finished rotating
-     * @param rotation the target rotation
-     * @deprecated This method is unsafe, as it
-     * a) has the potential to get stuck in an infinite loop if the arm never reaches its destination,
-     * which could lead to a frozen opmode that cannot be gracefully stopped, and
-     * b) does not update any other PID loops that could be running, which could potentially damage
-     * the robot.
-     * Currently, there is no way to resolve these problems without moving the method outside of
-     * this class.
-     * Do not use this method; instead, write your own loop that takes both of these factors into
-     * consideration.
-     */
-    @Deprecated
-    public void rotateArmTo(double rotation) {
-        setTargetRotation(rotation);
-        do {
-            updateMotorPowers();
-            monitorPositionSwitch();
-        } while (!controller.atSetPoint());
-    }
-
     @Override
     public void log() {
-        Telemetry telemetry = getTelemetry();
         if (!motors.areAllDevicesAvailable()) { return; }
-        final DcMotor leftMotor = motors.requireLoadedDevice(DcMotor.class, LEFT_ARM_MOTOR_NAME);
-        final DcMotor rightMotor = motors.requireLoadedDevice(DcMotor.class, RIGHT_ARM_MOTOR_NAME);
 
-        telemetry.addData("[Arm] Is Arm Active", isActive());
-        telemetry.addData("[Arm] Current left motor position", leftMotor.getCurrentPosition());
-        telemetry.addData("[Arm] Current right motor position", rightMotor.getCurrentPosition());
-        telemetry.addData("[Arm] Target motor position", controller.getSetPoint());
-        telemetry.addData("[Arm] Current arm rotation", getCurrentRotation());
+        activeChannel.set(isActive());
+        leftPositionChannel.set(snapshot.getPosition(leftMotorIndex));
+        rightPositionChannel.set(snapshot.getPosition(rightMotorIndex));
+        targetPositionChannel.set(controller.getSetPoint());
+        rotationChannel.set(getCurrentRotation());
     }
 }
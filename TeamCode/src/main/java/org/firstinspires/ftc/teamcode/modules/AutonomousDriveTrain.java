@@ -1,14 +1,15 @@
 package org.firstinspires.ftc.teamcode.modules;
 
 import com.acmerobotics.dashboard.config.Config;
-import com.arcrobotics.ftclib.controller.PIDController;
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.util.ElapsedTime;
 
 import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
 import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
 import org.firstinspires.ftc.robotcore.external.navigation.Pose2D;
+import org.firstinspires.ftc.teamcode.hardware.FastPIDFController;
 import org.firstinspires.ftc.teamcode.modules.core.MotorPowerUpdater;
+import org.firstinspires.ftc.teamcode.util.Clock;
 
 @Config
 public class AutonomousDriveTrain extends FieldCentricDriveTrain implements MotorPowerUpdater {
@@ -19,9 +20,9 @@ public class AutonomousDriveTrain extends FieldCentricDriveTrain implements Moto
     public static final AngleUnit ROTATE_UNIT = AngleUnit.DEGREES;
 
     //PIDs for control
-    private final PIDController xController;
-    private final PIDController yController;
-    private final PIDController hController;
+    private final FastPIDFController xController;
+    private final FastPIDFController yController;
+    private final FastPIDFController hController;
 
     // Timer for information
     ElapsedTime timer = new ElapsedTime();
@@ -39,8 +40,21 @@ public class AutonomousDriveTrain extends FieldCentricDriveTrain implements Moto
     public static double TRANSLATE_TOLERANCE = 0.25;
     public static double ROTATE_TOLERANCE = 2;
 
+    /**
+     * How long after the PIDs run their output takes effect, in milliseconds: roughly one loop until the motor powers
+     *  are written, plus the motors' response.  The PIDs measure the pose predicted for then, so they start braking
+     *  before the robot reaches the target instead of a loop late.  0 uses the latest pose as read.
+     */
+    public static double COMMAND_LATENCY_MILLIS = 15;
+
     private boolean disabled = false;
 
+    /**
+     * The predicted pose, as {x, y, heading}; reused every loop so that predicting doesn't allocate
+     * @see PoseSource#getPredictedPose(long, double[])
+     */
+    private final double[] predictedPose = new double[3];
+
     /**
      * Creates a AutonomousDriveTrain object using the provided opmode
      * Can be used for the entirety of an OpMode by changing the targetPosition
@@ -50,9 +64,9 @@ public class AutonomousDriveTrain extends FieldCentricDriveTrain implements Moto
         super(registrar);
 
         // initialize PID controllers
-        xController = new PIDController(TRANSLATE_P, TRANSLATE_I,TRANSLATE_D);
-        yController = new PIDController(TRANSLATE_P, TRANSLATE_I,TRANSLATE_D);
-        hController = new PIDController(ROTATE_P, ROTATE_I, ROTATE_D);
+        xController = new FastPIDFController(TRANSLATE_P, TRANSLATE_I,TRANSLATE_D);
+        yController = new FastPIDFController(TRANSLATE_P, TRANSLATE_I,TRANSLATE_D);
+        hController = new FastPIDFController(ROTATE_P, ROTATE_I, ROTATE_D);
 
         xController.setTolerance(TRANSLATE_TOLERANCE);
         yController.setTolerance(TRANSLATE_TOLERANCE);
@@ -95,12 +109,33 @@ public class AutonomousDriveTrain extends FieldCentricDriveTrain implements Moto
             return; // If the movement PID is disabled, don't run the movement PID
         }
 
-        final Pose2D currentRobotPose = getRobotPose();
+        // picks up any changes made from the dashboard; these do nothing if the coefficients haven't changed
+        xController.setPID(TRANSLATE_P, TRANSLATE_I, TRANSLATE_D);
+        yController.setPID(TRANSLATE_P, TRANSLATE_I, TRANSLATE_D);
+        hController.setPID(ROTATE_P, ROTATE_I, ROTATE_D);
+        xController.setTolerance(TRANSLATE_TOLERANCE);
+        yController.setTolerance(TRANSLATE_TOLERANCE);
+        hController.setTolerance(ROTATE_TOLERANCE);
+
+        // all three axes come from the same prediction, so they share a timestamp
+        final long timestampNanos = Clock.nanoTime() + (long) (COMMAND_LATENCY_MILLIS * 1e6);
+        final double x, y, h;
+        if (odometry.getPredictedPose(timestampNanos, predictedPose)) {
+            x = TRANSLATE_UNIT.fromUnit(Odometry.distanceUnit, predictedPose[0]);
+            y = TRANSLATE_UNIT.fromUnit(Odometry.distanceUnit, predictedPose[1]);
+            h = ROTATE_UNIT.fromRadians(predictedPose[2]);
+        }
+        else {
+            final Pose2D currentRobotPose = getRobotPose();
+            x = currentRobotPose.getX(TRANSLATE_UNIT);
+            y = currentRobotPose.getY(TRANSLATE_UNIT);
+            h = currentRobotPose.getHeading(ROTATE_UNIT);
+        }
 
         // updates PID controllers with current robot position (for the given axis)
-        final double xPower = xController.calculate(currentRobotPose.getX(TRANSLATE_UNIT));
-        final double yPower = yController.calculate(currentRobotPose.getY(TRANSLATE_UNIT));
-        final double hPower = hController.calculate(currentRobotPose.getHeading(ROTATE_UNIT));
+        final double xPower = xController.calculate(x, timestampNanos);
+        final double yPower = yController.calculate(y, timestampNanos);
+        final double hPower = hController.calculate(h, timestampNanos);
 
         // set driveTrain velocity based on PID controller output
         super.setVelocity(xPower, yPower, hPower);
@@ -0,0 +1,290 @@
+package org.firstinspires.ftc.teamcode.modules;
+
+import com.acmerobotics.dashboard.config.Config;
+import com.qualcomm.hardware.sparkfun.SparkFunOTOS;
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.navigation.Pose2D;
+import org.firstinspires.ftc.teamcode.modules.concurrent.ConcurrentModule;
+import org.firstinspires.ftc.teamcode.modules.concurrent.PeriodicModuleTask;
+import org.firstinspires.ftc.teamcode.modules.core.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A version of {@link Odometry} that reads the OTOS in the background.  The latest pose is published as an immutable
+ *  {@link Sample}, so {@link #getPose()} never waits on the I2C bus.
+ * <p>
+ * Sampling starts as soon as the module is constructed, since the pose is needed during init (to reset
+ *  field-centric driving, for example).
+ */
+@Config
+public class ConcurrentOdometry extends ConcurrentModule implements PoseSource {
+    /**
+     * The time between the start of two OTOS reads, in microseconds.  The OTOS updates its pose at roughly 400 Hz, so
+     *  polling any faster than this only returns duplicate poses.
+     */
+    public static long SAMPLE_PERIOD_MICROS = 2500;
+
+    /**
+     * A pose read from the OTOS, along with when it was read
+     */
+    public static final class Sample {
+        /**
+         * The robot's pose, in {@link Odometry#distanceUnit} and {@link Odometry#angleUnit}
+         */
+        public final Pose2D pose;
+
+        /**
+         * When the pose was read, as given by {@link Clock#nanoTime()}
+         */
+        public final long timestampNanos;
+
+        /**
+         * The number of the sample, starting at 0 and increasing by 1 with every read.  The zero pose published before
+         *  the first read is numbered -1.
+         */
+        public final long sequence;
+
+        private Sample(Pose2D pose, long timestampNanos, long sequence) {
+            this.pose = pose;
+            this.timestampNanos = timestampNanos;
+            this.sequence = sequence;
+        }
+
+        /**
+         * @return How long ago the pose was read, in nanoseconds
+         */
+        public long getAgeNanos() {
+            return Clock.nanoTime() - timestampNanos;
+        }
+    }
+
+    /**
+     * Reads the OTOS every {@link #SAMPLE_PERIOD_MICROS} until the module is cleaned up
+     */
+    private static final class SamplingTask extends PeriodicModuleTask<ConcurrentOdometry> {
+        SamplingTask(ConcurrentOdometry host) {
+            super(host, "OTOS Sampler");
+        }
+
+        @Override
+        protected long getPeriodNanos() {
+            return TimeUnit.MICROSECONDS.toNanos(SAMPLE_PERIOD_MICROS);
+        }
+
+        @Override
+        protected void execute() {
+            host.sample();
+        }
+    }
+
+    private final SparkFunOTOS otos;
+
+    /**
+     * The latest sample.  Only the sampling task writes to this.
+     */
+    private final AtomicReference<Sample> latestSample = new AtomicReference<>();
+
+    /**
+     * The sequence of the last sample returned by {@link #getPose()}
+     */
+    private final AtomicLong lastReadSequence = new AtomicLong(-1);
+
+    /**
+     * The amount of samples that were replaced before {@link #getPose()} could read them
+     */
+    private final AtomicLong droppedSamples = new AtomicLong();
+
+    /**
+     * The amount of OTOS reads that threw an exception
+     */
+    private final AtomicLong failedReads = new AtomicLong();
+
+    /**
+     * Held while the OTOS is read and the result published, and while the pose is overridden, so that a sample read
+     *  before an override can't be published after it
+     */
+    private final Object otosLock = new Object();
+
+    // only touched while holding otosLock
+    private double x;
+    private double y;
+    private double h;
+    private SparkFunOTOS.Pose2D previousPosition = new SparkFunOTOS.Pose2D(0, 0, 0);
+    private long nextSequence = 0;
+
+    /**
+     * Every sample's pose, at the time it was read
+     */
+    private final PoseBuffer poseBuffer = new PoseBuffer();
+
+    private final TelemetryChannels.Channel xChannel, yChannel, headingChannel, sampleAgeChannel;
+    private final TelemetryChannels.Channel readSamplesChannel, droppedSamplesChannel, failedReadsChannel;
+
+    public ConcurrentOdometry(OpMode registrar) {
+        super(registrar, "Odometry");
+
+        otos = registrar.hardwareMap.get(SparkFunOTOS.class, Odometry.OTOS_NAME);
+        Odometry.configureOtos(otos);
+
+        final TelemetryChannels channels = getTelemetryChannels();
+        xChannel = channels.addChannel("[Odometry] x", "%f");
+        yChannel = channels.addChannel("[Odometry] y", "%f");
+        headingChannel = channels.addChannel("[Odometry] h", "%f");
+        sampleAgeChannel = channels.addChannel("[Odometry] sample age (ms)");
+        readSamplesChannel = channels.addChannel("[Odometry] samples read", "%.0f");
+        droppedSamplesChannel = channels.addChannel("[Odometry] samples dropped", "%.0f");
+        failedReadsChannel = channels.addChannel("[Odometry] failed reads", "%.0f");
+
+        // so getPose() always has something to return, even if the first read fails
+        latestSample.set(new Sample(new Pose2D(Odometry.distanceUnit, 0, 0, Odometry.angleUnit, 0),
+                Clock.nanoTime(), -1));
+        sample();
+        exitSetup();
+    }
+
+    @Override
+    protected void registerModuleThreads() {
+        registerAsyncOperation(new SamplingTask(this));
+    }
+
+    /**
+     * Reads the OTOS once and publishes the result
+     */
+    private void sample() {
+        synchronized (otosLock) {
+            final SparkFunOTOS.Pose2D otosPose;
+            try {
+                otosPose = otos.getPosition();
+            }
+            catch (RuntimeException e) {
+                if (failedReads.getAndIncrement() == 0) {
+                    RobotLog.ee(getClass().getSimpleName(), e, "Failed to read the OTOS");
+                }
+                return;
+            }
+
+            x += otosPose.x - previousPosition.x;
+            y += otosPose.y - previousPosition.y;
+            h += otosPose.h - previousPosition.h;
+            previousPosition = otosPose;
+
+            final long timestampNanos = Clock.nanoTime();
+            poseBuffer.add(timestampNanos, x, y, Odometry.angleUnit.toRadians(h));
+            latestSample.set(new Sample(
+                    new Pose2D(Odometry.distanceUnit, x, y, Odometry.angleUnit, h),
+                    timestampNanos,
+                    nextSequence++
+            ));
+        }
+    }
+
+    /**
+     * Gets the latest sample without counting it as read
+     * @return The latest sample
+     */
+    public Sample getLatestSample() {
+        return latestSample.get();
+    }
+
+    /**
+     * Gets the latest pose read from the OTOS.  This does not block.
+     * @return The robot's pose
+     */
+    @Override
+    public Pose2D getPose() {
+        final Sample sample = latestSample.get();
+        final long previousSequence = lastReadSequence.getAndSet(sample.sequence);
+        if (sample.sequence > previousSequence + 1) {
+            droppedSamples.addAndGet(sample.sequence - previousSequence - 1);
+        }
+        return sample.pose;
+    }
+
+    /**
+     * Looks up a pose from the samples read so far.  This does not block on the OTOS.
+     */
+    @Override
+    public Pose2D getPoseAt(long timestampNanos) {
+        return poseBuffer.getPoseAt(timestampNanos);
+    }
+
+    @Override
+    public boolean getPoseAt(long timestampNanos, double[] destination) {
+        return poseBuffer.getPoseAt(timestampNanos, destination);
+    }
+
+    /**
+     * Extrapolates from the samples read so far.  This does not block on the OTOS.
+     */
+    @Override
+    public Pose2D getPredictedPose(long timestampNanos) {
+        return poseBuffer.getPredictedPose(timestampNanos);
+    }
+
+    @Override
+    public boolean getPredictedPose(long timestampNanos, double[] destination) {
+        return poseBuffer.getPredictedPose(timestampNanos, destination);
+    }
+
+    /**
+     * @return How long ago the latest pose was read, in nanoseconds
+     */
+    public long getSampleAgeNanos() {
+        return latestSample.get().getAgeNanos();
+    }
+
+    /**
+     * @return The amount of samples that were replaced before they could be read with {@link #getPose()}
+     */
+    public long getDroppedSamples() {
+        return droppedSamples.get();
+    }
+
+    /**
+     * @return The amount of OTOS reads that failed
+     */
+    public long getFailedReads() {
+        return failedReads.get();
+    }
+
+    /**
+     * Overrides the pose, then reads the OTOS once so that no pose from before the override is returned.  This waits
+     *  for a read in progress on the sampling task, and blocks on the OTOS for the new one.
+     */
+    @Override
+    public void setOdometryPose(double x, double y, double h) {
+        synchronized (otosLock) {
+            otos.setOffset(new SparkFunOTOS.Pose2D(x, y, h));
+            poseBuffer.clear();
+            sample();
+        }
+    }
+
+    @Override
+    public void ensureSafety() {
+
+    }
+
+    @Override
+    public boolean isConnected() {
+        return true;
+    }
+
+    @Override
+    public void log() {
+        final Sample sample = latestSample.get();
+        xChannel.set(sample.pose.getX(Odometry.distanceUnit));
+        yChannel.set(sample.pose.getY(Odometry.distanceUnit));
+        headingChannel.set(sample.pose.getHeading(Odometry.angleUnit));
+        sampleAgeChannel.set(sample.getAgeNanos() / 1e6);
+        readSamplesChannel.set(sample.sequence + 1);
+        droppedSamplesChannel.set(droppedSamples.get());
+        failedReadsChannel.set(failedReads.get());
+    }
+}
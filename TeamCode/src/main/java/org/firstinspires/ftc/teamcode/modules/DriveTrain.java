@@ -8,8 +8,11 @@ import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
 
 import org.firstinspires.ftc.robotcore.external.navigation.Pose2D;
+import org.firstinspires.ftc.teamcode.hardware.CoalescedOutput;
 import org.firstinspires.ftc.teamcode.hardware.ConditionalHardwareDeviceGroup;
 import org.firstinspires.ftc.teamcode.modules.core.Module;
+import org.firstinspires.ftc.teamcode.modules.core.OutputStage;
+import org.firstinspires.ftc.teamcode.modules.core.TelemetryChannels;
 
 /**
  * This module is for the drive train, which moves the robot around.
@@ -73,7 +76,10 @@ public class DriveTrain extends Module {
         return hardwareDevices.requireLoadedDevice(DcMotorEx.class, BACK_LEFT_MECANUM_DRIVER_DEFAULT_NAME);
     }
 
-    protected final Odometry odometry;
+    /**
+     * Where the robot is.  This is a {@link ConcurrentOdometry} if {@link Odometry#SAMPLE_IN_BACKGROUND} is set.
+     */
+    protected final PoseSource odometry;
 
     private Pose2D robotPose;
 
@@ -88,6 +94,15 @@ public class DriveTrain extends Module {
      */
     protected final ConditionalHardwareDeviceGroup hardwareDevices;
 
+    /**
+     * The outputs that the power of each drive motor is written through
+     */
+    private final CoalescedOutput frontRightOutput, frontLeftOutput, backRightOutput, backLeftOutput;
+
+    private final TelemetryChannels.Channel strafeChannel, forwardChannel, rotationChannel;
+    private final TelemetryChannels.Channel frontLeftPowerChannel, frontRightPowerChannel, backLeftPowerChannel, backRightPowerChannel;
+    private final TelemetryChannels.Channel xChannel, yChannel, headingChannel;
+
     /**
      * Attempts to initialize the module by getting motors with the default names from a hardware map
      * @param registrar the OpMode that will be using the module
@@ -121,7 +136,34 @@ public class DriveTrain extends Module {
             getTelemetry().addLine("[Drive Train] Found all drive motors");
         }, () -> getTelemetry().addLine("[Drive Train] Could not find all drive motors!"));
 
-        odometry = new Odometry(registrar);
+        final TelemetryChannels channels = getTelemetryChannels();
+        strafeChannel = channels.addChannel("[Drive Train] strafe");
+        forwardChannel = channels.addChannel("[Drive Train] forward");
+        rotationChannel = channels.addChannel("[Drive Train] rotation");
+        frontLeftPowerChannel = channels.addChannel("[Drive Train] front left power");
+        frontRightPowerChannel = channels.addChannel("[Drive Train] front right power");
+        backLeftPowerChannel = channels.addChannel("[Drive Train] back left power");
+        backRightPowerChannel = channels.addChannel("[Drive Train] back right power");
+        xChannel = channels.addChannel("[Drive Train] x");
+        yChannel = channels.addChannel("[Drive Train] y");
+        headingChannel = channels.addChannel("[Drive Train] heading");
+
+        final OutputStage outputStage = getOutputStage();
+        frontRightOutput = outputStage.addMotorPower(hardwareDevices.createOutput(DcMotorEx.class,
+                FRONT_RIGHT_MECANUM_DRIVER_DEFAULT_NAME, DcMotorEx::setPower, OutputStage.MOTOR_POWER_EPSILON));
+        frontLeftOutput = outputStage.addMotorPower(hardwareDevices.createOutput(DcMotorEx.class,
+                FRONT_LEFT_MECANUM_DRIVER_DEFAULT_NAME, DcMotorEx::setPower, OutputStage.MOTOR_POWER_EPSILON));
+        backRightOutput = outputStage.addMotorPower(hardwareDevices.createOutput(DcMotorEx.class,
+                BACK_RIGHT_MECANUM_DRIVER_DEFAULT_NAME, DcMotorEx::setPower, OutputStage.MOTOR_POWER_EPSILON));
+        backLeftOutput = outputStage.addMotorPower(hardwareDevices.createOutput(DcMotorEx.class,
+                BACK_LEFT_MECANUM_DRIVER_DEFAULT_NAME, DcMotorEx::setPower, OutputStage.MOTOR_POWER_EPSILON));
+
+        if (Odometry.FUSE_SENSORS) {
+            odometry = new FusedOdometry(registrar);
+        }
+        else {
+            odometry = Odometry.SAMPLE_IN_BACKGROUND ? new ConcurrentOdometry(registrar) : new Odometry(registrar);
+        }
         robotPose = odometry.getPose();
     }
 
@@ -162,7 +204,7 @@ public class DriveTrain extends Module {
 
     @Override
     public void cleanupModule() {
-        // nothing to clean up
+        odometry.cleanupModule();
     }
 
     @Override
@@ -190,7 +232,9 @@ public class DriveTrain extends Module {
         hardwareDevices.executeIfAllAreAvailable(() -> {
             final double actualRotation = -rotation;
             double scaledStrafe = strafe * Math.sqrt(3);
-            getTelemetry().addData("[Drive Train] Moving by vector:", "<%f, %f, %f>", strafe, forward, actualRotation);
+            strafeChannel.set(strafe);
+            forwardChannel.set(forward);
+            rotationChannel.set(actualRotation);
 
             // Combine the requests for each axis-motion to determine each wheel's power.
             // (formula was found on gm0)
@@ -218,21 +262,22 @@ public class DriveTrain extends Module {
             leftBackPower = Math.pow(leftBackPower, POWER_SCALE) * SCALE;
 
             // adds telemetry for drivetrain motors
-            getTelemetry().addData("Setting motor power", "%f, %f, %f, %f", leftFrontPower, rightFrontPower, leftBackPower, rightBackPower);
+            frontLeftPowerChannel.set(leftFrontPower);
+            frontRightPowerChannel.set(rightFrontPower);
+            backLeftPowerChannel.set(leftBackPower);
+            backRightPowerChannel.set(rightBackPower);
 
             //updates and adds telemetry for odometry
             robotPose = odometry.getPose();
-            getTelemetry().addData("Robot Position", "x: %f, y: %f, h: %f",
-                    robotPose.getX(Odometry.distanceUnit),
-                    robotPose.getY(Odometry.distanceUnit),
-                    robotPose.getHeading(Odometry.angleUnit)
-            );
-
-            // Send calculated power to wheels
-            getFrontLeftMecanumDriver().setPower(leftFrontPower);
-            getFrontRightMecanumDriver().setPower(rightFrontPower);
-            getBackRightMecanumDriver().setPower(rightBackPower);
-            getBackLeftMecanumDriver().setPower(leftBackPower);
+            xChannel.set(robotPose.getX(Odometry.distanceUnit));
+            yChannel.set(robotPose.getY(Odometry.distanceUnit));
+            headingChannel.set(robotPose.getHeading(Odometry.angleUnit));
+
+            // Send calculated power to wheels (only if it changed)
+            frontLeftOutput.set(leftFrontPower);
+            frontRightOutput.set(rightFrontPower);
+            backRightOutput.set(rightBackPower);
+            backLeftOutput.set(leftBackPower);
         });
     }
 
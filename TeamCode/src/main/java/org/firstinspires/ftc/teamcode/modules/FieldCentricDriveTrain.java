@@ -6,6 +6,7 @@ import com.qualcomm.robotcore.hardware.IMU;
 
 import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
 import org.firstinspires.ftc.teamcode.hardware.ConditionalHardwareDeviceGroup;
+import org.firstinspires.ftc.teamcode.modules.core.TelemetryChannels;
 
 /**
  * This module is for the field-centric drive train, which moves the robot.
@@ -21,6 +22,8 @@ public class FieldCentricDriveTrain extends DriveTrain {
 
     private double headingOffset = 0;
 
+    private final TelemetryChannels.Channel xVelocityChannel, yVelocityChannel, headingChannel;
+
     /**
      * The IMU
      * @apiNote This should only be called within the
@@ -48,6 +51,11 @@ public class FieldCentricDriveTrain extends DriveTrain {
             resetRotation();
             getTelemetry().addLine("[Field Centric Drive Train] Found IMU");
         }, () -> getTelemetry().addLine("[Field Centric Drive Train] Couldn't find IMU!"));
+
+        final TelemetryChannels channels = getTelemetryChannels();
+        xVelocityChannel = channels.addChannel("[Field Centric Drive Train] current x velocity");
+        yVelocityChannel = channels.addChannel("[Field Centric Drive Train] current y velocity");
+        headingChannel = channels.addChannel("[Field Centric Drive Train] bot heading value");
     }
 
     public void resetRotation() {
@@ -71,9 +79,9 @@ public class FieldCentricDriveTrain extends DriveTrain {
             // Rotate the movement direction counter to the robot's rotation
             double rotX = strafe * Math.cos(-botHeading) - forward * Math.sin(-botHeading);
             double rotY = strafe * Math.sin(-botHeading) + forward * Math.cos(-botHeading);
-            getTelemetry().addData("[Field Centric Drive Train] current x velocity", rotX);
-            getTelemetry().addData("[Field Centric Drive Train] current y velocity", rotY);
-            getTelemetry().addData("[Field Centric Drive Train] bot heading value", botHeading);
+            xVelocityChannel.set(rotX);
+            yVelocityChannel.set(rotY);
+            headingChannel.set(botHeading);
             rotX = rotX;  // Counteract imperfect strafing
 
             super.setVelocity(rotX, rotY, rotation);
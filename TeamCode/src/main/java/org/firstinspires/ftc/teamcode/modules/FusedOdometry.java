@@ -0,0 +1,291 @@
+package org.firstinspires.ftc.teamcode.modules;
+
+import com.acmerobotics.dashboard.config.Config;
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.IMU;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Pose2D;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+import org.firstinspires.ftc.teamcode.modules.core.HardwareSnapshot;
+import org.firstinspires.ftc.teamcode.modules.core.Module;
+import org.firstinspires.ftc.teamcode.modules.core.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.roadrunner.MecanumDrive;
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+/**
+ * Estimates the robot's pose by fusing the drive wheel encoders, the IMU and the OTOS in a {@link PoseKalmanFilter}.
+ *  The wheels drive the prediction every cycle; the IMU's heading and the OTOS's pose correct it.  The OTOS is read
+ *  on its own thread by a {@link ConcurrentOdometry}, so its poses arrive a little after they were measured, and the
+ *  filter slots them in at the time they were taken.
+ * <p>
+ * Wheel readings come from the {@link HardwareSnapshot}, so the pose only advances when the OpMode's
+ *  {@code ModuleManager} captures a new cycle.  The wheel geometry is taken from {@link MecanumDrive#PARAMS}; if the
+ *  track width has not been tuned, the wheels contribute no rotation and the heading comes from the IMU and OTOS alone.
+ *  The OTOS's axes are assumed to line up with the robot's (x forward, y left, counterclockwise positive).
+ */
+@Config
+public class FusedOdometry extends Module implements PoseSource {
+    /**
+     * Whether to correct the heading with the IMU.  Each read is a separate I2C transaction.
+     */
+    public static boolean USE_IMU = true;
+
+    /**
+     * The standard deviation of the OTOS's position, in inches
+     */
+    public static double OTOS_POSITION_STD_DEV = 0.5;
+
+    /**
+     * The standard deviation of the OTOS's heading, in radians
+     */
+    public static double OTOS_HEADING_STD_DEV = 0.02;
+
+    /**
+     * The standard deviation of the IMU's heading, in radians
+     */
+    public static double IMU_HEADING_STD_DEV = 0.01;
+
+    /**
+     * The variance added to each robot-relative axis per inch the wheels travel along it, in square inches per inch
+     */
+    public static double WHEEL_VARIANCE_PER_INCH = 0.0025;
+
+    /**
+     * The heading variance added per radian the wheels turn, in square radians per radian
+     */
+    public static double WHEEL_HEADING_VARIANCE_PER_RADIAN = 0.0004;
+
+    /**
+     * The heading variance added per inch the wheels travel, in square radians per inch
+     */
+    public static double WHEEL_HEADING_VARIANCE_PER_INCH = 0.00001;
+
+    /**
+     * How many inputs the filter remembers for slotting in late OTOS poses.  At one prediction, IMU reading and OTOS
+     *  pose per cycle, this covers about 20 cycles.
+     */
+    private static final int HISTORY_CAPACITY = 64;
+
+    private final PoseKalmanFilter filter = new PoseKalmanFilter(HISTORY_CAPACITY);
+
+    /**
+     * The estimate after every update, at the time of the newest input behind it
+     */
+    private final PoseBuffer poseBuffer = new PoseBuffer();
+
+    private final ConcurrentOdometry otos;
+    private long lastOtosSequence = -1;
+
+    private final IMU imu;
+    private boolean hasImuOffset = false;
+    private double imuOffset;
+
+    private final HardwareSnapshot snapshot;
+    /**
+     * The indices of the drive motors in {@link #snapshot}, in the order front left, back left, back right, front
+     *  right, or null if any of them is missing
+     */
+    private final int[] wheelIndices;
+    private final int[] lastWheelPositions = new int[4];
+    /**
+     * The distance each wheel travelled in the last cycle, in inches, in the same order as {@link #wheelIndices}
+     */
+    private final double[] wheelDeltas = new double[4];
+    private long lastCycle = -1;
+
+    private final double[] covariance = new double[9];
+    private final TelemetryChannels.Channel xChannel, yChannel, headingChannel;
+    private final TelemetryChannels.Channel xStdDevChannel, yStdDevChannel, headingStdDevChannel;
+    private final TelemetryChannels.Channel droppedMeasurementsChannel;
+
+    public FusedOdometry(OpMode registrar) {
+        super(registrar);
+
+        otos = new ConcurrentOdometry(registrar);
+
+        imu = registrar.hardwareMap.tryGet(IMU.class, FieldCentricDriveTrain.IMU_NAME);
+        if (imu != null) {
+            imu.initialize(FieldCentricDriveTrain.getImuParameters());
+        }
+
+        snapshot = getHardwareSnapshot();
+        wheelIndices = registerWheels(registrar,
+                DriveTrain.FRONT_LEFT_MECANUM_DRIVER_DEFAULT_NAME,
+                DriveTrain.BACK_LEFT_MECANUM_DRIVER_DEFAULT_NAME,
+                DriveTrain.BACK_RIGHT_MECANUM_DRIVER_DEFAULT_NAME,
+                DriveTrain.FRONT_RIGHT_MECANUM_DRIVER_DEFAULT_NAME);
+
+        filter.reset(Clock.nanoTime(), 0, 0, 0, 0, 0);
+
+        final TelemetryChannels channels = getTelemetryChannels();
+        xChannel = channels.addChannel("[Fused Odometry] x", "%f");
+        yChannel = channels.addChannel("[Fused Odometry] y", "%f");
+        headingChannel = channels.addChannel("[Fused Odometry] h", "%f");
+        xStdDevChannel = channels.addChannel("[Fused Odometry] x std dev (in)");
+        yStdDevChannel = channels.addChannel("[Fused Odometry] y std dev (in)");
+        headingStdDevChannel = channels.addChannel("[Fused Odometry] heading std dev (rad)");
+        droppedMeasurementsChannel = channels.addChannel("[Fused Odometry] inputs dropped for being too late", "%.0f");
+    }
+
+    private int[] registerWheels(OpMode registrar, String... names) {
+        final int[] indices = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            final DcMotorEx motor = registrar.hardwareMap.tryGet(DcMotorEx.class, names[i]);
+            if (motor == null) {
+                getTelemetry().addLine("[Fused Odometry] Couldn't find " + names[i] + "; using the OTOS and IMU only");
+                return null;
+            }
+            indices[i] = snapshot.register(names[i], motor);
+        }
+        return indices;
+    }
+
+    /**
+     * Feeds every new reading into the filter
+     */
+    private void update() {
+        filter.setProcessNoise(WHEEL_VARIANCE_PER_INCH, WHEEL_HEADING_VARIANCE_PER_RADIAN,
+                WHEEL_HEADING_VARIANCE_PER_INCH);
+
+        // cycle 0 means nothing has been captured yet
+        if (wheelIndices != null && snapshot.getCycle() > 0 && snapshot.getCycle() != lastCycle) {
+            predictFromWheels();
+        }
+
+        if (USE_IMU && imu != null) {
+            final YawPitchRollAngles angles = imu.getRobotYawPitchRollAngles();
+            final double yaw = angles.getYaw(AngleUnit.RADIANS);
+            if (!hasImuOffset) {
+                // the IMU's zero is wherever it was initialized; line it up with the estimate
+                imuOffset = filter.getHeading() - yaw;
+                hasImuOffset = true;
+            }
+            final double variance = IMU_HEADING_STD_DEV * IMU_HEADING_STD_DEV;
+            filter.correctHeading(angles.getAcquisitionTime(), yaw + imuOffset, variance);
+        }
+
+        final ConcurrentOdometry.Sample sample = otos.getLatestSample();
+        if (sample != null && sample.sequence != lastOtosSequence) {
+            lastOtosSequence = sample.sequence;
+            filter.correctPose(sample.timestampNanos,
+                    sample.pose.getX(Odometry.distanceUnit),
+                    sample.pose.getY(Odometry.distanceUnit),
+                    sample.pose.getHeading(AngleUnit.RADIANS),
+                    OTOS_POSITION_STD_DEV * OTOS_POSITION_STD_DEV,
+                    OTOS_HEADING_STD_DEV * OTOS_HEADING_STD_DEV);
+        }
+
+        poseBuffer.add(filter.getTimestampNanos(), filter.getX(), filter.getY(), filter.getHeading());
+    }
+
+    private void predictFromWheels() {
+        final long cycle = snapshot.getCycle();
+        final boolean first = lastCycle < 0;
+        lastCycle = cycle;
+
+        final MecanumDrive.Params params = MecanumDrive.PARAMS;
+        for (int i = 0; i < 4; i++) {
+            final int position = snapshot.getPosition(wheelIndices[i]);
+            wheelDeltas[i] = (position - lastWheelPositions[i]) * params.inPerTick;
+            lastWheelPositions[i] = position;
+        }
+        if (first) {
+            return;
+        }
+        final double leftFront = wheelDeltas[0], leftBack = wheelDeltas[1];
+        final double rightBack = wheelDeltas[2], rightFront = wheelDeltas[3];
+
+        // the forward kinematics of MecanumKinematics
+        final double lateralMultiplier = params.inPerTick / params.lateralInPerTick;
+        final double trackWidth = params.inPerTick * params.trackWidthTicks;
+        final double dx = (leftFront + leftBack + rightBack + rightFront) / 4;
+        final double dy = (-leftFront + leftBack - rightBack + rightFront) / 4 / lateralMultiplier;
+        final double dHeading = trackWidth > 0 ? (-leftFront - leftBack + rightBack + rightFront) / 4 / trackWidth : 0;
+        filter.predict(snapshot.getTimestampNanos(), dx, dy, dHeading);
+    }
+
+    /**
+     * @return The fused pose, in {@link Odometry#distanceUnit} and {@link Odometry#angleUnit}
+     */
+    @Override
+    public Pose2D getPose() {
+        update();
+        return new Pose2D(Odometry.distanceUnit, filter.getX(), filter.getY(),
+                Odometry.angleUnit, Odometry.angleUnit.fromRadians(filter.getHeading()));
+    }
+
+    /**
+     * Looks up a pose from the estimates recorded by {@link #getPose()}.  This does not update the filter.
+     */
+    @Override
+    public Pose2D getPoseAt(long timestampNanos) {
+        return poseBuffer.getPoseAt(timestampNanos);
+    }
+
+    @Override
+    public boolean getPoseAt(long timestampNanos, double[] destination) {
+        return poseBuffer.getPoseAt(timestampNanos, destination);
+    }
+
+    /**
+     * Extrapolates from the estimates recorded by {@link #getPose()}.  This does not update the filter.
+     */
+    @Override
+    public Pose2D getPredictedPose(long timestampNanos) {
+        return poseBuffer.getPredictedPose(timestampNanos);
+    }
+
+    @Override
+    public boolean getPredictedPose(long timestampNanos, double[] destination) {
+        return poseBuffer.getPredictedPose(timestampNanos, destination);
+    }
+
+    /**
+     * @param row The row, where 0 is x, 1 is y and 2 is heading
+     * @param column The column, in the same order as the rows
+     * @return An element of the covariance of the pose last returned by {@link #getPose()}, in inches and radians
+     */
+    public double getCovariance(int row, int column) {
+        return filter.getCovariance(row, column);
+    }
+
+    /**
+     * Sets a specific robot position, overriding whatever the sensors think.  The OTOS is given the same pose.
+     */
+    @Override
+    public void setOdometryPose(double x, double y, double h) {
+        otos.setOdometryPose(x, y, h);
+        filter.reset(Clock.nanoTime(), x, y, Odometry.angleUnit.toRadians(h), 0, 0);
+        poseBuffer.clear();
+        hasImuOffset = false;
+    }
+
+    @Override
+    public void ensureSafety() {
+
+    }
+
+    @Override
+    public boolean isConnected() {
+        return otos.isConnected();
+    }
+
+    @Override
+    public void cleanupModule() {
+        otos.cleanupModule();
+    }
+
+    @Override
+    public void log() {
+        xChannel.set(filter.getX());
+        yChannel.set(filter.getY());
+        headingChannel.set(Odometry.angleUnit.fromRadians(filter.getHeading()));
+        filter.copyCovariance(covariance);
+        xStdDevChannel.set(Math.sqrt(covariance[0]));
+        yStdDevChannel.set(Math.sqrt(covariance[4]));
+        headingStdDevChannel.set(Math.sqrt(covariance[8]));
+        droppedMeasurementsChannel.set(filter.getDroppedMeasurements());
+    }
+}
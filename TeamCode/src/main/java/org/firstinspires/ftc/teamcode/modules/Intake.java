@@ -5,10 +5,11 @@ import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.hardware.CRServo;
 import com.qualcomm.robotcore.hardware.Servo;
 
-import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.hardware.CoalescedOutput;
 import org.firstinspires.ftc.teamcode.hardware.ConditionalHardwareDevice;
 import org.firstinspires.ftc.teamcode.modules.core.Module;
 import org.firstinspires.ftc.teamcode.modules.core.ModuleManager;
+import org.firstinspires.ftc.teamcode.modules.core.TelemetryChannels;
 
 /**
  * This module controls the intake, which collects specimens and samples
@@ -20,6 +21,18 @@ public class Intake extends Module {
 
     private final ConditionalHardwareDevice<Servo> wristServo;
 
+    /**
+     * The output that the intake servo's power is written through
+     */
+    private final CoalescedOutput intakeOutput;
+
+    /**
+     * The output that the wrist servo's position is written through
+     */
+    private final CoalescedOutput wristOutput;
+
+    private final TelemetryChannels.Channel intakePowerChannel, wristOffsetChannel;
+
     private double currentWristPosition = WRIST_POSITION_MOVING;
 
     // Names of the servos on the robot configuration
@@ -77,6 +90,15 @@ public class Intake extends Module {
         intakeServo = ConditionalHardwareDevice.tryGetHardwareDevice(registrar.hardwareMap, CRServo.class, INTAKE_SERVO_NAME);
         wristServo = ConditionalHardwareDevice.tryGetHardwareDevice(registrar.hardwareMap, Servo.class, WRIST_SERVO_NAME);
         wristActive = true;
+
+        intakeOutput = getOutputStage().addMotorPower(
+                intakeServo.createOutput(CRServo::setPower, CoalescedOutput.DEFAULT_EPSILON));
+        wristOutput = getOutputStage().addServoPosition(
+                wristServo.createOutput(Servo::setPosition, CoalescedOutput.DEFAULT_EPSILON));
+
+        final TelemetryChannels channels = getTelemetryChannels();
+        intakePowerChannel = channels.addChannel("Current Wrist Servo Power");
+        wristOffsetChannel = channels.addChannel("Current wrist offset");
     }
 
     /**
@@ -107,9 +129,7 @@ public class Intake extends Module {
      * The intake will stay in this mode until either {@link #grab()} or {@link #settle()} is called.
      */
     public void eject() {
-        intakeServo.runIfAvailable(i -> {
-            i.setPower(SERVO_SPEED_EJECT);
-        });
+        intakeOutput.set(SERVO_SPEED_EJECT);
     }
 
     /**
@@ -117,18 +137,14 @@ public class Intake extends Module {
      * The intake will stay in this mode until either {@link #eject()} or {@link #settle()} is called.
      */
     public void grab() {
-        intakeServo.runIfAvailable(i -> {
-            i.setPower(-SERVO_SPEED_GRAB);
-        });
+        intakeOutput.set(-SERVO_SPEED_GRAB);
     }
 
     /**
      * Sets the intake to hold the object it has
      */
     public void settle() {
-        intakeServo.runIfAvailable(i -> {
-            i.setPower(0);
-        });
+        intakeOutput.set(0);
     }
 
     /**
@@ -137,16 +153,17 @@ public class Intake extends Module {
      */
     public void turn() {
         wristServo.runIfAvailable(w -> {
-            if (w.getPosition() == 0.0) {
-                w.setPosition(0.5);
-            } else if (w.getPosition() == 0.5) {
-                w.setPosition(0.0);
+            if (wristOutput.getCommanded() == 0.0) {
+                wristOutput.set(0.5);
+            } else if (wristOutput.getCommanded() == 0.5) {
+                wristOutput.set(0.0);
             }
         });
     }
 
     /**
-     * Sets the wrist to its current rotation
+     * Sets the wrist to its current rotation.  This is cheap to call every cycle, since the position is only written
+     *  to the servo when it changes.
      */
     public void holdWristRotation() {
         moveWristTo(currentWristPosition);
@@ -161,7 +178,7 @@ public class Intake extends Module {
         assert position <= 1.0 && position >= 0.0;
         wristServo.runIfAvailable(w -> {
             currentWristPosition = clampToServoBounds(position + baseWristOffset);
-            w.setPosition(currentWristPosition);
+            wristOutput.set(currentWristPosition);
         });
     }
 
@@ -179,19 +196,16 @@ public class Intake extends Module {
         moveWristTo(prevWristPosition);
     }
     private void deactivateWrist() {
-        prevWristPosition = wristServo.requireDevice().getPosition();
+        prevWristPosition = currentWristPosition;
         moveWristTo(WRIST_POSITION_DEACTIVATED);
     }
 
     @Override
     public void log() {
-        Telemetry telemetry = getTelemetry();
         if(!intakeServo.isAvailable()) {
             return;
         }
-        CRServo intake = intakeServo.requireDevice();
-
-        telemetry.addData("Current Wrist Servo Power", intake.getPower());
-        telemetry.addData("Current wrist offset", baseWristOffset);
+        intakePowerChannel.set(intakeOutput.getCommanded());
+        wristOffsetChannel.set(baseWristOffset);
     }
 }
@@ -5,12 +5,13 @@ import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
 
-import org.firstinspires.ftc.robotcore.external.Telemetry;
 import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
 import org.firstinspires.ftc.teamcode.hardware.ConditionalHardwareDevice;
 import org.firstinspires.ftc.teamcode.hardware.PIDFDcMotor;
+import org.firstinspires.ftc.teamcode.modules.core.HardwareSnapshot;
 import org.firstinspires.ftc.teamcode.modules.core.MotorPowerUpdater;
 import org.firstinspires.ftc.teamcode.modules.core.Module;
+import org.firstinspires.ftc.teamcode.modules.core.TelemetryChannels;
 
 /**
  * This module controls the linear slide, which moves the intake closer and farther
@@ -21,6 +22,19 @@ import org.firstinspires.ftc.teamcode.modules.core.Module;
 public class LinearSlide extends Module implements MotorPowerUpdater {
     private final ConditionalHardwareDevice<PIDFDcMotor> motor;
     public static final String SLIDE_MOTOR_NAME = "Slide Motor";
+
+    /**
+     * The snapshot that all encoder and current readings come from
+     */
+    private final HardwareSnapshot snapshot;
+
+    /**
+     * The index of the slide motor in {@link #snapshot}, or -1 if the motor is unavailable
+     */
+    private final int motorIndex;
+
+    private final TelemetryChannels.Channel positionChannel, currentChannel, currentAlertChannel, targetPositionChannel,
+            errorChannel, powerChannel;
     /**
      * Encoder resolution for the 5203 312 RPM DC Motors used by the arm
      */
@@ -67,7 +81,20 @@ public class LinearSlide extends Module implements MotorPowerUpdater {
 
             m.setPIDF(SlideConfig.P_COEF, SlideConfig.I_COEF, SlideConfig.D_COEF, SlideConfig.F_COEF);
             m.setTolerance(SlideConfig.TOLERANCE);
+
+            getOutputStage().addMotorPower(m.getPowerOutput());
         });
+
+        snapshot = getHardwareSnapshot();
+        motorIndex = motor.isAvailable() ? snapshot.registerWithCurrent(SLIDE_MOTOR_NAME, motor.requireDevice()) : -1;
+
+        final TelemetryChannels channels = getTelemetryChannels();
+        positionChannel = channels.addChannel("[slide] Current slide position", "%.0f");
+        currentChannel = channels.addChannel("[slide] motor current", "%.0f");
+        currentAlertChannel = channels.addChannel("[slide] motor current alert", "%.0f");
+        targetPositionChannel = channels.addChannel("[slide] Target slide position", "%.0f");
+        errorChannel = channels.addChannel("[slide] Position error", "%.0f");
+        powerChannel = channels.addChannel("[slide] power");
     }
 
     /**
@@ -88,7 +115,8 @@ public class LinearSlide extends Module implements MotorPowerUpdater {
      */
     @Override
     public void ensureSafety() {
-        moveSlideTo(SLIDE_HEIGHT_MOVING);
+        // only the target; the slide gets there as its motor power is updated each cycle
+        setTargetHeight(SLIDE_HEIGHT_MOVING);
     }
 
     /**
@@ -99,6 +127,7 @@ public class LinearSlide extends Module implements MotorPowerUpdater {
         motor.runIfAvailable(m -> {
             m.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
             m.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+            snapshot.zeroPosition(motorIndex); // the rest of this cycle would otherwise see the old position
         });
     }
 
@@ -117,25 +146,6 @@ public class LinearSlide extends Module implements MotorPowerUpdater {
         setTargetPosition((int)(height * SLIDE_MAX_EXTENSION_TICKS));
     }
 
-    /**
-     * Moves the slide to the specified height, not returning until that height has been reached
-     * @param height the target height
-     * @deprecated This method is unsafe, as it
-     * a) has the potential to get stuck in an infinite loop if the slide never reaches its destination,
-     * which could lead to a frozen opmode that cannot be gracefully stopped, and
-     * b) does not update any other PID loops that could be running, which could potentially damage
-     * the robot.
-     * Currently, there is no way to resolve these problems without moving the method outside of
-     * this class.
-     * Do not use this method; instead, write your own loop that takes both of these factors into
-     * consideration.
-     */
-    @Deprecated
-    public void moveSlideTo(double height) {
-        setTargetHeight(height);
-        motor.runIfAvailable(PIDFDcMotor::waitUntilPointReached);
-    }
-
     public boolean isMoving() {
         return Math.abs(motor.requireDevice().getPower()) > IDLE_POWER_THRESHOLD;
     }
@@ -145,17 +155,22 @@ public class LinearSlide extends Module implements MotorPowerUpdater {
      */
     @Override
     public void updateMotorPowers() {
-        motor.runIfAvailable(slide -> {
-            if (slide.isOverCurrent()) {
-                slide.setPower(0);
-                slide.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
-                slide.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
-            }
-            slide.setPIDF(SlideConfig.P_COEF, SlideConfig.I_COEF, SlideConfig.D_COEF, SlideConfig.F_COEF);
-            slide.setTolerance(SlideConfig.TOLERANCE);
+        // checked directly rather than through runIfAvailable() so the loop doesn't allocate a lambda
+        if (!motor.isAvailable()) { return; }
+        final PIDFDcMotor slide = motor.requireDevice();
+        if (slide.isOverCurrent()) {
+            slide.setPower(0);
+            slide.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
+            slide.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+            snapshot.zeroPosition(motorIndex); // the rest of this cycle would otherwise see the old position
+            slide.reset(); // the encoder jumped, which would otherwise look like a huge velocity
+        }
+        slide.setPIDF(SlideConfig.P_COEF, SlideConfig.I_COEF, SlideConfig.D_COEF, SlideConfig.F_COEF); // does nothing unless tuned
+        slide.setTolerance(SlideConfig.TOLERANCE);
 
-            slide.applyMotorPIDF();
-        });
+        slide.applyMotorPIDF(snapshot.getPosition(motorIndex), snapshot.getTimestampNanos());
+        errorChannel.set(slide.getPositionError());
+        powerChannel.set(slide.getPowerOutput().getCommanded());
     }
 
     /**
@@ -167,7 +182,7 @@ public class LinearSlide extends Module implements MotorPowerUpdater {
     public boolean isUpdateNecessary() {
         PIDFDcMotor slide = motor.requireDevice();
         slide.setTolerance(SlideConfig.TOLERANCE);
-        if (slide.atSetPoint()) {
+        if (slide.atSetPoint(snapshot.getPosition(motorIndex), snapshot.getTimestampNanos())) {
             // we are at our target position
             // since this method will return false, updateMotorPowers() won't be called, so we have
             // to stop the motors ourselves
@@ -179,13 +194,12 @@ public class LinearSlide extends Module implements MotorPowerUpdater {
 
     @Override
     public void log() {
-        Telemetry telemetry = getTelemetry();
         if (!motor.isAvailable()) { return; }
         PIDFDcMotor slide = motor.requireDevice();
 
-        telemetry.addData("[slide] Current slide position", slide.getCurrentPosition());
-        telemetry.addData("[slide] motor current", slide.getCurrent(CurrentUnit.MILLIAMPS));
-        telemetry.addData("[slide] motor current alert", slide.getCurrentAlert(CurrentUnit.MILLIAMPS));
-        telemetry.addData("[slide] Target slide position", slide.getSetPoint());
+        positionChannel.set(snapshot.getPosition(motorIndex));
+        currentChannel.set(CurrentUnit.MILLIAMPS.convert(snapshot.getCurrent(motorIndex), CurrentUnit.AMPS));
+        currentAlertChannel.set(slide.getCurrentAlert(CurrentUnit.MILLIAMPS));
+        targetPositionChannel.set(slide.getSetPoint());
     }
 }
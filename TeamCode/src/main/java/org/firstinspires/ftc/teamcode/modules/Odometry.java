@@ -8,11 +8,36 @@ import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
 import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
 import org.firstinspires.ftc.robotcore.external.navigation.Pose2D;
 import org.firstinspires.ftc.teamcode.modules.core.Module;
+import org.firstinspires.ftc.teamcode.modules.core.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.util.Clock;
 
 @Config
-public class Odometry extends Module {
+public class Odometry extends Module implements PoseSource {
     public static double ANGULAR_SCALAR = 1.0058;
     public static double LINEAR_SCALAR = 1.0655;
+
+    /**
+     * If true, drive trains read the OTOS on a background thread ({@link ConcurrentOdometry}) instead of blocking on
+     *  it every time the pose is requested.  Off by default until the sampler has been run on the robot.
+     */
+    public static boolean SAMPLE_IN_BACKGROUND = false;
+
+    /**
+     * If true, drive trains estimate the pose with {@link FusedOdometry}, which combines the OTOS with the drive
+     *  encoders and IMU, instead of trusting the OTOS alone.  Takes precedence over {@link #SAMPLE_IN_BACKGROUND}.
+     */
+    public static boolean FUSE_SENSORS = false;
+
+    /**
+     * How far back {@link PoseSource#getPredictedPose(long)} looks to measure the robot's velocity, in milliseconds.
+     *  Longer windows smooth out sensor noise but lag behind changes in speed.
+     */
+    public static double VELOCITY_WINDOW_MILLIS = 50;
+
+    /**
+     * The name of the OTOS in the robot configuration
+     */
+    public static final String OTOS_NAME = "otos";
     private final boolean USE_OTOS = true;
 
     public static final DistanceUnit distanceUnit = DistanceUnit.INCH;
@@ -25,11 +50,31 @@ public class Odometry extends Module {
     private final SparkFunOTOS otos;
     private SparkFunOTOS.Pose2D previousPosition = new SparkFunOTOS.Pose2D(0,0,0);
 
+    /**
+     * Every pose read by {@link #getPose()}.  Nothing is read in between, so the history is only as fine as the
+     *  calls to {@link #getPose()}.
+     */
+    private final PoseBuffer poseBuffer = new PoseBuffer();
+
+    private final TelemetryChannels.Channel xChannel, yChannel, headingChannel;
+
     public Odometry(OpMode registrar){
         super(registrar);
 
-        otos = registrar.hardwareMap.get(SparkFunOTOS.class, "otos");
+        otos = registrar.hardwareMap.get(SparkFunOTOS.class, OTOS_NAME);
+        configureOtos(otos);
+
+        final TelemetryChannels channels = getTelemetryChannels();
+        xChannel = channels.addChannel("[Odometry] x", "%f");
+        yChannel = channels.addChannel("[Odometry] y", "%f");
+        headingChannel = channels.addChannel("[Odometry] h", "%f");
+    }
 
+    /**
+     * Sets up the OTOS and resets its tracking.  Used by both this and {@link ConcurrentOdometry}.
+     * @param otos The OTOS
+     */
+    /* package-private */ static void configureOtos(SparkFunOTOS otos) {
         // sets units for distance and heading
         otos.setLinearUnit(distanceUnit);
         otos.setAngularUnit(angleUnit);
@@ -53,6 +98,7 @@ public class Odometry extends Module {
      * Returns the calculated Pose
      * @return the output of the updateOdometry method, which updates the Pose and returns a Pose2D
      */
+    @Override
     public Pose2D getPose(){
         return updateOdometry();
     }
@@ -63,6 +109,7 @@ public class Odometry extends Module {
      */
     private Pose2D updateOdometry(){
         SparkFunOTOS.Pose2D otosPose = otos.getPosition();
+        final long timestampNanos = Clock.nanoTime();
 
         x += otosPose.x - previousPosition.x;
         y += otosPose.y - previousPosition.y;
@@ -77,19 +124,41 @@ public class Odometry extends Module {
                 );
 
         previousPosition = otosPose;
+        poseBuffer.add(timestampNanos, x, y, angleUnit.toRadians(h));
 
         return realPose;
     }
 
+    @Override
+    public Pose2D getPoseAt(long timestampNanos) {
+        return poseBuffer.getPoseAt(timestampNanos);
+    }
+
+    @Override
+    public boolean getPoseAt(long timestampNanos, double[] destination) {
+        return poseBuffer.getPoseAt(timestampNanos, destination);
+    }
+
+    @Override
+    public Pose2D getPredictedPose(long timestampNanos) {
+        return poseBuffer.getPredictedPose(timestampNanos);
+    }
+
+    @Override
+    public boolean getPredictedPose(long timestampNanos, double[] destination) {
+        return poseBuffer.getPredictedPose(timestampNanos, destination);
+    }
+
     /**
      * can be used to set a specific robot position, overriding whatever the sensors think
      * @param x the x-value of the position being set (can be in whatever reference frame you choose)
      * @param y the y-value of the position being set (can be in whatever reference frame you choose)
      * @param h the h-value of the position being set (can be in whatever reference frame you choose)
      */
+    @Override
     public void setOdometryPose(double x, double y, double h){
         otos.setOffset(new SparkFunOTOS.Pose2D(x, y, h));
-
+        poseBuffer.clear();
     }
 
     @Override
@@ -104,10 +173,8 @@ public class Odometry extends Module {
 
     @Override
     public void log() {
-        getTelemetry().addData("Robot Position", "x: %f, y: %f, h: %f",
-                x,
-                y,
-                h
-        );
+        xChannel.set(x);
+        yChannel.set(y);
+        headingChannel.set(h);
     }
 }
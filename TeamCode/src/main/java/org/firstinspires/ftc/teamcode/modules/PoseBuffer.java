@@ -0,0 +1,84 @@
+package org.firstinspires.ftc.teamcode.modules;
+
+import org.firstinspires.ftc.robotcore.external.navigation.Pose2D;
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.firstinspires.ftc.teamcode.util.PoseHistory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The recent poses behind {@link PoseSource#getPoseAt(long)} and {@link PoseSource#getPredictedPose(long)}.  Every
+ *  pose source records each pose it reads here, along with when it was read.
+ * <p>
+ * Access is synchronized, since {@link ConcurrentOdometry} records from its sampling task while the OpMode thread
+ *  looks poses up.
+ */
+/* package-private */ final class PoseBuffer {
+    /**
+     * How many poses to remember.  At the OTOS's 400 Hz this is a little over half a second.
+     */
+    private static final int CAPACITY = 256;
+
+    private final PoseHistory history = new PoseHistory(CAPACITY);
+    private final double[] pose = new double[3];
+
+    /**
+     * Records a pose.  Poses older than the newest one recorded are ignored.
+     * @param timestampNanos When the robot was at the pose, as given by {@link Clock#nanoTime()}
+     * @param x The x position, in {@link Odometry#distanceUnit}
+     * @param y The y position, in {@link Odometry#distanceUnit}
+     * @param headingRadians The heading, in radians
+     */
+    synchronized void add(long timestampNanos, double x, double y, double headingRadians) {
+        final int size = history.size();
+        if (size > 0 && timestampNanos - history.getTimestampNanos(size - 1) < 0) {
+            return;
+        }
+        history.add(timestampNanos, x, y, headingRadians);
+    }
+
+    /**
+     * Forgets every pose, e.g. after the pose has been overridden
+     */
+    synchronized void clear() {
+        history.clear();
+    }
+
+    /**
+     * @see PoseSource#getPoseAt(long)
+     */
+    synchronized Pose2D getPoseAt(long timestampNanos) {
+        return getPoseAt(timestampNanos, pose) ? toPose2D() : null;
+    }
+
+    /**
+     * @see PoseSource#getPoseAt(long, double[])
+     */
+    synchronized boolean getPoseAt(long timestampNanos, double[] destination) {
+        if (history.size() == 0) {
+            return false;
+        }
+        history.getPoseAt(timestampNanos, destination);
+        return true;
+    }
+
+    /**
+     * @see PoseSource#getPredictedPose(long)
+     */
+    synchronized Pose2D getPredictedPose(long timestampNanos) {
+        return getPredictedPose(timestampNanos, pose) ? toPose2D() : null;
+    }
+
+    /**
+     * @see PoseSource#getPredictedPose(long, double[])
+     */
+    synchronized boolean getPredictedPose(long timestampNanos, double[] destination) {
+        final long windowNanos = TimeUnit.MICROSECONDS.toNanos((long) (Odometry.VELOCITY_WINDOW_MILLIS * 1000));
+        return history.getPredictedPose(timestampNanos, windowNanos, destination);
+    }
+
+    private Pose2D toPose2D() {
+        return new Pose2D(Odometry.distanceUnit, pose[0], pose[1],
+                Odometry.angleUnit, Odometry.angleUnit.fromRadians(pose[2]));
+    }
+}
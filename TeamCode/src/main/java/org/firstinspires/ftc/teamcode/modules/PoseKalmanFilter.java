@@ -0,0 +1,476 @@
+package org.firstinspires.ftc.teamcode.modules;
+
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+/**
+ * An extended Kalman filter that estimates the robot's field pose (x, y, heading) and its covariance.  Robot-relative
+ *  motion (from wheel encoders) drives the prediction; absolute poses (from the OTOS) and headings (from the IMU)
+ *  correct it.
+ * <p>
+ * Every input is timestamped, and inputs may arrive out of order: a measurement that was taken before the latest
+ *  input (e.g. a pose sampled on another thread a few milliseconds ago) is slotted into a fixed-size history of recent
+ *  inputs, and every input after it is replayed.  Inputs older than the history are dropped.
+ * <p>
+ * All state lives in fixed-size primitive arrays, so no step allocates.  Units are up to the caller, except that
+ *  headings are in radians.  The estimated heading is not wrapped, so it is continuous across full turns; heading
+ *  innovations are wrapped.  This class is not thread-safe.
+ */
+public final class PoseKalmanFilter {
+    private static final byte PREDICT = 0;
+    private static final byte CORRECT_POSE = 1;
+    private static final byte CORRECT_HEADING = 2;
+
+    private static final int VALUES_PER_INPUT = 5;
+
+    // the estimate
+    private double x, y, heading;
+    private final double[] covariance = new double[9];
+    private long timestampNanos;
+
+    // process noise
+    private double translationVariancePerDistance;
+    private double headingVariancePerRadian;
+    private double headingVariancePerDistance;
+
+    /*
+     * The history of inputs, oldest first, kept as a circular buffer of parallel arrays.  Each input remembers the
+     *  estimate from just before it was applied, so that the filter can rewind to any input in the history.
+     */
+    private final byte[] inputTypes;
+    private final long[] inputTimestamps;
+    private final double[] inputValues;
+    private final double[] priorStates;
+    private final double[] priorCovariances;
+    private final long[] priorTimestamps;
+    private int start = 0;
+    private int size = 0;
+
+    private long droppedMeasurements = 0;
+
+    // scratch space for the corrections
+    private final double[] gain = new double[9];
+    private final double[] inverse = new double[9];
+    private final double[] scratch = new double[9];
+
+    /**
+     * Creates a filter at the origin with zero covariance
+     * @param historyCapacity How many inputs to remember for slotting in late measurements
+     * @throws IllegalArgumentException The capacity is not positive
+     */
+    public PoseKalmanFilter(int historyCapacity) {
+        if (historyCapacity <= 0) {
+            throw new IllegalArgumentException("History capacity must be positive");
+        }
+        inputTypes = new byte[historyCapacity];
+        inputTimestamps = new long[historyCapacity];
+        inputValues = new double[historyCapacity * VALUES_PER_INPUT];
+        priorStates = new double[historyCapacity * 3];
+        priorCovariances = new double[historyCapacity * 9];
+        priorTimestamps = new long[historyCapacity];
+    }
+
+    /**
+     * Sets how much uncertainty motion adds.  Variances grow linearly with the distance travelled and angle turned in
+     *  each prediction.
+     * @param translationVariancePerDistance The variance added to each robot-relative axis per unit of distance
+     *                                       travelled along it
+     * @param headingVariancePerRadian The heading variance added per radian turned
+     * @param headingVariancePerDistance The heading variance added per unit of distance travelled
+     */
+    public void setProcessNoise(double translationVariancePerDistance, double headingVariancePerRadian,
+                                double headingVariancePerDistance) {
+        this.translationVariancePerDistance = translationVariancePerDistance;
+        this.headingVariancePerRadian = headingVariancePerRadian;
+        this.headingVariancePerDistance = headingVariancePerDistance;
+    }
+
+    /**
+     * Sets the estimate and forgets the history
+     * @param timestampNanos When the robot was at the pose, as given by {@link Clock#nanoTime()}
+     * @param positionVariance The variance of x and y
+     * @param headingVariance The variance of the heading
+     */
+    public void reset(long timestampNanos, double x, double y, double heading,
+                      double positionVariance, double headingVariance) {
+        this.timestampNanos = timestampNanos;
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        for (int i = 0; i < 9; i++) {
+            covariance[i] = 0;
+        }
+        covariance[0] = positionVariance;
+        covariance[4] = positionVariance;
+        covariance[8] = headingVariance;
+        start = 0;
+        size = 0;
+    }
+
+    /**
+     * Moves the estimate by a robot-relative twist
+     * @param timestampNanos When the motion ended, as given by {@link Clock#nanoTime()}
+     * @param dx The motion along the robot's forward axis
+     * @param dy The motion along the robot's left axis
+     * @param dHeading The rotation, in radians, counterclockwise positive
+     * @return False if the motion ended before every remembered input and was dropped
+     */
+    public boolean predict(long timestampNanos, double dx, double dy, double dHeading) {
+        return addInput(PREDICT, timestampNanos, dx, dy, dHeading, 0, 0);
+    }
+
+    /**
+     * Corrects the estimate with a measured field pose
+     * @param timestampNanos When the pose was measured, as given by {@link Clock#nanoTime()}
+     * @param positionVariance The variance of the measured x and y
+     * @param headingVariance The variance of the measured heading
+     * @return False if the measurement was older than every remembered input and was dropped
+     */
+    public boolean correctPose(long timestampNanos, double x, double y, double heading,
+                               double positionVariance, double headingVariance) {
+        return addInput(CORRECT_POSE, timestampNanos, x, y, heading, positionVariance, headingVariance);
+    }
+
+    /**
+     * Corrects the estimate with a measured field heading
+     * @param timestampNanos When the heading was measured, as given by {@link Clock#nanoTime()}
+     * @param heading The heading, in radians; it may be wrapped
+     * @param variance The variance of the measured heading
+     * @return False if the measurement was older than every remembered input and was dropped
+     */
+    public boolean correctHeading(long timestampNanos, double heading, double variance) {
+        return addInput(CORRECT_HEADING, timestampNanos, heading, variance, 0, 0, 0);
+    }
+
+    private boolean addInput(byte type, long timestampNanos,
+                             double value0, double value1, double value2, double value3, double value4) {
+        // find where the input goes: after every input taken at or before it
+        int position = size;
+        while (position > 0 && timestampNanos - inputTimestamps[bufferIndex(position - 1)] < 0) {
+            position--;
+        }
+        if (position == 0) {
+            // the input precedes the whole history, so it can only be applied if the oldest remembered estimate is
+            //  no newer than it
+            final long earliestTimestamp = size > 0 ? priorTimestamps[start] : this.timestampNanos;
+            if (timestampNanos - earliestTimestamp < 0) {
+                droppedMeasurements++;
+                return false;
+            }
+        }
+
+        if (position < size) {
+            // rewind to just before the first input that the new one precedes
+            restorePrior(bufferIndex(position));
+        }
+        if (size == capacity()) {
+            if (position == 0) {
+                // the input would be the oldest in the history, which is full, so apply it without remembering it;
+                //  its effect is kept in the prior estimates of the inputs after it
+                applyInput(type, timestampNanos, value0, value1, value2, value3, value4);
+                replayFrom(0);
+                return true;
+            }
+            // forget the oldest input to make room
+            start = bufferIndex(1);
+            size--;
+            position--;
+        }
+
+        // shift the later inputs back by one
+        for (int i = size; i > position; i--) {
+            copyInput(bufferIndex(i - 1), bufferIndex(i));
+        }
+        size++;
+
+        final int index = bufferIndex(position);
+        inputTypes[index] = type;
+        inputTimestamps[index] = timestampNanos;
+        final int valuesIndex = index * VALUES_PER_INPUT;
+        inputValues[valuesIndex] = value0;
+        inputValues[valuesIndex + 1] = value1;
+        inputValues[valuesIndex + 2] = value2;
+        inputValues[valuesIndex + 3] = value3;
+        inputValues[valuesIndex + 4] = value4;
+
+        replayFrom(position);
+        return true;
+    }
+
+    /**
+     * Applies every input from a position in the history onwards, starting from the current estimate
+     */
+    private void replayFrom(int position) {
+        for (int i = position; i < size; i++) {
+            final int index = bufferIndex(i);
+            savePrior(index);
+            final int valuesIndex = index * VALUES_PER_INPUT;
+            applyInput(inputTypes[index], inputTimestamps[index],
+                    inputValues[valuesIndex], inputValues[valuesIndex + 1], inputValues[valuesIndex + 2],
+                    inputValues[valuesIndex + 3], inputValues[valuesIndex + 4]);
+        }
+    }
+
+    private void applyInput(byte type, long timestampNanos,
+                            double value0, double value1, double value2, double value3, double value4) {
+        switch (type) {
+            case PREDICT:
+                applyPrediction(value0, value1, value2);
+                break;
+            case CORRECT_POSE:
+                applyPoseCorrection(value0, value1, value2, value3, value4);
+                break;
+            case CORRECT_HEADING:
+                applyHeadingCorrection(value0, value1);
+                break;
+        }
+        if (timestampNanos - this.timestampNanos > 0) {
+            this.timestampNanos = timestampNanos;
+        }
+    }
+
+    private void savePrior(int index) {
+        priorStates[index * 3] = x;
+        priorStates[index * 3 + 1] = y;
+        priorStates[index * 3 + 2] = heading;
+        System.arraycopy(covariance, 0, priorCovariances, index * 9, 9);
+        priorTimestamps[index] = timestampNanos;
+    }
+
+    private void restorePrior(int index) {
+        x = priorStates[index * 3];
+        y = priorStates[index * 3 + 1];
+        heading = priorStates[index * 3 + 2];
+        System.arraycopy(priorCovariances, index * 9, covariance, 0, 9);
+        timestampNanos = priorTimestamps[index];
+    }
+
+    private void copyInput(int from, int to) {
+        inputTypes[to] = inputTypes[from];
+        inputTimestamps[to] = inputTimestamps[from];
+        System.arraycopy(inputValues, from * VALUES_PER_INPUT, inputValues, to * VALUES_PER_INPUT, VALUES_PER_INPUT);
+        // the priors are rewritten when the inputs are replayed
+    }
+
+    private int bufferIndex(int i) {
+        final int index = start + i;
+        return index < capacity() ? index : index - capacity();
+    }
+
+    private int capacity() {
+        return inputTypes.length;
+    }
+
+    private void applyPrediction(double dx, double dy, double dHeading) {
+        // the exponential map of se(2), as used by Road Runner's Pose2d.plus(Twist2d)
+        final double s, c;
+        if (Math.abs(dHeading) < 1e-9) {
+            s = 1 - dHeading * dHeading / 6;
+            c = dHeading / 2;
+        }
+        else {
+            s = Math.sin(dHeading) / dHeading;
+            c = (1 - Math.cos(dHeading)) / dHeading;
+        }
+        final double localX = s * dx - c * dy;
+        final double localY = c * dx + s * dy;
+        final double cos = Math.cos(heading);
+        final double sin = Math.sin(heading);
+        final double fieldX = cos * localX - sin * localY;
+        final double fieldY = sin * localX + cos * localY;
+
+        x += fieldX;
+        y += fieldY;
+        heading += dHeading;
+
+        /*
+         * P = F P F^T + Q, where F is the identity except for the dependence of the position on the heading:
+         *  F[0][2] = -fieldY and F[1][2] = fieldX
+         */
+        final double[] p = covariance;
+        final double a = -fieldY;
+        final double b = fieldX;
+        final double p02 = p[2] + a * p[8];
+        final double p12 = p[5] + b * p[8];
+        final double p00 = p[0] + 2 * a * p[2] + a * a * p[8];
+        final double p01 = p[1] + a * p[5] + b * p[2] + a * b * p[8];
+        final double p11 = p[4] + 2 * b * p[5] + b * b * p[8];
+
+        // Q: robot-relative translation noise rotated into the field frame, plus heading noise
+        final double distance = Math.abs(dx) + Math.abs(dy);
+        final double qx = translationVariancePerDistance * Math.abs(dx);
+        final double qy = translationVariancePerDistance * Math.abs(dy);
+        final double qHeading = headingVariancePerRadian * Math.abs(dHeading) + headingVariancePerDistance * distance;
+        final double cos2 = cos * cos;
+        final double sin2 = sin * sin;
+
+        p[0] = p00 + cos2 * qx + sin2 * qy;
+        p[1] = p01 + cos * sin * (qx - qy);
+        p[2] = p02;
+        p[3] = p[1];
+        p[4] = p11 + sin2 * qx + cos2 * qy;
+        p[5] = p12;
+        p[6] = p02;
+        p[7] = p12;
+        p[8] = p[8] + qHeading;
+    }
+
+    private void applyPoseCorrection(double measuredX, double measuredY, double measuredHeading,
+                                     double positionVariance, double headingVariance) {
+        final double[] p = covariance;
+
+        // S = P + R
+        final double[] s = scratch;
+        System.arraycopy(p, 0, s, 0, 9);
+        s[0] += positionVariance;
+        s[4] += positionVariance;
+        s[8] += headingVariance;
+        if (!invert(s, inverse)) {
+            return;
+        }
+
+        // K = P S^-1
+        multiply(p, inverse, gain);
+
+        final double innovationX = measuredX - x;
+        final double innovationY = measuredY - y;
+        final double innovationHeading = angleDifference(heading, measuredHeading);
+        x += gain[0] * innovationX + gain[1] * innovationY + gain[2] * innovationHeading;
+        y += gain[3] * innovationX + gain[4] * innovationY + gain[5] * innovationHeading;
+        heading += gain[6] * innovationX + gain[7] * innovationY + gain[8] * innovationHeading;
+
+        // P = (I - K) P
+        multiply(gain, p, scratch);
+        for (int i = 0; i < 9; i++) {
+            p[i] -= scratch[i];
+        }
+        symmetrize(p);
+    }
+
+    private void applyHeadingCorrection(double measuredHeading, double variance) {
+        final double[] p = covariance;
+        final double s = p[8] + variance;
+        if (!(s > 0)) {
+            return;
+        }
+        // K = P H^T / S, where H selects the heading
+        final double k0 = p[2] / s;
+        final double k1 = p[5] / s;
+        final double k2 = p[8] / s;
+
+        final double innovation = angleDifference(heading, measuredHeading);
+        x += k0 * innovation;
+        y += k1 * innovation;
+        heading += k2 * innovation;
+
+        // P = P - K H P, where H P is the heading row of P
+        final double p20 = p[6], p21 = p[7], p22 = p[8];
+        p[0] -= k0 * p20;
+        p[1] -= k0 * p21;
+        p[2] -= k0 * p22;
+        p[3] -= k1 * p20;
+        p[4] -= k1 * p21;
+        p[5] -= k1 * p22;
+        p[6] -= k2 * p20;
+        p[7] -= k2 * p21;
+        p[8] -= k2 * p22;
+        symmetrize(p);
+    }
+
+    /**
+     * Multiplies two row-major 3x3 matrices
+     */
+    private static void multiply(double[] a, double[] b, double[] destination) {
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                destination[row * 3 + column] = a[row * 3] * b[column]
+                        + a[row * 3 + 1] * b[3 + column]
+                        + a[row * 3 + 2] * b[6 + column];
+            }
+        }
+    }
+
+    /**
+     * Inverts a row-major 3x3 matrix
+     * @return False if the matrix is singular, in which case the destination is unchanged
+     */
+    private static boolean invert(double[] m, double[] destination) {
+        final double c00 = m[4] * m[8] - m[5] * m[7];
+        final double c01 = m[5] * m[6] - m[3] * m[8];
+        final double c02 = m[3] * m[7] - m[4] * m[6];
+        final double determinant = m[0] * c00 + m[1] * c01 + m[2] * c02;
+        if (determinant == 0 || Double.isNaN(determinant)) {
+            return false;
+        }
+        final double inverseDeterminant = 1 / determinant;
+        destination[0] = c00 * inverseDeterminant;
+        destination[1] = (m[2] * m[7] - m[1] * m[8]) * inverseDeterminant;
+        destination[2] = (m[1] * m[5] - m[2] * m[4]) * inverseDeterminant;
+        destination[3] = c01 * inverseDeterminant;
+        destination[4] = (m[0] * m[8] - m[2] * m[6]) * inverseDeterminant;
+        destination[5] = (m[2] * m[3] - m[0] * m[5]) * inverseDeterminant;
+        destination[6] = c02 * inverseDeterminant;
+        destination[7] = (m[1] * m[6] - m[0] * m[7]) * inverseDeterminant;
+        destination[8] = (m[0] * m[4] - m[1] * m[3]) * inverseDeterminant;
+        return true;
+    }
+
+    private static void symmetrize(double[] p) {
+        p[1] = p[3] = (p[1] + p[3]) / 2;
+        p[2] = p[6] = (p[2] + p[6]) / 2;
+        p[5] = p[7] = (p[5] + p[7]) / 2;
+    }
+
+    /**
+     * @return The shortest signed rotation from one angle to another, in [-pi, pi)
+     */
+    private static double angleDifference(double from, double to) {
+        final double difference = to - from;
+        return difference - 2 * Math.PI * Math.floor((difference + Math.PI) / (2 * Math.PI));
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @return The heading, in radians.  This is not wrapped.
+     */
+    public double getHeading() {
+        return heading;
+    }
+
+    /**
+     * @return The time of the newest input applied to the estimate, as given by {@link Clock#nanoTime()}
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /**
+     * @param row The row, where 0 is x, 1 is y and 2 is heading
+     * @param column The column, in the same order as the rows
+     * @return An element of the estimate's covariance
+     */
+    public double getCovariance(int row, int column) {
+        return covariance[row * 3 + column];
+    }
+
+    /**
+     * Copies the estimate's covariance, row-major, into the given array
+     * @param destination Where to copy the covariance; must hold at least 9 values
+     */
+    public void copyCovariance(double[] destination) {
+        System.arraycopy(covariance, 0, destination, 0, 9);
+    }
+
+    /**
+     * @return The amount of inputs that were dropped because they were older than the history
+     */
+    public long getDroppedMeasurements() {
+        return droppedMeasurements;
+    }
+}
@@ -0,0 +1,79 @@
+package org.firstinspires.ftc.teamcode.modules;
+
+import org.firstinspires.ftc.robotcore.external.navigation.Pose2D;
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+/**
+ * Something that knows where the robot is.  Lets drive trains switch between {@link Odometry} and
+ *  {@link ConcurrentOdometry} without caring which one they have.
+ */
+public interface PoseSource {
+    /**
+     * Gets the latest known pose of the robot
+     * @return The robot's pose
+     */
+    Pose2D getPose();
+
+    /**
+     * Finds where the robot was at a recent time, interpolating between the poses read around it.  Useful for
+     *  matching a measurement that was taken a while ago to the pose it was taken from.
+     * @param timestampNanos The time, as given by {@link Clock#nanoTime()}.  Times before the oldest remembered pose
+     *                       or after the newest are clamped to it.
+     * @return The robot's pose, or null if no pose has been read yet
+     */
+    Pose2D getPoseAt(long timestampNanos);
+
+    /**
+     * Like {@link #getPoseAt(long)}, but writes the pose into an array instead of allocating one
+     * @param timestampNanos The time, as given by {@link Clock#nanoTime()}
+     * @param destination Where to write the pose, as {x, y, heading}; must hold at least 3 values.  x and y are in
+     *                    {@link Odometry#distanceUnit}, and the heading is in radians but is not normalized.
+     * @return False if no pose has been read yet (in which case nothing is written), otherwise true
+     */
+    boolean getPoseAt(long timestampNanos, double[] destination);
+
+    /**
+     * Estimates where the robot will be at a time, extrapolating from the latest pose at the robot's velocity over
+     *  the last {@link Odometry#VELOCITY_WINDOW_MILLIS}.  Controllers use this to act on where the robot will be
+     *  when their command takes effect, rather than where it was when the sensors were last read.
+     * @param timestampNanos The time, as given by {@link Clock#nanoTime()}.  Times that have already been read are
+     *                       looked up as in {@link #getPoseAt(long)}.
+     * @return The robot's pose, or null if no pose has been read yet
+     */
+    Pose2D getPredictedPose(long timestampNanos);
+
+    /**
+     * Like {@link #getPredictedPose(long)}, but writes the pose into an array instead of allocating one
+     * @param timestampNanos The time, as given by {@link Clock#nanoTime()}
+     * @param destination Where to write the pose, in the same layout as {@link #getPoseAt(long, double[])}
+     * @return False if no pose has been read yet (in which case nothing is written), otherwise true
+     */
+    boolean getPredictedPose(long timestampNanos, double[] destination);
+
+    /**
+     * Sets a specific robot position, overriding whatever the sensors think
+     * @param x the x-value of the position being set
+     * @param y the y-value of the position being set
+     * @param h the h-value of the position being set
+     */
+    void setOdometryPose(double x, double y, double h);
+
+    /**
+     * Checks if the pose source is connected to the sensors it requires
+     * @return true if the pose can be trusted, false otherwise
+     * @see org.firstinspires.ftc.teamcode.modules.core.Module#isConnected()
+     */
+    boolean isConnected();
+
+    /**
+     * Stops any background work done by the pose source
+     * @see org.firstinspires.ftc.teamcode.modules.core.Module#cleanupModule()
+     */
+    void cleanupModule();
+
+    /**
+     * Logs the pose to telemetry
+     * @see org.firstinspires.ftc.teamcode.modules.core.Module#log()
+     */
+    void log();
+}
@@ -1,26 +1,31 @@
 package org.firstinspires.ftc.teamcode.modules.concurrent;
 
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
-import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.RobotLog;
 import org.firstinspires.ftc.teamcode.modules.core.Module;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 /**
- * Represents a module that utilizes external threads
+ * Represents a module that does work in the background.  The work is split into {@linkplain ModuleTask tasks}, which
+ *  run on the OpMode's shared {@link ModuleExecutor} rather than on threads of the module's own.
  */
 public abstract class ConcurrentModule extends Module {
 
     /**
      * The current state of the module
      * @see ModuleRunState
-     * @implNote This is volatile because it's only set here, but all module threads should be checking this for their
+     * @implNote This is volatile because it's only set here, but all module tasks should be checking this for their
      *  loop condition
      */
     private volatile ModuleRunState state;
 
     /**
      * The time, in milliseconds, that the module will wait after {@link #cleanupModule()} is called before interrupting its
-     * threads.
+     * tasks.
      * @implNote The last time this was updated, the robot's internal robot stuck detector would wait 10000 ms before
      *  force quitting the OpMode.  This should be less than that
      */
@@ -35,131 +40,165 @@ public abstract class ConcurrentModule extends Module {
     }
 
     /**
-     * The thread group all the module's threads are a part of
-     * @implNote This is package-private because it is used in {@link ModuleThread}'s constructors.  It shouldn't be
-     *  visible to child classes.
+     * The name of the module, for logging
      */
-    /* package-private */ final ThreadGroup moduleThreadGroup;
+    private final String name;
 
     /**
-     * Used to notify all module threads that the module's state has transitioned from {@link ModuleRunState#NEW} to
-     * {@link ModuleRunState#INIT}
+     * The executor that the module's tasks run on
      */
-    private final Object threadStartNotifier = new Object();
+    private final ModuleExecutor executor;
 
     /**
-     * Retrieves the module's thread start notifier
-     * @return The notifier
-     * @implNote Set to package-private so that it can be accessed by {@link ModuleThread#run()}, but not by any child classes
-     *  of this or {@link ModuleThread}
+     * The module's tasks, in the order they were registered
      */
-    /* package-private */ final Object getThreadStartNotifier() {
-        return threadStartNotifier;
-    }
+    private final List<ModuleTask<?>> tasks = new ArrayList<>();
+
+    /**
+     * Opened once the module has finished setting up, at which point its tasks are scheduled
+     * @see #exitSetup()
+     */
+    private final CountDownLatch setupComplete = new CountDownLatch(1);
+
+    /**
+     * Opened once the parent {@link OpMode} has entered its main execution loop
+     * @see #startThreads()
+     */
+    private final CountDownLatch started = new CountDownLatch(1);
 
     /**
      * Initializes the module and registers it with the specified OpMode
      *
      * @param registrar The OpMode initializing the module
-     * @param threadGroupName The name of the thread group that will contain all of this module's threads
+     * @param name The name of the module, for logging
      */
-    public ConcurrentModule(OpMode registrar, String threadGroupName) {
+    public ConcurrentModule(OpMode registrar, String name) {
         super(registrar);
-        moduleThreadGroup = new ThreadGroup(threadGroupName);
+        this.name = name;
+        executor = ModuleExecutor.of(registrar);
         state = ModuleRunState.NEW;
         registerModuleThreads();
         state = ModuleRunState.SETUP;
-        // we used to notify module threads to begin execution here.  However, this would lead to the threads attempting
-        //  to access fields that the child constructor had not yet initialized.  Now, we leave the notification to exitSetup()
-        //  (or startThreads() if exitSetup() is never called)
+        // tasks are not scheduled here, since they would then be able to access fields that the child constructor had
+        //  not yet initialized.  They are scheduled by exitSetup() (or startThreads() if exitSetup() is never called)
     }
 
     /**
-     * Signals to module threads that the module has finished setting up the necessary fields for them to function.  This
+     * Signals to module tasks that the module has finished setting up the necessary fields for them to function.  This
      *  method should only be called within the constructor (typically at the very end)
      */
     protected final void exitSetup() {
         if (state == ModuleRunState.SETUP) {
             state = ModuleRunState.INIT;
         }
-        synchronized (threadStartNotifier) {
-            threadStartNotifier.notifyAll();
+        openSetupGate();
+    }
+
+    /**
+     * Schedules the module's tasks, if that hasn't already been done
+     */
+    private synchronized void openSetupGate() {
+        if (setupComplete.getCount() == 0) {
+            return;
+        }
+        setupComplete.countDown();
+        if (state.isTerminated()) {
+            return; // no point running if the module is already terminated
+        }
+        for (ModuleTask<?> task : tasks) {
+            task.start(executor);
         }
     }
 
     /**
-     * Overridden by child classes to register all necessary threads
-     * @see #registerAsyncOperation(ModuleThread)
+     * Overridden by child classes to register all necessary tasks
+     * @see #registerAsyncOperation(ModuleTask)
      */
     protected abstract void registerModuleThreads();
 
     /**
-     * Registers a module thread, which will run asynchronously until the module cleans up (the parent OpMode terminates)
-     * @param thread The thread to register
-     * @throws IllegalStateException Attempted to register a thread outside of {@link #registerModuleThreads()}
-     * @throws IllegalArgumentException The provided {@link ModuleThread} belongs to a different host module
+     * Registers a module task, which will run in the background until the module cleans up (the parent OpMode terminates)
+     * @param task The task to register
+     * @throws IllegalStateException Attempted to register a task outside of {@link #registerModuleThreads()}
+     * @throws IllegalArgumentException The provided {@link ModuleTask} belongs to a different host module
      * @apiNote This should only be called in {@link #registerModuleThreads()}
      */
-    protected final void registerAsyncOperation(ModuleThread<?> thread) {
+    protected final void registerAsyncOperation(ModuleTask<?> task) {
         if (state != ModuleRunState.NEW) {
-            throw new IllegalStateException("Cannot register module threads outside of constructor!");
+            throw new IllegalStateException("Cannot register module tasks outside of constructor!");
         }
 
-        if (thread.host != this) {
-            throw new IllegalArgumentException("Attempted to register a module thread with designated host " + thread.host + " to a separate module " + this);
+        if (task.host != this) {
+            throw new IllegalArgumentException("Attempted to register a module task with designated host " + task.host + " to a separate module " + this);
         }
 
-        thread.start();
+        tasks.add(task);
     }
 
     /**
-     * Signals to this module's threads that the parent {@link OpMode} has entered its main execution loop
+     * Signals to this module's tasks that the parent {@link OpMode} has entered its main execution loop
      */
     public final void startThreads() {
         if (!state.isTerminated()) {
             state = ModuleRunState.RUNNING;
         }
-        synchronized (threadStartNotifier) {
-            threadStartNotifier.notifyAll(); // in case exitSetup() was never called
-        }
+        openSetupGate(); // in case exitSetup() was never called
+        started.countDown();
+    }
+
+    /**
+     * Waits for the parent {@link OpMode} to enter its main execution loop.  Tasks that must not touch hardware until
+     *  then can call this, although a task that blocks holds up one of the executor's few threads while it waits.
+     * @param timeout The longest to wait
+     * @param unit The unit of the timeout
+     * @return true if the OpMode has started, false if the time ran out
+     * @throws InterruptedException The current thread was interrupted while waiting
+     */
+    public final boolean awaitStart(long timeout, TimeUnit unit) throws InterruptedException {
+        return started.await(timeout, unit);
     }
 
     /**
-     * Signals to the module's threads that the parent {@link OpMode} has terminated and interrupts them after the duration
-     * specified by {@link #MODULE_THREAD_TERMINATION_TIMEOUT_MILLIS}
+     * Stops the module's tasks from running again and waits for runs in progress to return.  Runs still going after
+     *  {@link #MODULE_THREAD_TERMINATION_TIMEOUT_MILLIS} are interrupted.
      */
     private void endThreads() {
         state = ModuleRunState.TERMINATED;
-        moduleThreadGroup.interrupt();
-
-        ElapsedTime timer = new ElapsedTime();
-        while (timer.milliseconds() < MODULE_THREAD_TERMINATION_TIMEOUT_MILLIS &&
-                moduleThreadGroup.activeCount() > 0 // we don't have to wait the entire time if all threads end gracefully
-        ) {
-            Thread.yield(); // give the threads a chance to exit gracefully
+        for (ModuleTask<?> task : tasks) {
+            task.cancel();
         }
 
-        // We have to kill all threads before the robot thinks we're stuck and dies painfully
+        final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MODULE_THREAD_TERMINATION_TIMEOUT_MILLIS);
         try {
-            moduleThreadGroup.interrupt(); // last ditch effort for any threads that may just be stuck waiting
-            moduleThreadGroup.destroy();
+            for (ModuleTask<?> task : tasks) {
+                if (!task.join(deadlineNanos - System.nanoTime())) {
+                    // last ditch effort for a task that may just be stuck waiting
+                    task.interrupt();
+                    if (!task.join(TimeUnit.MILLISECONDS.toNanos(MODULE_THREAD_TERMINATION_TIMEOUT_MILLIS))) {
+                        // There isn't much we can do here, apart from recording the error
+                        RobotLog.ee(ConcurrentModule.class.getSimpleName(), "Task " + task.getName() + " of module " + name + " has persisted past termination of the module itself!");
+                    }
+                }
+            }
         }
-        catch (IllegalThreadStateException e) {
-            // There isn't much we can do here, apart from recording the error
-            RobotLog.ee(ConcurrentModule.class.getSimpleName(), "Module threads of module " + getClass().getCanonicalName() + " have persisted past termination of the module itself!");
+        catch (InterruptedException e) {
+            interrupt();
+            Thread.currentThread().interrupt();
         }
     }
 
     /**
-     * Interrupts this module's threads.  This method is a failsafe, and should be used as such in {@link OpMode}s.
-     *  However, it makes no guarantee that the threads will actually shut down.
+     * Interrupts this module's tasks.  This method is a failsafe, and should be used as such in {@link OpMode}s.
+     *  However, it makes no guarantee that the tasks will actually stop.
      */
     public final void interrupt() {
-        moduleThreadGroup.interrupt();
+        for (ModuleTask<?> task : tasks) {
+            task.interrupt();
+        }
     }
 
     /**
-     * Overridden in child classes to clean up the module's state when the parent {@link OpMode}.  Terminates all threads.
+     * Overridden in child classes to clean up the module's state when the parent {@link OpMode}.  Stops all tasks.
      */
     @Override
     public void cleanupModule() {
@@ -0,0 +1,107 @@
+package org.firstinspires.ftc.teamcode.modules.concurrent;
+
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The small, shared pool of threads that runs the {@linkplain ModuleTask tasks} of every {@link ConcurrentModule} in
+ *  an OpMode.  Tasks are short and return between runs, so a couple of threads serve every module instead of each
+ *  module holding threads of its own.
+ * <p>
+ * There is exactly one executor per {@link OpMode}.  It belongs to the OpMode's
+ *  {@link org.firstinspires.ftc.teamcode.modules.core.ModuleManager ModuleManager}, which shuts it down once every
+ *  module has been cleaned up.
+ * @see #of(OpMode)
+ */
+public final class ModuleExecutor {
+    /**
+     * The amount of threads in the pool.  The Control Hub has four cores, which the OpMode's loop and the SDK's own
+     *  threads also need.
+     */
+    public static final int THREAD_COUNT = 2;
+
+    private static final String TAG = "ModuleExecutor";
+
+    /**
+     * The executor belonging to each running OpMode
+     */
+    private static final Map<OpMode, ModuleExecutor> executors = new WeakHashMap<>();
+
+    /**
+     * Gets the executor for the specified OpMode, creating it if it does not yet exist
+     * @param opMode The OpMode
+     * @return The OpMode's executor
+     */
+    public static ModuleExecutor of(OpMode opMode) {
+        synchronized (executors) {
+            ModuleExecutor executor = executors.get(opMode);
+            if (executor == null) {
+                executor = new ModuleExecutor();
+                executors.put(opMode, executor);
+            }
+            return executor;
+        }
+    }
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    private ModuleExecutor() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> {
+            final Thread thread = new Thread(runnable, "Module worker " + threadCount.incrementAndGet());
+            thread.setDaemon(true); // never keep the app alive over a stuck task
+            return thread;
+        };
+        executor = new ScheduledThreadPoolExecutor(THREAD_COUNT, threadFactory);
+        executor.setRemoveOnCancelPolicy(true);
+        // once shut down, runs that haven't started yet are dropped rather than run
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        executor.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Schedules one run of a task
+     * @throws java.util.concurrent.RejectedExecutionException The executor has been shut down
+     */
+    /* package-private */ ScheduledFuture<?> schedule(Runnable task, long delayNanos) {
+        return executor.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return true if {@link #shutdown()} has been called
+     */
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    /**
+     * Stops accepting tasks and waits for runs in progress to return, for at most
+     *  {@link ConcurrentModule#MODULE_THREAD_TERMINATION_TIMEOUT_MILLIS}.  Runs that are still going after that are
+     *  interrupted.  Modules should have cancelled their own tasks before this is called.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (executor.awaitTermination(ConcurrentModule.MODULE_THREAD_TERMINATION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+            executor.shutdownNow();
+            if (!executor.awaitTermination(ConcurrentModule.MODULE_THREAD_TERMINATION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                // There isn't much we can do here, apart from recording the error
+                RobotLog.ee(TAG, "Module tasks have persisted past the end of the OpMode!");
+            }
+        }
+        catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
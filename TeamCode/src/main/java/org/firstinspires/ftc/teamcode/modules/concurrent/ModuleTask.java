@@ -0,0 +1,181 @@
+package org.firstinspires.ftc.teamcode.modules.concurrent;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background work belonging to a {@link ConcurrentModule}, run on its OpMode's {@link ModuleExecutor}.  A task runs
+ *  once each time it is {@linkplain #trigger() triggered}; see {@link PeriodicModuleTask} for tasks that run on their
+ *  own at a fixed rate.  A task never runs on two threads at once, and it does not start running until its host has
+ *  {@linkplain ConcurrentModule#exitSetup() finished setting up}.
+ * <p>
+ * Cancellation is cooperative.  Once the host is cleaned up, the task is not run again, and a run that is in progress
+ *  should return promptly (any loop in {@link #execute()} should check {@code host.getState().isTerminated()}).  Only
+ *  a run that outlasts {@link ConcurrentModule#MODULE_THREAD_TERMINATION_TIMEOUT_MILLIS} is interrupted.
+ * @param <T> The type of the host module
+ */
+public abstract class ModuleTask<T extends ConcurrentModule> implements Runnable {
+    protected final T host;
+    private final String name;
+
+    /**
+     * Counted down once the task has been cancelled and is not running
+     */
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    // all guarded by this
+    private ModuleExecutor executor;
+    private ScheduledFuture<?> future;
+    private boolean running = false;
+    private boolean triggered = false;
+    private boolean cancelled = false;
+
+    public ModuleTask(T host, String name) {
+        this.host = host;
+        this.name = name;
+    }
+
+    /**
+     * @return The name of the task, for logging
+     */
+    public final String getName() {
+        return name;
+    }
+
+    /**
+     * Does one run's worth of work.  This should not block for longer than it has to, since other modules' tasks
+     *  share the executor's threads.
+     * @throws InterruptedException The task was interrupted; it will not run again
+     */
+    protected abstract void execute() throws InterruptedException;
+
+    /**
+     * Decides when the task next runs on its own
+     * @param nowNanos The current time, as given by {@link System#nanoTime()}
+     * @param first true if the task has not run yet
+     * @return How long to wait before the next run, in nanoseconds, or a negative number to wait until triggered
+     */
+    /* package-private */ long nextDelayNanos(long nowNanos, boolean first) {
+        return -1;
+    }
+
+    /**
+     * Runs the task as soon as a thread is free.  If the task is running, it runs once more after it returns; any
+     *  number of triggers before then still only cause one more run.  Triggers before the host has finished setting
+     *  up are held until then.
+     */
+    public final synchronized void trigger() {
+        if (cancelled || triggered) {
+            return;
+        }
+        triggered = true;
+        if (executor != null && !running) {
+            if (future != null) {
+                future.cancel(false);
+            }
+            scheduleAfter(0);
+        }
+    }
+
+    /**
+     * Starts scheduling the task.  Called by the host once it has finished setting up.
+     */
+    /* package-private */ final synchronized void start(ModuleExecutor executor) {
+        if (cancelled || this.executor != null) {
+            return;
+        }
+        this.executor = executor;
+        final long delayNanos = triggered ? 0 : nextDelayNanos(System.nanoTime(), true);
+        if (delayNanos >= 0) {
+            scheduleAfter(delayNanos);
+        }
+    }
+
+    private void scheduleAfter(long delayNanos) {
+        try {
+            future = executor.schedule(this, delayNanos);
+        }
+        catch (RejectedExecutionException e) {
+            // the OpMode is over
+            cancelled = true;
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Runs the task once.  This is only meant to be called by the executor.
+     */
+    @Override
+    public final void run() {
+        synchronized (this) {
+            if (cancelled || running) {
+                return;
+            }
+            running = true;
+            triggered = false;
+        }
+
+        boolean stop = false;
+        try {
+            execute();
+        }
+        catch (InterruptedException e) {
+            stop = true; // interrupts are our signal to stop running
+        }
+        catch (RuntimeException e) {
+            RobotLog.ee(host.getClass().getSimpleName(), e, "Task " + name + " failed and will not run again");
+            stop = true;
+        }
+
+        synchronized (this) {
+            running = false;
+            if (stop) {
+                cancelled = true;
+            }
+            if (cancelled) {
+                finished.countDown();
+                return;
+            }
+            final long delayNanos = triggered ? 0 : nextDelayNanos(System.nanoTime(), false);
+            if (delayNanos >= 0) {
+                scheduleAfter(delayNanos);
+            }
+        }
+    }
+
+    /**
+     * Stops the task from running again.  A run in progress is left to finish.
+     */
+    /* package-private */ final synchronized void cancel() {
+        cancelled = true;
+        if (future != null) {
+            future.cancel(false);
+        }
+        if (!running) {
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Interrupts a run in progress
+     */
+    /* package-private */ final synchronized void interrupt() {
+        if (running && future != null) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Waits for the task to be cancelled and any run in progress to return
+     * @param timeoutNanos The longest to wait
+     * @return true if the task has finished, false if the time ran out
+     * @throws InterruptedException The current thread was interrupted while waiting
+     */
+    /* package-private */ final boolean join(long timeoutNanos) throws InterruptedException {
+        return finished.await(timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,38 @@
+package org.firstinspires.ftc.teamcode.modules.concurrent;
+
+/**
+ * A {@link ModuleTask} that runs on its own at a fixed rate.  Runs are spaced one period apart from start to start, so
+ *  the rate does not drift with the time each run takes.  If a run takes longer than the period, the next one starts
+ *  right away; missed runs are skipped rather than made up for.
+ * @param <T> The type of the host module
+ */
+public abstract class PeriodicModuleTask<T extends ConcurrentModule> extends ModuleTask<T> {
+    /**
+     * When the latest run was due to start, as given by {@link System#nanoTime()}
+     */
+    private long deadlineNanos;
+
+    public PeriodicModuleTask(T host, String name) {
+        super(host, name);
+    }
+
+    /**
+     * @return The time between the starts of two runs, in nanoseconds.  This is read before every run, so it can
+     *  follow a tunable value.  Values of 0 or less run the task back to back.
+     */
+    protected abstract long getPeriodNanos();
+
+    @Override
+    /* package-private */ final long nextDelayNanos(long nowNanos, boolean first) {
+        final long periodNanos = getPeriodNanos();
+        if (first || periodNanos <= 0) {
+            deadlineNanos = nowNanos;
+            return 0;
+        }
+        deadlineNanos += periodNanos;
+        if (deadlineNanos - nowNanos < 0) {
+            deadlineNanos = nowNanos;
+        }
+        return deadlineNanos - nowNanos;
+    }
+}
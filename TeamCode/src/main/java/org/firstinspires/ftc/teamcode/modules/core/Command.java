@@ -0,0 +1,115 @@
+package org.firstinspires.ftc.teamcode.modules.core;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * An action that takes one or more control loop cycles, such as moving the arm or driving to a pose.  Commands are
+ *  run by a {@link CommandScheduler}, which ticks every running command once per cycle, so several can make progress
+ *  at the same time.
+ * <p>
+ * Each command declares the subsystems (usually {@linkplain org.firstinspires.ftc.teamcode.modules.core.Module
+ *  modules}) it requires.  Only one command may use a subsystem at a time: scheduling a command interrupts any running
+ *  command that shares a subsystem with it.
+ * <p>
+ * Commands are combined with {@link Commands#sequence(Command...)}, {@link Commands#parallel(Command...)},
+ *  {@link Commands#race(Command...)} and {@link Commands#deadline(Command, Command...)}, or with the matching
+ *  methods on this class.  A command should only be part of one group, and should not be reused while it is running.
+ */
+public abstract class Command {
+    private final Set<Object> requirements = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * @param requirements The subsystems the command uses
+     */
+    protected Command(Object... requirements) {
+        addRequirements(requirements);
+    }
+
+    /**
+     * Adds subsystems that the command uses.  This should only be called from the constructor.
+     */
+    protected final void addRequirements(Object... requirements) {
+        Collections.addAll(this.requirements, requirements);
+    }
+
+    /**
+     * @return The subsystems that the command uses
+     */
+    public final Set<Object> getRequirements() {
+        return Collections.unmodifiableSet(requirements);
+    }
+
+    /**
+     * Called once when the command starts
+     */
+    public void initialize() {
+
+    }
+
+    /**
+     * Called once every cycle while the command is running, before {@link #isFinished()}
+     */
+    public void execute() {
+
+    }
+
+    /**
+     * Checked once every cycle after {@link #execute()}
+     * @return true if the command is done, false if it should keep running
+     */
+    public abstract boolean isFinished();
+
+    /**
+     * Called once when the command stops
+     * @param interrupted true if the command was stopped before it finished, false if {@link #isFinished()} returned
+     *                    true
+     */
+    public void end(boolean interrupted) {
+
+    }
+
+    /**
+     * @param timeoutMs How long the command can run for, in milliseconds
+     * @return A command that runs this one, but interrupts it once the time is up
+     */
+    public Command withTimeout(long timeoutMs) {
+        return Commands.race(this, Commands.waitMillis(timeoutMs));
+    }
+
+    /**
+     * @return A command that runs this one, then each of the others in order
+     */
+    public Command andThen(Command... next) {
+        return Commands.sequence(prepend(next));
+    }
+
+    /**
+     * @return A command that runs this one and the others at the same time, until they have all finished
+     */
+    public Command alongWith(Command... others) {
+        return Commands.parallel(prepend(others));
+    }
+
+    /**
+     * @return A command that runs this one and the others at the same time, until any of them finishes
+     */
+    public Command raceWith(Command... others) {
+        return Commands.race(prepend(others));
+    }
+
+    /**
+     * @return A command that runs this one and the others at the same time, until this one finishes
+     */
+    public Command deadlineWith(Command... others) {
+        return Commands.deadline(this, others);
+    }
+
+    private Command[] prepend(Command[] others) {
+        final Command[] commands = new Command[others.length + 1];
+        commands[0] = this;
+        System.arraycopy(others, 0, commands, 1, others.length);
+        return commands;
+    }
+}
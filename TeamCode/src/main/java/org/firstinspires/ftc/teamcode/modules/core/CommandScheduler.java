@@ -0,0 +1,117 @@
+package org.firstinspires.ftc.teamcode.modules.core;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs {@linkplain Command commands}.  The OpMode calls {@link #run()} once per control loop cycle, which ticks every
+ *  scheduled command, so a mechanism can move while the robot drives instead of each waiting for the other.
+ * <p>
+ * A subsystem can only be used by one scheduled command at a time.  Scheduling a command interrupts any scheduled
+ *  command that requires one of the same subsystems.
+ * <p>
+ * Running the scheduled commands does not allocate.  Commands should not schedule or cancel other commands from
+ *  within their own methods.
+ */
+public final class CommandScheduler {
+    /**
+     * The scheduled commands, in the order they were scheduled
+     */
+    private final List<Command> scheduled = new ArrayList<>();
+
+    /**
+     * The scheduled command using each subsystem
+     */
+    private final Map<Object, Command> owners = new IdentityHashMap<>();
+
+    /**
+     * Starts a command, interrupting any scheduled commands that require the same subsystems.  Does nothing if the
+     *  command is already scheduled.
+     * @param command The command to start
+     */
+    public void schedule(Command command) {
+        if (isScheduled(command)) {
+            return;
+        }
+        for (Object requirement : command.getRequirements()) {
+            final Command owner = owners.get(requirement);
+            if (owner != null) {
+                cancel(owner);
+            }
+        }
+        for (Object requirement : command.getRequirements()) {
+            owners.put(requirement, command);
+        }
+        scheduled.add(command);
+        command.initialize();
+    }
+
+    /**
+     * Ticks every scheduled command once, removing those that have finished.  Call this once per cycle.
+     */
+    public void run() {
+        for (int i = 0; i < scheduled.size(); ) {
+            final Command command = scheduled.get(i);
+            command.execute();
+            if (command.isFinished()) {
+                remove(i);
+                command.end(false);
+            }
+            else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Stops a command before it has finished.  Does nothing if the command is not scheduled.
+     * @param command The command to stop
+     */
+    public void cancel(Command command) {
+        final int index = scheduled.indexOf(command);
+        if (index < 0) {
+            return;
+        }
+        remove(index);
+        command.end(true);
+    }
+
+    /**
+     * Stops every scheduled command
+     */
+    public void cancelAll() {
+        while (!scheduled.isEmpty()) {
+            cancel(scheduled.get(scheduled.size() - 1));
+        }
+    }
+
+    private void remove(int index) {
+        final Command command = scheduled.remove(index);
+        for (Object requirement : command.getRequirements()) {
+            owners.remove(requirement);
+        }
+    }
+
+    /**
+     * @return true if the command has been scheduled and has not yet finished or been cancelled
+     */
+    public boolean isScheduled(Command command) {
+        return scheduled.contains(command);
+    }
+
+    /**
+     * @return true if no commands are scheduled
+     */
+    public boolean isIdle() {
+        return scheduled.isEmpty();
+    }
+
+    /**
+     * @return The command using a subsystem, or null if none is
+     */
+    public Command getOwner(Object subsystem) {
+        return owners.get(subsystem);
+    }
+}
@@ -0,0 +1,158 @@
+package org.firstinspires.ftc.teamcode.modules.core;
+
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.firstinspires.ftc.teamcode.util.StaticClass;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Factories for common {@linkplain Command commands} and for combining commands
+ */
+public final class Commands extends StaticClass {
+    /**
+     * @return A command that runs the given commands one after another
+     */
+    public static Command sequence(Command... commands) {
+        return new SequentialCommand(commands);
+    }
+
+    /**
+     * @return A command that runs the given commands at the same time, until they have all finished
+     * @throws IllegalArgumentException Two of the commands share a subsystem
+     */
+    public static Command parallel(Command... commands) {
+        return new ParallelCommand(ParallelCommand.EndCondition.ALL, commands);
+    }
+
+    /**
+     * @return A command that runs the given commands at the same time, until any of them finishes.  The rest are
+     *  interrupted.
+     * @throws IllegalArgumentException Two of the commands share a subsystem
+     */
+    public static Command race(Command... commands) {
+        return new ParallelCommand(ParallelCommand.EndCondition.ANY, commands);
+    }
+
+    /**
+     * @param deadline The command that decides when the group ends
+     * @return A command that runs all the given commands at the same time, until the deadline finishes.  The rest are
+     *  interrupted.
+     * @throws IllegalArgumentException Two of the commands share a subsystem
+     */
+    public static Command deadline(Command deadline, Command... others) {
+        final Command[] commands = new Command[others.length + 1];
+        commands[0] = deadline;
+        System.arraycopy(others, 0, commands, 1, others.length);
+        return new ParallelCommand(ParallelCommand.EndCondition.FIRST, commands);
+    }
+
+    /**
+     * @param durationMs How long to wait, in milliseconds
+     * @return A command that does nothing until the time is up
+     */
+    public static Command waitMillis(long durationMs) {
+        final long durationNanos = durationMs * 1_000_000;
+        return new Command() {
+            private long startNanos;
+
+            @Override
+            public void initialize() {
+                startNanos = Clock.nanoTime();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return Clock.nanoTime() - startNanos >= durationNanos;
+            }
+        };
+    }
+
+    /**
+     * @param condition Checked once every cycle
+     * @return A command that does nothing until the condition is true
+     */
+    public static Command waitUntil(BooleanSupplier condition) {
+        return new Command() {
+            @Override
+            public boolean isFinished() {
+                return condition.getAsBoolean();
+            }
+        };
+    }
+
+    /**
+     * @param action The action to run, e.g. setting a mechanism's target
+     * @param requirements The subsystems the action uses
+     * @return A command that runs the action once when it starts, then finishes immediately
+     */
+    public static Command runOnce(Runnable action, Object... requirements) {
+        return new Command(requirements) {
+            @Override
+            public void initialize() {
+                action.run();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Creates a command when it starts rather than up front, for commands that depend on the robot's state at the
+     *  time (such as a move relative to the current pose)
+     * @param factory Creates the command to run.  Called each time the returned command starts.
+     * @param requirements The subsystems that the created command may use
+     * @return A command that runs whatever the factory creates
+     */
+    public static Command defer(Supplier<Command> factory, Object... requirements) {
+        return new Command(requirements) {
+            private Command command;
+
+            @Override
+            public void initialize() {
+                command = factory.get();
+                command.initialize();
+            }
+
+            @Override
+            public void execute() {
+                command.execute();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return command.isFinished();
+            }
+
+            @Override
+            public void end(boolean interrupted) {
+                command.end(interrupted);
+            }
+        };
+    }
+
+    /**
+     * Waits for mechanisms to reach their targets.  This does not update the mechanisms itself; the loop that runs the
+     *  {@link CommandScheduler} is expected to update every loaded {@link MotorPowerUpdater} each cycle, as
+     *  {@code ModuleManager.updateMotorPowerLoops()} does.
+     * @param mechanisms The mechanisms to wait for.  These are the command's requirements.
+     * @return A command that finishes once none of the mechanisms need updating
+     */
+    public static Command awaitMechanisms(MotorPowerUpdater... mechanisms) {
+        final MotorPowerUpdater[] awaited = mechanisms.clone();
+        return new Command((Object[]) awaited) {
+            @Override
+            public boolean isFinished() {
+                for (MotorPowerUpdater mechanism : awaited) {
+                    if (mechanism.isUpdateNecessary()) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,239 @@
+package org.firstinspires.ftc.teamcode.modules.core;
+
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.HardwareDevice;
+import com.qualcomm.robotcore.hardware.TouchSensor;
+
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+import org.firstinspires.ftc.teamcode.hardware.ConditionalHardwareDeviceGroup;
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A frozen, once-per-cycle sample of the sensor values of every tracked hardware device.  Modules read from the
+ *  snapshot instead of querying their devices directly, so every part of a module (the PID, the tolerance check,
+ *  logging, etc.) agrees on the state of the hardware within a cycle, and each value is only read from the hub once.
+ * <p>
+ * There is exactly one snapshot per {@link OpMode}; it is filled by {@link ModuleManager#beginLoop()}.
+ * @see #of(OpMode)
+ */
+public final class HardwareSnapshot {
+    /**
+     * The snapshot belonging to each running OpMode
+     */
+    private static final Map<OpMode, HardwareSnapshot> snapshots = new WeakHashMap<>();
+
+    /**
+     * Gets the snapshot for the specified OpMode, creating it if it does not yet exist
+     * @param opMode The OpMode
+     * @return The OpMode's snapshot
+     */
+    public static HardwareSnapshot of(OpMode opMode) {
+        synchronized (snapshots) {
+            HardwareSnapshot snapshot = snapshots.get(opMode);
+            if (snapshot == null) {
+                snapshot = new HardwareSnapshot();
+                snapshots.put(opMode, snapshot);
+            }
+            return snapshot;
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Maps the name of each tracked device to its index in the arrays below
+     */
+    private final Map<String, Integer> indices = new HashMap<>();
+
+    private DcMotorEx[] motors = new DcMotorEx[INITIAL_CAPACITY];
+    private TouchSensor[] touchSensors = new TouchSensor[INITIAL_CAPACITY];
+    private boolean[] sampleCurrent = new boolean[INITIAL_CAPACITY];
+
+    private int[] positions = new int[INITIAL_CAPACITY];
+    private double[] velocities = new double[INITIAL_CAPACITY];
+    private double[] currents = new double[INITIAL_CAPACITY];
+    private boolean[] pressed = new boolean[INITIAL_CAPACITY];
+
+    /**
+     * The amount of tracked devices
+     */
+    private int deviceCount = 0;
+
+    /**
+     * When the current values were captured, as given by {@link Clock#nanoTime()}
+     */
+    private long timestampNanos = 0;
+
+    /**
+     * The amount of times {@link #capture()} has been called
+     */
+    private long cycle = 0;
+
+    private HardwareSnapshot() {}
+
+    /**
+     * Tracks every device in a group, including devices that are loaded into it later on.  Only available devices
+     *  are tracked.
+     * @param group The group to track
+     */
+    public void track(ConditionalHardwareDeviceGroup group) {
+        group.addLoadListener(this::register);
+    }
+
+    /**
+     * Registers a single device to be sampled every cycle.  Only motors (position & velocity) and touch sensors are
+     *  sampled; other devices are ignored.  Registering a name that is already tracked replaces the old device.
+     * @param deviceName The name of the device
+     * @param device The device
+     * @return The index of the device, or -1 if the device type is not sampled
+     */
+    public synchronized int register(String deviceName, HardwareDevice device) {
+        if (!(device instanceof DcMotorEx) && !(device instanceof TouchSensor)) {
+            return -1;
+        }
+
+        Integer index = indices.get(deviceName);
+        if (index == null) {
+            if (deviceCount == motors.length) {
+                grow();
+            }
+            index = deviceCount++;
+            indices.put(deviceName, index);
+        }
+
+        motors[index] = device instanceof DcMotorEx ? (DcMotorEx) device : null;
+        touchSensors[index] = device instanceof TouchSensor ? (TouchSensor) device : null;
+        return index;
+    }
+
+    /**
+     * Registers a motor and also samples its current draw every cycle.  Unlike positions and velocities, currents
+     *  are not part of a hub's bulk data, so each sampled current costs its own hub transaction.
+     * @param deviceName The name of the motor
+     * @param motor The motor
+     * @return The index of the motor
+     */
+    public synchronized int registerWithCurrent(String deviceName, DcMotorEx motor) {
+        final int index = register(deviceName, motor);
+        sampleCurrent[index] = true;
+        return index;
+    }
+
+    private void grow() {
+        final int capacity = motors.length * 2;
+        motors = Arrays.copyOf(motors, capacity);
+        touchSensors = Arrays.copyOf(touchSensors, capacity);
+        sampleCurrent = Arrays.copyOf(sampleCurrent, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        velocities = Arrays.copyOf(velocities, capacity);
+        currents = Arrays.copyOf(currents, capacity);
+        pressed = Arrays.copyOf(pressed, capacity);
+    }
+
+    /**
+     * Reads every tracked device once.  Called at the beginning of each cycle, after the hubs' bulk caches have been
+     *  cleared.
+     */
+    public synchronized void capture() {
+        for (int i = 0; i < deviceCount; i++) {
+            final DcMotorEx motor = motors[i];
+            if (motor != null) {
+                positions[i] = motor.getCurrentPosition();
+                velocities[i] = motor.getVelocity();
+                if (sampleCurrent[i]) {
+                    currents[i] = motor.getCurrent(CurrentUnit.AMPS);
+                }
+            }
+            else {
+                pressed[i] = touchSensors[i].isPressed();
+            }
+        }
+        timestampNanos = Clock.nanoTime();
+        cycle++;
+    }
+
+    /**
+     * Gets the index of a tracked device, which can be used to read its values without looking up its name
+     * @param deviceName The name of the device
+     * @return The index of the device
+     * @throws IllegalArgumentException No device with the specified name is tracked
+     */
+    public synchronized int indexOf(String deviceName) {
+        final Integer index = indices.get(deviceName);
+        if (index == null) {
+            throw new IllegalArgumentException("No device named " + deviceName + " is tracked by the snapshot");
+        }
+        return index;
+    }
+
+    /**
+     * Is a device with the specified name tracked?
+     * @param deviceName The name of the device
+     * @return True if the device is tracked, otherwise false
+     */
+    public synchronized boolean isTracked(String deviceName) {
+        return indices.containsKey(deviceName);
+    }
+
+    /**
+     * @param index The index of the motor
+     * @return The encoder position of the motor, in ticks
+     */
+    public synchronized int getPosition(int index) {
+        return positions[index];
+    }
+
+    /**
+     * Records that a motor's encoder was just reset, so that for the rest of the cycle its position reads 0 rather
+     *  than the position captured before the reset.  The next {@link #capture()} reads it from the motor again.
+     * @param index The index of the motor
+     */
+    public synchronized void zeroPosition(int index) {
+        positions[index] = 0;
+    }
+
+    /**
+     * @param index The index of the motor
+     * @return The velocity of the motor, in ticks per second
+     */
+    public synchronized double getVelocity(int index) {
+        return velocities[index];
+    }
+
+    /**
+     * @param index The index of the motor
+     * @return The current drawn by the motor, in amps, or 0 if the motor was not registered with
+     *  {@link #registerWithCurrent(String, DcMotorEx)}
+     */
+    public synchronized double getCurrent(int index) {
+        return currents[index];
+    }
+
+    /**
+     * @param index The index of the touch sensor
+     * @return Whether the touch sensor is pressed
+     */
+    public synchronized boolean isPressed(int index) {
+        return pressed[index];
+    }
+
+    /**
+     * @return When the current values were captured, as given by {@link Clock#nanoTime()}
+     */
+    public synchronized long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /**
+     * @return The amount of cycles that have been captured
+     */
+    public synchronized long getCycle() {
+        return cycle;
+    }
+}
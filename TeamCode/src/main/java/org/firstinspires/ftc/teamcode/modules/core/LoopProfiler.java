@@ -0,0 +1,100 @@
+package org.firstinspires.ftc.teamcode.modules.core;
+
+import com.acmerobotics.dashboard.FtcDashboard;
+import com.acmerobotics.dashboard.config.Config;
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.teamcode.util.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records how long each part of the control loop takes.  Each timed part is a named section with its own
+ *  {@link LatencyHistogram}.  Summaries are sent to FTC Dashboard every {@link #PUBLISH_INTERVAL_MS} and written to
+ *  the robot log by {@link #dump()}.
+ * <p>
+ * Timing a section never allocates; only creating a section and publishing do.
+ */
+@Config
+public final class LoopProfiler {
+    /**
+     * How often summaries are sent to FTC Dashboard, in milliseconds.  Values of 0 or less disable publishing.
+     */
+    public static long PUBLISH_INTERVAL_MS = 1000;
+
+    private static final String TAG = "LoopProfiler";
+
+    private final List<String> sectionNames = new ArrayList<>();
+    private final List<LatencyHistogram> sections = new ArrayList<>();
+
+    private long lastPublishNanos = System.nanoTime();
+
+    /**
+     * Creates a new section
+     * @param name The name of the section, as it appears on the dashboard and in the log
+     * @return The section's histogram.  Durations should be recorded with {@link LatencyHistogram#record(long)}.
+     */
+    public synchronized LatencyHistogram addSection(String name) {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        sectionNames.add(name);
+        sections.add(histogram);
+        return histogram;
+    }
+
+    /**
+     * Sends a summary of every section to FTC Dashboard if {@link #PUBLISH_INTERVAL_MS} has passed since the last
+     *  one.  This is cheap to call every cycle.
+     */
+    public void publishIfDue() {
+        if (PUBLISH_INTERVAL_MS <= 0) {
+            return;
+        }
+        final long now = System.nanoTime();
+        if (now - lastPublishNanos < PUBLISH_INTERVAL_MS * 1_000_000) {
+            return;
+        }
+        lastPublishNanos = now;
+
+        final FtcDashboard dashboard = FtcDashboard.getInstance();
+        if (dashboard == null) {
+            return;
+        }
+        final TelemetryPacket packet = new TelemetryPacket(false);
+        synchronized (this) {
+            for (int i = 0; i < sections.size(); i++) {
+                final LatencyHistogram histogram = sections.get(i);
+                final String prefix = "profile/" + sectionNames.get(i) + "/";
+                packet.put(prefix + "p50 (ms)", histogram.getPercentileNanos(50) / 1e6);
+                packet.put(prefix + "p95 (ms)", histogram.getPercentileNanos(95) / 1e6);
+                packet.put(prefix + "p99 (ms)", histogram.getPercentileNanos(99) / 1e6);
+                packet.put(prefix + "max (ms)", histogram.getMaxNanos() / 1e6);
+            }
+        }
+        dashboard.sendTelemetryPacket(packet);
+    }
+
+    /**
+     * Writes a summary of every section to the robot log
+     */
+    public synchronized void dump() {
+        for (int i = 0; i < sections.size(); i++) {
+            final LatencyHistogram histogram = sections.get(i);
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            RobotLog.ii(TAG, String.format(Locale.US,
+                    "%s: n=%d mean=%.3fms p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms",
+                    sectionNames.get(i),
+                    histogram.getCount(),
+                    histogram.getMeanNanos() / 1e6,
+                    histogram.getPercentileNanos(50) / 1e6,
+                    histogram.getPercentileNanos(95) / 1e6,
+                    histogram.getPercentileNanos(99) / 1e6,
+                    histogram.getMaxNanos() / 1e6
+            ));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.firstinspires.ftc.teamcode.modules.core;
+
+import com.acmerobotics.dashboard.config.Config;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+/**
+ * Paces a control loop at a fixed rate.  Instead of spinning as fast as the CPU allows, a loop calls
+ *  {@link #awaitNextCycle()} at the end of each cycle, which sleeps until the next deadline.  Deadlines are spaced
+ *  exactly one period apart (rather than one period after the previous cycle ended), so the rate does not drift with
+ *  the amount of work done in each cycle.
+ * <p>
+ * If a cycle takes longer than its period, it is counted as an overrun and the next cycle starts immediately.  Missed
+ *  cycles are skipped rather than made up for.
+ */
+@Config
+public final class LoopScheduler {
+    /**
+     * The rate that control loops run at, in cycles per second.  Values of 0 or less disable pacing.
+     */
+    public static double LOOP_RATE_HZ = 200;
+
+    /**
+     * Marks {@link #deadlineNanos} as not yet set
+     */
+    private static final long UNSET = Long.MIN_VALUE;
+
+    /**
+     * When the current cycle should end, as given by {@link Clock#nanoTime()}
+     */
+    private long deadlineNanos = UNSET;
+
+    /**
+     * When the current cycle started, as given by {@link Clock#nanoTime()}
+     */
+    private long cycleStartNanos = UNSET;
+
+    private long cycles = 0;
+    private long overruns = 0;
+    private long totalLatenessNanos = 0;
+    private long maxLatenessNanos = 0;
+    private long lastPeriodNanos = 0;
+    private long maxPeriodNanos = 0;
+
+    /**
+     * Ends the current cycle, sleeping until the next one is due
+     * @throws InterruptedException The thread was interrupted while sleeping
+     */
+    public void awaitNextCycle() throws InterruptedException {
+        long now = Clock.nanoTime();
+        if (LOOP_RATE_HZ <= 0) {
+            recordCycle(now, 0);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            return;
+        }
+
+        final long periodNanos = (long) (1e9 / LOOP_RATE_HZ);
+        if (deadlineNanos == UNSET) {
+            deadlineNanos = now + periodNanos;
+        }
+
+        if (now >= deadlineNanos) {
+            // this cycle took too long; start the next one right away instead of trying to catch up
+            overruns++;
+            recordCycle(now, now - deadlineNanos);
+            deadlineNanos = now;
+        }
+        else {
+            final long remainingNanos = deadlineNanos - now;
+            Clock.sleep(remainingNanos);
+            now = Clock.nanoTime();
+            recordCycle(now, now - deadlineNanos);
+        }
+
+        deadlineNanos += periodNanos;
+    }
+
+    private void recordCycle(long now, long latenessNanos) {
+        if (cycleStartNanos != UNSET) {
+            lastPeriodNanos = now - cycleStartNanos;
+            maxPeriodNanos = Math.max(maxPeriodNanos, lastPeriodNanos);
+        }
+        cycleStartNanos = now;
+
+        totalLatenessNanos += latenessNanos;
+        maxLatenessNanos = Math.max(maxLatenessNanos, latenessNanos);
+        cycles++;
+    }
+
+    /**
+     * Forgets the current deadline, so the next call to {@link #awaitNextCycle()} waits a full period.  This should
+     *  be called before starting a loop if the scheduler has been idle, so that the time spent idle is not counted as
+     *  an overrun.
+     */
+    public void reset() {
+        deadlineNanos = UNSET;
+        cycleStartNanos = UNSET;
+    }
+
+    /**
+     * @return The amount of cycles that have completed
+     */
+    public long getCycles() {
+        return cycles;
+    }
+
+    /**
+     * @return The amount of cycles that took longer than their period
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * @return The average amount of time each cycle started after its deadline, in nanoseconds
+     */
+    public double getMeanLatenessNanos() {
+        return cycles == 0 ? 0 : (double) totalLatenessNanos / cycles;
+    }
+
+    /**
+     * @return The longest a cycle has started after its deadline, in nanoseconds
+     */
+    public long getMaxLatenessNanos() {
+        return maxLatenessNanos;
+    }
+
+    /**
+     * @return The duration of the last cycle, in nanoseconds
+     */
+    public long getLastPeriodNanos() {
+        return lastPeriodNanos;
+    }
+
+    /**
+     * @return The duration of the longest cycle, in nanoseconds
+     */
+    public long getMaxPeriodNanos() {
+        return maxPeriodNanos;
+    }
+
+    /**
+     * Logs the scheduler's statistics
+     * @param telemetry The telemetry to log to
+     */
+    public void log(Telemetry telemetry) {
+        telemetry.addData("[Loop] period (ms)", "%.2f (max %.2f)", lastPeriodNanos / 1e6, maxPeriodNanos / 1e6);
+        telemetry.addData("[Loop] lateness (ms)", "%.3f avg, %.3f max", getMeanLatenessNanos() / 1e6, maxLatenessNanos / 1e6);
+        telemetry.addData("[Loop] overruns", "%d of %d cycles", overruns, cycles);
+    }
+}
@@ -46,6 +46,33 @@ public abstract class Module {
         return parent.telemetry;
     }
 
+    /**
+     * Used for logging numeric values from the control loop.  Channels should be registered in the module's
+     *  constructor and set each cycle; they are formatted and sent on a background thread.
+     * @see TelemetryChannels#addChannel(String, String)
+     */
+    protected final TelemetryChannels getTelemetryChannels() {
+        return TelemetryChannels.of(parent);
+    }
+
+    /**
+     * Used to read sensor values from hardware devices.  All devices the module reads from should be registered with
+     *  the snapshot in the module's constructor.
+     * @see HardwareSnapshot#track(org.firstinspires.ftc.teamcode.hardware.ConditionalHardwareDeviceGroup)
+     */
+    protected final HardwareSnapshot getHardwareSnapshot() {
+        return HardwareSnapshot.of(parent);
+    }
+
+    /**
+     * Used to write to actuators.  Outputs added to the stage are held during each cycle and pushed to the hubs
+     *  together at the end of it.
+     * @see OutputStage#add(org.firstinspires.ftc.teamcode.hardware.CoalescedOutput)
+     */
+    protected final OutputStage getOutputStage() {
+        return OutputStage.of(parent);
+    }
+
     /**
      * Ran by parent OpMode in its stop() method
      * Cleans up items like background threads
@@ -1,22 +1,60 @@
 package org.firstinspires.ftc.teamcode.modules.core;
 
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
 
 import org.checkerframework.checker.index.qual.LTEqLengthOf;
 import org.firstinspires.ftc.teamcode.modules.*;
+import org.firstinspires.ftc.teamcode.hardware.FilteredVoltageSensor;
 import org.firstinspires.ftc.teamcode.modules.concurrent.ConcurrentModule;
-import org.firstinspires.ftc.teamcode.util.SwitchStatement;
+import org.firstinspires.ftc.teamcode.modules.concurrent.ModuleExecutor;
+import org.firstinspires.ftc.teamcode.util.LatencyHistogram;
 
 import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 /**
  * A class that manages the life cycle of modules used by {@link OpMode}s
  */
 public final class ModuleManager {
     /**
-     * Has the OpMode already signaled for threads in {@link ConcurrentModule}s to start?
+     * The maximum amount of modules that {@link #preload(Class[])} will construct at the same time
+     */
+    public static final int PRELOAD_THREAD_COUNT = 3;
+
+    /**
+     * The constructor of every module that {@link #getModule(Class)} can create, keyed by the module's class
+     */
+    private static final Map<Class<? extends Module>, Function<OpMode, ? extends Module>> MODULE_FACTORIES =
+            createModuleFactories();
+
+    private static Map<Class<? extends Module>, Function<OpMode, ? extends Module>> createModuleFactories() {
+        final Map<Class<? extends Module>, Function<OpMode, ? extends Module>> factories = new IdentityHashMap<>();
+        factories.put(DriveTrain.class, DriveTrain::new);
+        factories.put(FieldCentricDriveTrain.class, FieldCentricDriveTrain::new);
+        factories.put(Arm.class, Arm::new);
+        factories.put(Intake.class, Intake::new);
+        factories.put(LinearSlide.class, LinearSlide::new);
+        factories.put(AutonomousDriveTrain.class, AutonomousDriveTrain::new);
+        return Collections.unmodifiableMap(factories);
+    }
+
+    /**
+     * Has the OpMode already signaled for tasks in {@link ConcurrentModule}s to start?
      */
     private boolean areThreadsStarted;
 
@@ -26,9 +64,83 @@ public final class ModuleManager {
     private final OpMode opMode;
 
     /**
-     * A collection of the loaded modules
+     * The loaded modules
+     */
+    private final ModuleRegistry loadedModules;
+
+    /**
+     * The modules that are being constructed in the background, keyed by the class that was requested
+     * @see #preload(Class[])
+     */
+    private final Map<Class<? extends Module>, CompletableFuture<? extends Module>> preloadingModules;
+
+    /**
+     * Constructs preloaded modules.  This is null until {@link #preload(Class[])} is first called.
+     */
+    private ExecutorService preloadExecutor;
+
+    /**
+     * Runs the background tasks of the OpMode's {@link ConcurrentModule}s.  Shut down by {@link #unloadAll()}.
      */
-    private final List<Module> loadedModules;
+    private final ModuleExecutor moduleExecutor;
+
+    /**
+     * The hubs whose bulk caches this manager controls.  This is null until the hubs are first claimed, since the
+     *  OpMode's hardware map is not yet available when the manager is constructed as a field initializer.
+     * @see #claimHubs()
+     */
+    private List<LynxModule> hubs;
+
+    /**
+     * The snapshot that the OpMode's modules read sensor values from
+     */
+    private final HardwareSnapshot snapshot;
+
+    /**
+     * The stage that the OpMode's modules write actuator values through
+     */
+    private final OutputStage outputStage;
+
+    /**
+     * The telemetry channels that the OpMode's modules report values through
+     */
+    private final TelemetryChannels telemetryChannels;
+
+    /**
+     * The battery voltage, sampled a few times a second, or null if the robot has no voltage sensor or the hubs
+     *  haven't been claimed yet
+     * @see #claimHubs()
+     */
+    private FilteredVoltageSensor batteryVoltage;
+    private final TelemetryChannels.Channel batteryVoltageChannel;
+
+    /**
+     * Paces the OpMode's control loop
+     */
+    private final LoopScheduler scheduler;
+
+    /**
+     * Times each part of the OpMode's control loop
+     */
+    private final LoopProfiler profiler;
+
+    /**
+     * The profiler sections of each module's {@link MotorPowerUpdater#updateMotorPowers()} and {@link Module#log()}
+     */
+    private final Map<Object, LatencyHistogram> updateTimes, logTimes;
+
+    /**
+     * The update section of each of {@link ModuleRegistry#getMotorPowerUpdaters()}, at the same index, so that
+     *  {@link #updateMotorPowerLoops()} doesn't look them up every cycle
+     */
+    private LatencyHistogram[] motorPowerUpdaterSections = new LatencyHistogram[0];
+
+    private final LatencyHistogram cycleTime, updateLoopsTime, logStatusTime;
+
+    /**
+     * When the current cycle began, as given by {@link System#nanoTime()}, or 0 if no cycle is in progress
+     */
+    private long cycleStartNanos = 0;
 
     /**
      * Initializes the module manager
@@ -36,8 +148,25 @@ public final class ModuleManager {
      */
     public ModuleManager(OpMode registrar) {
         opMode = registrar;
-        loadedModules = new LinkedList<>();
+        loadedModules = new ModuleRegistry();
+        preloadingModules = new LinkedHashMap<>();
         areThreadsStarted = false;
+        snapshot = HardwareSnapshot.of(registrar);
+        moduleExecutor = ModuleExecutor.of(registrar);
+        outputStage = OutputStage.of(registrar);
+        telemetryChannels = TelemetryChannels.of(registrar);
+        telemetryChannels.setManaged();
+        if (TelemetryChannels.RECORD) {
+            telemetryChannels.startRecording(registrar.getClass().getSimpleName());
+        }
+        batteryVoltageChannel = telemetryChannels.addChannel("Battery voltage (V)", "%.2f");
+        scheduler = new LoopScheduler();
+        profiler = new LoopProfiler();
+        updateTimes = new IdentityHashMap<>();
+        logTimes = new IdentityHashMap<>();
+        cycleTime = profiler.addSection("Cycle");
+        updateLoopsTime = profiler.addSection("All updates");
+        logStatusTime = profiler.addSection("All logs");
     }
 
     /**
@@ -48,78 +177,274 @@ public final class ModuleManager {
      * @throws IllegalArgumentException The provided class is not a registered method
      *  as its only parameter
      * @see Module#Module(OpMode)  Module
+     * @implNote If the module is being {@linkplain #preload(Class[]) preloaded}, this blocks until it has been
+     *  constructed
      */
     public <T extends Module> T getModule(Class<T> moduleClass) throws IllegalArgumentException {
+        checkInstantiable(moduleClass);
+        claimHubs();
+
+        final Future<? extends Module> preloadingModule;
+        synchronized (this) {
+            final T loadedModule = findLoadedModule(moduleClass);
+            if (loadedModule != null) {
+                return loadedModule;
+            }
+            preloadingModule = findPreloadingModule(moduleClass);
+        }
+
+        if (preloadingModule != null) {
+            return moduleClass.cast(awaitPreload(preloadingModule));
+        }
+
+        // no module of the specified type exists
+        return addModule(createModule(moduleClass));
+    }
+
+    /**
+     * Starts constructing modules in the background, so that slow hardware initialization (IMU and OTOS calibration,
+     *  for example) of independent modules can overlap.  {@link #getModule(Class)} blocks only until the module it
+     *  asks for is ready.
+     * @param moduleClasses The classes of the modules to construct.  Modules that are already loaded or preloading
+     *                      are skipped.
+     * @return A future that completes once every requested module has been constructed
+     * @throws IllegalArgumentException One of the provided classes is abstract
+     * @apiNote Modules used together should either all be preloaded or all be retrieved with
+     *  {@link #getModule(Class)}; preloading a module the current thread is already waiting on has no benefit
+     */
+    @SafeVarargs
+    public final Future<Void> preload(Class<? extends Module>... moduleClasses) throws IllegalArgumentException {
+        claimHubs(); // the hardware map isn't safe to use for this from several threads at once
+
+        final List<CompletableFuture<? extends Module>> futures = new LinkedList<>();
+        synchronized (this) {
+            if (preloadExecutor == null) {
+                preloadExecutor = Executors.newFixedThreadPool(PRELOAD_THREAD_COUNT);
+            }
+            for (Class<? extends Module> moduleClass : moduleClasses) {
+                checkInstantiable(moduleClass);
+                if (findLoadedModule(moduleClass) != null) {
+                    continue;
+                }
+                CompletableFuture<? extends Module> future = findPreloadingModule(moduleClass);
+                if (future == null) {
+                    future = CompletableFuture.supplyAsync(() -> addModule(createModule(moduleClass)), preloadExecutor);
+                    preloadingModules.put(moduleClass, future);
+                }
+                futures.add(future);
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private static void checkInstantiable(Class<?> moduleClass) {
         if (Modifier.isAbstract(moduleClass.getModifiers())) {
             throw new IllegalArgumentException("Trying to retrieve an instance an abstract class!");
         }
+    }
 
-        for (Module module : loadedModules) {
-            if (moduleClass.isInstance(module)) {
-                return moduleClass.cast(module);
+    private synchronized <T extends Module> T findLoadedModule(Class<T> moduleClass) {
+        return loadedModules.find(moduleClass);
+    }
+
+    private synchronized CompletableFuture<? extends Module> findPreloadingModule(Class<?> moduleClass) {
+        for (Map.Entry<Class<? extends Module>, CompletableFuture<? extends Module>> entry : preloadingModules.entrySet()) {
+            if (moduleClass.isAssignableFrom(entry.getKey())) {
+                return entry.getValue();
             }
         }
+        return null;
+    }
 
-        // no module of the specified type exists
-        T module = initModule(moduleClass);
-        if (module == null) {
+    /**
+     * Waits for a preloaded module to finish constructing
+     * @param future The module's future
+     * @return The module
+     * @throws IllegalArgumentException The module's class is not a registered module
+     * @throws IllegalStateException The current thread was interrupted while waiting
+     */
+    private static Module awaitPreload(Future<? extends Module> future) {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a module to load", e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause; // keep the module's own exception (e.g. IllegalArgumentException)
+            }
+            throw new IllegalStateException("Failed to load module", cause);
+        }
+    }
+
+    /**
+     * Constructs a module
+     * @throws IllegalArgumentException The provided class is not a registered module
+     */
+    private <T extends Module> T createModule(Class<T> moduleClass) {
+        final Function<OpMode, ? extends Module> factory = MODULE_FACTORIES.get(moduleClass);
+        if (factory == null) {
             throw new IllegalArgumentException("Provided class "
                     + moduleClass.getCanonicalName()
                     + " is not a registered module!");
         }
+        return moduleClass.cast(factory.apply(opMode));
+    }
 
+    /**
+     * Adds a newly constructed module to the list of loaded modules, starting its threads if necessary
+     */
+    private synchronized <T extends Module> T addModule(T module) {
         if (module instanceof ConcurrentModule && areThreadsStarted) {
             ((ConcurrentModule)module).startThreads();
         }
 
         loadedModules.add(module);
+        if (module instanceof MotorPowerUpdater) {
+            final int count = motorPowerUpdaterSections.length;
+            motorPowerUpdaterSections = Arrays.copyOf(motorPowerUpdaterSections, count + 1);
+            motorPowerUpdaterSections[count] = getSection(updateTimes, module, "update");
+        }
         return module;
     }
 
-    private <T extends Module> T initModule(Class<? extends T> moduleClass) {
-        try {
-            return moduleClass.cast(
-                    new SwitchStatement<Class<?>, Module>()
-                            .addCase(DriveTrain.class, c -> new DriveTrain(opMode))
-                            .addCase(FieldCentricDriveTrain.class, c -> new FieldCentricDriveTrain(opMode))
-                            .addCase(Arm.class, c -> new Arm(opMode))
-                            .addCase(Intake.class, c -> new Intake(opMode))
-                            .addCase(LinearSlide.class, c -> new LinearSlide(opMode))
-                            .addCase(AutonomousDriveTrain.class, c -> new AutonomousDriveTrain(opMode))
-                            .execute(moduleClass)
-            );
+    /**
+     * Puts every hub into {@link LynxModule.BulkCachingMode#MANUAL MANUAL} bulk caching mode, if that hasn't
+     *  already been done.  In manual mode, the first bulk-readable query of a cycle (encoder position, velocity,
+     *  digital input, etc.) reads everything from the hub in one transaction, and every other query is served from
+     *  the cache until {@link #beginLoop()} clears it.  The battery's voltage sensor is found at the same time.
+     */
+    private void claimHubs() {
+        if (hubs != null) {
+            return;
         }
-        catch (ClassCastException e) {
-            return null; // just in case
+        final List<LynxModule> claimedHubs = opMode.hardwareMap.getAll(LynxModule.class);
+        for (LynxModule hub : claimedHubs) {
+            hub.setBulkCachingMode(LynxModule.BulkCachingMode.MANUAL);
         }
+        final List<VoltageSensor> voltageSensors = opMode.hardwareMap.getAll(VoltageSensor.class);
+        batteryVoltage = voltageSensors.isEmpty() ? null : new FilteredVoltageSensor(voltageSensors.get(0), 250, 0.3);
+        hubs = claimedHubs; // last, so that the hubs are only seen as claimed once everything above is done
+    }
+
+    /**
+     * Marks the beginning of a control loop cycle.  This must be called once at the top of every loop that reads
+     *  hardware, as the bulk cache of each hub and the {@link HardwareSnapshot} are only refreshed here.  Writes to
+     *  the {@link OutputStage} are held from here until {@link #endLoop()} is called.
+     * @implNote Reads made before the first call to this method (in module constructors, for example) are
+     *  still valid, since a freshly-claimed hub starts with an empty cache
+     */
+    public void beginLoop() {
+        cycleStartNanos = System.nanoTime();
+        profiler.publishIfDue();
+        claimHubs();
+        for (int i = 0; i < hubs.size(); i++) {
+            hubs.get(i).clearBulkCache();
+        }
+        snapshot.capture();
+        outputStage.defer();
+        if (batteryVoltage != null) {
+            batteryVoltageChannel.set(batteryVoltage.getVoltage());
+        }
+    }
+
+    /**
+     * Marks the end of a control loop cycle, pushing every write held since {@link #beginLoop()} to the hubs and
+     *  publishing the cycle's {@link TelemetryChannels} values.  This must be called before the OpMode sleeps or
+     *  returns control to the SDK, otherwise actuators will not receive the values commanded during the cycle.
+     */
+    public void endLoop() {
+        outputStage.flush();
+        telemetryChannels.publish();
+        if (cycleStartNanos != 0) {
+            cycleTime.record(System.nanoTime() - cycleStartNanos);
+            cycleStartNanos = 0;
+        }
+    }
+
+    /**
+     * Gets the scheduler that paces the OpMode's control loop.  Loops should call
+     *  {@link LoopScheduler#awaitNextCycle()} after {@link #endLoop()} instead of immediately starting the next cycle.
+     * @return The scheduler
+     */
+    public LoopScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Gets the profiler that times the OpMode's control loop
+     * @return The profiler
+     */
+    public LoopProfiler getProfiler() {
+        return profiler;
+    }
+
+    private synchronized LatencyHistogram getSection(Map<Object, LatencyHistogram> sections, Object owner, String kind) {
+        LatencyHistogram section = sections.get(owner);
+        if (section == null) {
+            section = profiler.addSection(owner.getClass().getSimpleName() + " " + kind);
+            sections.put(owner, section);
+        }
+        return section;
     }
 
     /**
      * Updates all loaded {@linkplain MotorPowerUpdater MotorPowerUpdaters}
      * @see MotorPowerUpdater#updateMotorPowers()
      */
-    public void updateMotorPowerLoops() {
-        for (Module module : loadedModules) {
-            if (module instanceof MotorPowerUpdater) {
-                MotorPowerUpdater mechanism = (MotorPowerUpdater) module;
-                if (mechanism.isUpdateNecessary()) {
-                    mechanism.updateMotorPowers();
-                }
+    public synchronized void updateMotorPowerLoops() {
+        final long start = System.nanoTime();
+        final MotorPowerUpdater[] mechanisms = loadedModules.getMotorPowerUpdaters();
+        final LatencyHistogram[] sections = motorPowerUpdaterSections;
+        for (int i = 0; i < mechanisms.length; i++) {
+            final MotorPowerUpdater mechanism = mechanisms[i];
+            final long mechanismStart = System.nanoTime();
+            if (mechanism.isUpdateNecessary()) {
+                mechanism.updateMotorPowers();
             }
+            sections[i].record(System.nanoTime() - mechanismStart);
         }
+        updateLoopsTime.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Updates a single {@link MotorPowerUpdater}, timing it with the {@linkplain #getProfiler() profiler}.  OpModes
+     *  that update mechanisms themselves should call this rather than {@link MotorPowerUpdater#updateMotorPowers()}.
+     * @param mechanism The mechanism to update.  It does not have to be loaded by this manager.
+     */
+    public void updateMotorPowers(MotorPowerUpdater mechanism) {
+        final LatencyHistogram section = getSection(updateTimes, mechanism, "update");
+        final long start = System.nanoTime();
+        mechanism.updateMotorPowers();
+        section.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Logs a single module, timing it with the {@linkplain #getProfiler() profiler}.  OpModes that log modules
+     *  themselves should call this rather than {@link Module#log()}.
+     * @param module The module to log.  It does not have to be loaded by this manager.
+     */
+    public void log(Module module) {
+        final LatencyHistogram section = getSection(logTimes, module, "log");
+        final long start = System.nanoTime();
+        module.log();
+        section.record(System.nanoTime() - start);
     }
 
     /**
-     * Starts all {@link org.firstinspires.ftc.teamcode.modules.concurrent.ModuleThread}s belonging to any loaded
-     *  {@link ConcurrentModule}s
+     * Signals every loaded {@link ConcurrentModule} that the OpMode has entered its main execution loop
      * @see ConcurrentModule#startThreads()
      */
-    public void startModuleThreads() {
+    public synchronized void startModuleThreads() {
         areThreadsStarted = true;
-        for (Module module : loadedModules) {
-            if (module instanceof ConcurrentModule) {
-                ((ConcurrentModule)module).startThreads();
-            }
+        for (ConcurrentModule module : loadedModules.getConcurrentModules()) {
+            module.startThreads();
         }
     }
 
@@ -127,20 +452,43 @@ public final class ModuleManager {
      * Outputs the status of all loaded modules
      * @see Module#log()
      */
-    public void logModuleStatus() {
-        for (Module module : loadedModules) {
-            module.log();
+    public synchronized void logModuleStatus() {
+        final long start = System.nanoTime();
+        final Module[] modules = loadedModules.getModules();
+        for (int i = 0; i < modules.length; i++) {
+            log(modules[i]);
         }
+        logStatusTime.record(System.nanoTime() - start);
+        logTelemetryChannels();
+        scheduler.log(opMode.telemetry);
         opMode.telemetry.update();
     }
 
     /**
-     * Unloads all loaded modules
+     * Adds the latest values of every {@linkplain TelemetryChannels telemetry channel} to the OpMode's telemetry.
+     *  OpModes that log modules themselves should call this after doing so; the values are already formatted, so
+     *  this is cheap.
+     */
+    public void logTelemetryChannels() {
+        telemetryChannels.addTo(opMode.telemetry);
+    }
+
+    /**
+     * Unloads all loaded modules, then stops the threads that ran their background tasks.  Every task has returned
+     *  (or been interrupted after {@link ConcurrentModule#MODULE_THREAD_TERMINATION_TIMEOUT_MILLIS}) by the time this
+     *  returns.
      * @see Module#cleanupModule()
      */
-    public void unloadAll() {
-        for (Module module : loadedModules) {
+    public synchronized void unloadAll() {
+        if (preloadExecutor != null) {
+            preloadExecutor.shutdownNow(); // modules still being constructed are abandoned
+        }
+        outputStage.flush();
+        telemetryChannels.close();
+        for (Module module : loadedModules.getModules()) {
             module.cleanupModule();
         }
+        moduleExecutor.shutdown();
+        profiler.dump();
     }
 }
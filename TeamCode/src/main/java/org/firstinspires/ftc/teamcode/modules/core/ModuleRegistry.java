@@ -0,0 +1,103 @@
+package org.firstinspires.ftc.teamcode.modules.core;
+
+import org.firstinspires.ftc.teamcode.modules.concurrent.ConcurrentModule;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The modules loaded by a {@link ModuleManager}, arranged for the control loop.  Lookups by class are answered from a
+ *  map after the first one, and the modules that the loop dispatches to are kept in arrays by role, so that each cycle
+ *  is a plain array walk with no type checks.
+ * <p>
+ * This class is not thread-safe; {@link ModuleManager} synchronizes access to it.  The arrays are replaced rather than
+ *  modified when a module is added, so an array already handed out stays valid.
+ */
+public final class ModuleRegistry {
+    private static final Module[] NO_MODULES = new Module[0];
+    private static final MotorPowerUpdater[] NO_MOTOR_POWER_UPDATERS = new MotorPowerUpdater[0];
+    private static final ConcurrentModule[] NO_CONCURRENT_MODULES = new ConcurrentModule[0];
+
+    private Module[] modules = NO_MODULES;
+    private MotorPowerUpdater[] motorPowerUpdaters = NO_MOTOR_POWER_UPDATERS;
+    private ConcurrentModule[] concurrentModules = NO_CONCURRENT_MODULES;
+
+    /**
+     * The module found for each class that has been looked up, which may be a superclass or interface of the module's
+     *  own class.  Classes with no module are not remembered, since one may be added later; classes with one never
+     *  change, since modules are only ever appended.
+     * @implNote An {@link IdentityHashMap}, since {@code ClassValue} is not available at this project's minimum SDK
+     */
+    private final Map<Class<?>, Module> modulesByClass = new IdentityHashMap<>();
+
+    /**
+     * Adds a module
+     * @param module The module to add
+     */
+    public void add(Module module) {
+        modules = append(modules, module);
+        if (module instanceof MotorPowerUpdater) {
+            motorPowerUpdaters = append(motorPowerUpdaters, (MotorPowerUpdater) module);
+        }
+        if (module instanceof ConcurrentModule) {
+            concurrentModules = append(concurrentModules, (ConcurrentModule) module);
+        }
+    }
+
+    private static <T> T[] append(T[] array, T element) {
+        final T[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = element;
+        return result;
+    }
+
+    /**
+     * Finds the first module added that is an instance of a class
+     * @param moduleClass The class
+     * @return The module, or null if there is none
+     * @param <T> The type of the module
+     */
+    public <T extends Module> T find(Class<T> moduleClass) {
+        Module module = modulesByClass.get(moduleClass);
+        if (module == null) {
+            for (Module candidate : modules) {
+                if (moduleClass.isInstance(candidate)) {
+                    module = candidate;
+                    modulesByClass.put(moduleClass, module);
+                    break;
+                }
+            }
+        }
+        return moduleClass.cast(module);
+    }
+
+    /**
+     * @return The number of modules added
+     */
+    public int size() {
+        return modules.length;
+    }
+
+    /**
+     * @return Every module, in the order they were added.  The array must not be modified.
+     */
+    public Module[] getModules() {
+        return modules;
+    }
+
+    /**
+     * @return The modules that are {@linkplain MotorPowerUpdater MotorPowerUpdaters}, in the order they were added.
+     *  The array must not be modified.
+     */
+    public MotorPowerUpdater[] getMotorPowerUpdaters() {
+        return motorPowerUpdaters;
+    }
+
+    /**
+     * @return The modules that are {@linkplain ConcurrentModule ConcurrentModules}, in the order they were added.
+     *  The array must not be modified.
+     */
+    public ConcurrentModule[] getConcurrentModules() {
+        return concurrentModules;
+    }
+}
@@ -15,13 +15,15 @@ public interface MotorPowerUpdater {
     boolean isUpdateNecessary();
 
     /**
-     * updates all provided mechanisms until no more updates are necessary
+     * updates all provided mechanisms until no more updates are necessary, at the rate set by
+     *  {@link LoopScheduler#LOOP_RATE_HZ}
      * @param mechanisms the mechanisms to update
      * @param killSwitch An external 'kill switch' -- if this returns true at any point,
      *                   this method will throw an exception
      * @throws InterruptedException the kill switch has been triggered
      */
     static void updateWhileNecessary(BooleanSupplier killSwitch, MotorPowerUpdater ...mechanisms) throws InterruptedException {
+        final LoopScheduler scheduler = new LoopScheduler();
         boolean continueLoop;
         do {
             if (killSwitch.getAsBoolean()) {
@@ -36,6 +38,9 @@ public interface MotorPowerUpdater {
                     mechanism.updateMotorPowers();
                 }
             }
+            if (continueLoop) {
+                scheduler.awaitNextCycle();
+            }
         } while (continueLoop);
     }
 }
@@ -0,0 +1,167 @@
+package org.firstinspires.ftc.teamcode.modules.core;
+
+import com.acmerobotics.dashboard.config.Config;
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+
+import org.firstinspires.ftc.teamcode.hardware.CoalescedOutput;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Collects the {@linkplain CoalescedOutput outputs} of every actuator used by an OpMode's modules, so that the writes
+ *  made during a control loop cycle can be held and then pushed to the hubs all at once.
+ * <p>
+ * There is exactly one output stage per {@link OpMode}.  {@link ModuleManager#beginLoop()} starts holding writes and
+ *  {@link ModuleManager#endLoop()} pushes them; writes made outside of a cycle are sent immediately.
+ * @see #of(OpMode)
+ */
+@Config
+public final class OutputStage {
+    /**
+     * The minimum change in motor power that will be sent to a motor.  Changes take effect at the start of the next
+     *  cycle.
+     */
+    public static double MOTOR_POWER_EPSILON = 0.005;
+
+    /**
+     * The minimum change in position that will be sent to a servo.  Changes take effect at the start of the next
+     *  cycle.
+     */
+    public static double SERVO_POSITION_EPSILON = 0.001;
+
+    /**
+     * The output stage belonging to each running OpMode
+     */
+    private static final Map<OpMode, OutputStage> stages = new WeakHashMap<>();
+
+    /**
+     * Gets the output stage for the specified OpMode, creating it if it does not yet exist
+     * @param opMode The OpMode
+     * @return The OpMode's output stage
+     */
+    public static OutputStage of(OpMode opMode) {
+        synchronized (stages) {
+            OutputStage stage = stages.get(opMode);
+            if (stage == null) {
+                stage = new OutputStage();
+                stages.put(opMode, stage);
+            }
+            return stage;
+        }
+    }
+
+    /**
+     * What each output carries, which decides the tunable its epsilon follows
+     */
+    private static final byte OTHER = 0, MOTOR_POWER = 1, SERVO_POSITION = 2;
+
+    private CoalescedOutput[] outputs = new CoalescedOutput[8];
+    private byte[] kinds = new byte[8];
+    private int outputCount = 0;
+
+    /**
+     * Is a cycle in progress?
+     */
+    private boolean deferring = false;
+
+    private OutputStage() {}
+
+    /**
+     * Adds an output to the stage
+     * @param output The output to add
+     * @return The output
+     */
+    public CoalescedOutput add(CoalescedOutput output) {
+        return add(output, OTHER);
+    }
+
+    /**
+     * Adds an output that carries motor powers to the stage.  Its epsilon follows {@link #MOTOR_POWER_EPSILON}.
+     * @param output The output to add
+     * @return The output
+     */
+    public CoalescedOutput addMotorPower(CoalescedOutput output) {
+        return add(output, MOTOR_POWER);
+    }
+
+    /**
+     * Adds an output that carries servo positions to the stage.  Its epsilon follows {@link #SERVO_POSITION_EPSILON}.
+     * @param output The output to add
+     * @return The output
+     */
+    public CoalescedOutput addServoPosition(CoalescedOutput output) {
+        return add(output, SERVO_POSITION);
+    }
+
+    private synchronized CoalescedOutput add(CoalescedOutput output, byte kind) {
+        if (outputCount == outputs.length) {
+            outputs = Arrays.copyOf(outputs, outputs.length * 2);
+            kinds = Arrays.copyOf(kinds, kinds.length * 2);
+        }
+        kinds[outputCount] = kind;
+        outputs[outputCount++] = output;
+        updateEpsilon(output, kind);
+        output.setDeferred(deferring);
+        return output;
+    }
+
+    /**
+     * Gives an output the current value of the tunable its epsilon follows, if any
+     */
+    private static void updateEpsilon(CoalescedOutput output, byte kind) {
+        if (kind == MOTOR_POWER) {
+            output.setEpsilon(MOTOR_POWER_EPSILON);
+        }
+        else if (kind == SERVO_POSITION) {
+            output.setEpsilon(SERVO_POSITION_EPSILON);
+        }
+    }
+
+    /**
+     * Starts holding writes until {@link #flush()} is called.  Any writes left over from a previous cycle are pushed
+     *  first, and the epsilons are brought up to date with their tunables.
+     */
+    public synchronized void defer() {
+        for (int i = 0; i < outputCount; i++) {
+            outputs[i].flush();
+            updateEpsilon(outputs[i], kinds[i]);
+            outputs[i].setDeferred(true);
+        }
+        deferring = true;
+    }
+
+    /**
+     * Pushes every held write to the hubs and stops holding writes
+     */
+    public synchronized void flush() {
+        for (int i = 0; i < outputCount; i++) {
+            outputs[i].setDeferred(false);
+            outputs[i].flush();
+        }
+        deferring = false;
+    }
+
+    /**
+     * @return The amount of writes that have been sent to the hubs through this stage
+     */
+    public synchronized long getWritesIssued() {
+        long total = 0;
+        for (int i = 0; i < outputCount; i++) {
+            total += outputs[i].getWritesIssued();
+        }
+        return total;
+    }
+
+    /**
+     * @return The amount of writes that were dropped because the actuator already had the commanded value
+     */
+    public synchronized long getWritesSkipped() {
+        long total = 0;
+        for (int i = 0; i < outputCount; i++) {
+            total += outputs[i].getWritesSkipped();
+        }
+        return total;
+    }
+}
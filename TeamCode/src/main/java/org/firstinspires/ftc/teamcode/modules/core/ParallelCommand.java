@@ -0,0 +1,114 @@
+package org.firstinspires.ftc.teamcode.modules.core;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Runs commands at the same time, ticking each of them every cycle.  The commands must not share any subsystems.
+ * @see Commands#parallel(Command...)
+ * @see Commands#race(Command...)
+ * @see Commands#deadline(Command, Command...)
+ */
+/* package-private */ final class ParallelCommand extends Command {
+    /**
+     * When the group as a whole finishes
+     */
+    enum EndCondition {
+        /**
+         * Once every command has finished
+         */
+        ALL,
+        /**
+         * Once any command finishes; the rest are interrupted
+         */
+        ANY,
+        /**
+         * Once the first command finishes; the rest are interrupted
+         */
+        FIRST
+    }
+
+    private final Command[] commands;
+    private final boolean[] running;
+    private final EndCondition endCondition;
+    private boolean finished;
+
+    /**
+     * @throws IllegalArgumentException Two of the commands share a subsystem
+     */
+    ParallelCommand(EndCondition endCondition, Command... commands) {
+        this.commands = commands.clone();
+        this.endCondition = endCondition;
+        running = new boolean[commands.length];
+
+        final Set<Object> requirements = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Command command : this.commands) {
+            for (Object requirement : command.getRequirements()) {
+                if (!requirements.add(requirement)) {
+                    throw new IllegalArgumentException("Commands run in parallel cannot share a subsystem ("
+                            + requirement + ")");
+                }
+            }
+        }
+        addRequirements(requirements.toArray());
+    }
+
+    @Override
+    public void initialize() {
+        finished = commands.length == 0;
+        for (int i = 0; i < commands.length; i++) {
+            commands[i].initialize();
+            running[i] = true;
+        }
+    }
+
+    @Override
+    public void execute() {
+        boolean anyRunning = false;
+        for (int i = 0; i < commands.length; i++) {
+            if (!running[i]) {
+                continue;
+            }
+            final Command command = commands[i];
+            command.execute();
+            if (command.isFinished()) {
+                command.end(false);
+                running[i] = false;
+                if (endCondition == EndCondition.ANY || (endCondition == EndCondition.FIRST && i == 0)) {
+                    finished = true;
+                }
+            }
+            else {
+                anyRunning = true;
+            }
+        }
+        if (!anyRunning) {
+            finished = true;
+        }
+        if (finished) {
+            interruptRunning();
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        if (interrupted) {
+            interruptRunning();
+        }
+    }
+
+    private void interruptRunning() {
+        for (int i = 0; i < commands.length; i++) {
+            if (running[i]) {
+                running[i] = false;
+                commands[i].end(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.firstinspires.ftc.teamcode.modules.core;
+
+/**
+ * Runs commands one after another.  When a command finishes, the next one starts in the same cycle, so a chain of
+ *  commands that finish immediately (like {@link Commands#runOnce(Runnable, Object...)}) does not cost a cycle each.
+ * @see Commands#sequence(Command...)
+ */
+/* package-private */ final class SequentialCommand extends Command {
+    private final Command[] commands;
+
+    /**
+     * The index of the running command, or {@code commands.length} once they have all finished
+     */
+    private int current;
+
+    SequentialCommand(Command... commands) {
+        this.commands = commands.clone();
+        for (Command command : this.commands) {
+            addRequirements(command.getRequirements().toArray());
+        }
+    }
+
+    @Override
+    public void initialize() {
+        current = 0;
+        if (commands.length > 0) {
+            commands[0].initialize();
+        }
+    }
+
+    @Override
+    public void execute() {
+        while (current < commands.length) {
+            final Command command = commands[current];
+            command.execute();
+            if (!command.isFinished()) {
+                return;
+            }
+            command.end(false);
+            current++;
+            if (current < commands.length) {
+                commands[current].initialize();
+            }
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return current >= commands.length;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        if (interrupted && current < commands.length) {
+            commands[current].end(true);
+        }
+    }
+}
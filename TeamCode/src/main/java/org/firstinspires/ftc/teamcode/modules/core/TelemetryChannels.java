@@ -0,0 +1,464 @@
+package org.firstinspires.ftc.teamcode.modules.core;
+
+import com.acmerobotics.dashboard.FtcDashboard;
+import com.acmerobotics.dashboard.config.Config;
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.teamcode.util.BinaryLogWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Numeric telemetry that costs the control loop almost nothing.  Modules register each value they report as a
+ *  {@link Channel} once, in their constructors, and then only store a primitive into it each cycle.  Formatting the
+ *  values into strings and sending them to FTC Dashboard is done on a background thread at {@link #PUBLISH_RATE_HZ}.
+ * <p>
+ * Values written during a cycle are made visible to the background thread all at once by
+ *  {@link ModuleManager#endLoop()}, so a published set of values always comes from a single cycle.  The Driver Station
+ *  gets the most recently formatted values from {@link ModuleManager#logTelemetryChannels()}, since the OpMode's
+ *  {@link Telemetry} can't safely be used from another thread.
+ * <p>
+ * Every channel can also be {@linkplain #startRecording(String) recorded} at full rate to a {@link BinaryLogWriter
+ *  binary log}, for analysis after a match.  A record is only written when a channel's value changes.
+ * <p>
+ * Channels are only published by a {@link ModuleManager}.  In an OpMode without one, each value is instead added to
+ *  the OpMode's telemetry as it is set, formatted on the spot, so modules used on their own still report.
+ * <p>
+ * There is exactly one set of channels per {@link OpMode}.
+ * @see #of(OpMode)
+ */
+@Config
+public final class TelemetryChannels {
+    /**
+     * How often channel values are formatted and sent to FTC Dashboard, in times per second.  Values of 0 or less
+     *  pause publishing.
+     */
+    public static double PUBLISH_RATE_HZ = 10;
+
+    /**
+     * Whether {@link ModuleManager} records every channel to a binary log in {@link #RECORDING_DIRECTORY}
+     */
+    public static boolean RECORD = true;
+
+    /**
+     * The amount of values a recording holds before it starts overwriting the oldest.  Each value takes 24 bytes.
+     */
+    public static int RECORDING_CAPACITY = 1 << 20;
+
+    /**
+     * The amount of recordings of each kind kept in {@link #RECORDING_DIRECTORY}; older ones are deleted
+     */
+    public static int RECORDINGS_KEPT = 10;
+
+    /**
+     * Where recordings are written
+     */
+    public static final File RECORDING_DIRECTORY = new File(AppUtil.ROOT_FOLDER, "FIRST/matchlogs");
+
+    private static final String TAG = "TelemetryChannels";
+
+    /**
+     * How long the background thread keeps running without a call to {@link #publish()}, in nanoseconds.  This stops
+     *  the thread if its OpMode ends without closing it.
+     */
+    private static final long IDLE_TIMEOUT_NANOS = 2_000_000_000L;
+
+    /**
+     * How long the background thread waits between checks while publishing is paused, in milliseconds
+     */
+    private static final long PAUSED_POLL_MS = 100;
+
+    /**
+     * The channels belonging to each running OpMode
+     */
+    private static final Map<OpMode, TelemetryChannels> channelSets = new WeakHashMap<>();
+
+    /**
+     * Gets the telemetry channels for the specified OpMode, creating them if they do not yet exist
+     * @param opMode The OpMode
+     * @return The OpMode's telemetry channels
+     */
+    public static TelemetryChannels of(OpMode opMode) {
+        synchronized (channelSets) {
+            TelemetryChannels channels = channelSets.get(opMode);
+            if (channels == null) {
+                channels = new TelemetryChannels(opMode);
+                channelSets.put(opMode, channels);
+            }
+            return channels;
+        }
+    }
+
+    /**
+     * A single value reported to telemetry
+     */
+    public static final class Channel {
+        private final TelemetryChannels owner;
+        private final String caption;
+
+        /**
+         * The format used for the value, or null if the value is a boolean
+         */
+        private final String format;
+
+        /**
+         * Only ever accessed by the control thread
+         */
+        private double value = Double.NaN;
+
+        private Channel(TelemetryChannels owner, String caption, String format) {
+            this.owner = owner;
+            this.caption = caption;
+            this.format = format;
+        }
+
+        /**
+         * Sets the value that will be reported at the end of this cycle
+         */
+        public void set(double value) {
+            this.value = value;
+            if (!owner.managed) {
+                owner.addToTelemetry(this);
+            }
+        }
+
+        /**
+         * Sets the value that will be reported at the end of this cycle
+         */
+        public void set(boolean value) {
+            set(value ? 1 : 0);
+        }
+
+        public String getCaption() {
+            return caption;
+        }
+
+        private boolean isBoolean() {
+            return format == null;
+        }
+
+        private String format(double value) {
+            if (Double.isNaN(value)) {
+                return "-";
+            }
+            if (isBoolean()) {
+                return value != 0 ? "true" : "false";
+            }
+            return String.format(Locale.US, format, value);
+        }
+    }
+
+    /**
+     * The OpMode the channels belong to.  Weak, since the OpMode is also what {@link #channelSets} knows this by.
+     */
+    private final WeakReference<OpMode> opMode;
+
+    /**
+     * Whether a {@link ModuleManager} publishes these channels.  Until one does, values go straight to the OpMode's
+     *  telemetry.
+     */
+    private volatile boolean managed = false;
+
+    private Channel[] channels = new Channel[16];
+    private int channelCount = 0;
+
+    /**
+     * The values of each channel as of the end of the last cycle
+     */
+    private double[] published = new double[16];
+    private int publishedCount = 0;
+    private long lastPublishNanos;
+
+    /**
+     * The most recently formatted values, in the same order as {@link #channels}
+     */
+    private volatile String[] formatted = new String[0];
+
+    private Thread publisher = null;
+
+    /**
+     * Where channels are being recorded, or null if they aren't
+     */
+    private BinaryLogWriter recording = null;
+
+    /**
+     * The id of each channel in {@link #recording}, or -1 if it hasn't been added yet
+     */
+    private int[] recordingIds = new int[0];
+
+    /**
+     * The last value of each channel written to {@link #recording}
+     */
+    private double[] lastRecorded = new double[0];
+
+    private TelemetryChannels(OpMode opMode) {
+        this.opMode = new WeakReference<>(opMode);
+    }
+
+    /**
+     * Marks the channels as published by a {@link ModuleManager}, which stops values from being added to the OpMode's
+     *  telemetry as they are set
+     */
+    /* package-private */ void setManaged() {
+        managed = true;
+    }
+
+    /**
+     * Adds a channel's value to the OpMode's telemetry, for OpModes that no {@link ModuleManager} publishes channels
+     *  for
+     */
+    private void addToTelemetry(Channel channel) {
+        final OpMode owner = opMode.get();
+        if (owner != null && owner.telemetry != null) {
+            owner.telemetry.addData(channel.caption, channel.format(channel.value));
+        }
+    }
+
+    /**
+     * Registers a numeric channel
+     * @param caption The caption shown next to the value
+     * @param format The format of the value, as used by {@link String#format(String, Object...)}, e.g. "%.3f"
+     * @return The channel
+     */
+    public synchronized Channel addChannel(String caption, String format) {
+        return add(new Channel(this, caption, format));
+    }
+
+    /**
+     * Registers a numeric channel whose value is shown with three decimal places
+     * @param caption The caption shown next to the value
+     * @return The channel
+     */
+    public Channel addChannel(String caption) {
+        return addChannel(caption, "%.3f");
+    }
+
+    /**
+     * Registers a channel whose value is shown as true or false
+     * @param caption The caption shown next to the value
+     * @return The channel
+     */
+    public synchronized Channel addBooleanChannel(String caption) {
+        return add(new Channel(this, caption, null));
+    }
+
+    private Channel add(Channel channel) {
+        if (channelCount == channels.length) {
+            channels = Arrays.copyOf(channels, channels.length * 2);
+        }
+        channels[channelCount++] = channel;
+        return channel;
+    }
+
+    /**
+     * Makes the values written during this cycle available to the background thread, starting it if necessary.  This
+     *  is only a copy of one double per channel.
+     */
+    public synchronized void publish() {
+        if (published.length < channelCount) {
+            published = new double[channels.length];
+        }
+        for (int i = 0; i < channelCount; i++) {
+            published[i] = channels[i].value;
+        }
+        publishedCount = channelCount;
+        lastPublishNanos = System.nanoTime();
+        if (recording != null) {
+            record(lastPublishNanos);
+        }
+
+        if (publisher == null && channelCount > 0) {
+            publisher = new Thread(this::runPublisher, "Telemetry channels");
+            publisher.setDaemon(true);
+            publisher.start();
+        }
+    }
+
+    /**
+     * Starts recording every channel to a new binary log in {@link #RECORDING_DIRECTORY}, deleting the oldest logs
+     *  there so that at most {@link #RECORDINGS_KEPT} remain.  If the log can't be created, a warning is written to
+     *  the robot log and nothing is recorded.  This does nothing if channels are already being recorded.
+     * @param name The start of the log's file name, e.g. the OpMode's name
+     */
+    public synchronized void startRecording(String name) {
+        if (recording != null) {
+            return;
+        }
+        if (!prepareRecordingDirectory(".bin")) {
+            return;
+        }
+        final File path = new File(RECORDING_DIRECTORY, name + "-" + System.currentTimeMillis() + ".bin");
+        try {
+            recording = new BinaryLogWriter(path, 1, RECORDING_CAPACITY);
+        }
+        catch (IOException | IllegalArgumentException e) {
+            RobotLog.ww(TAG, e, "Could not create " + path + "; not recording");
+        }
+    }
+
+    /**
+     * Creates {@link #RECORDING_DIRECTORY} if necessary, and deletes the oldest recordings of one kind there to make
+     *  room for a new one, so that at most {@link #RECORDINGS_KEPT} of that kind remain
+     * @param extension The extension of that kind of recording, e.g. ".bin"
+     * @return Whether the directory exists; if not, a warning has been written to the robot log
+     */
+    public static boolean prepareRecordingDirectory(String extension) {
+        if (!RECORDING_DIRECTORY.isDirectory() && !RECORDING_DIRECTORY.mkdirs()) {
+            RobotLog.ww(TAG, "Could not create " + RECORDING_DIRECTORY + "; not recording");
+            return false;
+        }
+        final File[] recordings = RECORDING_DIRECTORY.listFiles((directory, fileName) -> fileName.endsWith(extension));
+        if (recordings == null || recordings.length < RECORDINGS_KEPT) {
+            return true;
+        }
+        // leave room for the one about to be created
+        Arrays.sort(recordings, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i <= recordings.length - RECORDINGS_KEPT; i++) {
+            if (!recordings[i].delete()) {
+                RobotLog.ww(TAG, "Could not delete " + recordings[i]);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes every channel whose value changed since it was last recorded
+     */
+    private void record(long timestampNanos) {
+        if (recordingIds.length < channelCount) {
+            final int oldLength = recordingIds.length;
+            recordingIds = Arrays.copyOf(recordingIds, channels.length);
+            lastRecorded = Arrays.copyOf(lastRecorded, channels.length);
+            Arrays.fill(recordingIds, oldLength, recordingIds.length, -1);
+            Arrays.fill(lastRecorded, oldLength, lastRecorded.length, Double.NaN);
+        }
+        try {
+            for (int i = 0; i < channelCount; i++) {
+                if (recordingIds[i] < 0) {
+                    recordingIds[i] = recording.addChannel(channels[i].caption, "value");
+                }
+                final double value = published[i];
+                if (Double.doubleToLongBits(value) != Double.doubleToLongBits(lastRecorded[i])) {
+                    recording.write(recordingIds[i], timestampNanos, value);
+                    lastRecorded[i] = value;
+                }
+            }
+        }
+        catch (IllegalStateException e) {
+            RobotLog.ww(TAG, e, "Too many channels to record; recording stopped");
+            stopRecording();
+        }
+    }
+
+    private void stopRecording() {
+        if (recording == null) {
+            return;
+        }
+        try {
+            recording.close();
+        }
+        catch (IOException e) {
+            RobotLog.ww(TAG, e, "Could not close recording");
+        }
+        recording = null;
+        recordingIds = new int[0];
+        lastRecorded = new double[0];
+    }
+
+    /**
+     * Adds the most recently formatted value of every channel to the given telemetry.  Nothing is formatted here.
+     * @param telemetry The telemetry to add to, usually the OpMode's
+     */
+    public void addTo(Telemetry telemetry) {
+        final String[] values = formatted;
+        final Channel[] registered;
+        synchronized (this) {
+            registered = channels;
+        }
+        for (int i = 0; i < values.length; i++) {
+            telemetry.addData(registered[i].caption, values[i]);
+        }
+    }
+
+    /**
+     * Stops the background thread and any recording.  The thread will be started again by the next call to
+     *  {@link #publish()}.
+     */
+    public void close() {
+        final Thread thread;
+        synchronized (this) {
+            stopRecording();
+            thread = publisher;
+            publisher = null;
+        }
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        try {
+            thread.join(PAUSED_POLL_MS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runPublisher() {
+        double[] values = new double[0];
+        Channel[] publishedChannels;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (PUBLISH_RATE_HZ <= 0) {
+                    Thread.sleep(PAUSED_POLL_MS);
+                    continue;
+                }
+                Thread.sleep((long) (1000 / PUBLISH_RATE_HZ));
+
+                final int count;
+                synchronized (this) {
+                    if (System.nanoTime() - lastPublishNanos > IDLE_TIMEOUT_NANOS) {
+                        if (publisher == Thread.currentThread()) {
+                            publisher = null;
+                        }
+                        return;
+                    }
+                    count = publishedCount;
+                    if (values.length < count) {
+                        values = new double[published.length];
+                    }
+                    System.arraycopy(published, 0, values, 0, count);
+                    publishedChannels = channels;
+                }
+
+                final String[] strings = new String[count];
+                final TelemetryPacket packet = new TelemetryPacket(false);
+                for (int i = 0; i < count; i++) {
+                    final Channel channel = publishedChannels[i];
+                    strings[i] = channel.format(values[i]);
+                    if (!Double.isNaN(values[i])) {
+                        packet.put(channel.caption, channel.isBoolean() ? (Object) (values[i] != 0) : (Object) values[i]);
+                    }
+                }
+                formatted = strings;
+
+                final FtcDashboard dashboard = FtcDashboard.getInstance();
+                if (dashboard != null) {
+                    dashboard.sendTelemetryPacket(packet);
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            // closed
+        }
+    }
+}
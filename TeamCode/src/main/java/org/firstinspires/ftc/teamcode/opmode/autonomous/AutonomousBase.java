@@ -2,7 +2,6 @@ package org.firstinspires.ftc.teamcode.opmode.autonomous;
 
 import com.acmerobotics.dashboard.config.Config;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
-import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.RobotLog;
 
 import org.firstinspires.ftc.robotcore.external.navigation.Pose2D;
@@ -10,12 +9,18 @@ import org.firstinspires.ftc.teamcode.modules.Arm;
 import org.firstinspires.ftc.teamcode.modules.AutonomousDriveTrain;
 import org.firstinspires.ftc.teamcode.modules.Intake;
 import org.firstinspires.ftc.teamcode.modules.LinearSlide;
+import org.firstinspires.ftc.teamcode.modules.core.Command;
+import org.firstinspires.ftc.teamcode.modules.core.CommandScheduler;
+import org.firstinspires.ftc.teamcode.modules.core.LoopScheduler;
 import org.firstinspires.ftc.teamcode.modules.core.ModuleManager;
 import org.firstinspires.ftc.teamcode.modules.core.MotorPowerUpdater;
 import org.firstinspires.ftc.teamcode.opmode.teleop.TeleOpMain;
+import org.firstinspires.ftc.teamcode.util.Clock;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.concurrent.TimeUnit;
+import java.util.Collections;
+import java.util.List;
 import java.util.function.BooleanSupplier;
 
 /**
@@ -36,6 +41,69 @@ public abstract class AutonomousBase extends LinearOpMode {
      */
     protected final ModuleManager moduleManager = new ModuleManager(this);
 
+    /**
+     * Runs this opmode's {@linkplain Command commands}.  Scheduled commands are ticked every cycle of every wait in
+     *  this class, so they keep running while the opmode waits on something else.
+     * @see #runCommand(Command)
+     */
+    protected final CommandScheduler commandScheduler = new CommandScheduler();
+
+    /**
+     * How long one step of the autonomous took
+     * @see #step(String, Command)
+     */
+    public static final class StepTime {
+        private final String name;
+        private final long startNanos, durationNanos;
+        private final boolean interrupted;
+
+        private StepTime(String name, long startNanos, long durationNanos, boolean interrupted) {
+            this.name = name;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.interrupted = interrupted;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return When the step started, in nanoseconds after the play button was pressed
+         */
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * @return true if the step was stopped before it finished, e.g. by a timeout
+         */
+        public boolean wasInterrupted() {
+            return interrupted;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.3f s%s", name, durationNanos / 1e9, interrupted ? " (interrupted)" : "");
+        }
+    }
+
+    /**
+     * Every step that has ended, in the order they ended
+     */
+    private final List<StepTime> stepTimes = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * When the play button was pressed and when the autonomous finished, as given by {@link Clock#nanoTime()}, or
+     *  {@link #NOT_YET} if that hasn't happened yet
+     */
+    private volatile long startNanos = NOT_YET, endNanos = NOT_YET;
+    private static final long NOT_YET = Long.MIN_VALUE;
+
     /**
      * Pauses until the play button has been pressed (or until the current thread
      * gets interrupted, which typically indicates that the OpMode has been stopped).
@@ -44,23 +112,43 @@ public abstract class AutonomousBase extends LinearOpMode {
     public void waitForStart() {
         TeleOpMain.resetSlidePosition = false; // We have already reset the slide position in our init
         super.waitForStart();
+        startNanos = Clock.nanoTime();
     }
 
     /**
      * Blocks the current thread from progressing until a condition is met.
-     * While waiting, updates all loaded {@linkplain MotorPowerUpdater MotorPowerUpdaters}.
-     * @param conditionToStop When this returns true, the method will return
+     * While waiting, runs all scheduled {@linkplain Command commands}, updates all loaded
+     * {@linkplain MotorPowerUpdater MotorPowerUpdaters} and shows the modules' telemetry channels.
+     * @param conditionToStop When this returns true, the method will return.  This is checked after the commands
+     *                        have run each cycle.
      * @throws InterruptedException This opmode has been stopped
      */
     private void waitUntil(BooleanSupplier conditionToStop) throws InterruptedException {
         RobotLog.ii(TAG, "Begin wait");
-        while (!conditionToStop.getAsBoolean()) {
-            if (isStopRequested()) {
-                throw new InterruptedException();
+        final LoopScheduler scheduler = moduleManager.getScheduler();
+        scheduler.reset();
+        moduleManager.beginLoop();
+        try {
+            while (true) {
+                commandScheduler.run();
+                if (conditionToStop.getAsBoolean()) {
+                    break;
+                }
+                if (isStopRequested()) {
+                    throw new InterruptedException();
+                }
+                moduleManager.updateMotorPowerLoops();
+                moduleManager.logTelemetryChannels();
+                telemetry.update();
+                moduleManager.endLoop();
+                scheduler.awaitNextCycle();
+                moduleManager.beginLoop(); // the next condition check is part of the next cycle
             }
-            moduleManager.updateMotorPowerLoops();
         }
-        RobotLog.ii(TAG, "End wait");
+        finally {
+            moduleManager.endLoop(); // don't hold back whatever the caller does next
+        }
+        RobotLog.ii(TAG, "End wait (" + scheduler.getOverruns() + " overruns in " + scheduler.getCycles() + " cycles)");
     }
 
     /**
@@ -70,10 +158,9 @@ public abstract class AutonomousBase extends LinearOpMode {
      * @throws InterruptedException This opmode has been stopped
      */
     protected final void waitForTime(long timeoutMs) throws InterruptedException {
-        final ElapsedTime run = new ElapsedTime();
-        run.reset();
+        final long deadlineNanos = Clock.nanoTime() + timeoutMs * 1_000_000;
         RobotLog.ii(TAG, "Waiting for " + timeoutMs + " ms");
-        waitUntil(() -> run.time(TimeUnit.MILLISECONDS) >= timeoutMs);
+        waitUntil(() -> Clock.nanoTime() - deadlineNanos >= 0);
     }
 
     /**
@@ -84,17 +171,16 @@ public abstract class AutonomousBase extends LinearOpMode {
      * @throws InterruptedException This opmode has been stopped
      */
     protected final void waitForMotorUpdaters(long timeoutMs, MotorPowerUpdater ...mechanisms) throws InterruptedException {
-        final ElapsedTime run = new ElapsedTime();
-        run.reset();
+        final long deadlineNanos = Clock.nanoTime() + timeoutMs * 1_000_000;
         RobotLog.ii(TAG, "Waiting for " + mechanisms.length + " PID loops with timeout of " + timeoutMs + " ms");
         // wait until mechanisms are done updating or timeout is reached, whichever comes first
-        waitUntil(() -> run.time(TimeUnit.MILLISECONDS) >= timeoutMs ||
+        waitUntil(() -> Clock.nanoTime() - deadlineNanos >= 0 ||
                 Arrays.stream(mechanisms).reduce( // true == stop waiting, false == keep waiting
                 true, // a && true == a
                 (stop, mechanism) -> {
                     if (mechanism.isUpdateNecessary()) {
                         // more updates necessary, keep waiting
-                        mechanism.updateMotorPowers();
+                        moduleManager.updateMotorPowers(mechanism);
                         return false;
                     }
                     return stop; // this mechanism has finished updating
@@ -113,25 +199,39 @@ public abstract class AutonomousBase extends LinearOpMode {
         final Intake intake = moduleManager.getModule(Intake.class);
 
         RobotLog.ii(TAG, "Resetting arm position");
+        final long stepStartNanos = Clock.nanoTime();
+        moduleManager.beginLoop();
 
         // get arm out of way
         slide.setTargetHeight(0);
-        slide.updateMotorPowers();
+        moduleManager.updateMotorPowers(slide);
         arm.setTargetRotationAbsolute(20);
-        arm.updateMotorPowers();
+        moduleManager.updateMotorPowers(arm);
         intake.moveWristTo(Intake.WRIST_POSITION_DEACTIVATED);
-        Thread.sleep(TeleOpMain.INITIAL_JUMP_TIME_MILLIS);
+        moduleManager.endLoop();
+        Clock.sleepMillis(TeleOpMain.INITIAL_JUMP_TIME_MILLIS);
         arm.deactivate();
 
+        moduleManager.getScheduler().reset();
+        moduleManager.beginLoop();
         while (!arm.monitorPositionSwitch()) {
-            slide.updateMotorPowers();
+            moduleManager.updateMotorPowers(slide);
+            moduleManager.endLoop();
+            moduleManager.getScheduler().awaitNextCycle();
+            moduleManager.beginLoop();
         }
+        moduleManager.endLoop();
         arm.activate();
+        recordStep("Reset arm position", stepStartNanos, false);
     }
 
     protected final void waitForEnd() throws InterruptedException {
         try {
-            RobotLog.ii(TAG, "Auto done");
+            endNanos = Clock.nanoTime();
+            RobotLog.ii(TAG, "Auto done in " + String.format("%.3f", getAutonomousDurationNanos() / 1e9) + " s");
+            for (StepTime step : getStepTimes()) {
+                RobotLog.ii(TAG, "  " + step);
+            }
             waitUntil(this::isStopRequested);
         }
         finally {
@@ -140,6 +240,121 @@ public abstract class AutonomousBase extends LinearOpMode {
         }
     }
 
+    /**
+     * Schedules a command and blocks the current thread from progressing until it has finished.
+     * While waiting, runs all other scheduled commands and updates all loaded
+     * {@linkplain MotorPowerUpdater MotorPowerUpdaters}.
+     * @param command The command to run
+     * @throws InterruptedException This opmode has been stopped
+     */
+    protected final void runCommand(Command command) throws InterruptedException {
+        commandScheduler.schedule(command);
+        try {
+            waitUntil(() -> !commandScheduler.isScheduled(command));
+        }
+        finally {
+            commandScheduler.cancel(command); // does nothing if it finished
+        }
+    }
+
+    /**
+     * Names part of the autonomous so that its duration is recorded.  The times are logged once the autonomous is done
+     *  and can be read with {@link #getStepTimes()}.
+     * @param name What the step does, e.g. "Score preload"
+     * @param command The step
+     * @return A command that runs the step, with the same requirements
+     */
+    protected final Command step(String name, Command command) {
+        return new Command(command.getRequirements().toArray()) {
+            private long stepStartNanos;
+
+            @Override
+            public void initialize() {
+                stepStartNanos = Clock.nanoTime();
+                command.initialize();
+            }
+
+            @Override
+            public void execute() {
+                command.execute();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return command.isFinished();
+            }
+
+            @Override
+            public void end(boolean interrupted) {
+                command.end(interrupted);
+                recordStep(name, stepStartNanos, interrupted);
+            }
+        };
+    }
+
+    private void recordStep(String name, long stepStartNanos, boolean interrupted) {
+        final long origin = startNanos == NOT_YET ? stepStartNanos : startNanos;
+        stepTimes.add(new StepTime(name, stepStartNanos - origin, Clock.nanoTime() - stepStartNanos, interrupted));
+    }
+
+    /**
+     * @return How long each named step took, in the order they ended
+     * @see #step(String, Command)
+     */
+    public final List<StepTime> getStepTimes() {
+        synchronized (stepTimes) {
+            return new ArrayList<>(stepTimes);
+        }
+    }
+
+    /**
+     * @return The time from the play button being pressed to the autonomous being done, in nanoseconds, or -1 if it
+     *  isn't done yet
+     */
+    public final long getAutonomousDurationNanos() {
+        final long end = endNanos;
+        return end == NOT_YET || startNanos == NOT_YET ? -1 : end - startNanos;
+    }
+
+    /**
+     * Creates a command that moves the robot to the specified position.  Unlike
+     *  {@link #moveRobotTo(long, Pose2D)}, this does not block, so it can be run alongside commands that move the
+     *  mechanisms.
+     * @param timeoutMs The maximum time that should be spent moving, in milliseconds
+     * @param destination The position for the robot to move to
+     * @return The command, which requires the drive train
+     */
+    protected final Command driveTo(long timeoutMs, Pose2D destination) {
+        final AutonomousDriveTrain driveTrain = moduleManager.getModule(AutonomousDriveTrain.class);
+        return new Command(driveTrain) {
+            @Override
+            public void initialize() {
+                driveTrain.setTargetPose(destination);
+                RobotLog.ii(TAG, "Moving from " + driveTrain.getRobotPose() + " to " + destination);
+            }
+
+            @Override
+            public boolean isFinished() {
+                return !driveTrain.isUpdateNecessary();
+            }
+
+            @Override
+            public void end(boolean interrupted) {
+                RobotLog.ii(TAG, (interrupted ? "Stopped moving at " : "Ended at ") + driveTrain.getRobotPose());
+            }
+        }.withTimeout(timeoutMs);
+    }
+
+    /**
+     * Creates a command that moves the robot to the specified position, with the default timeout
+     * @param destination The position for the robot to move to
+     * @return The command, which requires the drive train
+     * @see #driveTo(long, Pose2D)
+     */
+    protected final Command driveTo(Pose2D destination) {
+        return driveTo(AutonomousConstants.DRIVE_TRAIN_PID_DEFAULT_TIMEOUT_MS, destination);
+    }
+
     /**
      * Waits until the robot has moved to the specified position.
      * While waiting, updates all {@linkplain MotorPowerUpdater MotorPowerUpdaters}
@@ -149,11 +364,7 @@ public abstract class AutonomousBase extends LinearOpMode {
      * @throws InterruptedException This opmode has been stopped
      */
     protected final void moveRobotTo(long timeoutMs, Pose2D destination) throws InterruptedException {
-        final AutonomousDriveTrain driveTrain = moduleManager.getModule(AutonomousDriveTrain.class);
-        driveTrain.setTargetPose(destination);
-        RobotLog.ii(TAG, "Moving from " + driveTrain.getRobotPose() + " to " + destination);
-        waitForMotorUpdaters(timeoutMs, driveTrain);
-        RobotLog.ii(TAG, "Ended at " + driveTrain.getRobotPose());
+        runCommand(driveTo(timeoutMs, destination));
     }
 
     /**
@@ -6,6 +6,7 @@ import org.firstinspires.ftc.teamcode.modules.Arm;
 import org.firstinspires.ftc.teamcode.modules.AutonomousDriveTrain;
 import org.firstinspires.ftc.teamcode.modules.Intake;
 import org.firstinspires.ftc.teamcode.modules.LinearSlide;
+import org.firstinspires.ftc.teamcode.modules.core.Commands;
 import org.firstinspires.ftc.teamcode.opmode.teleop.TeleOpMain;
 
 @Autonomous
@@ -13,6 +14,7 @@ public class BasketAuto3Sample extends BasketAutonomous {
     @Override
     public void runOpMode() throws InterruptedException {
         try {
+            moduleManager.preload(AutonomousDriveTrain.class, Arm.class, LinearSlide.class, Intake.class);
             final AutonomousDriveTrain driveTrain = moduleManager.getModule(AutonomousDriveTrain.class);
             final Arm arm = moduleManager.getModule(Arm.class);
             final LinearSlide slide = moduleManager.getModule(LinearSlide.class);
@@ -24,26 +26,23 @@ public class BasketAuto3Sample extends BasketAutonomous {
 
             resetArmPosition();
 
-            /* score preload */
-            scoreHighBasket(arm, slide, intake);
-
-            /* Intake & score the 1st sample */
-            moveRobotTo(intake1);
-            intakeSample(intake, arm, slide, driveTrain, INTAKE1_PAUSE_MS);
-            scoreHighBasket(arm, slide, intake);
-
-            /* Intake & score the 2nd sample */
-            moveRobotTo(intake2);
-            intakeSample(intake, arm, slide, driveTrain, INTAKE2_PAUSE_MS);
-            scoreHighBasket(arm, slide, intake);
-
-            /* hang */
-            arm.setTargetRotation(Arm.ARM_ROTATION_HANG_LVL1_SETUP);
-            slide.setTargetHeight(LinearSlide.SLIDE_HEIGHT_HANG_LVL1);
-            intake.moveWristTo(Intake.WRIST_POSITION_DEACTIVATED);
-            moveRobotTo(hangSetup);
-            moveRobotTo(HANG_MOVE_TO_FINAL_TIMEOUT_MS, hangFinal);
-            arm.deactivate();
+            runCommand(Commands.sequence(
+                    /* score preload */
+                    step("Score preload", scoreHighBasket(arm, slide, intake)),
+
+                    /* Intake & score the 1st sample */
+                    step("Move to sample 1", moveToSample(intake1, arm, slide)),
+                    step("Intake sample 1", intakeSample(intake, arm, slide, driveTrain, INTAKE1_PAUSE_MS)),
+                    step("Score sample 1", scoreHighBasket(arm, slide, intake)),
+
+                    /* Intake & score the 2nd sample */
+                    step("Move to sample 2", moveToSample(intake2, arm, slide)),
+                    step("Intake sample 2", intakeSample(intake, arm, slide, driveTrain, INTAKE2_PAUSE_MS)),
+                    step("Score sample 2", scoreHighBasket(arm, slide, intake)),
+
+                    /* hang */
+                    step("Hang", hang(arm, slide, intake))
+            ));
 
             waitForEnd();
         }
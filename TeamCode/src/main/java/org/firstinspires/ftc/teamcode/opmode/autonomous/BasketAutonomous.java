@@ -10,6 +10,8 @@ import org.firstinspires.ftc.teamcode.modules.AutonomousDriveTrain;
 import org.firstinspires.ftc.teamcode.modules.Arm;
 import org.firstinspires.ftc.teamcode.modules.Intake;
 import org.firstinspires.ftc.teamcode.modules.LinearSlide;
+import org.firstinspires.ftc.teamcode.modules.core.Command;
+import org.firstinspires.ftc.teamcode.modules.core.Commands;
 import org.firstinspires.ftc.teamcode.opmode.teleop.TeleOpMain;
 
 @Config
@@ -29,6 +31,7 @@ public class BasketAutonomous extends AutonomousBase {
     public static long SCORING_ARM_SLIDE_MOVEMENT_TIMEOUT_MS = 1000;
     public static long INTAKE_ARM_SLIDE_MOVEMENT_TIMEOUT_MS = 1000;
     public static long HANG_MOVE_TO_FINAL_TIMEOUT_MS = 1000;
+    public static long STOW_TIMEOUT_MS = 500;
 
     public static double SCORING_X = -21;
     public static double SCORING_Y = 10;
@@ -115,6 +118,7 @@ public class BasketAutonomous extends AutonomousBase {
     @Override
     public void runOpMode() throws InterruptedException {
         try {
+            moduleManager.preload(AutonomousDriveTrain.class, Arm.class, LinearSlide.class, Intake.class);
             final AutonomousDriveTrain driveTrain = moduleManager.getModule(AutonomousDriveTrain.class);
             final Arm arm = moduleManager.getModule(Arm.class);
             final LinearSlide slide = moduleManager.getModule(LinearSlide.class);
@@ -126,31 +130,28 @@ public class BasketAutonomous extends AutonomousBase {
 
             resetArmPosition();
 
-            /* score preload */
-            scoreHighBasket(arm, slide, intake);
+            runCommand(Commands.sequence(
+                    /* score preload */
+                    step("Score preload", scoreHighBasket(arm, slide, intake)),
 
-            /* Intake & score the 1st sample */
-            moveRobotTo(intake1);
-            intakeSample(intake, arm, slide, driveTrain, INTAKE1_PAUSE_MS);
-            scoreHighBasket(arm, slide, intake);
+                    /* Intake & score the 1st sample */
+                    step("Move to sample 1", moveToSample(intake1, arm, slide)),
+                    step("Intake sample 1", intakeSample(intake, arm, slide, driveTrain, INTAKE1_PAUSE_MS)),
+                    step("Score sample 1", scoreHighBasket(arm, slide, intake)),
 
-            /* Intake & score the 2nd sample */
-            moveRobotTo(intake2);
-            intakeSample(intake, arm, slide, driveTrain, INTAKE2_PAUSE_MS);
-            scoreHighBasket(arm, slide, intake);
+                    /* Intake & score the 2nd sample */
+                    step("Move to sample 2", moveToSample(intake2, arm, slide)),
+                    step("Intake sample 2", intakeSample(intake, arm, slide, driveTrain, INTAKE2_PAUSE_MS)),
+                    step("Score sample 2", scoreHighBasket(arm, slide, intake)),
 
-            /* Intake & score the 3rd sample */
-            moveRobotTo(intake3);
-            intakeSample(intake, arm, slide, driveTrain, INTAKE3_PAUSE_MS);
-            scoreHighBasket(arm, slide, intake);
+                    /* Intake & score the 3rd sample */
+                    step("Move to sample 3", moveToSample(intake3, arm, slide)),
+                    step("Intake sample 3", intakeSample(intake, arm, slide, driveTrain, INTAKE3_PAUSE_MS)),
+                    step("Score sample 3", scoreHighBasket(arm, slide, intake)),
 
-            /* hang */
-            arm.setTargetRotation(Arm.ARM_ROTATION_HANG_LVL1_SETUP);
-            slide.setTargetHeight(LinearSlide.SLIDE_HEIGHT_HANG_LVL1);
-            intake.moveWristTo(Intake.WRIST_POSITION_DEACTIVATED);
-            moveRobotTo(hangSetup);
-            moveRobotTo(HANG_MOVE_TO_FINAL_TIMEOUT_MS, hangFinal);
-            arm.deactivate();
+                    /* hang */
+                    step("Hang", hang(arm, slide, intake))
+            ));
 
             waitForEnd();
         }
@@ -159,64 +160,126 @@ public class BasketAutonomous extends AutonomousBase {
         }
     }
 
-    protected void postIntake(Arm arm, LinearSlide slide, Intake intake, AutonomousDriveTrain driveTrain) throws InterruptedException {
-        arm.setTargetRotation(Arm.ARM_ROTATION_MOVING);
-        slide.setTargetHeight(LinearSlide.SLIDE_HEIGHT_MOVING);
-        intake.moveWristTo(Intake.WRIST_POSITION_MOVING);
-        final Pose2D curPose = driveTrain.getRobotPose();
-        moveRobotTo(new Pose2D(
-                AutonomousDriveTrain.TRANSLATE_UNIT,
-                curPose.getX(AutonomousDriveTrain.TRANSLATE_UNIT),
-                curPose.getY(AutonomousDriveTrain.TRANSLATE_UNIT),
-                AngleUnit.DEGREES,
-                POST_INTAKE_HEADING
-        ));
+    protected Command postIntake(Arm arm, LinearSlide slide, Intake intake, AutonomousDriveTrain driveTrain) {
+        return Commands.sequence(
+                Commands.runOnce(() -> {
+                    arm.setTargetRotation(Arm.ARM_ROTATION_MOVING);
+                    slide.setTargetHeight(LinearSlide.SLIDE_HEIGHT_MOVING);
+                    intake.moveWristTo(Intake.WRIST_POSITION_MOVING);
+                }, arm, slide, intake),
+                // the pose is read when the command starts, not when it is created
+                Commands.defer(() -> {
+                    final Pose2D curPose = driveTrain.getRobotPose();
+                    return driveTo(new Pose2D(
+                            AutonomousDriveTrain.TRANSLATE_UNIT,
+                            curPose.getX(AutonomousDriveTrain.TRANSLATE_UNIT),
+                            curPose.getY(AutonomousDriveTrain.TRANSLATE_UNIT),
+                            AngleUnit.DEGREES,
+                            POST_INTAKE_HEADING
+                    ));
+                }, driveTrain)
+        );
     }
 
-    protected void scoreHighBasket(Arm arm, LinearSlide slide, Intake intake) throws InterruptedException {
-        slide.setTargetHeight(LinearSlide.SLIDE_HEIGHT_MOVING);
-        intake.moveWristTo(Intake.WRIST_POSITION_FRONT_SCORING_HIGH);
-        waitForMotorUpdaters(PRESCORE_SLIDE_MOVEMENT_MS, slide);
-
-        arm.setTargetRotation(Arm.ARM_ROTATION_FRONT_SCORING_HIGH);
-        slide.setTargetHeight(LinearSlide.SLIDE_HEIGHT_SCORING_HIGH);
-        waitForMotorUpdaters(SCORING_ARM_SLIDE_MOVEMENT_TIMEOUT_MS, arm, slide);
-        moveRobotTo(scoring);
-
-        intake.eject();
-        waitForTime(OUTTAKE_DURATION_MS);
-        intake.settle();
+    /**
+     * Raises the mechanism while driving to the basket, scores, and backs away from the basket.  The mechanism is
+     *  left on its way down to the moving position.
+     */
+    protected Command scoreHighBasket(Arm arm, LinearSlide slide, Intake intake) {
+        return Commands.sequence(
+                Commands.parallel(
+                        driveTo(scoring),
+                        Commands.sequence(
+                                Commands.runOnce(() -> {
+                                    slide.setTargetHeight(LinearSlide.SLIDE_HEIGHT_MOVING);
+                                    intake.moveWristTo(Intake.WRIST_POSITION_FRONT_SCORING_HIGH);
+                                }, slide, intake),
+                                Commands.awaitMechanisms(slide).withTimeout(PRESCORE_SLIDE_MOVEMENT_MS),
+                                Commands.runOnce(() -> {
+                                    arm.setTargetRotation(Arm.ARM_ROTATION_FRONT_SCORING_HIGH);
+                                    slide.setTargetHeight(LinearSlide.SLIDE_HEIGHT_SCORING_HIGH);
+                                }, arm, slide),
+                                Commands.awaitMechanisms(arm, slide).withTimeout(SCORING_ARM_SLIDE_MOVEMENT_TIMEOUT_MS)
+                        )
+                ),
+
+                Commands.runOnce(intake::eject, intake),
+                Commands.waitMillis(OUTTAKE_DURATION_MS),
+                Commands.runOnce(intake::settle, intake),
+
+                // move a bit back from the basket so that the arm can safely move down
+                driveTo(postScore),
+
+                Commands.runOnce(() -> {
+                    arm.setTargetRotation(Arm.ARM_ROTATION_MOVING);
+                    slide.setTargetHeight(LinearSlide.SLIDE_HEIGHT_MOVING);
+                    intake.moveWristTo(Intake.WRIST_POSITION_MOVING);
+                }, arm, slide, intake)
+        );
+    }
 
-        // move a bit back from the basket so that the arm can safely move down
-        moveRobotTo(postScore);
+    /**
+     * Drives to a sample while the arm and slide finish moving down from the basket
+     */
+    protected Command moveToSample(Pose2D sample, Arm arm, LinearSlide slide) {
+        return Commands.parallel(
+                driveTo(sample),
+                Commands.awaitMechanisms(arm, slide).withTimeout(STOW_TIMEOUT_MS)
+        );
+    }
 
-        arm.setTargetRotation(Arm.ARM_ROTATION_MOVING);
-        slide.setTargetHeight(LinearSlide.SLIDE_HEIGHT_MOVING);
-        intake.moveWristTo(Intake.WRIST_POSITION_MOVING);
-        waitForMotorUpdaters(500, arm, slide);
+    protected Command intakeSample(Intake intake, Arm arm, LinearSlide slide, AutonomousDriveTrain driveTrain, long intakeWaitMs) {
+        return Commands.sequence(
+                Commands.runOnce(() -> {
+                    intake.grab();
+                    arm.setTargetRotation(Arm.ARM_ROTATION_INTAKE);
+                    slide.setTargetHeight(LinearSlide.SLIDE_HEIGHT_INTAKE);
+                    intake.moveWristTo(Intake.WRIST_POSITION_INTAKE);
+                }, intake, arm, slide),
+                // wait a bit for the arm & slide to move in place
+                Commands.awaitMechanisms(arm, slide).withTimeout(INTAKE_ARM_SLIDE_MOVEMENT_TIMEOUT_MS),
+
+                // move forward so that the sample is caught
+                // We move for a time instead of using movePID to prevent the program from freezing when
+                // the robot hits a wall
+                Commands.runOnce(() -> {
+                    driveTrain.disableDrivePID(); // so we can do manual control
+                    final Pose2D curPose = driveTrain.getRobotPose();
+                    final double curAngleTrig = curPose.getHeading(AngleUnit.RADIANS) + (Math.PI / 2);
+                    driveTrain.setVelocity(INTAKE_FORWARD_POWER * Math.cos(curAngleTrig), INTAKE_FORWARD_POWER * Math.sin(curAngleTrig), 0);
+                }, driveTrain),
+                Commands.waitMillis(INTAKE_FORWARD_DURATION_MS),
+                Commands.runOnce(driveTrain::enableDrivePID, driveTrain),
+
+                Commands.waitMillis(intakeWaitMs),
+                Commands.runOnce(() -> {
+                    intake.settle();
+                    arm.setTargetRotation(Arm.ARM_ROTATION_MOVING);
+                    slide.setTargetHeight(LinearSlide.SLIDE_HEIGHT_MOVING);
+                    intake.moveWristTo(Intake.WRIST_POSITION_MOVING);
+                }, intake, arm, slide)
+        );
     }
 
-    protected void intakeSample(Intake intake, Arm arm, LinearSlide slide, AutonomousDriveTrain driveTrain, long intakeWaitMs) throws InterruptedException {
-        intake.grab();
-        arm.setTargetRotation(Arm.ARM_ROTATION_INTAKE);
-        slide.setTargetHeight(LinearSlide.SLIDE_HEIGHT_INTAKE);
-        intake.moveWristTo(Intake.WRIST_POSITION_INTAKE);
-        waitForMotorUpdaters(INTAKE_ARM_SLIDE_MOVEMENT_TIMEOUT_MS, arm, slide); // wait a bit for the arm & slide to move in place
-
-        // move forward so that the sample is caught
-        // We move for a time instead of using movePID to prevent the program from freezing when
-        // the robot hits a wall
-        driveTrain.disableDrivePID(); // so we can do manual control
-        final Pose2D curPose = driveTrain.getRobotPose();
-        final double curAngleTrig = curPose.getHeading(AngleUnit.RADIANS) + (Math.PI / 2);
-        driveTrain.setVelocity(INTAKE_FORWARD_POWER * Math.cos(curAngleTrig), INTAKE_FORWARD_POWER * Math.sin(curAngleTrig), 0);
-        waitForTime(INTAKE_FORWARD_DURATION_MS);
-        driveTrain.enableDrivePID();
-
-        waitForTime(intakeWaitMs);
-        intake.settle();
-        arm.setTargetRotation(Arm.ARM_ROTATION_MOVING);
-        slide.setTargetHeight(LinearSlide.SLIDE_HEIGHT_MOVING);
-        intake.moveWristTo(Intake.WRIST_POSITION_MOVING);
+    /**
+     * Sets the mechanism up for the level 1 hang while driving to the bar, then lets the arm go limp
+     */
+    protected Command hang(Arm arm, LinearSlide slide, Intake intake) {
+        return Commands.sequence(
+                Commands.parallel(
+                        driveTo(hangSetup),
+                        Commands.sequence(
+                                // finish moving down from the basket first
+                                Commands.awaitMechanisms(arm, slide).withTimeout(STOW_TIMEOUT_MS),
+                                Commands.runOnce(() -> {
+                                    arm.setTargetRotation(Arm.ARM_ROTATION_HANG_LVL1_SETUP);
+                                    slide.setTargetHeight(LinearSlide.SLIDE_HEIGHT_HANG_LVL1);
+                                    intake.moveWristTo(Intake.WRIST_POSITION_DEACTIVATED);
+                                }, arm, slide, intake)
+                        )
+                ),
+                driveTo(HANG_MOVE_TO_FINAL_TIMEOUT_MS, hangFinal),
+                Commands.runOnce(arm::deactivate, arm)
+        );
     }
-}
\ No newline at end of file
+}
@@ -3,15 +3,13 @@ package org.firstinspires.ftc.teamcode.opmode.autonomous;
 
 import com.acmerobotics.dashboard.config.Config;
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
-import com.qualcomm.robotcore.util.ElapsedTime;
 
 import org.firstinspires.ftc.teamcode.modules.Arm;
 import org.firstinspires.ftc.teamcode.modules.FieldCentricDriveTrain;
 import org.firstinspires.ftc.teamcode.modules.Intake;
 import org.firstinspires.ftc.teamcode.modules.LinearSlide;
 import org.firstinspires.ftc.teamcode.opmode.teleop.TeleOpMain;
-
-import java.util.concurrent.TimeUnit;
+import org.firstinspires.ftc.teamcode.util.Clock;
 
 @Config
 @Autonomous
@@ -32,6 +30,7 @@ public class ImmediateParkAuto extends AutonomousBase {
      */
     @Override
     public void runOpMode() throws InterruptedException {
+        moduleManager.preload(FieldCentricDriveTrain.class, Arm.class, LinearSlide.class, Intake.class);
         final FieldCentricDriveTrain driveTrain = moduleManager.getModule(FieldCentricDriveTrain.class);
         final Arm arm = moduleManager.getModule(Arm.class);
         final LinearSlide slide = moduleManager.getModule(LinearSlide.class);
@@ -43,22 +42,25 @@ public class ImmediateParkAuto extends AutonomousBase {
         resetArmPosition();
 
         driveTrain.setVelocity(0.5, 0, 0);
-        ElapsedTime timer = new ElapsedTime();
-        timer.reset();
-        while (timer.time(TimeUnit.SECONDS) < MOVE_TO_PARK_DURATION_SECONDS) {
+        final long parkStartNanos = Clock.nanoTime();
+        moduleManager.getScheduler().reset();
+        while (Clock.nanoTime() - parkStartNanos < MOVE_TO_PARK_DURATION_SECONDS * 1e9) {
             if (isStopRequested()) {
                 return;
             }
-            slide.updateMotorPowers();
+            moduleManager.beginLoop();
+            moduleManager.updateMotorPowers(slide);
+            moduleManager.endLoop();
+            moduleManager.getScheduler().awaitNextCycle();
         }
 
         driveTrain.setVelocity(0, 0, 0);
 
         arm.activate();
         arm.setTargetRotationAbsolute(20);
-        arm.updateMotorPowers();
+        moduleManager.updateMotorPowers(arm);
         intake.moveWristTo(Intake.WRIST_POSITION_START);
-        Thread.sleep(3L * TeleOpMain.INITIAL_JUMP_TIME_MILLIS);
+        Clock.sleepMillis(3L * TeleOpMain.INITIAL_JUMP_TIME_MILLIS);
         arm.deactivate();
 
         waitForEnd();
@@ -6,9 +6,16 @@ import com.acmerobotics.dashboard.telemetry.MultipleTelemetry;
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import com.qualcomm.robotcore.hardware.Gamepad;
-import com.qualcomm.robotcore.util.ElapsedTime;
+import com.qualcomm.robotcore.util.RobotLog;
 
 import org.firstinspires.ftc.teamcode.modules.*;
+import org.firstinspires.ftc.teamcode.modules.core.ModuleManager;
+import org.firstinspires.ftc.teamcode.modules.core.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.firstinspires.ftc.teamcode.util.GamepadLogWriter;
+
+import java.io.File;
+import java.io.IOException;
 
 @Config
 @TeleOp
@@ -27,8 +34,28 @@ public class TeleOpMain extends OpMode {
     public static double INIT_SLIDE_POSITION_OFFSET = -0.3;
     public static long ARM_ROTATION_DELAY_INTAKE_MS = 500;
 
+    /**
+     * Whether to record the gamepads every loop to a {@link GamepadLogWriter gamepad log} in
+     *  {@link TelemetryChannels#RECORDING_DIRECTORY}, so that the session can be replayed off the robot.  Off by
+     *  default, since each log maps a file of {@link #GAMEPAD_LOG_CAPACITY} frames for the whole session.
+     */
+    public static boolean RECORD_GAMEPADS = false;
+
+    /**
+     * The amount of loops a gamepad log holds, at 24 bytes each; 5 minutes at 200 Hz
+     */
+    public static int GAMEPAD_LOG_CAPACITY = 60_000;
+
+    private static final String TAG = "TeleOpMain";
+
     private boolean slowMovement = false;
 
+    /**
+     * Used to manage the hubs' bulk caches and to load the modules.  The slide is constructed directly so that it
+     *  can be told whether to reset its position.
+     */
+    private ModuleManager moduleManager;
+
     private boolean armIsInMoving = true;
 
     private FieldCentricDriveTrain driveTrain;
@@ -42,29 +69,50 @@ public class TeleOpMain extends OpMode {
     private final Gamepad prevGP1 = new Gamepad();
     private final Gamepad prevGP2 = new Gamepad();
 
-    private final ElapsedTime armDelayTimer = new ElapsedTime();
+    /**
+     * When the queued arm rotation was queued, as given by {@link Clock#nanoTime()}
+     */
+    private long armDelayStartNanos = 0;
     private double queuedArmRotation = 0;
     private boolean armRotationIsQueued = false;
 
+    /**
+     * Where the gamepads are being recorded, or null if they aren't
+     */
+    private GamepadLogWriter gamepadLog = null;
+
     @Override
     public void init() {
-        telemetry = new MultipleTelemetry(telemetry, FtcDashboard.getInstance().getTelemetry());
+        final FtcDashboard dashboard = FtcDashboard.getInstance();
+        if (dashboard != null) { // there's no dashboard off the robot
+            telemetry = new MultipleTelemetry(telemetry, dashboard.getTelemetry());
+        }
+
+        moduleManager = new ModuleManager(this);
+        moduleManager.beginLoop();
 
-        driveTrain = new FieldCentricDriveTrain(this);
+        // the drive train's IMU and OTOS calibration take most of init, so build everything else alongside it
+        moduleManager.preload(FieldCentricDriveTrain.class, Arm.class, Intake.class);
 
         slide = new LinearSlide(this, resetSlidePosition);
 
-        arm = new Arm(this);
+        driveTrain = moduleManager.getModule(FieldCentricDriveTrain.class);
+
+        arm = moduleManager.getModule(Arm.class);
 
-        intake = new Intake(this);
+        intake = moduleManager.getModule(Intake.class);
+        moduleManager.endLoop();
     }
 
     @Override
     public void init_loop() {
-        driveTrain.log();
-        slide.log();
-        arm.log();
-        intake.log();
+        moduleManager.beginLoop();
+        moduleManager.log(driveTrain);
+        moduleManager.log(slide);
+        moduleManager.log(arm);
+        moduleManager.log(intake);
+        moduleManager.logTelemetryChannels();
+        moduleManager.endLoop();
     }
 
     @Override
@@ -72,6 +120,7 @@ public class TeleOpMain extends OpMode {
 //        slide.setTargetHeight(LinearSlide.SLIDE_HEIGHT_MOVING);
 //        arm.setTargetRotation(Arm.ARM_ROTATION_MOVING);
 //        intake.moveWristTo(Intake.WRIST_POSITION_DEACTIVATED);
+        moduleManager.beginLoop();
         if (arm.getCurrentRotationAbsolute() < 20) {
             arm.setTargetRotationAbsolute(20);
         }
@@ -79,18 +128,41 @@ public class TeleOpMain extends OpMode {
             arm.setTargetRotation(arm.getCurrentRotation() + 5);
         }
         slide.setTargetHeight(INIT_SLIDE_POSITION_OFFSET);
-        arm.updateMotorPowers();
-        slide.updateMotorPowers();
+        moduleManager.updateMotorPowers(arm);
+        moduleManager.updateMotorPowers(slide);
+        moduleManager.endLoop();
         try {
-            Thread.sleep(INITIAL_JUMP_TIME_MILLIS);
+            Clock.sleepMillis(INITIAL_JUMP_TIME_MILLIS);
         } catch (InterruptedException ignored) {}
         deactivateArm();
 
         driveTrain.resetRotation();
+        if (RECORD_GAMEPADS) {
+            startGamepadLog();
+        }
+        moduleManager.getScheduler().reset(); // don't count init as an overrun
+    }
+
+    private void startGamepadLog() {
+        if (!TelemetryChannels.prepareRecordingDirectory(".gamepads")) {
+            return;
+        }
+        final File path = new File(TelemetryChannels.RECORDING_DIRECTORY,
+                getClass().getSimpleName() + "-" + System.currentTimeMillis() + ".gamepads");
+        try {
+            gamepadLog = new GamepadLogWriter(path, GAMEPAD_LOG_CAPACITY);
+        }
+        catch (IOException | IllegalArgumentException e) {
+            RobotLog.ww(TAG, e, "Could not create " + path + "; not recording the gamepads");
+        }
     }
 
     @Override
     public void loop() {
+        moduleManager.beginLoop();
+        if (gamepadLog != null) {
+            gamepadLog.write(Clock.nanoTime(), gamepad1, gamepad2);
+        }
         if (gamepad1.guide || gamepad2.guide || gamepad1.ps || gamepad2.ps) {
             terminateOpModeNow();
         }
@@ -148,7 +220,7 @@ public class TeleOpMain extends OpMode {
             slide.setTargetHeight(LinearSlide.SLIDE_HEIGHT_INTAKE);
             intake.moveWristTo(Intake.WRIST_POSITION_INTAKE);
             queuedArmRotation = Arm.ARM_ROTATION_INTAKE;
-            armDelayTimer.reset();
+            armDelayStartNanos = Clock.nanoTime();
             armRotationIsQueued = true;
             slowMovement = true;
             armIsInMoving = false;
@@ -192,13 +264,13 @@ public class TeleOpMain extends OpMode {
             activateArm = false;
         }
 
-        if (armRotationIsQueued && armDelayTimer.milliseconds() >= ARM_ROTATION_DELAY_INTAKE_MS) {
+        if (armRotationIsQueued && Clock.nanoTime() - armDelayStartNanos >= ARM_ROTATION_DELAY_INTAKE_MS * 1_000_000) {
             armRotationIsQueued = false;
             arm.setTargetRotation(queuedArmRotation);
         }
 
-        slide.updateMotorPowers();
-        arm.updateMotorPowers();
+        moduleManager.updateMotorPowers(slide);
+        moduleManager.updateMotorPowers(arm);
         if (gamepad2.y) {
             deactivateArm();
         }
@@ -209,19 +281,48 @@ public class TeleOpMain extends OpMode {
             activateArm();
         }
 
-        driveTrain.log();
-        slide.log();
-        arm.log();
-        intake.log();
+        moduleManager.log(driveTrain);
+        moduleManager.log(slide);
+        moduleManager.log(arm);
+        moduleManager.log(intake);
+        moduleManager.logTelemetryChannels();
+        moduleManager.getScheduler().log(telemetry);
         telemetry.addData("Gamepad1 Right Trigger: ", gamepad1.right_trigger);
         gamepad1.copy(prevGP1);
         gamepad2.copy(prevGP2);
+        moduleManager.endLoop();
+
+        // hold the loop to a fixed rate instead of letting the SDK call us again immediately
+        try {
+            moduleManager.getScheduler().awaitNextCycle();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
 
     @Override
     public void stop() {
         resetSlidePosition = true;
+        try {
+            moduleManager.unloadAll(); // stops the odometry thread
+        }
+        finally {
+            closeGamepadLog();
+        }
+    }
+
+    private void closeGamepadLog() {
+        if (gamepadLog == null) {
+            return;
+        }
+        try {
+            gamepadLog.close();
+        }
+        catch (IOException e) {
+            RobotLog.ww(TAG, e, "Could not close the gamepad log");
+        }
+        gamepadLog = null;
     }
 
     private void activateArm() {
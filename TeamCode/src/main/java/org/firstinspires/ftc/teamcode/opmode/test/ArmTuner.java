@@ -8,10 +8,12 @@ import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 
 import org.firstinspires.ftc.teamcode.modules.Arm;
 import org.firstinspires.ftc.teamcode.modules.LinearSlide;
+import org.firstinspires.ftc.teamcode.modules.core.ModuleManager;
 
 @Config
 @Autonomous
 public class ArmTuner extends OpMode {
+    private ModuleManager moduleManager;
     private Arm arm;
     private LinearSlide slide;
     public static double TARGET_ROTATION = 0;
@@ -21,14 +23,18 @@ public class ArmTuner extends OpMode {
     @Override
     public void init() {
         telemetry = new MultipleTelemetry(telemetry, FtcDashboard.getInstance().getTelemetry());
-        arm = new Arm(this);
-        slide = new LinearSlide(this);
+        moduleManager = new ModuleManager(this);
+        arm = moduleManager.getModule(Arm.class);
+        slide = moduleManager.getModule(LinearSlide.class);
     }
 
     @Override
     public void init_loop() {
-        arm.log();
-        slide.log();
+        moduleManager.beginLoop();
+        moduleManager.log(arm);
+        moduleManager.log(slide);
+        moduleManager.logTelemetryChannels();
+        moduleManager.endLoop();
     }
 
     @Override
@@ -38,11 +44,14 @@ public class ArmTuner extends OpMode {
 
     @Override
     public void loop() {
+        moduleManager.beginLoop();
         arm.setTargetRotation(TARGET_ROTATION);
         if (UPDATE_ARM_POWER) {
-            arm.updateMotorPowers();
+            moduleManager.updateMotorPowers(arm);
         }
-        arm.log();
-        slide.log();
+        moduleManager.log(arm);
+        moduleManager.log(slide);
+        moduleManager.logTelemetryChannels();
+        moduleManager.endLoop();
     }
 }
@@ -23,6 +23,7 @@ public class AutoArmMovementTest extends LinearOpMode {
     @Override
     public void runOpMode() throws InterruptedException {
         final ModuleManager moduleManager = new ModuleManager(this);
+        moduleManager.preload(Arm.class, LinearSlide.class);
         final Arm arm = moduleManager.getModule(Arm.class);
         final LinearSlide slide = moduleManager.getModule(LinearSlide.class);
 
@@ -31,13 +32,17 @@ public class AutoArmMovementTest extends LinearOpMode {
         arm.setTargetRotation(45);
         slide.setTargetHeight(0.25);
 
+        moduleManager.getScheduler().reset();
         do {
             if (isStopRequested()) {
                 return;
             }
-            arm.updateMotorPowers();
-            slide.updateMotorPowers();
+            moduleManager.beginLoop();
+            moduleManager.updateMotorPowers(arm);
+            moduleManager.updateMotorPowers(slide);
+            moduleManager.endLoop();
             telemetry.update();
+            moduleManager.getScheduler().awaitNextCycle();
         } while (arm.isMoving() && slide.isMoving());
 
         telemetry.addLine("Movement complete");
@@ -0,0 +1,80 @@
+package org.firstinspires.ftc.teamcode.roadrunner;
+
+import com.acmerobotics.roadrunner.ftc.Encoder;
+import com.acmerobotics.roadrunner.ftc.OverflowEncoder;
+import com.acmerobotics.roadrunner.ftc.PositionVelocityPair;
+import com.acmerobotics.roadrunner.ftc.RawEncoder;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+/**
+ * The same localization as {@link ThreeDeadWheelLocalizer}, with the twist math done on primitives so that an update
+ *  allocates nothing beyond the encoders' own readings.  It is configured by {@link ThreeDeadWheelLocalizer#PARAMS},
+ *  so the tuned geometry is shared.
+ * <p>
+ * Unlike {@link ThreeDeadWheelLocalizer}, the inputs are not written to the {@code FlightRecorder}.
+ */
+public final class FastThreeDeadWheelLocalizer implements PrimitiveLocalizer {
+    public final Encoder par0, par1, perp;
+
+    public final double inPerTick;
+
+    private int lastPar0Pos, lastPar1Pos, lastPerpPos;
+    private boolean initialized;
+
+    public FastThreeDeadWheelLocalizer(HardwareMap hardwareMap, double inPerTick) {
+        // these use the same configuration names as ThreeDeadWheelLocalizer
+        this(
+                new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, "par0"))),
+                new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, "par1"))),
+                new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, "perp"))),
+                inPerTick
+        );
+    }
+
+    public FastThreeDeadWheelLocalizer(Encoder par0, Encoder par1, Encoder perp, double inPerTick) {
+        this.par0 = par0;
+        this.par1 = par1;
+        this.perp = perp;
+
+        this.inPerTick = inPerTick;
+    }
+
+    @Override
+    public void update(MutableTwist2d twist) {
+        final PositionVelocityPair par0PosVel = par0.getPositionAndVelocity();
+        final PositionVelocityPair par1PosVel = par1.getPositionAndVelocity();
+        final PositionVelocityPair perpPosVel = perp.getPositionAndVelocity();
+
+        if (!initialized) {
+            initialized = true;
+
+            lastPar0Pos = par0PosVel.position;
+            lastPar1Pos = par1PosVel.position;
+            lastPerpPos = perpPosVel.position;
+
+            twist.setZero();
+            return;
+        }
+
+        final int par0PosDelta = par0PosVel.position - lastPar0Pos;
+        final int par1PosDelta = par1PosVel.position - lastPar1Pos;
+        final int perpPosDelta = perpPosVel.position - lastPerpPos;
+
+        final ThreeDeadWheelLocalizer.Params params = ThreeDeadWheelLocalizer.PARAMS;
+        final double parSpacing = params.par0YTicks - params.par1YTicks;
+
+        twist.set(
+                (params.par0YTicks * par1PosDelta - params.par1YTicks * par0PosDelta) / parSpacing * inPerTick,
+                (params.perpXTicks / parSpacing * (par1PosDelta - par0PosDelta) + perpPosDelta) * inPerTick,
+                (par0PosDelta - par1PosDelta) / parSpacing,
+                (params.par0YTicks * par1PosVel.velocity - params.par1YTicks * par0PosVel.velocity) / parSpacing * inPerTick,
+                (params.perpXTicks / parSpacing * (par1PosVel.velocity - par0PosVel.velocity) + perpPosVel.velocity) * inPerTick,
+                (par0PosVel.velocity - par1PosVel.velocity) / parSpacing
+        );
+
+        lastPar0Pos = par0PosVel.position;
+        lastPar1Pos = par1PosVel.position;
+        lastPerpPos = perpPosVel.position;
+    }
+}
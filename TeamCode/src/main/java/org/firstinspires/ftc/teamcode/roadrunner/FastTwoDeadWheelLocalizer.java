@@ -0,0 +1,103 @@
+package org.firstinspires.ftc.teamcode.roadrunner;
+
+import com.acmerobotics.roadrunner.ftc.Encoder;
+import com.acmerobotics.roadrunner.ftc.OverflowEncoder;
+import com.acmerobotics.roadrunner.ftc.PositionVelocityPair;
+import com.acmerobotics.roadrunner.ftc.RawEncoder;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.IMU;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+
+/**
+ * The same localization as {@link TwoDeadWheelLocalizer}, with the twist math done on primitives so that an update
+ *  allocates nothing beyond the encoders' and IMU's own readings.  It is configured by
+ *  {@link TwoDeadWheelLocalizer#PARAMS}, so the tuned geometry is shared.
+ * <p>
+ * Unlike {@link TwoDeadWheelLocalizer}, the inputs are not written to the {@code FlightRecorder}.
+ */
+public final class FastTwoDeadWheelLocalizer implements PrimitiveLocalizer {
+    public final Encoder par, perp;
+    public final IMU imu;
+
+    public final double inPerTick;
+
+    private int lastParPos, lastPerpPos;
+    private double lastHeading;
+    private boolean initialized;
+
+    private double lastRawHeadingVel, headingVelOffset;
+
+    public FastTwoDeadWheelLocalizer(HardwareMap hardwareMap, IMU imu, double inPerTick) {
+        // these use the same configuration names as TwoDeadWheelLocalizer
+        this(
+                new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, "par"))),
+                new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, "perp"))),
+                imu,
+                inPerTick
+        );
+    }
+
+    public FastTwoDeadWheelLocalizer(Encoder par, Encoder perp, IMU imu, double inPerTick) {
+        this.par = par;
+        this.perp = perp;
+        this.imu = imu;
+
+        this.inPerTick = inPerTick;
+    }
+
+    @Override
+    public void update(MutableTwist2d twist) {
+        final PositionVelocityPair parPosVel = par.getPositionAndVelocity();
+        final PositionVelocityPair perpPosVel = perp.getPositionAndVelocity();
+
+        final double heading = imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.RADIANS);
+
+        // see https://github.com/FIRST-Tech-Challenge/FtcRobotController/issues/617
+        final double rawHeadingVel = imu.getRobotAngularVelocity(AngleUnit.RADIANS).zRotationRate;
+        if (Math.abs(rawHeadingVel - lastRawHeadingVel) > Math.PI) {
+            headingVelOffset -= Math.signum(rawHeadingVel) * 2 * Math.PI;
+        }
+        lastRawHeadingVel = rawHeadingVel;
+        final double headingVel = headingVelOffset + rawHeadingVel;
+
+        if (!initialized) {
+            initialized = true;
+
+            lastParPos = parPosVel.position;
+            lastPerpPos = perpPosVel.position;
+            lastHeading = heading;
+
+            twist.setZero();
+            return;
+        }
+
+        final int parPosDelta = parPosVel.position - lastParPos;
+        final int perpPosDelta = perpPosVel.position - lastPerpPos;
+        final double headingDelta = angleDifference(lastHeading, heading);
+
+        final TwoDeadWheelLocalizer.Params params = TwoDeadWheelLocalizer.PARAMS;
+        twist.set(
+                (parPosDelta - params.parYTicks * headingDelta) * inPerTick,
+                (perpPosDelta - params.perpXTicks * headingDelta) * inPerTick,
+                headingDelta,
+                (parPosVel.velocity - params.parYTicks * headingVel) * inPerTick,
+                (perpPosVel.velocity - params.perpXTicks * headingVel) * inPerTick,
+                headingVel
+        );
+
+        lastParPos = parPosVel.position;
+        lastPerpPos = perpPosVel.position;
+        lastHeading = heading;
+    }
+
+    /**
+     * @return The shortest signed rotation from one angle to another, in [-pi, pi), as given by
+     *  {@code Rotation2d.minus}
+     */
+    private static double angleDifference(double from, double to) {
+        final double difference = to - from;
+        return difference - 2 * Math.PI * Math.floor((difference + Math.PI) / (2 * Math.PI));
+    }
+}
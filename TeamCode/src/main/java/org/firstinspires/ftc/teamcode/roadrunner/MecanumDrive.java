@@ -49,14 +49,15 @@ import com.qualcomm.robotcore.hardware.VoltageSensor;
 
 import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
 import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+import org.firstinspires.ftc.teamcode.hardware.FilteredVoltageSensor;
 import org.firstinspires.ftc.teamcode.modules.DriveTrain;
 import org.firstinspires.ftc.teamcode.roadrunner.messages.DriveCommandMessage;
 import org.firstinspires.ftc.teamcode.roadrunner.messages.MecanumCommandMessage;
 import org.firstinspires.ftc.teamcode.roadrunner.messages.MecanumLocalizerInputsMessage;
 import org.firstinspires.ftc.teamcode.roadrunner.messages.PoseMessage;
+import org.firstinspires.ftc.teamcode.util.PoseHistory;
 
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 
 @Config
@@ -95,6 +96,10 @@ public final class MecanumDrive {
         public double axialVelGain = 0.0;
         public double lateralVelGain = 0.0;
         public double headingVelGain = 0.0; // shared with turn
+
+        // battery voltage sampling
+        public long voltageSamplePeriodMs = 50;
+        public double voltageFilterGain = 0.3;
     }
 
     public static Params PARAMS = new Params();
@@ -115,19 +120,47 @@ public final class MecanumDrive {
     public final DcMotorEx leftFront, leftBack, rightBack, rightFront;
 
     public final VoltageSensor voltageSensor;
+    /**
+     * {@link #voltageSensor}, read at most once every {@link Params#voltageSamplePeriodMs}
+     */
+    public final FilteredVoltageSensor filteredVoltageSensor;
 
     public final LazyImu lazyImu;
 
     public final Localizer localizer;
     public Pose2d pose;
 
-    private final LinkedList<Pose2d> poseHistory = new LinkedList<>();
+    /**
+     * How many of the most recent pose estimates are kept in {@link #getPoseHistory() the pose history}
+     */
+    public static final int POSE_HISTORY_CAPACITY = 100;
+
+    private final PoseHistory poseHistory = new PoseHistory(POSE_HISTORY_CAPACITY);
 
     private final DownsampledWriter estimatedPoseWriter = new DownsampledWriter("ESTIMATED_POSE", 50_000_000);
     private final DownsampledWriter targetPoseWriter = new DownsampledWriter("TARGET_POSE", 50_000_000);
     private final DownsampledWriter driveCommandWriter = new DownsampledWriter("DRIVE_COMMAND", 50_000_000);
     private final DownsampledWriter mecanumCommandWriter = new DownsampledWriter("MECANUM_COMMAND", 50_000_000);
 
+    // reused every loop so that following a trajectory doesn't allocate them
+    private final PoseMessage estimatedPoseMessage = new PoseMessage();
+    private final PoseMessage targetPoseMessage = new PoseMessage();
+    private final DriveCommandMessage driveCommandMessage = new DriveCommandMessage();
+    private final MecanumCommandMessage mecanumCommandMessage = new MecanumCommandMessage();
+
+    /**
+     * The controller built from the gains in {@link #PARAMS}; rebuilt by {@link #getController()} only when they change
+     */
+    private HolonomicController controller;
+    private double axialGain, lateralGain, headingGain, axialVelGain, lateralVelGain, headingVelGain;
+
+    /**
+     * The feedforward built from the coefficients in {@link #PARAMS}; rebuilt by {@link #getFeedforward()} only when
+     *  they change
+     */
+    private MotorFeedforward feedforward;
+    private double kS, kV, kA, inPerTick;
+
     public class DriveLocalizer implements Localizer {
         public final Encoder leftFront, leftBack, rightBack, rightFront;
         public final IMU imu;
@@ -137,17 +170,30 @@ public final class MecanumDrive {
         private boolean initialized;
 
         public DriveLocalizer() {
-            leftFront = new OverflowEncoder(new RawEncoder(MecanumDrive.this.leftFront));
-            leftBack = new OverflowEncoder(new RawEncoder(MecanumDrive.this.leftBack));
-            rightBack = new OverflowEncoder(new RawEncoder(MecanumDrive.this.rightBack));
-            rightFront = new OverflowEncoder(new RawEncoder(MecanumDrive.this.rightFront));
-
-            imu = lazyImu.get();
+            this(
+                    new OverflowEncoder(new RawEncoder(MecanumDrive.this.leftFront)),
+                    new OverflowEncoder(new RawEncoder(MecanumDrive.this.leftBack)),
+                    new OverflowEncoder(new RawEncoder(MecanumDrive.this.rightBack)),
+                    new OverflowEncoder(new RawEncoder(MecanumDrive.this.rightFront)),
+                    lazyImu.get()
+            );
 
             // TODO: reverse encoders if needed
             //   leftFront.setDirection(DcMotorSimple.Direction.REVERSE);
         }
 
+        /**
+         * Creates a localizer that reads from the given encoders and IMU instead of the drive's motors.  This lets
+         *  the localizer be run against recorded or simulated sensors.
+         */
+        public DriveLocalizer(Encoder leftFront, Encoder leftBack, Encoder rightBack, Encoder rightFront, IMU imu) {
+            this.leftFront = leftFront;
+            this.leftBack = leftBack;
+            this.rightBack = rightBack;
+            this.rightFront = rightFront;
+            this.imu = imu;
+        }
+
         @Override
         public Twist2dDual<Time> update() {
             PositionVelocityPair leftFrontPosVel = leftFront.getPositionAndVelocity();
@@ -237,6 +283,8 @@ public final class MecanumDrive {
                 PARAMS.logoFacingDirection, PARAMS.usbFacingDirection));
 
         voltageSensor = hardwareMap.voltageSensor.iterator().next();
+        filteredVoltageSensor = new FilteredVoltageSensor(voltageSensor,
+                PARAMS.voltageSamplePeriodMs, PARAMS.voltageFilterGain);
 
         localizer = new DriveLocalizer();
 
@@ -299,34 +347,7 @@ public final class MecanumDrive {
             }
 
             Pose2dDual<Time> txWorldTarget = timeTrajectory.get(t);
-            targetPoseWriter.write(new PoseMessage(txWorldTarget.value()));
-
-            PoseVelocity2d robotVelRobot = updatePoseEstimate();
-
-            PoseVelocity2dDual<Time> command = new HolonomicController(
-                    PARAMS.axialGain, PARAMS.lateralGain, PARAMS.headingGain,
-                    PARAMS.axialVelGain, PARAMS.lateralVelGain, PARAMS.headingVelGain
-            )
-                    .compute(txWorldTarget, pose, robotVelRobot);
-            driveCommandWriter.write(new DriveCommandMessage(command));
-
-            MecanumKinematics.WheelVelocities<Time> wheelVels = kinematics.inverse(command);
-            double voltage = voltageSensor.getVoltage();
-
-            final MotorFeedforward feedforward = new MotorFeedforward(PARAMS.kS,
-                    PARAMS.kV / PARAMS.inPerTick, PARAMS.kA / PARAMS.inPerTick);
-            double leftFrontPower = feedforward.compute(wheelVels.leftFront) / voltage;
-            double leftBackPower = feedforward.compute(wheelVels.leftBack) / voltage;
-            double rightBackPower = feedforward.compute(wheelVels.rightBack) / voltage;
-            double rightFrontPower = feedforward.compute(wheelVels.rightFront) / voltage;
-            mecanumCommandWriter.write(new MecanumCommandMessage(
-                    voltage, leftFrontPower, leftBackPower, rightBackPower, rightFrontPower
-            ));
-
-            leftFront.setPower(leftFrontPower);
-            leftBack.setPower(leftBackPower);
-            rightBack.setPower(rightBackPower);
-            rightFront.setPower(rightFrontPower);
+            driveToward(txWorldTarget);
 
             p.put("x", pose.position.x);
             p.put("y", pose.position.y);
@@ -391,33 +412,7 @@ public final class MecanumDrive {
             }
 
             Pose2dDual<Time> txWorldTarget = turn.get(t);
-            targetPoseWriter.write(new PoseMessage(txWorldTarget.value()));
-
-            PoseVelocity2d robotVelRobot = updatePoseEstimate();
-
-            PoseVelocity2dDual<Time> command = new HolonomicController(
-                    PARAMS.axialGain, PARAMS.lateralGain, PARAMS.headingGain,
-                    PARAMS.axialVelGain, PARAMS.lateralVelGain, PARAMS.headingVelGain
-            )
-                    .compute(txWorldTarget, pose, robotVelRobot);
-            driveCommandWriter.write(new DriveCommandMessage(command));
-
-            MecanumKinematics.WheelVelocities<Time> wheelVels = kinematics.inverse(command);
-            double voltage = voltageSensor.getVoltage();
-            final MotorFeedforward feedforward = new MotorFeedforward(PARAMS.kS,
-                    PARAMS.kV / PARAMS.inPerTick, PARAMS.kA / PARAMS.inPerTick);
-            double leftFrontPower = feedforward.compute(wheelVels.leftFront) / voltage;
-            double leftBackPower = feedforward.compute(wheelVels.leftBack) / voltage;
-            double rightBackPower = feedforward.compute(wheelVels.rightBack) / voltage;
-            double rightFrontPower = feedforward.compute(wheelVels.rightFront) / voltage;
-            mecanumCommandWriter.write(new MecanumCommandMessage(
-                    voltage, leftFrontPower, leftBackPower, rightBackPower, rightFrontPower
-            ));
-
-            leftFront.setPower(feedforward.compute(wheelVels.leftFront) / voltage);
-            leftBack.setPower(feedforward.compute(wheelVels.leftBack) / voltage);
-            rightBack.setPower(feedforward.compute(wheelVels.rightBack) / voltage);
-            rightFront.setPower(feedforward.compute(wheelVels.rightFront) / voltage);
+            driveToward(txWorldTarget);
 
             Canvas c = p.fieldOverlay();
             drawPoseHistory(c);
@@ -441,31 +436,116 @@ public final class MecanumDrive {
         }
     }
 
+    /**
+     * Runs one iteration of the trajectory follower: updates the pose estimate, then sets the motor powers that move
+     *  the robot toward the target.  Shared by {@link FollowTrajectoryAction} and {@link TurnAction}.
+     * @param txWorldTarget Where the robot should be right now
+     */
+    private void driveToward(Pose2dDual<Time> txWorldTarget) {
+        targetPoseWriter.write(targetPoseMessage.set(txWorldTarget.value()));
+
+        PoseVelocity2d robotVelRobot = updatePoseEstimate();
+
+        PoseVelocity2dDual<Time> command = getController().compute(txWorldTarget, pose, robotVelRobot);
+        driveCommandWriter.write(driveCommandMessage.set(command));
+
+        MecanumKinematics.WheelVelocities<Time> wheelVels = kinematics.inverse(command);
+        double voltage = filteredVoltageSensor.getVoltage();
+
+        final MotorFeedforward feedforward = getFeedforward();
+        double leftFrontPower = feedforward.compute(wheelVels.leftFront) / voltage;
+        double leftBackPower = feedforward.compute(wheelVels.leftBack) / voltage;
+        double rightBackPower = feedforward.compute(wheelVels.rightBack) / voltage;
+        double rightFrontPower = feedforward.compute(wheelVels.rightFront) / voltage;
+        mecanumCommandWriter.write(mecanumCommandMessage.set(
+                voltage, leftFrontPower, leftBackPower, rightBackPower, rightFrontPower
+        ));
+
+        leftFront.setPower(leftFrontPower);
+        leftBack.setPower(leftBackPower);
+        rightBack.setPower(rightBackPower);
+        rightFront.setPower(rightFrontPower);
+    }
+
+    /**
+     * @return A controller using the current gains in {@link #PARAMS}.  The same instance is returned until the gains
+     *  are changed (e.g. from the dashboard).
+     */
+    private HolonomicController getController() {
+        if (controller == null
+                || axialGain != PARAMS.axialGain || lateralGain != PARAMS.lateralGain
+                || headingGain != PARAMS.headingGain || axialVelGain != PARAMS.axialVelGain
+                || lateralVelGain != PARAMS.lateralVelGain || headingVelGain != PARAMS.headingVelGain) {
+            axialGain = PARAMS.axialGain;
+            lateralGain = PARAMS.lateralGain;
+            headingGain = PARAMS.headingGain;
+            axialVelGain = PARAMS.axialVelGain;
+            lateralVelGain = PARAMS.lateralVelGain;
+            headingVelGain = PARAMS.headingVelGain;
+            controller = new HolonomicController(
+                    axialGain, lateralGain, headingGain,
+                    axialVelGain, lateralVelGain, headingVelGain
+            );
+        }
+        return controller;
+    }
+
+    /**
+     * @return A feedforward using the current coefficients in {@link #PARAMS}.  The same instance is returned until
+     *  the coefficients are changed (e.g. from the dashboard).
+     */
+    private MotorFeedforward getFeedforward() {
+        if (feedforward == null
+                || kS != PARAMS.kS || kV != PARAMS.kV || kA != PARAMS.kA || inPerTick != PARAMS.inPerTick) {
+            kS = PARAMS.kS;
+            kV = PARAMS.kV;
+            kA = PARAMS.kA;
+            inPerTick = PARAMS.inPerTick;
+            feedforward = new MotorFeedforward(kS, kV / inPerTick, kA / inPerTick);
+        }
+        return feedforward;
+    }
+
     public PoseVelocity2d updatePoseEstimate() {
         Twist2dDual<Time> twist = localizer.update();
         pose = pose.plus(twist.value());
 
-        poseHistory.add(pose);
-        while (poseHistory.size() > 100) {
-            poseHistory.removeFirst();
-        }
+        poseHistory.add(System.nanoTime(), pose.position.x, pose.position.y, pose.heading.toDouble());
 
-        estimatedPoseWriter.write(new PoseMessage(pose));
+        estimatedPoseWriter.write(estimatedPoseMessage.set(pose));
 
         return twist.velocity().value();
     }
 
+    /**
+     * @return The pose estimates from the last {@link #POSE_HISTORY_CAPACITY} calls to {@link #updatePoseEstimate()},
+     *  timestamped with {@link System#nanoTime()}
+     */
+    public PoseHistory getPoseHistory() {
+        return poseHistory;
+    }
+
+    /**
+     * Finds where the robot was estimated to be at the given time, interpolating between pose estimates.  This is
+     *  meant for matching delayed measurements (such as from vision) to the pose the robot had when they were taken.
+     * @param timestampNanos The time, as given by {@link System#nanoTime()}.  Times outside the history are clamped to
+     *                       its oldest or newest pose.
+     * @return The estimated pose, or the current pose if no estimates have been made yet
+     */
+    public Pose2d getPoseAt(long timestampNanos) {
+        final double[] p = new double[3];
+        if (!poseHistory.getPoseAt(timestampNanos, p) && poseHistory.size() == 0) {
+            return pose;
+        }
+        return new Pose2d(p[0], p[1], p[2]);
+    }
+
     private void drawPoseHistory(Canvas c) {
+        // the canvas keeps these arrays until the dashboard serializes the packet on its own thread, so they can't
+        // be reused between frames; copying into them is a pair of array copies rather than a walk over a list
         double[] xPoints = new double[poseHistory.size()];
         double[] yPoints = new double[poseHistory.size()];
-
-        int i = 0;
-        for (Pose2d t : poseHistory) {
-            xPoints[i] = t.position.x;
-            yPoints[i] = t.position.y;
-
-            i++;
-        }
+        poseHistory.copyPositions(xPoints, yPoints);
 
         c.setStrokeWidth(1);
         c.setStroke("#3F51B5");
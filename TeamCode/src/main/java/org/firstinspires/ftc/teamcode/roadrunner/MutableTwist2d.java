@@ -0,0 +1,64 @@
+package org.firstinspires.ftc.teamcode.roadrunner;
+
+import com.acmerobotics.roadrunner.DualNum;
+import com.acmerobotics.roadrunner.Time;
+import com.acmerobotics.roadrunner.Twist2d;
+import com.acmerobotics.roadrunner.Twist2dDual;
+import com.acmerobotics.roadrunner.Vector2d;
+import com.acmerobotics.roadrunner.Vector2dDual;
+
+/**
+ * A robot-relative twist and its time derivative, held in primitive fields so that it can be reused every loop.  This
+ *  is the primitive counterpart of a {@code Twist2dDual<Time>} with two derivatives.
+ */
+public final class MutableTwist2d {
+    /**
+     * The change in pose, in inches and radians
+     */
+    public double x, y, heading;
+
+    /**
+     * The robot's velocity, in inches per second and radians per second
+     */
+    public double xVel, yVel, headingVel;
+
+    /**
+     * @return This twist
+     */
+    public MutableTwist2d set(double x, double y, double heading, double xVel, double yVel, double headingVel) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        this.xVel = xVel;
+        this.yVel = yVel;
+        this.headingVel = headingVel;
+        return this;
+    }
+
+    /**
+     * @return This twist
+     */
+    public MutableTwist2d setZero() {
+        return set(0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * @return A new twist holding the change in pose
+     */
+    public Twist2d toTwist2d() {
+        return new Twist2d(new Vector2d(x, y), heading);
+    }
+
+    /**
+     * @return A new twist holding the change in pose and the velocity, as returned by {@link Localizer#update()}
+     */
+    public Twist2dDual<Time> toTwist2dDual() {
+        return new Twist2dDual<>(
+                new Vector2dDual<>(
+                        new DualNum<Time>(new double[] {x, xVel}),
+                        new DualNum<Time>(new double[] {y, yVel})
+                ),
+                new DualNum<>(new double[] {heading, headingVel})
+        );
+    }
+}
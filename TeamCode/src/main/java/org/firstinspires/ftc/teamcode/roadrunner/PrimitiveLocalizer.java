@@ -0,0 +1,37 @@
+package org.firstinspires.ftc.teamcode.roadrunner;
+
+import com.acmerobotics.roadrunner.Time;
+import com.acmerobotics.roadrunner.Twist2dDual;
+
+/**
+ * A localizer that writes each update into a caller-supplied {@link MutableTwist2d} instead of returning a new
+ *  {@code Twist2dDual}, so that it can run every loop without allocating.  Wrap one in an {@link Adapter} to use it
+ *  where a {@link Localizer} is expected.
+ */
+public interface PrimitiveLocalizer {
+    /**
+     * Reads the sensors and writes the robot's motion since the previous update.  The first update writes a zero twist.
+     * @param twist Where to write the motion
+     */
+    void update(MutableTwist2d twist);
+
+    /**
+     * Exposes a {@link PrimitiveLocalizer} as a {@link Localizer}.  Each update still builds a {@code Twist2dDual},
+     *  since that is what the interface returns; callers that can take a {@link MutableTwist2d} should use the
+     *  wrapped localizer directly.
+     */
+    final class Adapter implements Localizer {
+        public final PrimitiveLocalizer localizer;
+        private final MutableTwist2d twist = new MutableTwist2d();
+
+        public Adapter(PrimitiveLocalizer localizer) {
+            this.localizer = localizer;
+        }
+
+        @Override
+        public Twist2dDual<Time> update() {
+            localizer.update(twist);
+            return twist.toTwist2dDual();
+        }
+    }
+}
@@ -49,12 +49,12 @@ import com.qualcomm.robotcore.hardware.VoltageSensor;
 import org.firstinspires.ftc.teamcode.roadrunner.messages.DriveCommandMessage;
 import org.firstinspires.ftc.teamcode.roadrunner.messages.PoseMessage;
 import org.firstinspires.ftc.teamcode.roadrunner.messages.TankCommandMessage;
+import org.firstinspires.ftc.teamcode.util.PoseHistory;
 import org.firstinspires.ftc.teamcode.roadrunner.messages.TankLocalizerInputsMessage;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 @Config
@@ -118,7 +118,12 @@ public final class TankDrive {
     public final Localizer localizer;
     public Pose2d pose;
 
-    private final LinkedList<Pose2d> poseHistory = new LinkedList<>();
+    /**
+     * How many of the most recent pose estimates are kept in {@link #getPoseHistory() the pose history}
+     */
+    public static final int POSE_HISTORY_CAPACITY = 100;
+
+    private final PoseHistory poseHistory = new PoseHistory(POSE_HISTORY_CAPACITY);
 
     private final DownsampledWriter estimatedPoseWriter = new DownsampledWriter("ESTIMATED_POSE", 50_000_000);
     private final DownsampledWriter targetPoseWriter = new DownsampledWriter("TARGET_POSE", 50_000_000);
@@ -452,27 +457,42 @@ public final class TankDrive {
         Twist2dDual<Time> twist = localizer.update();
         pose = pose.plus(twist.value());
 
-        poseHistory.add(pose);
-        while (poseHistory.size() > 100) {
-            poseHistory.removeFirst();
-        }
+        poseHistory.add(System.nanoTime(), pose.position.x, pose.position.y, pose.heading.toDouble());
 
         estimatedPoseWriter.write(new PoseMessage(pose));
 
         return twist.velocity().value();
     }
 
+    /**
+     * @return The pose estimates from the last {@link #POSE_HISTORY_CAPACITY} calls to {@link #updatePoseEstimate()},
+     *  timestamped with {@link System#nanoTime()}
+     */
+    public PoseHistory getPoseHistory() {
+        return poseHistory;
+    }
+
+    /**
+     * Finds where the robot was estimated to be at the given time, interpolating between pose estimates.  This is
+     *  meant for matching delayed measurements (such as from vision) to the pose the robot had when they were taken.
+     * @param timestampNanos The time, as given by {@link System#nanoTime()}.  Times outside the history are clamped to
+     *                       its oldest or newest pose.
+     * @return The estimated pose, or the current pose if no estimates have been made yet
+     */
+    public Pose2d getPoseAt(long timestampNanos) {
+        final double[] p = new double[3];
+        if (!poseHistory.getPoseAt(timestampNanos, p) && poseHistory.size() == 0) {
+            return pose;
+        }
+        return new Pose2d(p[0], p[1], p[2]);
+    }
+
     private void drawPoseHistory(Canvas c) {
+        // the canvas keeps these arrays until the dashboard serializes the packet on its own thread, so they can't
+        // be reused between frames; copying into them is a pair of array copies rather than a walk over a list
         double[] xPoints = new double[poseHistory.size()];
         double[] yPoints = new double[poseHistory.size()];
-
-        int i = 0;
-        for (Pose2d t : poseHistory) {
-            xPoints[i] = t.position.x;
-            yPoints[i] = t.position.y;
-
-            i++;
-        }
+        poseHistory.copyPositions(xPoints, yPoints);
 
         c.setStrokeWidth(1);
         c.setStroke("#3F51B5");
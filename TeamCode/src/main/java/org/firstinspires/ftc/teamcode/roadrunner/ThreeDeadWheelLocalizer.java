@@ -37,12 +37,25 @@ public final class ThreeDeadWheelLocalizer implements Localizer {
         // TODO: make sure your config has **motors** with these names (or change them)
         //   the encoders should be plugged into the slot matching the named motor
         //   see https://ftc-docs.firstinspires.org/en/latest/hardware_and_software_configuration/configuring/index.html
-        par0 = new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, "par0")));
-        par1 = new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, "par1")));
-        perp = new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, "perp")));
+        this(
+                new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, "par0"))),
+                new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, "par1"))),
+                new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, "perp"))),
+                inPerTick
+        );
 
         // TODO: reverse encoder directions if needed
         //   par0.setDirection(DcMotorSimple.Direction.REVERSE);
+    }
+
+    /**
+     * Creates a localizer that reads from the given encoders.  This lets the localizer be run against recorded or
+     *  simulated encoders off the robot.
+     */
+    public ThreeDeadWheelLocalizer(Encoder par0, Encoder par1, Encoder perp, double inPerTick) {
+        this.par0 = par0;
+        this.par1 = par1;
+        this.perp = perp;
 
         this.inPerTick = inPerTick;
 
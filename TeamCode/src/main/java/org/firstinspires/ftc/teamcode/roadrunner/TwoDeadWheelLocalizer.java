@@ -45,11 +45,24 @@ public final class TwoDeadWheelLocalizer implements Localizer {
         // TODO: make sure your config has **motors** with these names (or change them)
         //   the encoders should be plugged into the slot matching the named motor
         //   see https://ftc-docs.firstinspires.org/en/latest/hardware_and_software_configuration/configuring/index.html
-        par = new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, "par")));
-        perp = new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, "perp")));
+        this(
+                new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, "par"))),
+                new OverflowEncoder(new RawEncoder(hardwareMap.get(DcMotorEx.class, "perp"))),
+                imu,
+                inPerTick
+        );
 
         // TODO: reverse encoder directions if needed
         //   par.setDirection(DcMotorSimple.Direction.REVERSE);
+    }
+
+    /**
+     * Creates a localizer that reads from the given encoders and IMU.  This lets the localizer be run against
+     *  recorded or simulated sensors off the robot.
+     */
+    public TwoDeadWheelLocalizer(Encoder par, Encoder perp, IMU imu, double inPerTick) {
+        this.par = par;
+        this.perp = perp;
 
         this.imu = imu;
 
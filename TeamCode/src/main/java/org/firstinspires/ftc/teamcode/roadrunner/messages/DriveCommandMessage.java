@@ -13,6 +13,19 @@ public final class DriveCommandMessage {
     public double angularAcceleration;
 
     public DriveCommandMessage(PoseVelocity2dDual<Time> poseVelocity) {
+        set(poseVelocity);
+    }
+
+    /**
+     * Creates an empty message, to be filled in by {@link #set(PoseVelocity2dDual)}
+     */
+    public DriveCommandMessage() {}
+
+    /**
+     * Overwrites this message, so that one instance can be written every loop without allocating
+     * @return This message
+     */
+    public DriveCommandMessage set(PoseVelocity2dDual<Time> poseVelocity) {
         this.timestamp = System.nanoTime();
         this.forwardVelocity = poseVelocity.linearVel.x.get(0);
         this.forwardAcceleration = poseVelocity.linearVel.x.get(1);
@@ -20,5 +33,6 @@ public final class DriveCommandMessage {
         this.lateralAcceleration = poseVelocity.linearVel.y.get(1);
         this.angularVelocity = poseVelocity.angVel.get(0);
         this.angularAcceleration = poseVelocity.angVel.get(1);
+        return this;
     }
 }
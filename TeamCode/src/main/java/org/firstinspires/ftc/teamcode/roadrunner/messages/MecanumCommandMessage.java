@@ -9,11 +9,25 @@ public final class MecanumCommandMessage {
     public double rightFrontPower;
 
     public MecanumCommandMessage(double voltage, double leftFrontPower, double leftBackPower, double rightBackPower, double rightFrontPower) {
+        set(voltage, leftFrontPower, leftBackPower, rightBackPower, rightFrontPower);
+    }
+
+    /**
+     * Creates an empty message, to be filled in by {@link #set(double, double, double, double, double)}
+     */
+    public MecanumCommandMessage() {}
+
+    /**
+     * Overwrites this message, so that one instance can be written every loop without allocating
+     * @return This message
+     */
+    public MecanumCommandMessage set(double voltage, double leftFrontPower, double leftBackPower, double rightBackPower, double rightFrontPower) {
         this.timestamp = System.nanoTime();
         this.voltage = voltage;
         this.leftFrontPower = leftFrontPower;
         this.leftBackPower = leftBackPower;
         this.rightBackPower = rightBackPower;
         this.rightFrontPower = rightFrontPower;
+        return this;
     }
 }
@@ -9,10 +9,23 @@ public final class PoseMessage {
     public double heading;
 
     public PoseMessage(Pose2d pose) {
+        set(pose);
+    }
+
+    /**
+     * Creates an empty message, to be filled in by {@link #set(Pose2d)}
+     */
+    public PoseMessage() {}
+
+    /**
+     * Overwrites this message, so that one instance can be written every loop without allocating
+     * @return This message
+     */
+    public PoseMessage set(Pose2d pose) {
         this.timestamp = System.nanoTime();
         this.x = pose.position.x;
         this.y = pose.position.y;
         this.heading = pose.heading.toDouble();
+        return this;
     }
 }
-
@@ -22,7 +22,10 @@ import com.qualcomm.robotcore.eventloop.opmode.OpModeManager;
 import com.qualcomm.robotcore.eventloop.opmode.OpModeRegistrar;
 
 import org.firstinspires.ftc.robotcore.internal.opmode.OpModeMeta;
+import org.firstinspires.ftc.teamcode.roadrunner.FastThreeDeadWheelLocalizer;
+import org.firstinspires.ftc.teamcode.roadrunner.FastTwoDeadWheelLocalizer;
 import org.firstinspires.ftc.teamcode.roadrunner.MecanumDrive;
+import org.firstinspires.ftc.teamcode.roadrunner.PrimitiveLocalizer;
 import org.firstinspires.ftc.teamcode.roadrunner.TankDrive;
 import org.firstinspires.ftc.teamcode.roadrunner.ThreeDeadWheelLocalizer;
 import org.firstinspires.ftc.teamcode.roadrunner.TwoDeadWheelLocalizer;
@@ -75,6 +78,17 @@ public final class TuningOpModes {
                     TwoDeadWheelLocalizer dl = (TwoDeadWheelLocalizer) md.localizer;
                     parEncs.add(dl.par);
                     perpEncs.add(dl.perp);
+                } else if (md.localizer instanceof PrimitiveLocalizer.Adapter
+                        && ((PrimitiveLocalizer.Adapter) md.localizer).localizer instanceof FastThreeDeadWheelLocalizer) {
+                    FastThreeDeadWheelLocalizer dl = (FastThreeDeadWheelLocalizer) ((PrimitiveLocalizer.Adapter) md.localizer).localizer;
+                    parEncs.add(dl.par0);
+                    parEncs.add(dl.par1);
+                    perpEncs.add(dl.perp);
+                } else if (md.localizer instanceof PrimitiveLocalizer.Adapter
+                        && ((PrimitiveLocalizer.Adapter) md.localizer).localizer instanceof FastTwoDeadWheelLocalizer) {
+                    FastTwoDeadWheelLocalizer dl = (FastTwoDeadWheelLocalizer) ((PrimitiveLocalizer.Adapter) md.localizer).localizer;
+                    parEncs.add(dl.par);
+                    perpEncs.add(dl.perp);
                 } else {
                     throw new RuntimeException("unknown localizer: " + md.localizer.getClass().getName());
                 }
@@ -124,6 +138,17 @@ public final class TuningOpModes {
                     TwoDeadWheelLocalizer dl = (TwoDeadWheelLocalizer) td.localizer;
                     parEncs.add(dl.par);
                     perpEncs.add(dl.perp);
+                } else if (td.localizer instanceof PrimitiveLocalizer.Adapter
+                        && ((PrimitiveLocalizer.Adapter) td.localizer).localizer instanceof FastThreeDeadWheelLocalizer) {
+                    FastThreeDeadWheelLocalizer dl = (FastThreeDeadWheelLocalizer) ((PrimitiveLocalizer.Adapter) td.localizer).localizer;
+                    parEncs.add(dl.par0);
+                    parEncs.add(dl.par1);
+                    perpEncs.add(dl.perp);
+                } else if (td.localizer instanceof PrimitiveLocalizer.Adapter
+                        && ((PrimitiveLocalizer.Adapter) td.localizer).localizer instanceof FastTwoDeadWheelLocalizer) {
+                    FastTwoDeadWheelLocalizer dl = (FastTwoDeadWheelLocalizer) ((PrimitiveLocalizer.Adapter) td.localizer).localizer;
+                    parEncs.add(dl.par);
+                    perpEncs.add(dl.perp);
                 } else {
                     throw new RuntimeException("unknown localizer: " + td.localizer.getClass().getName());
                 }
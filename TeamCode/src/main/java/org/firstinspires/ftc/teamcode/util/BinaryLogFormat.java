@@ -0,0 +1,59 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import java.nio.ByteOrder;
+
+/**
+ * The layout of the files written by {@link BinaryLogWriter} and read by {@link BinaryLogReader}.
+ * <p>
+ * A log starts with a header of {@link #HEADER_SIZE} bytes, followed by a ring of fixed-width records.  All values are
+ *  little-endian.
+ * <pre>
+ * header:
+ *   0  8 bytes  magic, {@link #MAGIC}
+ *   8  int      format version, {@link #VERSION}
+ *  12  int      values per record
+ *  16  int      capacity, in records
+ *  20  int      channel count
+ *  24  long     records written (including ones since overwritten)
+ *  32  long     wall clock time the log was created, in milliseconds since the epoch
+ *  40  long     {@link System#nanoTime()} when the log was created
+ *  48  int      end of the channel table, as an offset from the start of the file
+ *  64  ...      channel table: for each channel, its name then its field count (a short) and field names.  Strings
+ *               are a short byte count followed by UTF-8 bytes.
+ *
+ * record:
+ *   0  long     timestamp, as given by {@link System#nanoTime()}
+ *   8  int      channel id (its index in the channel table)
+ *  12  int      amount of values used
+ *  16  double[] values, padded to the values per record
+ * </pre>
+ */
+final class BinaryLogFormat extends StaticClass {
+    static final byte[] MAGIC = {'F', 'T', 'C', 'B', 'L', 'O', 'G', '1'};
+    static final int VERSION = 1;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final int HEADER_SIZE = 16384;
+
+    static final int VERSION_OFFSET = 8;
+    static final int VALUES_PER_RECORD_OFFSET = 12;
+    static final int CAPACITY_OFFSET = 16;
+    static final int CHANNEL_COUNT_OFFSET = 20;
+    static final int RECORDS_WRITTEN_OFFSET = 24;
+    static final int START_WALL_CLOCK_OFFSET = 32;
+    static final int START_NANOS_OFFSET = 40;
+    static final int CHANNEL_TABLE_END_OFFSET = 48;
+    static final int CHANNEL_TABLE_START = 64;
+
+    static final int RECORD_TIMESTAMP_OFFSET = 0;
+    static final int RECORD_CHANNEL_OFFSET = 8;
+    static final int RECORD_COUNT_OFFSET = 12;
+    static final int RECORD_VALUES_OFFSET = 16;
+
+    /**
+     * @return The size of each record, in bytes
+     */
+    static int recordSize(int valuesPerRecord) {
+        return RECORD_VALUES_OFFSET + valuesPerRecord * Double.BYTES;
+    }
+}
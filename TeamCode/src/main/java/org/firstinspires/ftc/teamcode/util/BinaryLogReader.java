@@ -0,0 +1,264 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.firstinspires.ftc.teamcode.util.BinaryLogFormat.*;
+
+/**
+ * Reads logs written by {@link BinaryLogWriter}, splitting the records into one column-oriented {@link Channel} per
+ *  channel.  This is meant to be run off the robot, after a match; running {@link #main(String[])} converts a log into
+ *  a directory of CSV files.
+ */
+public final class BinaryLogReader {
+    /**
+     * The records of a single channel, stored as columns
+     */
+    public static final class Channel {
+        private final String name;
+        private final List<String> fieldNames;
+        private long[] timestamps = new long[16];
+        private double[][] columns;
+        private int size = 0;
+
+        private Channel(String name, List<String> fieldNames) {
+            this.name = name;
+            this.fieldNames = Collections.unmodifiableList(fieldNames);
+            columns = new double[fieldNames.size()][16];
+        }
+
+        private void add(long timestamp, ByteBuffer buffer, int valuesPosition, int valueCount) {
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = Arrays.copyOf(columns[i], size * 2);
+                }
+            }
+            timestamps[size] = timestamp;
+            for (int i = 0; i < columns.length; i++) {
+                columns[i][size] = i < valueCount ? buffer.getDouble(valuesPosition + i * Double.BYTES) : Double.NaN;
+            }
+            size++;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<String> getFieldNames() {
+            return fieldNames;
+        }
+
+        /**
+         * @return The amount of records in the channel
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return The timestamp of each record, in nanoseconds since the log was created
+         */
+        public long[] getTimestamps() {
+            return Arrays.copyOf(timestamps, size);
+        }
+
+        /**
+         * @param field The index of the field
+         * @return The field's value in each record
+         */
+        public double[] getColumn(int field) {
+            return Arrays.copyOf(columns[field], size);
+        }
+
+        /**
+         * Writes the channel as CSV, with a header row, a timestamp column (in seconds since the log was created) and
+         *  a column for each field
+         */
+        public void writeCsv(Appendable out) throws IOException {
+            out.append("time (s)");
+            for (String fieldName : fieldNames) {
+                out.append(',').append(escape(fieldName));
+            }
+            out.append('\n');
+            for (int row = 0; row < size; row++) {
+                out.append(Double.toString(timestamps[row] / 1e9));
+                for (double[] column : columns) {
+                    out.append(',').append(Double.toString(column[row]));
+                }
+                out.append('\n');
+            }
+        }
+
+        private static String escape(String field) {
+            if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0) {
+                return field;
+            }
+            return '"' + field.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private final long startWallClockMillis;
+    private final long recordsWritten;
+    private final long recordsLost;
+    private final List<Channel> channels;
+
+    /**
+     * Reads a log
+     * @param path The log
+     * @throws IOException The file could not be read, or is not a log
+     */
+    public BinaryLogReader(File path) throws IOException {
+        final ByteBuffer buffer;
+        try (RandomAccessFile file = new RandomAccessFile(path, "r")) {
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        }
+        buffer.order(BYTE_ORDER);
+
+        if (buffer.limit() < HEADER_SIZE) {
+            throw new IOException("File is too short to be a log");
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(i) != MAGIC[i]) {
+                throw new IOException("File is not a log");
+            }
+        }
+        if (buffer.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("Unsupported log version " + buffer.getInt(VERSION_OFFSET));
+        }
+        final int valuesPerRecord = buffer.getInt(VALUES_PER_RECORD_OFFSET);
+        final int capacity = buffer.getInt(CAPACITY_OFFSET);
+        final int channelCount = buffer.getInt(CHANNEL_COUNT_OFFSET);
+        final int recordSize = recordSize(valuesPerRecord);
+        if (buffer.limit() < HEADER_SIZE + (long) recordSize * capacity) {
+            throw new IOException("Log is truncated");
+        }
+        recordsWritten = buffer.getLong(RECORDS_WRITTEN_OFFSET);
+        startWallClockMillis = buffer.getLong(START_WALL_CLOCK_OFFSET);
+        final long startNanos = buffer.getLong(START_NANOS_OFFSET);
+
+        final List<Channel> channels = new ArrayList<>(channelCount);
+        int position = CHANNEL_TABLE_START;
+        for (int i = 0; i < channelCount; i++) {
+            final String name = getString(buffer, position);
+            position += Short.BYTES + buffer.getShort(position);
+            final int fieldCount = buffer.getShort(position);
+            position += Short.BYTES;
+            final List<String> fieldNames = new ArrayList<>(fieldCount);
+            for (int field = 0; field < fieldCount; field++) {
+                fieldNames.add(getString(buffer, position));
+                position += Short.BYTES + buffer.getShort(position);
+            }
+            channels.add(new Channel(name, fieldNames));
+        }
+        this.channels = Collections.unmodifiableList(channels);
+
+        // once the ring has wrapped, the oldest surviving record is the one after the newest
+        final long first = Math.max(0, recordsWritten - capacity);
+        recordsLost = first;
+        for (long record = first; record < recordsWritten; record++) {
+            final int recordPosition = HEADER_SIZE + (int) (record % capacity) * recordSize;
+            final int channel = buffer.getInt(recordPosition + RECORD_CHANNEL_OFFSET);
+            if (channel < 0 || channel >= channelCount) {
+                throw new IOException("Record " + record + " belongs to unknown channel " + channel);
+            }
+            final int valueCount = Math.min(buffer.getInt(recordPosition + RECORD_COUNT_OFFSET), valuesPerRecord);
+            channels.get(channel).add(
+                    buffer.getLong(recordPosition + RECORD_TIMESTAMP_OFFSET) - startNanos,
+                    buffer, recordPosition + RECORD_VALUES_OFFSET, valueCount);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer, int position) {
+        final byte[] bytes = new byte[buffer.getShort(position)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(position + Short.BYTES + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return Every channel in the log, in the order they were added
+     */
+    public List<Channel> getChannels() {
+        return channels;
+    }
+
+    /**
+     * Finds a channel by name
+     * @return The first channel with the name, or null if there is none
+     */
+    public Channel getChannel(String name) {
+        for (Channel channel : channels) {
+            if (channel.getName().equals(name)) {
+                return channel;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The wall clock time the log was created, in milliseconds since the epoch
+     */
+    public long getStartWallClockMillis() {
+        return startWallClockMillis;
+    }
+
+    /**
+     * @return The amount of records written, including ones that were overwritten
+     */
+    public long getRecordsWritten() {
+        return recordsWritten;
+    }
+
+    /**
+     * @return The amount of records that were overwritten because the log was full
+     */
+    public long getRecordsLost() {
+        return recordsLost;
+    }
+
+    /**
+     * Writes each channel to its own CSV file
+     * @param directory The directory to write to; it is created if necessary
+     * @throws IOException A file could not be written
+     */
+    public void writeCsv(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        for (int i = 0; i < channels.size(); i++) {
+            final Channel channel = channels.get(i);
+            final String fileName = String.format("%03d-%s.csv", i, channel.getName().replaceAll("[^A-Za-z0-9._-]+", "_"));
+            try (Writer out = new OutputStreamWriter(new FileOutputStream(new File(directory, fileName)), StandardCharsets.UTF_8)) {
+                channel.writeCsv(out);
+            }
+        }
+    }
+
+    /**
+     * Converts a log to CSV files
+     * @param args The log, then the directory to write the CSV files to
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BinaryLogReader <log> <output directory>");
+            System.exit(2);
+        }
+        final BinaryLogReader reader = new BinaryLogReader(new File(args[0]));
+        reader.writeCsv(new File(args[1]));
+        System.out.printf("Wrote %d channels (%d records, %d lost to wrapping)%n",
+                reader.getChannels().size(), reader.getRecordsWritten() - reader.getRecordsLost(), reader.getRecordsLost());
+    }
+}
@@ -0,0 +1,231 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.firstinspires.ftc.teamcode.util.BinaryLogFormat.*;
+
+/**
+ * Writes fixed-width numeric records to a memory-mapped file.  Each record holds a timestamp, the id of the channel it
+ *  belongs to and up to a fixed amount of doubles.  The file is a ring: once it is full, each new record overwrites
+ *  the oldest.
+ * <p>
+ * Writing a record is a handful of stores into the mapped buffer, so it never allocates or blocks on I/O; the
+ *  operating system writes the pages out in the background, and they survive the app being killed.  Logs are read
+ *  back with {@link BinaryLogReader}.  See {@link BinaryLogFormat} for the layout.
+ */
+public final class BinaryLogWriter implements Closeable {
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+
+    private final int valuesPerRecord;
+    private final int recordSize;
+    private final int capacity;
+
+    private int channelCount = 0;
+    private int channelTableEnd = CHANNEL_TABLE_START;
+    private long recordsWritten = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a log, replacing the file if it already exists
+     * @param path Where to write the log
+     * @param valuesPerRecord The most values a record can hold
+     * @param capacity The amount of records the log holds before it starts overwriting the oldest
+     * @throws IOException The file could not be created or mapped
+     * @throws IllegalArgumentException The values per record or capacity is not positive, or the file would be larger
+     *  than can be mapped
+     */
+    public BinaryLogWriter(File path, int valuesPerRecord, int capacity) throws IOException {
+        if (valuesPerRecord <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Values per record and capacity must be positive");
+        }
+        this.valuesPerRecord = valuesPerRecord;
+        this.recordSize = recordSize(valuesPerRecord);
+        this.capacity = capacity;
+
+        final long size = HEADER_SIZE + (long) recordSize * capacity;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The log would be larger than 2 GB");
+        }
+
+        file = new RandomAccessFile(path, "rw");
+        try {
+            file.setLength(0);
+            file.setLength(size);
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+        buffer.order(BYTE_ORDER);
+
+        for (int i = 0; i < MAGIC.length; i++) {
+            buffer.put(i, MAGIC[i]);
+        }
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(VALUES_PER_RECORD_OFFSET, valuesPerRecord);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(CHANNEL_COUNT_OFFSET, 0);
+        buffer.putLong(RECORDS_WRITTEN_OFFSET, 0);
+        buffer.putLong(START_WALL_CLOCK_OFFSET, System.currentTimeMillis());
+        buffer.putLong(START_NANOS_OFFSET, System.nanoTime());
+        buffer.putInt(CHANNEL_TABLE_END_OFFSET, channelTableEnd);
+    }
+
+    /**
+     * Adds a channel to the log.  Channels can be added at any time, including after records have been written.
+     * @param name The name of the channel
+     * @param fieldNames The name of each value in the channel's records
+     * @return The channel's id, to be passed to the write methods
+     * @throws IllegalArgumentException The channel has more fields than a record can hold, or has no fields
+     * @throws IllegalStateException The channel table is full
+     */
+    public synchronized int addChannel(String name, String... fieldNames) {
+        if (fieldNames.length == 0 || fieldNames.length > valuesPerRecord) {
+            throw new IllegalArgumentException("Channels must have between 1 and " + valuesPerRecord + " fields");
+        }
+        int position = channelTableEnd;
+        position = putString(position, name);
+        if (position + Short.BYTES > HEADER_SIZE) {
+            throw new IllegalStateException("The channel table is full");
+        }
+        buffer.putShort(position, (short) fieldNames.length);
+        position += Short.BYTES;
+        for (String fieldName : fieldNames) {
+            position = putString(position, fieldName);
+        }
+
+        // only publish the channel once its entry is complete
+        channelTableEnd = position;
+        buffer.putInt(CHANNEL_TABLE_END_OFFSET, channelTableEnd);
+        buffer.putInt(CHANNEL_COUNT_OFFSET, channelCount + 1);
+        return channelCount++;
+    }
+
+    private int putString(int position, String string) {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE || position + Short.BYTES + bytes.length > HEADER_SIZE) {
+            throw new IllegalStateException("The channel table is full");
+        }
+        buffer.putShort(position, (short) bytes.length);
+        position += Short.BYTES;
+        for (byte b : bytes) {
+            buffer.put(position++, b);
+        }
+        return position;
+    }
+
+    /**
+     * Writes a record with one value
+     * @param channel The id of the channel, as returned by {@link #addChannel(String, String...)}
+     * @param timestampNanos When the value was measured, as given by {@link System#nanoTime()}
+     */
+    public synchronized void write(int channel, long timestampNanos, double value) {
+        final int position = beginRecord(channel, timestampNanos, 1);
+        if (position < 0) {
+            return;
+        }
+        buffer.putDouble(position, value);
+        endRecord();
+    }
+
+    /**
+     * Writes a record with two values
+     * @see #write(int, long, double)
+     */
+    public synchronized void write(int channel, long timestampNanos, double value0, double value1) {
+        final int position = beginRecord(channel, timestampNanos, 2);
+        if (position < 0) {
+            return;
+        }
+        buffer.putDouble(position, value0);
+        buffer.putDouble(position + Double.BYTES, value1);
+        endRecord();
+    }
+
+    /**
+     * Writes a record with three values
+     * @see #write(int, long, double)
+     */
+    public synchronized void write(int channel, long timestampNanos, double value0, double value1, double value2) {
+        final int position = beginRecord(channel, timestampNanos, 3);
+        if (position < 0) {
+            return;
+        }
+        buffer.putDouble(position, value0);
+        buffer.putDouble(position + Double.BYTES, value1);
+        buffer.putDouble(position + 2 * Double.BYTES, value2);
+        endRecord();
+    }
+
+    /**
+     * Writes a record with four values
+     * @see #write(int, long, double)
+     */
+    public synchronized void write(int channel, long timestampNanos, double value0, double value1, double value2,
+                                   double value3) {
+        final int position = beginRecord(channel, timestampNanos, 4);
+        if (position < 0) {
+            return;
+        }
+        buffer.putDouble(position, value0);
+        buffer.putDouble(position + Double.BYTES, value1);
+        buffer.putDouble(position + 2 * Double.BYTES, value2);
+        buffer.putDouble(position + 3 * Double.BYTES, value3);
+        endRecord();
+    }
+
+    /**
+     * Writes the fixed part of a record
+     * @return The position of the record's first value, or -1 if the log is closed
+     */
+    private int beginRecord(int channel, long timestampNanos, int valueCount) {
+        if (closed) {
+            return -1;
+        }
+        if (channel < 0 || channel >= channelCount) {
+            throw new IllegalArgumentException("Unknown channel " + channel);
+        }
+        if (valueCount > valuesPerRecord) {
+            throw new IllegalArgumentException("Records hold at most " + valuesPerRecord + " values");
+        }
+        final int position = HEADER_SIZE + (int) (recordsWritten % capacity) * recordSize;
+        buffer.putLong(position + RECORD_TIMESTAMP_OFFSET, timestampNanos);
+        buffer.putInt(position + RECORD_CHANNEL_OFFSET, channel);
+        buffer.putInt(position + RECORD_COUNT_OFFSET, valueCount);
+        return position + RECORD_VALUES_OFFSET;
+    }
+
+    private void endRecord() {
+        // the count is updated last so that a reader never sees a partly written record
+        recordsWritten++;
+        buffer.putLong(RECORDS_WRITTEN_OFFSET, recordsWritten);
+    }
+
+    /**
+     * @return The amount of records written, including ones that have since been overwritten
+     */
+    public synchronized long getRecordsWritten() {
+        return recordsWritten;
+    }
+
+    /**
+     * Flushes the log to storage and closes it.  Writes after this are ignored.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        buffer.force();
+        file.close();
+    }
+}
@@ -0,0 +1,77 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * The time that control code runs on.  On the robot this is just {@link System#nanoTime()} and
+ *  {@link Thread#sleep(long, int)}, but everything that times the robot's behavior (loop pacing, PID derivatives,
+ *  command timeouts, pose timestamps) reads it through here, so that a simulator can swap in a virtual clock and run
+ *  an OpMode faster than real time.
+ * <p>
+ * Timing that only measures the code itself, such as profiling, should keep using {@link System#nanoTime()}.
+ */
+public final class Clock extends StaticClass {
+    /**
+     * Somewhere to get the time from
+     */
+    public interface Source {
+        /**
+         * @return The current time, in nanoseconds.  Only differences between times are meaningful.
+         */
+        long nanoTime();
+
+        /**
+         * Waits until the given amount of time has passed
+         * @param nanos How long to wait, in nanoseconds
+         * @throws InterruptedException The thread was interrupted while waiting
+         */
+        void sleep(long nanos) throws InterruptedException;
+    }
+
+    /**
+     * The source in use, or null to use the system's clock
+     */
+    private static volatile Source source = null;
+
+    /**
+     * @return The current time, in nanoseconds.  Only differences between times are meaningful.
+     */
+    public static long nanoTime() {
+        final Source current = source;
+        return current == null ? System.nanoTime() : current.nanoTime();
+    }
+
+    /**
+     * Waits until the given amount of time has passed
+     * @param nanos How long to wait, in nanoseconds.  Values of 0 or less return immediately.
+     * @throws InterruptedException The thread was interrupted while waiting
+     */
+    public static void sleep(long nanos) throws InterruptedException {
+        if (nanos <= 0) {
+            return;
+        }
+        final Source current = source;
+        if (current == null) {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        }
+        else {
+            current.sleep(nanos);
+        }
+    }
+
+    /**
+     * Waits until the given amount of time has passed
+     * @param millis How long to wait, in milliseconds
+     * @throws InterruptedException The thread was interrupted while waiting
+     */
+    public static void sleepMillis(long millis) throws InterruptedException {
+        sleep(millis * 1_000_000);
+    }
+
+    /**
+     * Replaces the clock.  This should only be done before an OpMode starts, as times from different sources can't be
+     *  compared.
+     * @param newSource The new source of time, or null to go back to the system's clock
+     */
+    public static void setSource(Source newSource) {
+        source = newSource;
+    }
+}
@@ -0,0 +1,38 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * An immutable {@link IntSwitchStatement}, made by {@link IntSwitchStatement#freeze()}
+ * @param <SWITCH_ON> The type of the cases and object to switch on
+ * @see FrozenSwitchStatement
+ */
+public final class FrozenIntSwitchStatement<SWITCH_ON> {
+    private final SwitchTable table;
+
+    /**
+     * The body of each case, at the case's index in {@link #table}
+     */
+    private final ToIntFunction<SWITCH_ON>[] bodies;
+
+    private final ToIntFunction<SWITCH_ON> defaultCase;
+
+    @SuppressWarnings("unchecked")
+    FrozenIntSwitchStatement(Map<SWITCH_ON, ToIntFunction<SWITCH_ON>> cases, ToIntFunction<SWITCH_ON> defaultCase) {
+        table = new SwitchTable(cases.keySet());
+        // the table indexes the cases in the key set's iteration order, which the values share
+        bodies = cases.values().toArray(new ToIntFunction[0]);
+        this.defaultCase = defaultCase;
+    }
+
+    /**
+     * Executes the switch statement
+     * @param switchOn The object to compare with each case
+     * @return The result of the matching case, or the result of the default case if no match is found
+     */
+    public int execute(SWITCH_ON switchOn) {
+        final int index = table.indexOf(switchOn);
+        return (index < 0 ? defaultCase : bodies[index]).applyAsInt(switchOn);
+    }
+}
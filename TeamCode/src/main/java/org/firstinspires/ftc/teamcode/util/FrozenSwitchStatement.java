@@ -0,0 +1,40 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * An immutable {@link SwitchStatement}, made by {@link SwitchStatement#freeze()}.  It isn't synchronized, since nothing
+ *  about it can change, and it finds cases in a table built for them rather than a {@link java.util.Hashtable}, so it
+ *  suits switch statements that are built once and executed every loop.
+ * @param <SWITCH_ON> The type of the cases and object to switch on
+ * @param <RETURN> The type that will be returned by every case and, by extension, {@link #execute(Object)}
+ */
+public final class FrozenSwitchStatement<SWITCH_ON, RETURN> {
+    private final SwitchTable table;
+
+    /**
+     * The body of each case, at the case's index in {@link #table}
+     */
+    private final Function<SWITCH_ON, RETURN>[] bodies;
+
+    private final Function<SWITCH_ON, RETURN> defaultCase;
+
+    @SuppressWarnings("unchecked")
+    FrozenSwitchStatement(Map<SWITCH_ON, Function<SWITCH_ON, RETURN>> cases, Function<SWITCH_ON, RETURN> defaultCase) {
+        table = new SwitchTable(cases.keySet());
+        // the table indexes the cases in the key set's iteration order, which the values share
+        bodies = cases.values().toArray(new Function[0]);
+        this.defaultCase = defaultCase;
+    }
+
+    /**
+     * Executes the switch statement
+     * @param switchOn The object to compare with each case
+     * @return The result of the matching case, or the result of the default case if no match is found
+     */
+    public RETURN execute(SWITCH_ON switchOn) {
+        final int index = table.indexOf(switchOn);
+        return (index < 0 ? defaultCase : bodies[index]).apply(switchOn);
+    }
+}
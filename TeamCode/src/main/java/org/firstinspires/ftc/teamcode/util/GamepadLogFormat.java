@@ -0,0 +1,132 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The layout of the files written by {@link GamepadLogWriter} and read by {@link GamepadLogReader}, and how a
+ *  {@link Gamepad} is packed into them.
+ * <p>
+ * A log starts with a header of {@link #HEADER_SIZE} bytes, followed by one fixed-width frame per loop.  All values
+ *  are little-endian.
+ * <pre>
+ * header:
+ *   0  8 bytes  magic, {@link #MAGIC}
+ *   8  int      format version, {@link #VERSION}
+ *  12  int      capacity, in frames
+ *  16  long     frames written
+ *  24  long     wall clock time the log was created, in milliseconds since the epoch
+ *
+ * frame:
+ *   0  long     timestamp, as given by {@link Clock#nanoTime()}
+ *   8  short    gamepad 1's buttons, one bit each (see {@link #BUTTON_A} and the rest)
+ *  10  6 bytes  gamepad 1's axes: the left and right sticks' x and y, each a signed byte from -127 to 127, then the
+ *               left and right triggers, each an unsigned byte from 0 to 255
+ *  16  short    gamepad 2's buttons
+ *  18  6 bytes  gamepad 2's axes
+ * </pre>
+ */
+final class GamepadLogFormat extends StaticClass {
+    static final byte[] MAGIC = {'F', 'T', 'C', 'G', 'P', 'A', 'D', '1'};
+    static final int VERSION = 1;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final int HEADER_SIZE = 64;
+
+    static final int VERSION_OFFSET = 8;
+    static final int CAPACITY_OFFSET = 12;
+    static final int FRAMES_WRITTEN_OFFSET = 16;
+    static final int START_WALL_CLOCK_OFFSET = 24;
+
+    static final int FRAME_TIMESTAMP_OFFSET = 0;
+    static final int FRAME_GAMEPAD1_OFFSET = 8;
+    static final int FRAME_GAMEPAD2_OFFSET = 16;
+    static final int FRAME_SIZE = 24;
+
+    static final int BUTTON_A = 1;
+    static final int BUTTON_B = 1 << 1;
+    static final int BUTTON_X = 1 << 2;
+    static final int BUTTON_Y = 1 << 3;
+    static final int BUTTON_DPAD_UP = 1 << 4;
+    static final int BUTTON_DPAD_DOWN = 1 << 5;
+    static final int BUTTON_DPAD_LEFT = 1 << 6;
+    static final int BUTTON_DPAD_RIGHT = 1 << 7;
+    static final int BUTTON_LEFT_BUMPER = 1 << 8;
+    static final int BUTTON_RIGHT_BUMPER = 1 << 9;
+    static final int BUTTON_LEFT_STICK = 1 << 10;
+    static final int BUTTON_RIGHT_STICK = 1 << 11;
+    static final int BUTTON_BACK = 1 << 12;
+    static final int BUTTON_START = 1 << 13;
+    static final int BUTTON_GUIDE = 1 << 14;
+    static final int BUTTON_PS = 1 << 15;
+
+    /**
+     * Packs a gamepad's buttons and axes into a frame
+     * @param position Where the gamepad's part of the frame starts
+     */
+    static void put(ByteBuffer buffer, int position, Gamepad gamepad) {
+        final int buttons = (gamepad.a ? BUTTON_A : 0)
+                | (gamepad.b ? BUTTON_B : 0)
+                | (gamepad.x ? BUTTON_X : 0)
+                | (gamepad.y ? BUTTON_Y : 0)
+                | (gamepad.dpad_up ? BUTTON_DPAD_UP : 0)
+                | (gamepad.dpad_down ? BUTTON_DPAD_DOWN : 0)
+                | (gamepad.dpad_left ? BUTTON_DPAD_LEFT : 0)
+                | (gamepad.dpad_right ? BUTTON_DPAD_RIGHT : 0)
+                | (gamepad.left_bumper ? BUTTON_LEFT_BUMPER : 0)
+                | (gamepad.right_bumper ? BUTTON_RIGHT_BUMPER : 0)
+                | (gamepad.left_stick_button ? BUTTON_LEFT_STICK : 0)
+                | (gamepad.right_stick_button ? BUTTON_RIGHT_STICK : 0)
+                | (gamepad.back ? BUTTON_BACK : 0)
+                | (gamepad.start ? BUTTON_START : 0)
+                | (gamepad.guide ? BUTTON_GUIDE : 0)
+                | (gamepad.ps ? BUTTON_PS : 0);
+        buffer.putShort(position, (short) buttons);
+        buffer.put(position + 2, quantizeStick(gamepad.left_stick_x));
+        buffer.put(position + 3, quantizeStick(gamepad.left_stick_y));
+        buffer.put(position + 4, quantizeStick(gamepad.right_stick_x));
+        buffer.put(position + 5, quantizeStick(gamepad.right_stick_y));
+        buffer.put(position + 6, quantizeTrigger(gamepad.left_trigger));
+        buffer.put(position + 7, quantizeTrigger(gamepad.right_trigger));
+    }
+
+    /**
+     * Unpacks a gamepad's buttons and axes from a frame
+     * @param position Where the gamepad's part of the frame starts
+     */
+    static void get(ByteBuffer buffer, int position, Gamepad gamepad) {
+        final int buttons = buffer.getShort(position);
+        gamepad.a = (buttons & BUTTON_A) != 0;
+        gamepad.b = (buttons & BUTTON_B) != 0;
+        gamepad.x = (buttons & BUTTON_X) != 0;
+        gamepad.y = (buttons & BUTTON_Y) != 0;
+        gamepad.dpad_up = (buttons & BUTTON_DPAD_UP) != 0;
+        gamepad.dpad_down = (buttons & BUTTON_DPAD_DOWN) != 0;
+        gamepad.dpad_left = (buttons & BUTTON_DPAD_LEFT) != 0;
+        gamepad.dpad_right = (buttons & BUTTON_DPAD_RIGHT) != 0;
+        gamepad.left_bumper = (buttons & BUTTON_LEFT_BUMPER) != 0;
+        gamepad.right_bumper = (buttons & BUTTON_RIGHT_BUMPER) != 0;
+        gamepad.left_stick_button = (buttons & BUTTON_LEFT_STICK) != 0;
+        gamepad.right_stick_button = (buttons & BUTTON_RIGHT_STICK) != 0;
+        gamepad.back = (buttons & BUTTON_BACK) != 0;
+        gamepad.start = (buttons & BUTTON_START) != 0;
+        gamepad.guide = (buttons & BUTTON_GUIDE) != 0;
+        gamepad.ps = (buttons & BUTTON_PS) != 0;
+        gamepad.left_stick_x = buffer.get(position + 2) / 127f;
+        gamepad.left_stick_y = buffer.get(position + 3) / 127f;
+        gamepad.right_stick_x = buffer.get(position + 4) / 127f;
+        gamepad.right_stick_y = buffer.get(position + 5) / 127f;
+        gamepad.left_trigger = (buffer.get(position + 6) & 0xFF) / 255f;
+        gamepad.right_trigger = (buffer.get(position + 7) & 0xFF) / 255f;
+    }
+
+    private static byte quantizeStick(float value) {
+        return (byte) Math.round(Math.max(-1, Math.min(1, value)) * 127);
+    }
+
+    private static byte quantizeTrigger(float value) {
+        return (byte) Math.round(Math.max(0, Math.min(1, value)) * 255);
+    }
+}
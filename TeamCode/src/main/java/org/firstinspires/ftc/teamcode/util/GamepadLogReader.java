@@ -0,0 +1,96 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static org.firstinspires.ftc.teamcode.util.GamepadLogFormat.*;
+
+/**
+ * Reads logs written by {@link GamepadLogWriter}.  Frames are unpacked straight into {@link Gamepad Gamepads} when
+ *  they're {@linkplain #apply(int, Gamepad, Gamepad) applied}, without allocating, so replaying a log doesn't add to
+ *  the allocations of the loop it drives.
+ */
+public final class GamepadLogReader {
+    private final ByteBuffer buffer;
+    private final int frameCount;
+    private final long startWallClockMillis;
+    private final long firstTimestampNanos;
+
+    /**
+     * Reads a log
+     * @param path The log
+     * @throws IOException The file could not be read, or is not a gamepad log
+     */
+    public GamepadLogReader(File path) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path, "r")) {
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        }
+        buffer.order(BYTE_ORDER);
+
+        if (buffer.limit() < HEADER_SIZE) {
+            throw new IOException("File is too short to be a gamepad log");
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(i) != MAGIC[i]) {
+                throw new IOException("File is not a gamepad log");
+            }
+        }
+        if (buffer.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("Unsupported gamepad log version " + buffer.getInt(VERSION_OFFSET));
+        }
+        final int capacity = buffer.getInt(CAPACITY_OFFSET);
+        final long framesWritten = buffer.getLong(FRAMES_WRITTEN_OFFSET);
+        if (framesWritten < 0 || framesWritten > capacity
+                || buffer.limit() < HEADER_SIZE + (long) FRAME_SIZE * capacity) {
+            throw new IOException("Gamepad log is truncated");
+        }
+        frameCount = (int) framesWritten;
+        startWallClockMillis = buffer.getLong(START_WALL_CLOCK_OFFSET);
+        firstTimestampNanos = frameCount == 0 ? 0 : buffer.getLong(HEADER_SIZE + FRAME_TIMESTAMP_OFFSET);
+    }
+
+    /**
+     * @return The amount of frames in the log, one per recorded loop
+     */
+    public int size() {
+        return frameCount;
+    }
+
+    /**
+     * @param frame The index of the frame
+     * @return When the frame was recorded, in nanoseconds since the first frame
+     */
+    public long getTimestampNanos(int frame) {
+        return buffer.getLong(framePosition(frame) + FRAME_TIMESTAMP_OFFSET) - firstTimestampNanos;
+    }
+
+    /**
+     * Sets two gamepads to what they were when a frame was recorded.  Sticks and triggers come back quantized, so
+     *  they may differ from what was recorded by up to half of 1/127 and 1/255 respectively.
+     * @param frame The index of the frame
+     */
+    public void apply(int frame, Gamepad gamepad1, Gamepad gamepad2) {
+        final int position = framePosition(frame);
+        get(buffer, position + FRAME_GAMEPAD1_OFFSET, gamepad1);
+        get(buffer, position + FRAME_GAMEPAD2_OFFSET, gamepad2);
+    }
+
+    private int framePosition(int frame) {
+        if (frame < 0 || frame >= frameCount) {
+            throw new IndexOutOfBoundsException("Frame " + frame + " of " + frameCount);
+        }
+        return HEADER_SIZE + frame * FRAME_SIZE;
+    }
+
+    /**
+     * @return The wall clock time the log was created, in milliseconds since the epoch
+     */
+    public long getStartWallClockMillis() {
+        return startWallClockMillis;
+    }
+}
@@ -0,0 +1,109 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static org.firstinspires.ftc.teamcode.util.GamepadLogFormat.*;
+
+/**
+ * Records what the drivers do, as one compact frame per loop holding both gamepads' buttons as bits and their sticks
+ *  and triggers quantized to a byte each.  {@link GamepadLogReader} plays the frames back, so a real driving session
+ *  can be replayed through an OpMode off the robot.  See {@link GamepadLogFormat} for the layout.
+ * <p>
+ * Like {@link BinaryLogWriter}, the log is a memory-mapped file, so writing a frame never allocates or blocks on I/O
+ *  and the frames survive the app being killed.  Unlike it, the log is not a ring: a replay needs the session from
+ *  its start, so once the log is full, further frames are dropped.
+ */
+public final class GamepadLogWriter implements Closeable {
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    private int framesWritten = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a log, replacing the file if it already exists
+     * @param path Where to write the log
+     * @param capacity The amount of frames the log holds
+     * @throws IOException The file could not be created or mapped
+     * @throws IllegalArgumentException The capacity is not positive, or the file would be larger than can be mapped
+     */
+    public GamepadLogWriter(File path, int capacity) throws IOException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+
+        final long size = HEADER_SIZE + (long) FRAME_SIZE * capacity;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The log would be larger than 2 GB");
+        }
+
+        file = new RandomAccessFile(path, "rw");
+        try {
+            file.setLength(0);
+            file.setLength(size);
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+        buffer.order(BYTE_ORDER);
+
+        for (int i = 0; i < MAGIC.length; i++) {
+            buffer.put(i, MAGIC[i]);
+        }
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putLong(FRAMES_WRITTEN_OFFSET, 0);
+        buffer.putLong(START_WALL_CLOCK_OFFSET, System.currentTimeMillis());
+    }
+
+    /**
+     * Writes a frame.  This is meant to be called once per loop, from the OpMode's thread, with the gamepads as the
+     *  loop reads them.
+     * @param timestampNanos When the loop began, as given by {@link Clock#nanoTime()}
+     * @return Whether the frame was written, rather than dropped because the log is full or closed
+     */
+    public boolean write(long timestampNanos, Gamepad gamepad1, Gamepad gamepad2) {
+        if (closed || framesWritten == capacity) {
+            return false;
+        }
+        final int position = HEADER_SIZE + framesWritten * FRAME_SIZE;
+        buffer.putLong(position + FRAME_TIMESTAMP_OFFSET, timestampNanos);
+        put(buffer, position + FRAME_GAMEPAD1_OFFSET, gamepad1);
+        put(buffer, position + FRAME_GAMEPAD2_OFFSET, gamepad2);
+        // the count is updated last so that a reader never sees a partly written frame
+        framesWritten++;
+        buffer.putLong(FRAMES_WRITTEN_OFFSET, framesWritten);
+        return true;
+    }
+
+    /**
+     * @return The amount of frames written
+     */
+    public int getFramesWritten() {
+        return framesWritten;
+    }
+
+    /**
+     * Flushes the log to storage and closes it.  Writes after this are ignored.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        buffer.force();
+        file.close();
+    }
+}
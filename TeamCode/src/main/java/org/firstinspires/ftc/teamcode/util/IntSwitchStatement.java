@@ -0,0 +1,77 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+
+/**
+ * A {@link SwitchStatement} whose cases return an int, so that no result is boxed.  Equality is determined via the
+ *  objects' hashCode() and equals() methods.
+ * @param <SWITCH_ON> The type of the cases and object to switch on
+ * @see #freeze()
+ */
+public final class IntSwitchStatement<SWITCH_ON> {
+    /**
+     * The set of cases mapped to the code to run for each case
+     */
+    private final Map<SWITCH_ON, ToIntFunction<SWITCH_ON>> cases;
+
+    /**
+     * The default case that will be run if the given object matches no other cases
+     */
+    private final ToIntFunction<SWITCH_ON> defaultCase;
+
+    /**
+     * Initializes the switch statement with a given default case
+     * @param defaultCase The default case that will be run if no match is found
+     */
+    public IntSwitchStatement(ToIntFunction<SWITCH_ON> defaultCase) {
+        Objects.requireNonNull(defaultCase, "Default case cannot be null!");
+        this.defaultCase = defaultCase;
+        cases = new LinkedHashMap<>();
+    }
+
+    /**
+     * Adds a case to this switch statement and returns itself
+     * @param caseObj The case
+     * @param whatToDo What to run if the case is a match
+     * @return The switch statement, after the case has been added
+     * @throws NullPointerException one or both of the arguments are null
+     * @throws IllegalArgumentException the case is already handled
+     */
+    public synchronized IntSwitchStatement<SWITCH_ON> addCase(SWITCH_ON caseObj, ToIntFunction<SWITCH_ON> whatToDo) {
+        Objects.requireNonNull(caseObj, "Attempted to add a null case!  Null cases are not permitted; use the " +
+                "default case instead!");
+        Objects.requireNonNull(whatToDo, "Attempted to add a case without a body!");
+        if (cases.containsKey(caseObj)) {
+            throw new IllegalArgumentException("Attempted to add a case that already is a part of the statements!");
+        }
+        cases.put(caseObj, whatToDo);
+        return this;
+    }
+
+    /**
+     * Executes the switch statement
+     * @param switchOn The object to compare with each case
+     * @return The result of the matching case, or the result of the default case if no match is found
+     */
+    public synchronized int execute(SWITCH_ON switchOn) {
+        if (switchOn == null) {
+            return defaultCase.applyAsInt(switchOn);
+        }
+
+        final ToIntFunction<SWITCH_ON> matchingCase = cases.getOrDefault(switchOn, defaultCase);
+        assert matchingCase != null;
+        return matchingCase.applyAsInt(switchOn);
+    }
+
+    /**
+     * Creates an immutable copy of this switch statement for executing in loops.  Cases added to this afterwards do
+     *  not affect the copy.
+     * @return The copy
+     */
+    public synchronized FrozenIntSwitchStatement<SWITCH_ON> freeze() {
+        return new FrozenIntSwitchStatement<>(cases, defaultCase);
+    }
+}
@@ -0,0 +1,143 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * A fixed-size histogram of durations, used to find percentiles of loop timings without storing every sample.
+ *  Recording a duration never allocates.
+ * <p>
+ * Durations are bucketed by microsecond.  Durations under {@value #LINEAR_BUCKETS} microseconds each get their own
+ *  bucket; above that, every power of two is split into {@value #SUB_BUCKETS} buckets, so reported percentiles are at
+ *  most about 6% above the true value.
+ */
+public final class LatencyHistogram {
+    /**
+     * Durations below this many microseconds each have their own bucket
+     */
+    private static final int LINEAR_BUCKETS = 32;
+
+    /**
+     * The power of two of {@link #LINEAR_BUCKETS}
+     */
+    private static final int FIRST_EXPONENT = 5;
+
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * The amount of buckets each power of two is split into
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The largest power of two (in microseconds) with its own buckets.  Anything longer (about 35 minutes) goes in the
+     *  last bucket.
+     */
+    private static final int MAX_EXPONENT = 30;
+
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + (MAX_EXPONENT - FIRST_EXPONENT + 1) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long count = 0;
+    private long totalNanos = 0;
+    private long maxNanos = 0;
+
+    /**
+     * Records a duration
+     * @param nanos The duration, in nanoseconds.  Negative durations are recorded as 0.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts[bucketOf(nanos / 1000)]++;
+        count++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    /* package-private */ static int bucketOf(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) micros;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        final int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return The largest duration, in microseconds, that falls in the bucket
+     */
+    /* package-private */ static long bucketUpperBoundMicros(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        final int offset = bucket - LINEAR_BUCKETS;
+        final int exponent = offset / SUB_BUCKETS + FIRST_EXPONENT;
+        final int subBucket = offset % SUB_BUCKETS;
+        final long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (subBucket + 1) * width - 1;
+    }
+
+    /**
+     * Gets a percentile of the recorded durations
+     * @param percentile The percentile, from 0 to 100
+     * @return An upper bound for the percentile, in nanoseconds, or 0 if nothing has been recorded
+     * @throws IllegalArgumentException The percentile is out of range
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                if (bucket == BUCKET_COUNT - 1) {
+                    return maxNanos; // the last bucket has no upper bound
+                }
+                return Math.min((bucketUpperBoundMicros(bucket) + 1) * 1000 - 1, maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * @return The amount of durations recorded
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The longest recorded duration, in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @return The average recorded duration, in nanoseconds, or 0 if nothing has been recorded
+     */
+    public double getMeanNanos() {
+        return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    /**
+     * Forgets every recorded duration
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = 0;
+        }
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+}
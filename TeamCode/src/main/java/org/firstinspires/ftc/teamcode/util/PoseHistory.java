@@ -0,0 +1,260 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * A fixed-capacity history of timestamped poses, oldest first.  Poses are kept in parallel primitive arrays used as
+ *  a circular buffer, so adding a pose never allocates; once the history is full, each new pose replaces the oldest.
+ * <p>
+ * Poses can be read in place by index, copied in bulk into caller-owned arrays (e.g. for drawing), or looked up by
+ *  time with {@link #getPoseAt(long, double[])}, which interpolates between the two recorded poses around the
+ *  requested time.  That lets measurements that arrive late (such as from vision) be matched to where the robot was
+ *  when they were taken.  {@link #getPredictedPose(long, long, double[])} looks the other way, extrapolating past
+ *  the newest pose so that a controller can act on where the robot will be when its command takes effect.
+ * <p>
+ * Units are up to the caller, except that headings must be in radians so that they can be interpolated across the
+ *  +/- pi boundary.
+ */
+public final class PoseHistory {
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] headings;
+    private final long[] timestamps;
+
+    /**
+     * The buffer index of the oldest pose
+     */
+    private int start = 0;
+    private int size = 0;
+
+    /**
+     * @param capacity The amount of poses to keep
+     * @throws IllegalArgumentException The capacity is not positive
+     */
+    public PoseHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        xs = new double[capacity];
+        ys = new double[capacity];
+        headings = new double[capacity];
+        timestamps = new long[capacity];
+    }
+
+    /**
+     * Adds a pose, replacing the oldest one if the history is full
+     * @param timestampNanos When the robot was at the pose, as given by {@link Clock#nanoTime()}
+     * @param heading The heading, in radians
+     * @throws IllegalArgumentException The timestamp is earlier than that of the newest pose
+     */
+    public void add(long timestampNanos, double x, double y, double heading) {
+        if (size > 0 && timestampNanos - timestamps[bufferIndex(size - 1)] < 0) {
+            throw new IllegalArgumentException("Poses must be added in chronological order");
+        }
+        final int index;
+        if (size < capacity()) {
+            index = bufferIndex(size);
+            size++;
+        }
+        else {
+            index = start;
+            start = bufferIndex(1);
+        }
+        xs[index] = x;
+        ys[index] = y;
+        headings[index] = heading;
+        timestamps[index] = timestampNanos;
+    }
+
+    private int bufferIndex(int i) {
+        final int index = start + i;
+        return index < capacity() ? index : index - capacity();
+    }
+
+    private int checkedBufferIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " is out of bounds for size " + size);
+        }
+        return bufferIndex(i);
+    }
+
+    /**
+     * @return The amount of poses in the history
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The largest amount of poses the history can hold
+     */
+    public int capacity() {
+        return xs.length;
+    }
+
+    /**
+     * Forgets every pose
+     */
+    public void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    /**
+     * @param i The index of the pose, where 0 is the oldest
+     */
+    public double getX(int i) {
+        return xs[checkedBufferIndex(i)];
+    }
+
+    /**
+     * @param i The index of the pose, where 0 is the oldest
+     */
+    public double getY(int i) {
+        return ys[checkedBufferIndex(i)];
+    }
+
+    /**
+     * @param i The index of the pose, where 0 is the oldest
+     * @return The heading, in radians
+     */
+    public double getHeading(int i) {
+        return headings[checkedBufferIndex(i)];
+    }
+
+    /**
+     * @param i The index of the pose, where 0 is the oldest
+     * @return When the robot was at the pose, as given by {@link Clock#nanoTime()}
+     */
+    public long getTimestampNanos(int i) {
+        return timestamps[checkedBufferIndex(i)];
+    }
+
+    /**
+     * Copies the x and y coordinates of every pose, oldest first, into the given arrays
+     * @param xDestination Where to copy the x coordinates; must hold at least {@link #size()} values
+     * @param yDestination Where to copy the y coordinates; must hold at least {@link #size()} values
+     * @return The amount of poses copied
+     */
+    public int copyPositions(double[] xDestination, double[] yDestination) {
+        copyInOrder(xs, xDestination);
+        copyInOrder(ys, yDestination);
+        return size;
+    }
+
+    private void copyInOrder(double[] source, double[] destination) {
+        // at most two runs: from the oldest pose to the end of the buffer, then from the start of the buffer
+        final int firstRun = Math.min(size, capacity() - start);
+        System.arraycopy(source, start, destination, 0, firstRun);
+        System.arraycopy(source, 0, destination, firstRun, size - firstRun);
+    }
+
+    /**
+     * Finds where the robot was at the given time, interpolating linearly between the recorded poses before and after
+     *  it.  Times outside the history are clamped to the oldest or newest pose.
+     * @param timestampNanos The time, as given by {@link Clock#nanoTime()}
+     * @param destination Where to write the pose, as {x, y, heading}; must hold at least 3 values.  The heading is in
+     *                    radians but is not normalized.
+     * @return True if the time is within the history, false if it was clamped or the history is empty (in which case
+     *  nothing is written)
+     */
+    public boolean getPoseAt(long timestampNanos, double[] destination) {
+        if (size == 0) {
+            return false;
+        }
+        if (timestampNanos - timestamps[start] < 0) {
+            writePose(start, destination);
+            return false;
+        }
+        final int newest = bufferIndex(size - 1);
+        if (timestampNanos - timestamps[newest] > 0) {
+            writePose(newest, destination);
+            return false;
+        }
+
+        final int low = lastIndexAtOrBefore(timestampNanos);
+        final int before = bufferIndex(low);
+        if (low == size - 1 || timestamps[before] == timestampNanos) {
+            writePose(before, destination);
+            return true;
+        }
+        final int after = bufferIndex(low + 1);
+
+        final double fraction = (double) (timestampNanos - timestamps[before]) / (timestamps[after] - timestamps[before]);
+        destination[0] = xs[before] + (xs[after] - xs[before]) * fraction;
+        destination[1] = ys[before] + (ys[after] - ys[before]) * fraction;
+        destination[2] = headings[before] + angleDifference(headings[before], headings[after]) * fraction;
+        return true;
+    }
+
+    /**
+     * Finds the last pose at or before a time.  Timestamps are in order, so this is a binary search.
+     * @return The index of the pose, where 0 is the oldest, or 0 if every pose is after the time
+     */
+    private int lastIndexAtOrBefore(long timestampNanos) {
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            final int mid = (low + high + 1) >>> 1;
+            if (timestampNanos - timestamps[bufferIndex(mid)] >= 0) {
+                low = mid;
+            }
+            else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Estimates where the robot will be at the given time.  Times after the newest pose are extrapolated from it at
+     *  the robot's average velocity over the given window before it; earlier times are looked up as in
+     *  {@link #getPoseAt(long, double[])}.
+     * @param timestampNanos The time, as given by {@link Clock#nanoTime()}
+     * @param velocityWindowNanos How far back from the newest pose to measure the velocity over.  Longer windows are
+     *                            less sensitive to noise but slower to follow changes in speed.
+     * @param destination Where to write the pose, as {x, y, heading}; must hold at least 3 values.  The heading is in
+     *                    radians but is not normalized.
+     * @return False if the history is empty (in which case nothing is written), otherwise true
+     */
+    public boolean getPredictedPose(long timestampNanos, long velocityWindowNanos, double[] destination) {
+        if (size == 0) {
+            return false;
+        }
+        final int newest = bufferIndex(size - 1);
+        final long ahead = timestampNanos - timestamps[newest];
+        if (ahead <= 0) {
+            getPoseAt(timestampNanos, destination);
+            return true;
+        }
+
+        writePose(newest, destination);
+        if (size == 1) {
+            return true;
+        }
+        // measure the velocity from the last pose at or before the start of the window, but always across at least
+        //  the two newest poses
+        final int from = bufferIndex(Math.min(lastIndexAtOrBefore(timestamps[newest] - velocityWindowNanos), size - 2));
+        final long elapsed = timestamps[newest] - timestamps[from];
+        if (elapsed <= 0) {
+            return true;
+        }
+        final double scale = (double) ahead / elapsed;
+        destination[0] += (xs[newest] - xs[from]) * scale;
+        destination[1] += (ys[newest] - ys[from]) * scale;
+        destination[2] += angleDifference(headings[from], headings[newest]) * scale;
+        return true;
+    }
+
+    private void writePose(int index, double[] destination) {
+        destination[0] = xs[index];
+        destination[1] = ys[index];
+        destination[2] = headings[index];
+    }
+
+    /**
+     * @return The shortest signed rotation from one angle to another, in [-pi, pi)
+     */
+    private static double angleDifference(double from, double to) {
+        final double difference = to - from;
+        return difference - 2 * Math.PI * Math.floor((difference + Math.PI) / (2 * Math.PI));
+    }
+}
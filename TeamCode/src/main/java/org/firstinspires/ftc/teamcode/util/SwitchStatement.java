@@ -71,4 +71,17 @@ public final class SwitchStatement<SWITCH_ON, RETURN> {
         assert matchingCase != null;
         return matchingCase.apply(switchOn);
     }
+
+    /**
+     * Creates an immutable copy of this switch statement for executing in loops.  Cases added to this afterwards do
+     *  not affect the copy.
+     * @return The copy
+     * @see IntSwitchStatement
+     */
+    public FrozenSwitchStatement<SWITCH_ON, RETURN> freeze() {
+        synchronized (cases) {
+            // Hashtable's views aren't synchronized on their own
+            return new FrozenSwitchStatement<>(cases, defaultCase);
+        }
+    }
 }
@@ -0,0 +1,136 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * An immutable lookup from the cases of a frozen switch statement to their indices, which the frozen statements use
+ *  to index arrays of case bodies.  It is never modified after construction, so it needs no synchronization.
+ * <p>
+ * If every case is a constant of the same enum, the index is found from the constant's ordinal.  Otherwise the cases
+ *  are put in an open-addressed hash table, which is made large enough (within reason) that no two cases share a slot,
+ *  so that a lookup is a single probe.  Cases whose hash codes are equal are still supported; they just take more.
+ * @see FrozenSwitchStatement
+ * @see FrozenIntSwitchStatement
+ */
+/* package-private */ final class SwitchTable {
+    /**
+     * How many times larger than the smallest possible table a table may be made to keep the cases in separate slots
+     */
+    private static final int MAX_GROWTH = 8;
+
+    /**
+     * The enum that every case belongs to, or null if the cases are not all constants of one enum
+     */
+    private final Class<?> enumClass;
+
+    /**
+     * The index of each enum constant, by ordinal, or -1 for constants that are not a case
+     */
+    private final int[] indicesByOrdinal;
+
+    /**
+     * The hash table.  Empty slots are null.
+     */
+    private final Object[] keys;
+    private final int[] indices;
+    private final int mask;
+
+    /**
+     * @param cases The cases, none of which may be null or equal to another.  Each case's index is its position in
+     *              iteration order.
+     */
+    SwitchTable(Collection<?> cases) {
+        final Object[] caseArray = cases.toArray();
+        enumClass = findEnumClass(caseArray);
+        if (enumClass != null) {
+            indicesByOrdinal = new int[enumClass.getEnumConstants().length];
+            Arrays.fill(indicesByOrdinal, -1);
+            for (int i = 0; i < caseArray.length; i++) {
+                indicesByOrdinal[((Enum<?>) caseArray[i]).ordinal()] = i;
+            }
+            keys = null;
+            indices = null;
+            mask = 0;
+            return;
+        }
+        indicesByOrdinal = null;
+
+        // at least one slot is always left empty, so that probing for a missing case stops
+        final int minimumSize = Math.max(2, Integer.highestOneBit(caseArray.length) << 1);
+        int size = minimumSize;
+        while (size < minimumSize * MAX_GROWTH && !isCollisionFree(caseArray, size - 1)) {
+            size <<= 1;
+        }
+        mask = size - 1;
+        keys = new Object[size];
+        indices = new int[size];
+        for (int i = 0; i < caseArray.length; i++) {
+            int slot = slotOf(caseArray[i], mask);
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = caseArray[i];
+            indices[slot] = i;
+        }
+    }
+
+    private static Class<?> findEnumClass(Object[] cases) {
+        if (cases.length == 0 || !(cases[0] instanceof Enum)) {
+            return null;
+        }
+        final Class<?> enumClass = ((Enum<?>) cases[0]).getDeclaringClass();
+        for (Object caseObj : cases) {
+            if (!(caseObj instanceof Enum) || ((Enum<?>) caseObj).getDeclaringClass() != enumClass) {
+                return null;
+            }
+        }
+        return enumClass;
+    }
+
+    private static boolean isCollisionFree(Object[] cases, int mask) {
+        final boolean[] used = new boolean[mask + 1];
+        for (Object caseObj : cases) {
+            final int slot = slotOf(caseObj, mask);
+            if (used[slot]) {
+                return false;
+            }
+            used[slot] = true;
+        }
+        return true;
+    }
+
+    /**
+     * Spreads the high bits of the hash code into the low ones, as {@link java.util.HashMap} does, since only the low
+     *  bits pick the slot
+     */
+    private static int slotOf(Object key, int mask) {
+        final int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * @param switchOn The object to look up; may be null
+     * @return The index of the case equal to the object, or -1 if there is none
+     */
+    int indexOf(Object switchOn) {
+        if (switchOn == null) {
+            return -1;
+        }
+        if (enumClass != null) {
+            if (!(switchOn instanceof Enum) || ((Enum<?>) switchOn).getDeclaringClass() != enumClass) {
+                return -1;
+            }
+            return indicesByOrdinal[((Enum<?>) switchOn).ordinal()];
+        }
+        int slot = slotOf(switchOn, mask);
+        Object key;
+        while ((key = keys[slot]) != null) {
+            if (key == switchOn || key.equals(switchOn)) {
+                return indices[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,90 @@
+package org.firstinspires.ftc.teamcode.test.binarylog;
+
+import org.firstinspires.ftc.teamcode.util.BinaryLogReader;
+import org.firstinspires.ftc.teamcode.util.BinaryLogWriter;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+public class RoundTripTests {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recordsAreSplitIntoChannels() throws IOException {
+        final File path = folder.newFile("log.bin");
+        try (BinaryLogWriter writer = new BinaryLogWriter(path, 3, 16)) {
+            final int pose = writer.addChannel("pose", "x", "y", "heading");
+            writer.write(pose, 100, 1, 2, 3);
+            // channels can be added after records have been written
+            final int power = writer.addChannel("power", "value");
+            writer.write(power, 200, 0.5);
+            writer.write(pose, 300, 4, 5, 6);
+        }
+
+        final BinaryLogReader reader = new BinaryLogReader(path);
+        Assert.assertEquals(2, reader.getChannels().size());
+        final BinaryLogReader.Channel pose = reader.getChannel("pose");
+        Assert.assertEquals(Arrays.asList("x", "y", "heading"), pose.getFieldNames());
+        Assert.assertEquals(2, pose.size());
+        Assert.assertArrayEquals(new double[] {1, 4}, pose.getColumn(0), 0);
+        Assert.assertArrayEquals(new double[] {3, 6}, pose.getColumn(2), 0);
+        Assert.assertEquals(pose.getTimestamps()[1] - pose.getTimestamps()[0], 200);
+        Assert.assertArrayEquals(new double[] {0.5}, reader.getChannel("power").getColumn(0), 0);
+    }
+
+    @Test
+    public void oldestRecordsAreOverwrittenWhenFull() throws IOException {
+        final File path = folder.newFile("log.bin");
+        try (BinaryLogWriter writer = new BinaryLogWriter(path, 1, 4)) {
+            final int channel = writer.addChannel("count", "value");
+            for (int i = 0; i < 10; i++) {
+                writer.write(channel, i, i);
+            }
+        }
+
+        final BinaryLogReader reader = new BinaryLogReader(path);
+        Assert.assertEquals(10, reader.getRecordsWritten());
+        Assert.assertEquals(6, reader.getRecordsLost());
+        Assert.assertArrayEquals(new double[] {6, 7, 8, 9}, reader.getChannel("count").getColumn(0), 0);
+    }
+
+    @Test
+    public void csvHasOneColumnPerField() throws IOException {
+        final File path = folder.newFile("log.bin");
+        try (BinaryLogWriter writer = new BinaryLogWriter(path, 2, 4)) {
+            final int channel = writer.addChannel("error", "position, ticks", "velocity");
+            writer.write(channel, 0, 1, 2);
+        }
+
+        final StringBuilder csv = new StringBuilder();
+        new BinaryLogReader(path).getChannel("error").writeCsv(csv);
+        final String[] lines = csv.toString().split("\n");
+        Assert.assertEquals("time (s),\"position, ticks\",velocity", lines[0]);
+        Assert.assertTrue(lines[1].endsWith(",1.0,2.0"));
+    }
+
+    @Test
+    public void tooManyFieldsAreRejected() throws IOException {
+        try (BinaryLogWriter writer = new BinaryLogWriter(folder.newFile("log.bin"), 2, 4)) {
+            Assert.assertThrows(IllegalArgumentException.class, () -> writer.addChannel("pose", "x", "y", "heading"));
+            final int channel = writer.addChannel("pose", "x", "y");
+            Assert.assertThrows(IllegalArgumentException.class, () -> writer.write(channel, 0, 1, 2, 3));
+        }
+    }
+
+    @Test
+    public void otherFilesAreRejected() throws IOException {
+        final File path = folder.newFile("not-a-log.bin");
+        try (RandomAccessFile file = new RandomAccessFile(path, "rw")) {
+            file.setLength(20000);
+        }
+        Assert.assertThrows(IOException.class, () -> new BinaryLogReader(path));
+    }
+}
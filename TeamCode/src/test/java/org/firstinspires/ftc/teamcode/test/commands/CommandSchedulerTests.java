@@ -0,0 +1,150 @@
+package org.firstinspires.ftc.teamcode.test.commands;
+
+import org.firstinspires.ftc.teamcode.modules.core.Command;
+import org.firstinspires.ftc.teamcode.modules.core.CommandScheduler;
+import org.firstinspires.ftc.teamcode.modules.core.Commands;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CommandSchedulerTests {
+    private final Object driveTrain = "drive train";
+    private final Object arm = "arm";
+
+    /**
+     * A command that finishes after a set amount of cycles and remembers how it ended
+     */
+    private static final class CountingCommand extends Command {
+        private final int cycles;
+        int executions = 0;
+        boolean initialized = false;
+        Boolean interrupted = null;
+
+        CountingCommand(int cycles, Object... requirements) {
+            super(requirements);
+            this.cycles = cycles;
+        }
+
+        @Override
+        public void initialize() {
+            initialized = true;
+        }
+
+        @Override
+        public void execute() {
+            executions++;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return executions >= cycles;
+        }
+
+        @Override
+        public void end(boolean interrupted) {
+            this.interrupted = interrupted;
+        }
+    }
+
+    private static int runUntilIdle(CommandScheduler scheduler) {
+        int cycles = 0;
+        while (!scheduler.isIdle()) {
+            scheduler.run();
+            cycles++;
+        }
+        return cycles;
+    }
+
+    @Test
+    public void parallelCommandsRunTogether() {
+        final CountingCommand drive = new CountingCommand(5, driveTrain);
+        final CountingCommand lift = new CountingCommand(3, arm);
+        final CommandScheduler scheduler = new CommandScheduler();
+        scheduler.schedule(drive.alongWith(lift));
+
+        Assert.assertEquals(5, runUntilIdle(scheduler));
+        Assert.assertEquals(Boolean.FALSE, drive.interrupted);
+        Assert.assertEquals(Boolean.FALSE, lift.interrupted);
+        Assert.assertEquals(3, lift.executions);
+    }
+
+    @Test
+    public void sequencesStartTheNextCommandInTheSameCycle() {
+        final CountingCommand first = new CountingCommand(2, arm);
+        final CountingCommand second = new CountingCommand(2, arm);
+        final CommandScheduler scheduler = new CommandScheduler();
+        scheduler.schedule(Commands.sequence(first, Commands.runOnce(() -> { }, arm), second));
+
+        scheduler.run();
+        Assert.assertFalse(second.initialized);
+        scheduler.run();
+        Assert.assertTrue(second.initialized);
+        Assert.assertEquals(1, second.executions);
+        Assert.assertEquals(1, runUntilIdle(scheduler));
+    }
+
+    @Test
+    public void racesAndDeadlinesInterruptTheRest() {
+        final CountingCommand fast = new CountingCommand(2, driveTrain);
+        final CountingCommand slow = new CountingCommand(10, arm);
+        final CommandScheduler scheduler = new CommandScheduler();
+        scheduler.schedule(Commands.race(slow, fast));
+        Assert.assertEquals(2, runUntilIdle(scheduler));
+        Assert.assertEquals(Boolean.TRUE, slow.interrupted);
+        Assert.assertEquals(Boolean.FALSE, fast.interrupted);
+
+        final CountingCommand deadline = new CountingCommand(3, driveTrain);
+        final CountingCommand quick = new CountingCommand(1, arm);
+        final CountingCommand endless = new CountingCommand(Integer.MAX_VALUE);
+        scheduler.schedule(Commands.deadline(deadline, quick, endless));
+        Assert.assertEquals(3, runUntilIdle(scheduler));
+        Assert.assertEquals(Boolean.FALSE, quick.interrupted);
+        Assert.assertEquals(Boolean.TRUE, endless.interrupted);
+    }
+
+    @Test
+    public void timeoutsInterruptTheCommand() {
+        final CountingCommand endless = new CountingCommand(Integer.MAX_VALUE, arm);
+        final CommandScheduler scheduler = new CommandScheduler();
+        final long start = System.nanoTime();
+        scheduler.schedule(endless.withTimeout(20));
+        runUntilIdle(scheduler);
+        Assert.assertTrue(System.nanoTime() - start >= 20_000_000);
+        Assert.assertEquals(Boolean.TRUE, endless.interrupted);
+    }
+
+    @Test
+    public void schedulingInterruptsCommandsUsingTheSameSubsystem() {
+        final CountingCommand first = new CountingCommand(10, driveTrain, arm);
+        final CountingCommand second = new CountingCommand(10, arm);
+        final CommandScheduler scheduler = new CommandScheduler();
+        scheduler.schedule(first);
+        scheduler.run();
+        scheduler.schedule(second);
+
+        Assert.assertEquals(Boolean.TRUE, first.interrupted);
+        Assert.assertFalse(scheduler.isScheduled(first));
+        Assert.assertSame(second, scheduler.getOwner(arm));
+        Assert.assertNull(scheduler.getOwner(driveTrain));
+    }
+
+    @Test
+    public void parallelCommandsCannotShareSubsystems() {
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> Commands.parallel(new CountingCommand(1, arm), new CountingCommand(1, arm, driveTrain)));
+    }
+
+    @Test
+    public void cancellingAGroupInterruptsTheRunningCommand() {
+        final CountingCommand first = new CountingCommand(10, arm);
+        final CountingCommand second = new CountingCommand(10, arm);
+        final Command sequence = first.andThen(second);
+        final CommandScheduler scheduler = new CommandScheduler();
+        scheduler.schedule(sequence);
+        scheduler.run();
+        scheduler.cancel(sequence);
+
+        Assert.assertEquals(Boolean.TRUE, first.interrupted);
+        Assert.assertFalse(second.initialized);
+        Assert.assertTrue(scheduler.isIdle());
+    }
+}
@@ -0,0 +1,52 @@
+package org.firstinspires.ftc.teamcode.test.fakehardware;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the calls made to a fake device and makes each of them take as long as it would on the robot.  On a Control
+ *  Hub, every call that isn't served from a bulk cache is a round trip to a hub, typically 1-3 ms over RS-485 or
+ *  USB and more for I2C; leaving the latency at 0 runs as fast as possible.
+ * <p>
+ * The latency is spent spinning rather than sleeping, since sleeps are far coarser than a millisecond on most
+ *  systems.  Calls may come from any thread.
+ */
+public final class CallRecorder {
+    private final AtomicLong calls = new AtomicLong();
+    private volatile long latencyNanos = 0;
+
+    /**
+     * Records a call and waits out the latency
+     */
+    public void record() {
+        calls.incrementAndGet();
+        final long latency = latencyNanos;
+        if (latency > 0) {
+            final long end = System.nanoTime() + latency;
+            while (System.nanoTime() - end < 0) {
+                // spin
+            }
+        }
+    }
+
+    /**
+     * @return How many calls have been made since the count was last reset
+     */
+    public long getCallCount() {
+        return calls.get();
+    }
+
+    public void resetCallCount() {
+        calls.set(0);
+    }
+
+    /**
+     * @param latencyNanos How long each call takes, in nanoseconds
+     */
+    public void setLatencyNanos(long latencyNanos) {
+        this.latencyNanos = latencyNanos;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+}
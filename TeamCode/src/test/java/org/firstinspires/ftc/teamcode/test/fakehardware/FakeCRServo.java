@@ -0,0 +1,60 @@
+package org.firstinspires.ftc.teamcode.test.fakehardware;
+
+import com.qualcomm.robotcore.hardware.CRServo;
+import com.qualcomm.robotcore.hardware.ServoController;
+
+/**
+ * A fake continuous rotation servo
+ */
+public class FakeCRServo extends FakeDevice implements CRServo {
+    private Direction direction = Direction.FORWARD;
+    private double power = 0;
+
+    public FakeCRServo(String name) {
+        super(name);
+    }
+
+    /**
+     * @return The power being applied, from -1 to 1, positive in the servo's forward direction
+     */
+    public double getAppliedPower() {
+        return direction == Direction.FORWARD ? power : -power;
+    }
+
+    /**
+     * @return null, since there is no hub
+     */
+    @Override
+    public ServoController getController() {
+        return null;
+    }
+
+    @Override
+    public int getPortNumber() {
+        return 0;
+    }
+
+    @Override
+    public void setDirection(Direction direction) {
+        calls.record();
+        this.direction = direction;
+    }
+
+    @Override
+    public Direction getDirection() {
+        calls.record();
+        return direction;
+    }
+
+    @Override
+    public void setPower(double power) {
+        calls.record();
+        this.power = Math.max(-1, Math.min(1, power));
+    }
+
+    @Override
+    public double getPower() {
+        calls.record();
+        return power;
+    }
+}
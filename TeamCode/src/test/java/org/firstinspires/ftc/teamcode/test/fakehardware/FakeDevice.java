@@ -0,0 +1,52 @@
+package org.firstinspires.ftc.teamcode.test.fakehardware;
+
+import com.qualcomm.robotcore.hardware.HardwareDevice;
+
+/**
+ * The parts of a {@link HardwareDevice} that every fake shares.  Only calls a module would make in its control loop
+ *  are {@linkplain CallRecorder#record() recorded}; describing the device is free.
+ */
+public abstract class FakeDevice implements HardwareDevice, FakeHardware {
+    private final String name;
+    protected final CallRecorder calls = new CallRecorder();
+
+    protected FakeDevice(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public CallRecorder getCalls() {
+        return calls;
+    }
+
+    @Override
+    public Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public String getDeviceName() {
+        return name;
+    }
+
+    @Override
+    public String getConnectionInfo() {
+        return "fake";
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {}
+
+    @Override
+    public void close() {}
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " " + name;
+    }
+}
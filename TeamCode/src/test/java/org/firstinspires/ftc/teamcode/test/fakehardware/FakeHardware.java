@@ -0,0 +1,11 @@
+package org.firstinspires.ftc.teamcode.test.fakehardware;
+
+/**
+ * A fake hardware device
+ */
+public interface FakeHardware {
+    /**
+     * @return The counter of the calls made to the device, which also sets how long each call takes
+     */
+    CallRecorder getCalls();
+}
@@ -0,0 +1,131 @@
+package org.firstinspires.ftc.teamcode.test.fakehardware;
+
+import com.qualcomm.robotcore.hardware.HardwareDevice;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+import org.firstinspires.ftc.teamcode.modules.Arm;
+import org.firstinspires.ftc.teamcode.modules.DriveTrain;
+import org.firstinspires.ftc.teamcode.modules.FieldCentricDriveTrain;
+import org.firstinspires.ftc.teamcode.modules.Intake;
+import org.firstinspires.ftc.teamcode.modules.LinearSlide;
+import org.firstinspires.ftc.teamcode.modules.Odometry;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A hardware map of fake devices, so that modules can run on a computer.  Modules look devices up from it exactly as
+ *  they would on the robot; tests keep the fakes to move them and see what the modules did.
+ * @see #createRobot()
+ */
+public class FakeHardwareMap extends HardwareMap {
+    /**
+     * The name of the robot's voltage sensor, which on the robot is the Control Hub itself
+     */
+    public static final String VOLTAGE_SENSOR_NAME = "Control Hub";
+
+    private final Map<String, FakeHardware> fakes = new LinkedHashMap<>();
+
+    public FakeHardwareMap() {
+        super(null, null);
+    }
+
+    /**
+     * Creates a hardware map with every device the robot's modules use, under the names they use
+     */
+    public static FakeHardwareMap createRobot() {
+        final FakeHardwareMap hardwareMap = new FakeHardwareMap();
+        hardwareMap.add(DriveTrain.FRONT_LEFT_MECANUM_DRIVER_DEFAULT_NAME,
+                new FakeMotor(DriveTrain.FRONT_LEFT_MECANUM_DRIVER_DEFAULT_NAME));
+        hardwareMap.add(DriveTrain.FRONT_RIGHT_MECANUM_DRIVER_DEFAULT_NAME,
+                new FakeMotor(DriveTrain.FRONT_RIGHT_MECANUM_DRIVER_DEFAULT_NAME));
+        hardwareMap.add(DriveTrain.BACK_LEFT_MECANUM_DRIVER_DEFAULT_NAME,
+                new FakeMotor(DriveTrain.BACK_LEFT_MECANUM_DRIVER_DEFAULT_NAME));
+        hardwareMap.add(DriveTrain.BACK_RIGHT_MECANUM_DRIVER_DEFAULT_NAME,
+                new FakeMotor(DriveTrain.BACK_RIGHT_MECANUM_DRIVER_DEFAULT_NAME));
+        hardwareMap.add(Arm.LEFT_ARM_MOTOR_NAME, new FakeMotor(Arm.LEFT_ARM_MOTOR_NAME));
+        hardwareMap.add(Arm.RIGHT_ARM_MOTOR_NAME, new FakeMotor(Arm.RIGHT_ARM_MOTOR_NAME));
+        hardwareMap.add(Arm.POSITION_SWITCH_NAME, new FakeTouchSensor(Arm.POSITION_SWITCH_NAME));
+        hardwareMap.add(LinearSlide.SLIDE_MOTOR_NAME, new FakeMotor(LinearSlide.SLIDE_MOTOR_NAME));
+        hardwareMap.add(Intake.INTAKE_SERVO_NAME, new FakeCRServo(Intake.INTAKE_SERVO_NAME));
+        hardwareMap.add(Intake.WRIST_SERVO_NAME, new FakeServo(Intake.WRIST_SERVO_NAME));
+        hardwareMap.add(FieldCentricDriveTrain.IMU_NAME, new FakeImu(FieldCentricDriveTrain.IMU_NAME));
+        hardwareMap.add(Odometry.OTOS_NAME, new FakeOtos());
+        hardwareMap.add(VOLTAGE_SENSOR_NAME, new FakeVoltageSensor(VOLTAGE_SENSOR_NAME));
+        return hardwareMap;
+    }
+
+    /**
+     * Adds a fake device
+     * @param name The name modules look the device up by
+     * @param device The device
+     * @return The device
+     */
+    public <T extends HardwareDevice & FakeHardware> T add(String name, T device) {
+        if (device instanceof VoltageSensor) {
+            // Road Runner's drives read hardwareMap.voltageSensor; putting it there puts it in the whole map as well
+            voltageSensor.put(name, (VoltageSensor) device);
+        }
+        else {
+            put(name, device);
+        }
+        fakes.put(name, device);
+        return device;
+    }
+
+    /**
+     * Gets a fake device added to this map
+     * @param fakeClass The class of the fake
+     * @param name The name the device was added under
+     * @return The device
+     * @throws IllegalArgumentException There is no fake of that class and name
+     */
+    public <T extends FakeHardware> T getFake(Class<T> fakeClass, String name) {
+        final FakeHardware fake = fakes.get(name);
+        if (!fakeClass.isInstance(fake)) {
+            throw new IllegalArgumentException("No " + fakeClass.getSimpleName() + " named " + name);
+        }
+        return fakeClass.cast(fake);
+    }
+
+    public FakeMotor getMotor(String name) {
+        return getFake(FakeMotor.class, name);
+    }
+
+    /**
+     * @return Every fake device added to this map, in the order they were added
+     */
+    public Collection<FakeHardware> getFakes() {
+        return Collections.unmodifiableCollection(fakes.values());
+    }
+
+    /**
+     * @return How many calls have been made to the fake devices since their counts were last reset
+     */
+    public long getTotalCallCount() {
+        long total = 0;
+        for (FakeHardware fake : fakes.values()) {
+            total += fake.getCalls().getCallCount();
+        }
+        return total;
+    }
+
+    public void resetCallCounts() {
+        for (FakeHardware fake : fakes.values()) {
+            fake.getCalls().resetCallCount();
+        }
+    }
+
+    /**
+     * Sets how long each call to every fake device takes
+     * @param latencyNanos The latency, in nanoseconds
+     */
+    public void setLatencyNanos(long latencyNanos) {
+        for (FakeHardware fake : fakes.values()) {
+            fake.getCalls().setLatencyNanos(latencyNanos);
+        }
+    }
+}
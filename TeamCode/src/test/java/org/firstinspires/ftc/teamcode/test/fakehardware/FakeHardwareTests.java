@@ -0,0 +1,195 @@
+package org.firstinspires.ftc.teamcode.test.fakehardware;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Pose2D;
+import org.firstinspires.ftc.teamcode.modules.Arm;
+import org.firstinspires.ftc.teamcode.modules.AutonomousDriveTrain;
+import org.firstinspires.ftc.teamcode.modules.DriveTrain;
+import org.firstinspires.ftc.teamcode.modules.Intake;
+import org.firstinspires.ftc.teamcode.modules.LinearSlide;
+import org.firstinspires.ftc.teamcode.modules.Odometry;
+import org.firstinspires.ftc.teamcode.modules.core.ModuleManager;
+import org.firstinspires.ftc.teamcode.modules.core.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FakeHardwareTests {
+    private static final double CYCLE_SECONDS = 0.01;
+
+    private FakeOpMode opMode;
+    private FakeHardwareMap hardwareMap;
+    private ModuleManager moduleManager;
+    private boolean recordTelemetry;
+
+    /**
+     * The time the modules see, which only moves when a cycle is run, so that their PID loops see the motors move at
+     *  the speed they are advanced at
+     */
+    private long nowNanos = 1_000_000_000L;
+
+    @Before
+    public void setUp() {
+        recordTelemetry = TelemetryChannels.RECORD;
+        TelemetryChannels.RECORD = false; // nowhere to write recordings
+        Clock.setSource(new Clock.Source() {
+            @Override
+            public long nanoTime() {
+                return nowNanos;
+            }
+
+            @Override
+            public void sleep(long nanos) {
+                nowNanos += nanos;
+            }
+        });
+        opMode = new FakeOpMode();
+        hardwareMap = opMode.getFakeHardwareMap();
+        moduleManager = new ModuleManager(opMode);
+    }
+
+    @After
+    public void tearDown() {
+        moduleManager.unloadAll();
+        TelemetryChannels.RECORD = recordTelemetry;
+        Clock.setSource(null);
+    }
+
+    /**
+     * Runs one control loop cycle, then lets the motors run for the length of a cycle
+     */
+    private void runCycle() {
+        moduleManager.beginLoop();
+        moduleManager.updateMotorPowerLoops();
+        moduleManager.endLoop();
+        for (FakeHardware fake : hardwareMap.getFakes()) {
+            if (fake instanceof FakeMotor) {
+                ((FakeMotor) fake).advance(CYCLE_SECONDS);
+            }
+        }
+        nowNanos += (long) (CYCLE_SECONDS * 1e9);
+    }
+
+    @Test
+    public void modulesFindTheirHardware() {
+        Assert.assertTrue(moduleManager.getModule(Arm.class).isConnected());
+        Assert.assertTrue(moduleManager.getModule(LinearSlide.class).isConnected());
+        Assert.assertTrue(moduleManager.getModule(Intake.class).isConnected());
+        Assert.assertTrue(moduleManager.getModule(AutonomousDriveTrain.class).isConnected());
+    }
+
+    @Test
+    public void driveTrainPowersAreHeldUntilTheEndOfTheCycle() {
+        final DriveTrain driveTrain = moduleManager.getModule(DriveTrain.class);
+        moduleManager.startModuleThreads();
+        final FakeMotor frontLeft = hardwareMap.getMotor(DriveTrain.FRONT_LEFT_MECANUM_DRIVER_DEFAULT_NAME);
+
+        moduleManager.beginLoop();
+        driveTrain.setVelocity(0, 0.5, 0);
+        Assert.assertEquals(0, frontLeft.getPower(), 0);
+        moduleManager.endLoop();
+
+        for (String name : new String[] {
+                DriveTrain.FRONT_LEFT_MECANUM_DRIVER_DEFAULT_NAME, DriveTrain.FRONT_RIGHT_MECANUM_DRIVER_DEFAULT_NAME,
+                DriveTrain.BACK_LEFT_MECANUM_DRIVER_DEFAULT_NAME, DriveTrain.BACK_RIGHT_MECANUM_DRIVER_DEFAULT_NAME}) {
+            Assert.assertTrue(name, hardwareMap.getMotor(name).getPower() > 0);
+        }
+    }
+
+    @Test
+    public void slideMovesTowardItsTarget() {
+        final LinearSlide slide = moduleManager.getModule(LinearSlide.class);
+        final FakeMotor motor = hardwareMap.getMotor(LinearSlide.SLIDE_MOTOR_NAME);
+        slide.setTargetHeight(0.5);
+
+        runCycle();
+        final int start = motor.getCurrentPosition();
+        for (int i = 0; i < 20; i++) {
+            runCycle();
+        }
+        Assert.assertTrue(motor.getCurrentPosition() > start);
+    }
+
+    @Test
+    public void armMovesTowardItsTarget() {
+        final Arm arm = moduleManager.getModule(Arm.class);
+        arm.setTargetRotation(30);
+
+        runCycle();
+        final double start = arm.getCurrentRotation();
+        for (int i = 0; i < 20; i++) {
+            runCycle();
+        }
+        Assert.assertTrue(arm.getCurrentRotation() > start);
+    }
+
+    @Test
+    public void intakeSpinsItsServo() {
+        final Intake intake = moduleManager.getModule(Intake.class);
+        moduleManager.beginLoop();
+        intake.grab();
+        moduleManager.endLoop();
+        Assert.assertNotEquals(0, hardwareMap.getFake(FakeCRServo.class, Intake.INTAKE_SERVO_NAME).getPower(), 0);
+    }
+
+    @Test
+    public void odometryReadsTheOtos() {
+        final Odometry odometry = new Odometry(opMode);
+        hardwareMap.getFake(FakeOtos.class, Odometry.OTOS_NAME).setPose(10, -5, Math.PI / 2);
+        final Pose2D pose = odometry.getPose();
+        Assert.assertEquals(10, pose.getX(DistanceUnit.INCH), 1e-9);
+        Assert.assertEquals(-5, pose.getY(DistanceUnit.INCH), 1e-9);
+        Assert.assertEquals(90, pose.getHeading(AngleUnit.DEGREES), 1e-9);
+    }
+
+    @Test
+    public void modulesWithoutAManagerLogToTelemetry() {
+        final FakeOpMode unmanaged = new FakeOpMode();
+        final LinearSlide slide = new LinearSlide(unmanaged);
+        unmanaged.getFakeTelemetry().resetCounts();
+        slide.log();
+        Assert.assertEquals(4, unmanaged.getFakeTelemetry().getItemCount());
+
+        opMode.getFakeTelemetry().resetCounts();
+        moduleManager.getModule(LinearSlide.class).log();
+        Assert.assertEquals(0, opMode.getFakeTelemetry().getItemCount()); // published by the manager instead
+    }
+
+    @Test
+    public void autonomousDriveTrainDrivesTowardItsTarget() {
+        final boolean sampleInBackground = Odometry.SAMPLE_IN_BACKGROUND;
+        Odometry.SAMPLE_IN_BACKGROUND = false;
+        try {
+            final AutonomousDriveTrain driveTrain = moduleManager.getModule(AutonomousDriveTrain.class);
+            driveTrain.setTargetPose(new Pose2D(DistanceUnit.INCH, 24, 0, AngleUnit.DEGREES, 0));
+            runCycle();
+
+            double totalPower = 0;
+            for (String name : new String[] {
+                    DriveTrain.FRONT_LEFT_MECANUM_DRIVER_DEFAULT_NAME, DriveTrain.FRONT_RIGHT_MECANUM_DRIVER_DEFAULT_NAME,
+                    DriveTrain.BACK_LEFT_MECANUM_DRIVER_DEFAULT_NAME, DriveTrain.BACK_RIGHT_MECANUM_DRIVER_DEFAULT_NAME}) {
+                totalPower += Math.abs(hardwareMap.getMotor(name).getPower());
+            }
+            Assert.assertTrue(totalPower > 0);
+        }
+        finally {
+            Odometry.SAMPLE_IN_BACKGROUND = sampleInBackground;
+        }
+    }
+
+    @Test
+    public void callsTakeTheirLatency() {
+        final FakeMotor motor = hardwareMap.getMotor(LinearSlide.SLIDE_MOTOR_NAME);
+        motor.getCalls().setLatencyNanos(2_000_000);
+        motor.getCalls().resetCallCount();
+
+        final long start = System.nanoTime();
+        motor.getCurrentPosition();
+        motor.getVelocity();
+        Assert.assertTrue(System.nanoTime() - start >= 4_000_000);
+        Assert.assertEquals(2, motor.getCalls().getCallCount());
+    }
+}
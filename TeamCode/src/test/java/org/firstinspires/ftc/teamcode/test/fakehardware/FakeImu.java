@@ -0,0 +1,89 @@
+package org.firstinspires.ftc.teamcode.test.fakehardware;
+
+import com.qualcomm.robotcore.hardware.IMU;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.AngularVelocity;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesOrder;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesReference;
+import org.firstinspires.ftc.robotcore.external.navigation.Orientation;
+import org.firstinspires.ftc.robotcore.external.navigation.Quaternion;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+
+/**
+ * A fake IMU on a robot that stays level.  Its heading and turn rate are set with {@link #setHeading(double)} and
+ *  {@link #setHeadingVelocity(double)}, and it reports the heading relative to where it was when its yaw was last
+ *  reset, as a real IMU does.
+ */
+public class FakeImu extends FakeDevice implements IMU {
+    private volatile double heading = 0;
+    private volatile double headingVelocity = 0;
+    private double yawZero = 0;
+
+    public FakeImu(String name) {
+        super(name);
+    }
+
+    /**
+     * @param radians The robot's heading, counterclockwise positive
+     */
+    public void setHeading(double radians) {
+        heading = radians;
+    }
+
+    public double getHeading() {
+        return heading;
+    }
+
+    /**
+     * @param radiansPerSecond The robot's turn rate, counterclockwise positive
+     */
+    public void setHeadingVelocity(double radiansPerSecond) {
+        headingVelocity = radiansPerSecond;
+    }
+
+    private double getYaw() {
+        return AngleUnit.normalizeRadians(heading - yawZero);
+    }
+
+    @Override
+    public boolean initialize(Parameters parameters) {
+        calls.record();
+        return true;
+    }
+
+    @Override
+    public void resetYaw() {
+        calls.record();
+        yawZero = heading;
+    }
+
+    @Override
+    public YawPitchRollAngles getRobotYawPitchRollAngles() {
+        calls.record();
+        return new YawPitchRollAngles(AngleUnit.RADIANS, getYaw(), 0, 0, System.nanoTime());
+    }
+
+    @Override
+    public Orientation getRobotOrientation(AxesReference reference, AxesOrder order, AngleUnit angleUnit) {
+        calls.record();
+        return new Orientation(AxesReference.INTRINSIC, AxesOrder.ZYX, AngleUnit.RADIANS, (float) getYaw(), 0, 0,
+                System.nanoTime())
+                .toAxesReference(reference)
+                .toAxesOrder(order)
+                .toAngleUnit(angleUnit);
+    }
+
+    @Override
+    public Quaternion getRobotOrientationAsQuaternion() {
+        calls.record();
+        final double halfYaw = getYaw() / 2;
+        return new Quaternion((float) Math.cos(halfYaw), 0, 0, (float) Math.sin(halfYaw), System.nanoTime());
+    }
+
+    @Override
+    public AngularVelocity getRobotAngularVelocity(AngleUnit angleUnit) {
+        calls.record();
+        return new AngularVelocity(angleUnit, 0, 0, (float) angleUnit.fromRadians(headingVelocity), System.nanoTime());
+    }
+}
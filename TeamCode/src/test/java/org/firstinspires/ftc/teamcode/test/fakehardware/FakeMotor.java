@@ -0,0 +1,371 @@
+package org.firstinspires.ftc.teamcode.test.fakehardware;
+
+import com.qualcomm.robotcore.hardware.DcMotorController;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.PIDCoefficients;
+import com.qualcomm.robotcore.hardware.PIDFCoefficients;
+import com.qualcomm.robotcore.hardware.configuration.typecontainers.MotorConfigurationType;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+
+/**
+ * A fake motor with an encoder.  The shaft only moves when something moves it: either {@link #advance(double)}, which
+ *  spins it at a speed proportional to its power, or a simulator calling {@link #setShaftPosition(double)} and
+ *  {@link #setShaftVelocity(double)}.
+ * <p>
+ * The shaft's position and velocity are in ticks, positive in the motor's forward direction.  As on the robot, a
+ *  {@linkplain Direction#REVERSE reversed} motor negates both the power it is given and the encoder values it reports.
+ *  Only calls that talk to the hub are recorded.
+ */
+public class FakeMotor extends FakeDevice implements DcMotorEx {
+    /**
+     * The encoder ticks per revolution of a goBILDA 5203 312 RPM motor
+     */
+    public static final double DEFAULT_TICKS_PER_REVOLUTION = 537.7;
+
+    /**
+     * The free speed of a goBILDA 5203 312 RPM motor, in ticks per second
+     */
+    public static final double DEFAULT_FREE_SPEED = 312 / 60.0 * DEFAULT_TICKS_PER_REVOLUTION;
+
+    /**
+     * The stall current of a goBILDA 5203 motor, in amps
+     */
+    public static final double DEFAULT_STALL_CURRENT = 9.2;
+
+    private double ticksPerRevolution = DEFAULT_TICKS_PER_REVOLUTION;
+    private double freeSpeed = DEFAULT_FREE_SPEED;
+    private double stallCurrent = DEFAULT_STALL_CURRENT;
+
+    private double power = 0;
+    private Direction direction = Direction.FORWARD;
+    private RunMode mode = RunMode.RUN_WITHOUT_ENCODER;
+    private ZeroPowerBehavior zeroPowerBehavior = ZeroPowerBehavior.FLOAT;
+    private boolean enabled = true;
+    private int targetPosition = 0;
+    private int targetPositionTolerance = 10;
+    private double currentAlert = 5;
+    private PIDFCoefficients velocityCoefficients = new PIDFCoefficients(10, 3, 0, 0);
+    private PIDFCoefficients positionCoefficients = new PIDFCoefficients(10, 0, 0, 0);
+    private MotorConfigurationType motorType;
+
+    private volatile double shaftPosition = 0;
+    private volatile double shaftVelocity = 0;
+
+    /**
+     * The shaft position that the encoder reads as 0
+     */
+    private double encoderZero = 0;
+
+    public FakeMotor(String name) {
+        super(name);
+    }
+
+    /**
+     * @param freeSpeed The speed of the shaft at full power with no load, in ticks per second
+     * @param ticksPerRevolution The encoder ticks per revolution of the shaft
+     * @return This motor
+     */
+    public FakeMotor setCharacteristics(double freeSpeed, double ticksPerRevolution) {
+        this.freeSpeed = freeSpeed;
+        this.ticksPerRevolution = ticksPerRevolution;
+        return this;
+    }
+
+    public double getFreeSpeed() {
+        return freeSpeed;
+    }
+
+    public double getTicksPerRevolution() {
+        return ticksPerRevolution;
+    }
+
+    /**
+     * @return The power being applied to the shaft, from -1 to 1, positive in the motor's forward direction.  This is
+     *  0 while the motor is disabled.
+     */
+    public double getAppliedPower() {
+        if (!enabled) {
+            return 0;
+        }
+        return direction == Direction.FORWARD ? power : -power;
+    }
+
+    /**
+     * @return true if the motor resists being turned while it has no power ({@link ZeroPowerBehavior#BRAKE}), false
+     *  if it coasts.  Unlike {@link #getZeroPowerBehavior()}, this is not a call to the hub.
+     */
+    public boolean isBrakingAtZeroPower() {
+        return zeroPowerBehavior == ZeroPowerBehavior.BRAKE;
+    }
+
+    public double getShaftPosition() {
+        return shaftPosition;
+    }
+
+    public void setShaftPosition(double ticks) {
+        shaftPosition = ticks;
+    }
+
+    public double getShaftVelocity() {
+        return shaftVelocity;
+    }
+
+    public void setShaftVelocity(double ticksPerSecond) {
+        shaftVelocity = ticksPerSecond;
+    }
+
+    /**
+     * Runs the shaft for a while at the speed its power would give it with no load
+     * @param seconds How long to run it for
+     */
+    public void advance(double seconds) {
+        shaftVelocity = getAppliedPower() * freeSpeed;
+        shaftPosition += shaftVelocity * seconds;
+    }
+
+    private double toMotorDirection(double value) {
+        return direction == Direction.FORWARD ? value : -value;
+    }
+
+    @Override
+    public void setMotorEnable() {
+        calls.record();
+        enabled = true;
+    }
+
+    @Override
+    public void setMotorDisable() {
+        calls.record();
+        enabled = false;
+    }
+
+    @Override
+    public boolean isMotorEnabled() {
+        calls.record();
+        return enabled;
+    }
+
+    @Override
+    public void setVelocity(double angularRate) {
+        calls.record();
+        power = Math.max(-1, Math.min(1, angularRate / freeSpeed));
+    }
+
+    @Override
+    public void setVelocity(double angularRate, AngleUnit unit) {
+        setVelocity(unit.toRadians(angularRate) / (2 * Math.PI) * ticksPerRevolution);
+    }
+
+    @Override
+    public double getVelocity() {
+        calls.record();
+        return toMotorDirection(shaftVelocity);
+    }
+
+    @Override
+    public double getVelocity(AngleUnit unit) {
+        return unit.fromRadians(getVelocity() / ticksPerRevolution * 2 * Math.PI);
+    }
+
+    @Deprecated
+    @Override
+    public void setPIDCoefficients(RunMode mode, PIDCoefficients pidCoefficients) {
+        setPIDFCoefficients(mode, new PIDFCoefficients(pidCoefficients.p, pidCoefficients.i, pidCoefficients.d, 0));
+    }
+
+    @Override
+    public void setPIDFCoefficients(RunMode mode, PIDFCoefficients pidfCoefficients) {
+        calls.record();
+        if (mode == RunMode.RUN_TO_POSITION) {
+            positionCoefficients = new PIDFCoefficients(pidfCoefficients);
+        }
+        else {
+            velocityCoefficients = new PIDFCoefficients(pidfCoefficients);
+        }
+    }
+
+    @Override
+    public void setVelocityPIDFCoefficients(double p, double i, double d, double f) {
+        setPIDFCoefficients(RunMode.RUN_USING_ENCODER, new PIDFCoefficients(p, i, d, f));
+    }
+
+    @Override
+    public void setPositionPIDFCoefficients(double p) {
+        setPIDFCoefficients(RunMode.RUN_TO_POSITION, new PIDFCoefficients(p, 0, 0, 0));
+    }
+
+    @Deprecated
+    @Override
+    public PIDCoefficients getPIDCoefficients(RunMode mode) {
+        final PIDFCoefficients coefficients = getPIDFCoefficients(mode);
+        return new PIDCoefficients(coefficients.p, coefficients.i, coefficients.d);
+    }
+
+    @Override
+    public PIDFCoefficients getPIDFCoefficients(RunMode mode) {
+        calls.record();
+        return new PIDFCoefficients(mode == RunMode.RUN_TO_POSITION ? positionCoefficients : velocityCoefficients);
+    }
+
+    @Override
+    public void setTargetPositionTolerance(int tolerance) {
+        calls.record();
+        targetPositionTolerance = tolerance;
+    }
+
+    @Override
+    public int getTargetPositionTolerance() {
+        calls.record();
+        return targetPositionTolerance;
+    }
+
+    /**
+     * Draws current in proportion to how far the shaft is from the speed its power would give it with no load
+     */
+    @Override
+    public double getCurrent(CurrentUnit unit) {
+        calls.record();
+        final double amps = stallCurrent * Math.abs(getAppliedPower() - shaftVelocity / freeSpeed);
+        return unit == CurrentUnit.MILLIAMPS ? amps * 1000 : amps;
+    }
+
+    @Override
+    public double getCurrentAlert(CurrentUnit unit) {
+        calls.record();
+        return unit == CurrentUnit.MILLIAMPS ? currentAlert * 1000 : currentAlert;
+    }
+
+    @Override
+    public void setCurrentAlert(double current, CurrentUnit unit) {
+        calls.record();
+        currentAlert = unit == CurrentUnit.MILLIAMPS ? current / 1000 : current;
+    }
+
+    @Override
+    public boolean isOverCurrent() {
+        return getCurrent(CurrentUnit.AMPS) > currentAlert;
+    }
+
+    @Override
+    public MotorConfigurationType getMotorType() {
+        if (motorType == null) {
+            motorType = MotorConfigurationType.getUnspecifiedMotorType();
+        }
+        return motorType;
+    }
+
+    @Override
+    public void setMotorType(MotorConfigurationType motorType) {
+        this.motorType = motorType;
+    }
+
+    /**
+     * @return null, since there is no hub
+     */
+    @Override
+    public DcMotorController getController() {
+        return null;
+    }
+
+    @Override
+    public int getPortNumber() {
+        return 0;
+    }
+
+    @Override
+    public void setZeroPowerBehavior(ZeroPowerBehavior zeroPowerBehavior) {
+        calls.record();
+        this.zeroPowerBehavior = zeroPowerBehavior;
+    }
+
+    @Override
+    public ZeroPowerBehavior getZeroPowerBehavior() {
+        calls.record();
+        return zeroPowerBehavior;
+    }
+
+    @Deprecated
+    @Override
+    public void setPowerFloat() {
+        setZeroPowerBehavior(ZeroPowerBehavior.FLOAT);
+        setPower(0);
+    }
+
+    @Override
+    public boolean getPowerFloat() {
+        return getZeroPowerBehavior() == ZeroPowerBehavior.FLOAT && getPower() == 0;
+    }
+
+    @Override
+    public void setTargetPosition(int position) {
+        calls.record();
+        targetPosition = position;
+    }
+
+    @Override
+    public int getTargetPosition() {
+        calls.record();
+        return targetPosition;
+    }
+
+    @Override
+    public boolean isBusy() {
+        calls.record();
+        return mode == RunMode.RUN_TO_POSITION
+                && Math.abs(targetPosition - readEncoder()) > targetPositionTolerance;
+    }
+
+    @Override
+    public int getCurrentPosition() {
+        calls.record();
+        return readEncoder();
+    }
+
+    private int readEncoder() {
+        return (int) Math.round(toMotorDirection(shaftPosition - encoderZero));
+    }
+
+    @Override
+    public void setMode(RunMode mode) {
+        calls.record();
+        if (mode == RunMode.STOP_AND_RESET_ENCODER) {
+            power = 0;
+            encoderZero = shaftPosition;
+        }
+        this.mode = mode;
+    }
+
+    @Override
+    public RunMode getMode() {
+        calls.record();
+        return mode;
+    }
+
+    @Override
+    public void setDirection(Direction direction) {
+        calls.record();
+        this.direction = direction;
+    }
+
+    @Override
+    public Direction getDirection() {
+        calls.record();
+        return direction;
+    }
+
+    @Override
+    public void setPower(double power) {
+        calls.record();
+        if (mode != RunMode.STOP_AND_RESET_ENCODER) {
+            this.power = Math.max(-1, Math.min(1, power));
+        }
+    }
+
+    @Override
+    public double getPower() {
+        calls.record();
+        return power;
+    }
+}
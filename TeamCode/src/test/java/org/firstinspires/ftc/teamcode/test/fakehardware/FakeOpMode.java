@@ -0,0 +1,42 @@
+package org.firstinspires.ftc.teamcode.test.fakehardware;
+
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+/**
+ * An OpMode that exists only to own a {@link FakeHardwareMap} and a {@link FakeTelemetry}, since modules find their
+ *  hardware and telemetry through the OpMode that created them.  It is never run by the SDK.
+ */
+public class FakeOpMode extends OpMode {
+    private final FakeHardwareMap fakeHardwareMap;
+    private final FakeTelemetry fakeTelemetry = new FakeTelemetry();
+
+    public FakeOpMode(FakeHardwareMap hardwareMap) {
+        fakeHardwareMap = hardwareMap;
+        this.hardwareMap = hardwareMap;
+        telemetry = fakeTelemetry;
+        gamepad1 = new Gamepad();
+        gamepad2 = new Gamepad();
+    }
+
+    /**
+     * Creates an OpMode on a {@linkplain FakeHardwareMap#createRobot() full robot}
+     */
+    public FakeOpMode() {
+        this(FakeHardwareMap.createRobot());
+    }
+
+    public FakeHardwareMap getFakeHardwareMap() {
+        return fakeHardwareMap;
+    }
+
+    public FakeTelemetry getFakeTelemetry() {
+        return fakeTelemetry;
+    }
+
+    @Override
+    public void init() {}
+
+    @Override
+    public void loop() {}
+}
@@ -0,0 +1,200 @@
+package org.firstinspires.ftc.teamcode.test.fakehardware;
+
+import com.qualcomm.hardware.sparkfun.SparkFunOTOS;
+import com.qualcomm.robotcore.hardware.I2cDeviceSynch;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * A fake SparkFun Optical Tracking Odometry Sensor.  Its pose is set with {@link #setPose(double, double, double)}
+ *  and read back in whatever units it was configured with.  Calibration is instant, and the offset and scalars are
+ *  remembered but don't change the pose.
+ * <p>
+ * {@link SparkFunOTOS} is a class rather than an interface, so this overrides every method the robot's code uses.
+ *  The I2C client it is constructed with does nothing.
+ */
+public class FakeOtos extends SparkFunOTOS implements FakeHardware {
+    private final CallRecorder calls = new CallRecorder();
+
+    private DistanceUnit linearUnit = DistanceUnit.INCH;
+    private AngleUnit angularUnit = AngleUnit.DEGREES;
+    private double linearScalar = 1, angularScalar = 1;
+    private Pose2D offset = new Pose2D(0, 0, 0);
+
+    /**
+     * The pose relative to where tracking was last reset, in inches and radians
+     */
+    private volatile double x = 0, y = 0, heading = 0;
+    private volatile boolean connected = true;
+
+    public FakeOtos() {
+        super(createInertClient(), true);
+    }
+
+    /**
+     * @return An I2C client whose methods do nothing and return 0, false or null
+     */
+    private static I2cDeviceSynch createInertClient() {
+        return (I2cDeviceSynch) Proxy.newProxyInstance(I2cDeviceSynch.class.getClassLoader(),
+                new Class<?>[] {I2cDeviceSynch.class}, (proxy, method, args) -> {
+                    final Class<?> type = method.getReturnType();
+                    if (type == boolean.class) {
+                        return false;
+                    }
+                    if (type == byte.class) {
+                        return (byte) 0;
+                    }
+                    if (type == short.class) {
+                        return (short) 0;
+                    }
+                    if (type == char.class) {
+                        return (char) 0;
+                    }
+                    if (type == int.class) {
+                        return 0;
+                    }
+                    if (type == long.class) {
+                        return 0L;
+                    }
+                    if (type == float.class) {
+                        return 0f;
+                    }
+                    if (type == double.class) {
+                        return 0d;
+                    }
+                    if (type == byte[].class) {
+                        // reads of n registers
+                        return new byte[args != null && args.length > 1 && args[1] instanceof Integer ? (Integer) args[1] : 0];
+                    }
+                    return null;
+                });
+    }
+
+    @Override
+    public CallRecorder getCalls() {
+        return calls;
+    }
+
+    /**
+     * @param x The x position, in inches
+     * @param y The y position, in inches
+     * @param heading The heading, in radians, counterclockwise positive
+     */
+    public void setPose(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+    }
+
+    /**
+     * @param connected Whether the sensor should answer on the I2C bus
+     */
+    public void setConnected(boolean connected) {
+        this.connected = connected;
+    }
+
+    @Override
+    protected boolean doInitialize() {
+        return true;
+    }
+
+    @Override
+    public boolean begin() {
+        return isConnected();
+    }
+
+    @Override
+    public boolean isConnected() {
+        calls.record();
+        return connected;
+    }
+
+    @Override
+    public boolean calibrateImu() {
+        calls.record();
+        return true;
+    }
+
+    @Override
+    public boolean calibrateImu(int numSamples, boolean waitUntilDone) {
+        calls.record();
+        return true;
+    }
+
+    @Override
+    public DistanceUnit getLinearUnit() {
+        return linearUnit;
+    }
+
+    @Override
+    public void setLinearUnit(DistanceUnit unit) {
+        linearUnit = unit;
+    }
+
+    @Override
+    public AngleUnit getAngularUnit() {
+        return angularUnit;
+    }
+
+    @Override
+    public void setAngularUnit(AngleUnit unit) {
+        angularUnit = unit;
+    }
+
+    @Override
+    public double getLinearScalar() {
+        return linearScalar;
+    }
+
+    @Override
+    public boolean setLinearScalar(double scalar) {
+        calls.record();
+        linearScalar = scalar;
+        return true;
+    }
+
+    @Override
+    public double getAngularScalar() {
+        return angularScalar;
+    }
+
+    @Override
+    public boolean setAngularScalar(double scalar) {
+        calls.record();
+        angularScalar = scalar;
+        return true;
+    }
+
+    @Override
+    public void resetTracking() {
+        calls.record();
+        setPose(0, 0, 0);
+    }
+
+    @Override
+    public Pose2D getOffset() {
+        calls.record();
+        return new Pose2D(offset.x, offset.y, offset.h);
+    }
+
+    @Override
+    public void setOffset(Pose2D pose) {
+        calls.record();
+        offset = new Pose2D(pose.x, pose.y, pose.h);
+    }
+
+    @Override
+    public Pose2D getPosition() {
+        calls.record();
+        return new Pose2D(linearUnit.fromInches(x), linearUnit.fromInches(y), angularUnit.fromRadians(heading));
+    }
+
+    @Override
+    public void setPosition(Pose2D pose) {
+        calls.record();
+        setPose(linearUnit.toInches(pose.x), linearUnit.toInches(pose.y), angularUnit.toRadians(pose.h));
+    }
+}
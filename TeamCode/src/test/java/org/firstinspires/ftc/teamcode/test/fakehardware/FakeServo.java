@@ -0,0 +1,72 @@
+package org.firstinspires.ftc.teamcode.test.fakehardware;
+
+import com.qualcomm.robotcore.hardware.Servo;
+import com.qualcomm.robotcore.hardware.ServoController;
+
+/**
+ * A fake servo, which is always exactly where it was last told to go
+ */
+public class FakeServo extends FakeDevice implements Servo {
+    private Direction direction = Direction.FORWARD;
+    private double position = Double.NaN;
+    private double minimum = MIN_POSITION, maximum = MAX_POSITION;
+
+    public FakeServo(String name) {
+        super(name);
+    }
+
+    /**
+     * @return The position the servo was last sent to, after scaling and reversing, or NaN if it hasn't been sent
+     *  anywhere
+     */
+    public double getPwmPosition() {
+        if (Double.isNaN(position)) {
+            return Double.NaN;
+        }
+        final double scaled = minimum + position * (maximum - minimum);
+        return direction == Direction.FORWARD ? scaled : MAX_POSITION - scaled;
+    }
+
+    /**
+     * @return null, since there is no hub
+     */
+    @Override
+    public ServoController getController() {
+        return null;
+    }
+
+    @Override
+    public int getPortNumber() {
+        return 0;
+    }
+
+    @Override
+    public void setDirection(Direction direction) {
+        calls.record();
+        this.direction = direction;
+    }
+
+    @Override
+    public Direction getDirection() {
+        calls.record();
+        return direction;
+    }
+
+    @Override
+    public void setPosition(double position) {
+        calls.record();
+        this.position = Math.max(MIN_POSITION, Math.min(MAX_POSITION, position));
+    }
+
+    @Override
+    public double getPosition() {
+        calls.record();
+        return position;
+    }
+
+    @Override
+    public void scaleRange(double min, double max) {
+        minimum = Math.max(MIN_POSITION, Math.min(MAX_POSITION, min));
+        maximum = Math.max(MIN_POSITION, Math.min(MAX_POSITION, max));
+    }
+}
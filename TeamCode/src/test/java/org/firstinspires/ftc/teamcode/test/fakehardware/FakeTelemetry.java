@@ -0,0 +1,286 @@
+package org.firstinspires.ftc.teamcode.test.fakehardware;
+
+import org.firstinspires.ftc.robotcore.external.Func;
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+/**
+ * Telemetry that goes nowhere.  It counts what is added to it, so that tests can see how much a loop logs, but keeps
+ *  none of it and never allocates, so that it doesn't get in the way of measuring the loop.
+ */
+public class FakeTelemetry implements Telemetry {
+    private long itemCount = 0, lineCount = 0, updateCount = 0;
+    private boolean autoClear = true;
+    private int msTransmissionInterval = 250;
+    private String itemSeparator = " | ", captionValueSeparator = " : ";
+
+    private final Item item = new FakeItem();
+    private final Line line = new FakeLine();
+    private final Log log = new FakeLog();
+
+    /**
+     * @return How many items have been added, including those added to lines
+     */
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * @return How many lines have been added
+     */
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return How many times {@link #update()} has been called
+     */
+    public long getUpdateCount() {
+        return updateCount;
+    }
+
+    public void resetCounts() {
+        itemCount = 0;
+        lineCount = 0;
+        updateCount = 0;
+    }
+
+    @Override
+    public Item addData(String caption, String format, Object... args) {
+        itemCount++;
+        return item;
+    }
+
+    @Override
+    public Item addData(String caption, Object value) {
+        itemCount++;
+        return item;
+    }
+
+    @Override
+    public <T> Item addData(String caption, Func<T> valueProducer) {
+        itemCount++;
+        return item;
+    }
+
+    @Override
+    public <T> Item addData(String caption, String format, Func<T> valueProducer) {
+        itemCount++;
+        return item;
+    }
+
+    @Override
+    public boolean removeItem(Item item) {
+        return false;
+    }
+
+    @Override
+    public void clear() {}
+
+    @Override
+    public void clearAll() {}
+
+    @Override
+    public Object addAction(Runnable action) {
+        return action;
+    }
+
+    @Override
+    public boolean removeAction(Object token) {
+        return false;
+    }
+
+    @Override
+    public void speak(String text) {}
+
+    @Override
+    public void speak(String text, String languageCode, String countryCode) {}
+
+    @Override
+    public boolean update() {
+        updateCount++;
+        return true;
+    }
+
+    @Override
+    public Line addLine() {
+        lineCount++;
+        return line;
+    }
+
+    @Override
+    public Line addLine(String lineCaption) {
+        lineCount++;
+        return line;
+    }
+
+    @Override
+    public boolean removeLine(Line line) {
+        return false;
+    }
+
+    @Override
+    public boolean isAutoClear() {
+        return autoClear;
+    }
+
+    @Override
+    public void setAutoClear(boolean autoClear) {
+        this.autoClear = autoClear;
+    }
+
+    @Override
+    public int getMsTransmissionInterval() {
+        return msTransmissionInterval;
+    }
+
+    @Override
+    public void setMsTransmissionInterval(int msTransmissionInterval) {
+        this.msTransmissionInterval = msTransmissionInterval;
+    }
+
+    @Override
+    public String getItemSeparator() {
+        return itemSeparator;
+    }
+
+    @Override
+    public void setItemSeparator(String itemSeparator) {
+        this.itemSeparator = itemSeparator;
+    }
+
+    @Override
+    public String getCaptionValueSeparator() {
+        return captionValueSeparator;
+    }
+
+    @Override
+    public void setCaptionValueSeparator(String captionValueSeparator) {
+        this.captionValueSeparator = captionValueSeparator;
+    }
+
+    @Override
+    public void setDisplayFormat(DisplayFormat displayFormat) {}
+
+    @Override
+    public Log log() {
+        return log;
+    }
+
+    private final class FakeItem implements Item {
+        @Override
+        public String getCaption() {
+            return "";
+        }
+
+        @Override
+        public Item setCaption(String caption) {
+            return this;
+        }
+
+        @Override
+        public Item setValue(String format, Object... args) {
+            return this;
+        }
+
+        @Override
+        public Item setValue(Object value) {
+            return this;
+        }
+
+        @Override
+        public <T> Item setValue(Func<T> valueProducer) {
+            return this;
+        }
+
+        @Override
+        public <T> Item setValue(String format, Func<T> valueProducer) {
+            return this;
+        }
+
+        @Override
+        public Item setRetained(Boolean retained) {
+            return this;
+        }
+
+        @Override
+        public boolean isRetained() {
+            return false;
+        }
+
+        @Override
+        public Item addData(String caption, String format, Object... args) {
+            return FakeTelemetry.this.addData(caption, format, args);
+        }
+
+        @Override
+        public Item addData(String caption, Object value) {
+            return FakeTelemetry.this.addData(caption, value);
+        }
+
+        @Override
+        public <T> Item addData(String caption, Func<T> valueProducer) {
+            return FakeTelemetry.this.addData(caption, valueProducer);
+        }
+
+        @Override
+        public <T> Item addData(String caption, String format, Func<T> valueProducer) {
+            return FakeTelemetry.this.addData(caption, format, valueProducer);
+        }
+    }
+
+    private final class FakeLine implements Line {
+        @Override
+        public Item addData(String caption, String format, Object... args) {
+            return FakeTelemetry.this.addData(caption, format, args);
+        }
+
+        @Override
+        public Item addData(String caption, Object value) {
+            return FakeTelemetry.this.addData(caption, value);
+        }
+
+        @Override
+        public <T> Item addData(String caption, Func<T> valueProducer) {
+            return FakeTelemetry.this.addData(caption, valueProducer);
+        }
+
+        @Override
+        public <T> Item addData(String caption, String format, Func<T> valueProducer) {
+            return FakeTelemetry.this.addData(caption, format, valueProducer);
+        }
+    }
+
+    private static final class FakeLog implements Log {
+        private int capacity = 9;
+        private DisplayOrder displayOrder = DisplayOrder.OLDEST_FIRST;
+
+        @Override
+        public int getCapacity() {
+            return capacity;
+        }
+
+        @Override
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public DisplayOrder getDisplayOrder() {
+            return displayOrder;
+        }
+
+        @Override
+        public void setDisplayOrder(DisplayOrder displayOrder) {
+            this.displayOrder = displayOrder;
+        }
+
+        @Override
+        public void add(String entry) {}
+
+        @Override
+        public void add(String format, Object... args) {}
+
+        @Override
+        public void clear() {}
+    }
+}
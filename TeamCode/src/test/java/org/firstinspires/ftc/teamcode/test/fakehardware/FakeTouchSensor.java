@@ -0,0 +1,29 @@
+package org.firstinspires.ftc.teamcode.test.fakehardware;
+
+import com.qualcomm.robotcore.hardware.TouchSensor;
+
+/**
+ * A fake touch sensor, pressed and released with {@link #setPressed(boolean)}
+ */
+public class FakeTouchSensor extends FakeDevice implements TouchSensor {
+    private volatile boolean pressed = false;
+
+    public FakeTouchSensor(String name) {
+        super(name);
+    }
+
+    public void setPressed(boolean pressed) {
+        this.pressed = pressed;
+    }
+
+    @Override
+    public double getValue() {
+        return isPressed() ? 1 : 0;
+    }
+
+    @Override
+    public boolean isPressed() {
+        calls.record();
+        return pressed;
+    }
+}
@@ -0,0 +1,24 @@
+package org.firstinspires.ftc.teamcode.test.fakehardware;
+
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+/**
+ * A fake battery voltage sensor
+ */
+public class FakeVoltageSensor extends FakeDevice implements VoltageSensor {
+    private volatile double voltage = 12.5;
+
+    public FakeVoltageSensor(String name) {
+        super(name);
+    }
+
+    public void setVoltage(double voltage) {
+        this.voltage = voltage;
+    }
+
+    @Override
+    public double getVoltage() {
+        calls.record();
+        return voltage;
+    }
+}
@@ -0,0 +1,87 @@
+package org.firstinspires.ftc.teamcode.test.gamepadlog;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.firstinspires.ftc.teamcode.util.GamepadLogReader;
+import org.firstinspires.ftc.teamcode.util.GamepadLogWriter;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+public class GamepadLogTests {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void framesRoundTrip() throws IOException {
+        final File path = folder.newFile("log.gamepads");
+        final Gamepad gamepad1 = new Gamepad(), gamepad2 = new Gamepad();
+        try (GamepadLogWriter writer = new GamepadLogWriter(path, 4)) {
+            gamepad1.a = true;
+            gamepad1.ps = true;
+            gamepad1.left_stick_x = -1;
+            gamepad1.left_stick_y = 0.5f;
+            gamepad1.right_trigger = 0.25f;
+            gamepad2.dpad_left = true;
+            gamepad2.right_bumper = true;
+            gamepad2.right_stick_y = -0.3f;
+            writer.write(1_000, gamepad1, gamepad2);
+            writer.write(6_000, new Gamepad(), new Gamepad());
+        }
+
+        final GamepadLogReader reader = new GamepadLogReader(path);
+        Assert.assertEquals(2, reader.size());
+        Assert.assertEquals(0, reader.getTimestampNanos(0));
+        Assert.assertEquals(5_000, reader.getTimestampNanos(1));
+
+        final Gamepad replayed1 = new Gamepad(), replayed2 = new Gamepad();
+        reader.apply(0, replayed1, replayed2);
+        Assert.assertTrue(replayed1.a);
+        Assert.assertTrue(replayed1.ps);
+        Assert.assertFalse(replayed1.b);
+        Assert.assertFalse(replayed1.guide);
+        Assert.assertEquals(-1, replayed1.left_stick_x, 0);
+        Assert.assertEquals(0.5, replayed1.left_stick_y, 0.5 / 127 + 1e-6);
+        Assert.assertEquals(0.25, replayed1.right_trigger, 0.5 / 255 + 1e-6);
+        Assert.assertTrue(replayed2.dpad_left);
+        Assert.assertTrue(replayed2.right_bumper);
+        Assert.assertFalse(replayed2.a);
+        Assert.assertEquals(-0.3, replayed2.right_stick_y, 0.5 / 127 + 1e-6);
+
+        reader.apply(1, replayed1, replayed2);
+        Assert.assertFalse(replayed1.a);
+        Assert.assertEquals(0, replayed1.left_stick_x, 0);
+    }
+
+    @Test
+    public void framesAreDroppedWhenFull() throws IOException {
+        final File path = folder.newFile("log.gamepads");
+        final Gamepad gamepad = new Gamepad();
+        try (GamepadLogWriter writer = new GamepadLogWriter(path, 3)) {
+            for (int i = 0; i < 5; i++) {
+                gamepad.left_trigger = i / 4f;
+                Assert.assertEquals(i < 3, writer.write(i, gamepad, gamepad));
+            }
+        }
+
+        final GamepadLogReader reader = new GamepadLogReader(path);
+        Assert.assertEquals(3, reader.size());
+        final Gamepad replayed = new Gamepad();
+        reader.apply(2, replayed, replayed);
+        Assert.assertEquals(0.5, replayed.left_trigger, 0.5 / 255 + 1e-6);
+    }
+
+    @Test(expected = IOException.class)
+    public void otherFilesAreRejected() throws IOException {
+        final File path = folder.newFile("log.gamepads");
+        try (RandomAccessFile file = new RandomAccessFile(path, "rw")) {
+            file.setLength(1024);
+        }
+        new GamepadLogReader(path);
+    }
+}
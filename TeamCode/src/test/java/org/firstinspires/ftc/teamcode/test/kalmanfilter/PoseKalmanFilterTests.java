@@ -0,0 +1,180 @@
+package org.firstinspires.ftc.teamcode.test.kalmanfilter;
+
+import org.firstinspires.ftc.teamcode.modules.PoseKalmanFilter;
+import org.firstinspires.ftc.teamcode.test.localization.SyntheticTrack;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+public class PoseKalmanFilterTests {
+    private static final double PERIOD_SECONDS = 0.01;
+
+    // wheel odometry: each step's twist is off by a few percent, as from slip
+    private static final double WHEEL_NOISE_FRACTION = 0.05;
+    private static final double WHEEL_HEADING_NOISE = 0.002;
+
+    // the OTOS: a noisy absolute pose every 25 ms, read 15 ms after it was measured
+    private static final int POSE_EVERY = 3;
+    private static final long POSE_DELAY_NANOS = 15_000_000;
+    private static final double POSE_NOISE = 0.5;
+    private static final double POSE_HEADING_NOISE = 0.02;
+
+    // the IMU: a slightly noisy heading every step
+    private static final double IMU_NOISE = 0.005;
+
+    private final SyntheticTrack track = SyntheticTrack.weave(30, PERIOD_SECONDS);
+
+    private static PoseKalmanFilter createFilter(int historyCapacity) {
+        final PoseKalmanFilter filter = new PoseKalmanFilter(historyCapacity);
+        filter.setProcessNoise(WHEEL_NOISE_FRACTION * WHEEL_NOISE_FRACTION,
+                WHEEL_HEADING_NOISE * WHEEL_HEADING_NOISE * 100, 1e-6);
+        filter.reset(0, 0, 0, 0, 1e-4, 1e-6);
+        return filter;
+    }
+
+    /**
+     * Replays the track into a filter
+     * @param usePoses Whether to correct with the delayed absolute poses
+     * @param useImu Whether to correct with the IMU heading
+     * @return The largest position error along the track
+     */
+    private double replay(PoseKalmanFilter filter, boolean usePoses, boolean useImu) {
+        final Random random = new Random(1);
+        double maxError = 0;
+        for (int i = 1; i < track.size(); i++) {
+            final long timestamp = track.getTimestamp(i);
+            filter.predict(timestamp,
+                    track.getDx(i) * (1 + WHEEL_NOISE_FRACTION * random.nextGaussian()),
+                    track.getDy(i) * (1 + WHEEL_NOISE_FRACTION * random.nextGaussian()),
+                    track.getDHeading(i) + WHEEL_HEADING_NOISE * random.nextGaussian());
+
+            if (useImu) {
+                filter.correctHeading(timestamp, track.getHeading(i) + IMU_NOISE * random.nextGaussian(),
+                        IMU_NOISE * IMU_NOISE);
+            }
+
+            // the pose measured POSE_DELAY_NANOS ago arrives now
+            final int delayedSample = i - (int) Math.round(POSE_DELAY_NANOS / 1e9 / PERIOD_SECONDS);
+            if (usePoses && delayedSample > 0 && delayedSample % POSE_EVERY == 0) {
+                filter.correctPose(track.getTimestamp(delayedSample),
+                        track.getX(delayedSample) + POSE_NOISE * random.nextGaussian(),
+                        track.getY(delayedSample) + POSE_NOISE * random.nextGaussian(),
+                        track.getHeading(delayedSample) + POSE_HEADING_NOISE * random.nextGaussian(),
+                        POSE_NOISE * POSE_NOISE, POSE_HEADING_NOISE * POSE_HEADING_NOISE);
+            }
+
+            maxError = Math.max(maxError, Math.hypot(filter.getX() - track.getX(i), filter.getY() - track.getY(i)));
+        }
+        return maxError;
+    }
+
+    @Test
+    public void fusingBeatsWheelsAlone() {
+        final double wheelsOnly = replay(createFilter(64), false, false);
+        final double wheelsAndImu = replay(createFilter(64), false, true);
+        final double fused = replay(createFilter(64), true, true);
+        Assert.assertTrue(wheelsAndImu + " vs " + wheelsOnly, wheelsAndImu < wheelsOnly);
+        Assert.assertTrue(fused + " vs " + wheelsAndImu, fused < wheelsAndImu);
+        // the fused estimate stays within an inch of the truth everywhere along the track
+        Assert.assertTrue(String.valueOf(fused), fused < 1);
+    }
+
+    @Test
+    public void lateMeasurementsMatchInOrderMeasurements() {
+        final PoseKalmanFilter inOrder = createFilter(16);
+        final PoseKalmanFilter late = createFilter(16);
+        for (int i = 1; i <= 10; i++) {
+            inOrder.predict(i * 10, 1, 0.5, 0.01);
+            if (i == 4) {
+                inOrder.correctPose(40, 5, 2, 0.05, 0.1, 0.01);
+            }
+        }
+        for (int i = 1; i <= 10; i++) {
+            late.predict(i * 10, 1, 0.5, 0.01);
+        }
+        Assert.assertTrue(late.correctPose(40, 5, 2, 0.05, 0.1, 0.01));
+
+        Assert.assertEquals(inOrder.getX(), late.getX(), 1e-12);
+        Assert.assertEquals(inOrder.getY(), late.getY(), 1e-12);
+        Assert.assertEquals(inOrder.getHeading(), late.getHeading(), 1e-12);
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                Assert.assertEquals(inOrder.getCovariance(row, column), late.getCovariance(row, column), 1e-12);
+            }
+        }
+        Assert.assertEquals(100, late.getTimestampNanos());
+    }
+
+    @Test
+    public void measurementsOlderThanTheHistoryAreDropped() {
+        final PoseKalmanFilter filter = createFilter(4);
+        for (int i = 1; i <= 10; i++) {
+            filter.predict(i * 10, 1, 0, 0);
+        }
+        final double x = filter.getX();
+        Assert.assertFalse(filter.correctPose(20, 0, 0, 0, 1, 1));
+        Assert.assertEquals(1, filter.getDroppedMeasurements());
+        Assert.assertEquals(x, filter.getX(), 0);
+        // the oldest remembered input is at 70, whose prior estimate is from 60
+        Assert.assertTrue(filter.correctHeading(65, 0, 1));
+    }
+
+    @Test
+    public void covarianceGrowsWithMotionAndShrinksWithMeasurements() {
+        final PoseKalmanFilter filter = createFilter(8);
+        final double initial = filter.getCovariance(0, 0);
+        filter.predict(10, 10, 0, 0.5);
+        final double predicted = filter.getCovariance(0, 0);
+        Assert.assertTrue(predicted > initial);
+        filter.correctPose(10, 10, 0, 0.5, 1e-3, 1e-3);
+        Assert.assertTrue(filter.getCovariance(0, 0) < predicted);
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                Assert.assertEquals(filter.getCovariance(row, column), filter.getCovariance(column, row), 0);
+            }
+        }
+    }
+
+    @Test
+    public void stepsDoNotAllocate() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        final com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean
+                ? (com.sun.management.ThreadMXBean) threads : null;
+        Assume.assumeTrue("This JVM can't measure allocations", allocations != null);
+        final int steps = 200_000;
+        final PoseKalmanFilter filter = createFilter(64);
+
+        // warm up so the JIT has compiled the steps
+        runSteps(filter, 0, steps);
+
+        final long threadId = Thread.currentThread().getId();
+        final long bytesBefore = allocations.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < steps; i++) {
+            filter.predict((steps + i) * 10L, 0.1, 0.05, 0.001);
+        }
+        for (int i = 0; i < steps; i++) {
+            filter.correctPose(2 * steps * 10L + i, filter.getX(), filter.getY(), filter.getHeading(), 0.25, 0.01);
+        }
+        runSteps(filter, 3 * steps * 10L, steps);
+        final long bytes = allocations.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        Assert.assertTrue(bytes + " bytes allocated", (double) bytes / (3 * steps) < 0.01);
+    }
+
+    /**
+     * Predicts, then corrects with a pose from two predictions ago, so that every correction rewinds
+     */
+    private static void runSteps(PoseKalmanFilter filter, long startNanos, int steps) {
+        for (int i = 0; i < steps; i++) {
+            final long timestamp = startNanos + i * 10L;
+            filter.predict(timestamp, 0.1, 0.05, 0.001);
+            if (i % 2 == 1) {
+                filter.correctPose(timestamp - 15, filter.getX(), filter.getY(), filter.getHeading(), 0.25, 0.01);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.firstinspires.ftc.teamcode.test.latencyhistogram;
+
+import org.firstinspires.ftc.teamcode.util.LatencyHistogram;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PercentileTests {
+    private static final long MICROSECOND = 1000;
+    private static final long MILLISECOND = 1000 * MICROSECOND;
+
+    @Test
+    public void emptyHistogramReturnsZero() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0, histogram.getPercentileNanos(50));
+        Assert.assertEquals(0, histogram.getMaxNanos());
+        Assert.assertEquals(0, histogram.getMeanNanos(), 0);
+    }
+
+    @Test
+    public void shortDurationsAreExactToTheMicrosecond() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 10; micros++) {
+            histogram.record(micros * MICROSECOND);
+        }
+        Assert.assertEquals(5 * MICROSECOND + 999, histogram.getPercentileNanos(50));
+        Assert.assertEquals(10 * MICROSECOND, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void longDurationsAreWithinBucketError() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(millis * MILLISECOND);
+        }
+        final long p95 = histogram.getPercentileNanos(95);
+        Assert.assertTrue(p95 >= 95 * MILLISECOND);
+        Assert.assertTrue(p95 <= 95 * MILLISECOND * 107 / 100);
+        Assert.assertEquals(100 * MILLISECOND, histogram.getMaxNanos());
+    }
+
+    @Test
+    public void percentilesNeverExceedMax() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3 * MILLISECOND + 1);
+        Assert.assertEquals(3 * MILLISECOND + 1, histogram.getPercentileNanos(99));
+    }
+
+    @Test
+    public void hugeDurationsDoNotOverflow() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE / 2);
+        Assert.assertEquals(Long.MAX_VALUE / 2, histogram.getPercentileNanos(50));
+    }
+
+    @Test
+    public void resetForgetsEverything() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(MILLISECOND);
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getPercentileNanos(99));
+    }
+
+    @Test
+    public void invalidPercentileThrowsException() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileNanos(101));
+    }
+}
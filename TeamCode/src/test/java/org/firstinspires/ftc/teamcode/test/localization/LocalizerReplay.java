@@ -0,0 +1,327 @@
+package org.firstinspires.ftc.teamcode.test.localization;
+
+import com.acmerobotics.roadrunner.Pose2d;
+import com.acmerobotics.roadrunner.Time;
+import com.acmerobotics.roadrunner.Twist2dDual;
+
+import org.firstinspires.ftc.teamcode.roadrunner.FastThreeDeadWheelLocalizer;
+import org.firstinspires.ftc.teamcode.roadrunner.FastTwoDeadWheelLocalizer;
+import org.firstinspires.ftc.teamcode.roadrunner.Localizer;
+import org.firstinspires.ftc.teamcode.roadrunner.MecanumDrive;
+import org.firstinspires.ftc.teamcode.roadrunner.MutableTwist2d;
+import org.firstinspires.ftc.teamcode.roadrunner.PrimitiveLocalizer;
+import org.firstinspires.ftc.teamcode.roadrunner.ThreeDeadWheelLocalizer;
+import org.firstinspires.ftc.teamcode.roadrunner.TwoDeadWheelLocalizer;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.Supplier;
+
+/**
+ * Replays a {@link LocalizerTrace} through a localizer's {@code update()}, integrating the twists it returns the same
+ *  way the drives do.  Reports how far the integrated pose drifts from the trace's ground truth, how long each update
+ *  takes and how much each update allocates, so that localizers can be compared off the robot.
+ * <p>
+ * Running {@link #main(String[])} replays a CSV trace (see {@link LocalizerTrace#readCsv(File)}), or, with no
+ *  arguments, compares the dead wheel localizers on a synthetic track.
+ */
+public final class LocalizerReplay {
+    /**
+     * The outcome of a replay
+     */
+    public static final class Result {
+        public final String name;
+        public final int updates;
+        /**
+         * Distance between the integrated and true positions, in inches; NaN if the trace has no ground truth
+         */
+        public final double finalPositionError, maxPositionError;
+        /**
+         * Absolute difference between the integrated and true headings, in radians; NaN if the trace has no ground
+         *  truth
+         */
+        public final double finalHeadingError, maxHeadingError;
+        public final double nanosPerUpdate;
+        /**
+         * Bytes allocated by the thread per update, or -1 if the JVM cannot measure it
+         */
+        public final double bytesPerUpdate;
+
+        private Result(String name, int updates, double finalPositionError, double maxPositionError,
+                       double finalHeadingError, double maxHeadingError,
+                       double nanosPerUpdate, double bytesPerUpdate) {
+            this.name = name;
+            this.updates = updates;
+            this.finalPositionError = finalPositionError;
+            this.maxPositionError = maxPositionError;
+            this.finalHeadingError = finalHeadingError;
+            this.maxHeadingError = maxHeadingError;
+            this.nanosPerUpdate = nanosPerUpdate;
+            this.bytesPerUpdate = bytesPerUpdate;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-20s %6d updates  drift %.3f in (max %.3f), %.4f rad (max %.4f)  %8.0f ns/update  %6.0f B/update",
+                    name, updates, finalPositionError, maxPositionError, finalHeadingError, maxHeadingError,
+                    nanosPerUpdate, bytesPerUpdate);
+        }
+    }
+
+    private final String name;
+    private final LocalizerTrace trace;
+    private final ReplayEncoder[] encoders;
+    private final int[] encoderIndices;
+    private final ReplayImu imu;
+    private final Supplier<Localizer> localizerFactory;
+
+    /**
+     * @param encoderNames The name in the trace of each encoder the localizer reads
+     * @param encoders The encoders the localizer reads, in the same order as their names
+     * @param imu The IMU the localizer reads, or null if it has none
+     * @param localizerFactory Creates a localizer that reads from the given encoders and IMU; called for each pass
+     *                         so that every pass starts uninitialized
+     */
+    public LocalizerReplay(String name, LocalizerTrace trace, String[] encoderNames, ReplayEncoder[] encoders,
+                           ReplayImu imu, Supplier<Localizer> localizerFactory) {
+        if (imu != null && !trace.hasImu()) {
+            throw new IllegalArgumentException("The localizer needs an IMU but the trace has no IMU readings");
+        }
+        this.name = name;
+        this.trace = trace;
+        this.encoders = encoders;
+        this.imu = imu;
+        this.localizerFactory = localizerFactory;
+        encoderIndices = new int[encoderNames.length];
+        for (int i = 0; i < encoderNames.length; i++) {
+            encoderIndices[i] = trace.getEncoderIndex(encoderNames[i]);
+        }
+    }
+
+    /**
+     * Replays a trace with encoders named "par0", "par1" and "perp" through a {@link ThreeDeadWheelLocalizer}, using
+     *  its current {@code PARAMS}
+     */
+    public static LocalizerReplay threeDeadWheel(LocalizerTrace trace, double inPerTick) {
+        final ReplayEncoder par0 = new ReplayEncoder();
+        final ReplayEncoder par1 = new ReplayEncoder();
+        final ReplayEncoder perp = new ReplayEncoder();
+        return new LocalizerReplay("Three dead wheel", trace, new String[] {"par0", "par1", "perp"},
+                new ReplayEncoder[] {par0, par1, perp}, null,
+                () -> new ThreeDeadWheelLocalizer(par0, par1, perp, inPerTick));
+    }
+
+    /**
+     * Replays a trace with encoders named "par" and "perp" and IMU readings through a {@link TwoDeadWheelLocalizer},
+     *  using its current {@code PARAMS}
+     */
+    public static LocalizerReplay twoDeadWheel(LocalizerTrace trace, double inPerTick) {
+        final ReplayEncoder par = new ReplayEncoder();
+        final ReplayEncoder perp = new ReplayEncoder();
+        final ReplayImu imu = new ReplayImu();
+        return new LocalizerReplay("Two dead wheel", trace, new String[] {"par", "perp"},
+                new ReplayEncoder[] {par, perp}, imu,
+                () -> new TwoDeadWheelLocalizer(par, perp, imu, inPerTick));
+    }
+
+    /**
+     * Replays a trace with encoders named "par0", "par1" and "perp" through a {@link FastThreeDeadWheelLocalizer},
+     *  using {@code ThreeDeadWheelLocalizer.PARAMS}
+     */
+    public static LocalizerReplay fastThreeDeadWheel(LocalizerTrace trace, double inPerTick) {
+        final ReplayEncoder par0 = new ReplayEncoder();
+        final ReplayEncoder par1 = new ReplayEncoder();
+        final ReplayEncoder perp = new ReplayEncoder();
+        return new LocalizerReplay("Fast three dead wheel", trace, new String[] {"par0", "par1", "perp"},
+                new ReplayEncoder[] {par0, par1, perp}, null,
+                () -> new PrimitiveLocalizer.Adapter(new FastThreeDeadWheelLocalizer(par0, par1, perp, inPerTick)));
+    }
+
+    /**
+     * Replays a trace with encoders named "par" and "perp" and IMU readings through a
+     *  {@link FastTwoDeadWheelLocalizer}, using {@code TwoDeadWheelLocalizer.PARAMS}
+     */
+    public static LocalizerReplay fastTwoDeadWheel(LocalizerTrace trace, double inPerTick) {
+        final ReplayEncoder par = new ReplayEncoder();
+        final ReplayEncoder perp = new ReplayEncoder();
+        final ReplayImu imu = new ReplayImu();
+        return new LocalizerReplay("Fast two dead wheel", trace, new String[] {"par", "perp"},
+                new ReplayEncoder[] {par, perp}, imu,
+                () -> new PrimitiveLocalizer.Adapter(new FastTwoDeadWheelLocalizer(par, perp, imu, inPerTick)));
+    }
+
+    /**
+     * Replays a trace with encoders named "leftFront", "leftBack", "rightBack" and "rightFront" and IMU readings
+     *  through a {@link MecanumDrive.DriveLocalizer}, using {@code MecanumDrive.PARAMS}
+     * @param drive The drive the localizer belongs to; only its kinematics are used
+     */
+    public static LocalizerReplay mecanum(LocalizerTrace trace, MecanumDrive drive) {
+        final ReplayEncoder leftFront = new ReplayEncoder();
+        final ReplayEncoder leftBack = new ReplayEncoder();
+        final ReplayEncoder rightBack = new ReplayEncoder();
+        final ReplayEncoder rightFront = new ReplayEncoder();
+        final ReplayImu imu = new ReplayImu();
+        return new LocalizerReplay("Mecanum drive", trace,
+                new String[] {"leftFront", "leftBack", "rightBack", "rightFront"},
+                new ReplayEncoder[] {leftFront, leftBack, rightBack, rightFront}, imu,
+                () -> drive.new DriveLocalizer(leftFront, leftBack, rightBack, rightFront, imu));
+    }
+
+    private void feed(int sample) {
+        for (int i = 0; i < encoders.length; i++) {
+            encoders[i].set(trace.getPosition(encoderIndices[i], sample), trace.getVelocity(encoderIndices[i], sample));
+        }
+        if (imu != null) {
+            imu.set(trace.getYaw(sample), trace.getYawRate(sample), trace.getTimestamp(sample));
+        }
+    }
+
+    /**
+     * Replays the trace once to measure drift, then times it
+     * @param warmupPasses Passes run before timing, so that the JIT has compiled the localizer
+     * @param timedPasses Passes that are timed
+     */
+    public Result run(int warmupPasses, int timedPasses) {
+        // drift: integrate from the true starting pose, as the drives do from their initial pose
+        final Localizer localizer = localizerFactory.get();
+        final boolean hasTruth = trace.hasTruth();
+        Pose2d pose = hasTruth
+                ? new Pose2d(trace.getTruthX(0), trace.getTruthY(0), trace.getTruthHeading(0))
+                : new Pose2d(0, 0, 0);
+        double positionError = Double.NaN, maxPositionError = Double.NaN;
+        double headingError = Double.NaN, maxHeadingError = Double.NaN;
+        if (hasTruth) {
+            maxPositionError = 0;
+            maxHeadingError = 0;
+        }
+        for (int i = 0; i < trace.size(); i++) {
+            feed(i);
+            pose = pose.plus(localizer.update().value());
+            if (hasTruth) {
+                positionError = Math.hypot(pose.position.x - trace.getTruthX(i), pose.position.y - trace.getTruthY(i));
+                headingError = Math.abs(angleDifference(trace.getTruthHeading(i), pose.heading.toDouble()));
+                maxPositionError = Math.max(maxPositionError, positionError);
+                maxHeadingError = Math.max(maxHeadingError, headingError);
+            }
+        }
+
+        for (int pass = 0; pass < warmupPasses; pass++) {
+            replay();
+        }
+
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        final com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()
+                ? (com.sun.management.ThreadMXBean) threads
+                : null;
+        final long threadId = Thread.currentThread().getId();
+        long nanos = 0;
+        long bytes = 0;
+        for (int pass = 0; pass < timedPasses; pass++) {
+            final long bytesBefore = allocations != null ? allocations.getThreadAllocatedBytes(threadId) : 0;
+            final long start = System.nanoTime();
+            replay();
+            nanos += System.nanoTime() - start;
+            bytes += allocations != null ? allocations.getThreadAllocatedBytes(threadId) - bytesBefore : 0;
+        }
+        final long updates = (long) timedPasses * trace.size();
+
+        return new Result(name, trace.size(), positionError, maxPositionError, headingError, maxHeadingError,
+                updates > 0 ? (double) nanos / updates : Double.NaN,
+                allocations != null && updates > 0 ? (double) bytes / updates : -1);
+    }
+
+    private final MutableTwist2d primitiveTwist = new MutableTwist2d();
+    private double sink;
+
+    /**
+     * Replays the trace through a fresh localizer without integrating, which is the part being timed.  Primitive
+     *  localizers are called directly rather than through their adapter, as the drives would call them.
+     */
+    private void replay() {
+        final Localizer localizer = localizerFactory.get();
+        double total = 0;
+        if (localizer instanceof PrimitiveLocalizer.Adapter) {
+            final PrimitiveLocalizer primitiveLocalizer = ((PrimitiveLocalizer.Adapter) localizer).localizer;
+            for (int i = 0; i < trace.size(); i++) {
+                feed(i);
+                primitiveLocalizer.update(primitiveTwist);
+                total += primitiveTwist.heading;
+            }
+            sink += total;
+            return;
+        }
+        for (int i = 0; i < trace.size(); i++) {
+            feed(i);
+            final Twist2dDual<Time> twist = localizer.update();
+            total += twist.angle.value();
+        }
+        // keep the JIT from discarding the updates
+        sink += total;
+    }
+
+    /**
+     * @return The shortest signed rotation from one angle to another, in [-pi, pi)
+     */
+    private static double angleDifference(double from, double to) {
+        final double difference = to - from;
+        return difference - 2 * Math.PI * Math.floor((difference + Math.PI) / (2 * Math.PI));
+    }
+
+    /**
+     * Replays a trace and prints the result
+     * @param args Nothing, to compare the dead wheel localizers on a synthetic track; or "three", "two", "fastthree" or "fasttwo", the path
+     *             of a CSV trace, and the inches per tick of its encoders
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            final SyntheticTrack track = SyntheticTrack.weave(30, 0.01);
+            final double inPerTick = 0.003;
+            ThreeDeadWheelLocalizer.PARAMS.par0YTicks = 2000;
+            ThreeDeadWheelLocalizer.PARAMS.par1YTicks = -2000;
+            ThreeDeadWheelLocalizer.PARAMS.perpXTicks = -1000;
+            TwoDeadWheelLocalizer.PARAMS.parYTicks = 2000;
+            TwoDeadWheelLocalizer.PARAMS.perpXTicks = -1000;
+            for (double slipTicks : new double[] {0, 1, 4}) {
+                System.out.printf("Slip of %.0f ticks per update:%n", slipTicks);
+                System.out.println(threeDeadWheel(track.threeDeadWheel(2000, -2000, -1000, inPerTick, slipTicks, 1),
+                        inPerTick).run(20, 20));
+                System.out.println(twoDeadWheel(track.twoDeadWheel(2000, -1000, inPerTick, slipTicks, 1),
+                        inPerTick).run(20, 20));
+                System.out.println(fastThreeDeadWheel(track.threeDeadWheel(2000, -2000, -1000, inPerTick, slipTicks, 1),
+                        inPerTick).run(20, 20));
+                System.out.println(fastTwoDeadWheel(track.twoDeadWheel(2000, -1000, inPerTick, slipTicks, 1),
+                        inPerTick).run(20, 20));
+            }
+            return;
+        }
+        if (args.length != 3) {
+            System.err.println("Usage: LocalizerReplay [three|two|fastthree|fasttwo <trace.csv> <inches per tick>]");
+            System.exit(2);
+        }
+        final LocalizerTrace trace = LocalizerTrace.readCsv(new File(args[1]));
+        final double inPerTick = Double.parseDouble(args[2]);
+        final LocalizerReplay replay;
+        switch (args[0]) {
+            case "three":
+                replay = threeDeadWheel(trace, inPerTick);
+                break;
+            case "two":
+                replay = twoDeadWheel(trace, inPerTick);
+                break;
+            case "fastthree":
+                replay = fastThreeDeadWheel(trace, inPerTick);
+                break;
+            case "fasttwo":
+                replay = fastTwoDeadWheel(trace, inPerTick);
+                break;
+            default:
+                System.err.println("Unknown localizer " + args[0]);
+                System.exit(2);
+                return;
+        }
+        System.out.println(replay.run(20, 20));
+    }
+}
@@ -0,0 +1,96 @@
+package org.firstinspires.ftc.teamcode.test.localization;
+
+import org.firstinspires.ftc.teamcode.roadrunner.ThreeDeadWheelLocalizer;
+import org.firstinspires.ftc.teamcode.roadrunner.TwoDeadWheelLocalizer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LocalizerReplayTests {
+    private static final double IN_PER_TICK = 0.003;
+    private static final double PAR0_Y_TICKS = 2000, PAR1_Y_TICKS = -2000, PERP_X_TICKS = -1000;
+
+    private final SyntheticTrack track = SyntheticTrack.weave(20, 0.01);
+
+    private ThreeDeadWheelLocalizer.Params previousThreeDeadWheelParams;
+    private TwoDeadWheelLocalizer.Params previousTwoDeadWheelParams;
+
+    @Before
+    public void setGeometry() {
+        previousThreeDeadWheelParams = ThreeDeadWheelLocalizer.PARAMS;
+        previousTwoDeadWheelParams = TwoDeadWheelLocalizer.PARAMS;
+        ThreeDeadWheelLocalizer.PARAMS = new ThreeDeadWheelLocalizer.Params();
+        ThreeDeadWheelLocalizer.PARAMS.par0YTicks = PAR0_Y_TICKS;
+        ThreeDeadWheelLocalizer.PARAMS.par1YTicks = PAR1_Y_TICKS;
+        ThreeDeadWheelLocalizer.PARAMS.perpXTicks = PERP_X_TICKS;
+        TwoDeadWheelLocalizer.PARAMS = new TwoDeadWheelLocalizer.Params();
+        TwoDeadWheelLocalizer.PARAMS.parYTicks = PAR0_Y_TICKS;
+        TwoDeadWheelLocalizer.PARAMS.perpXTicks = PERP_X_TICKS;
+    }
+
+    @After
+    public void restoreGeometry() {
+        ThreeDeadWheelLocalizer.PARAMS = previousThreeDeadWheelParams;
+        TwoDeadWheelLocalizer.PARAMS = previousTwoDeadWheelParams;
+    }
+
+    private LocalizerReplay.Result threeDeadWheel(double slipTicks) {
+        return LocalizerReplay.threeDeadWheel(
+                track.threeDeadWheel(PAR0_Y_TICKS, PAR1_Y_TICKS, PERP_X_TICKS, IN_PER_TICK, slipTicks, 1),
+                IN_PER_TICK).run(2, 2);
+    }
+
+    private LocalizerReplay.Result twoDeadWheel(double slipTicks) {
+        return LocalizerReplay.twoDeadWheel(
+                track.twoDeadWheel(PAR0_Y_TICKS, PERP_X_TICKS, IN_PER_TICK, slipTicks, 1),
+                IN_PER_TICK).run(2, 2);
+    }
+
+    @Test
+    public void threeDeadWheelOnlyDriftsFromQuantization() {
+        final LocalizerReplay.Result result = threeDeadWheel(0);
+        Assert.assertEquals(track.size(), result.updates);
+        Assert.assertTrue(result.toString(), result.maxPositionError < 0.05);
+        Assert.assertTrue(result.toString(), result.maxHeadingError < 0.001);
+    }
+
+    @Test
+    public void twoDeadWheelOnlyDriftsFromQuantization() {
+        final LocalizerReplay.Result result = twoDeadWheel(0);
+        Assert.assertTrue(result.toString(), result.maxPositionError < 0.05);
+        Assert.assertTrue(result.toString(), result.maxHeadingError < 0.001);
+    }
+
+    @Test
+    public void slipIncreasesDrift() {
+        Assert.assertTrue(threeDeadWheel(2).finalPositionError > threeDeadWheel(0).finalPositionError);
+        // the IMU keeps the two dead wheel heading from drifting with slip
+        Assert.assertTrue(twoDeadWheel(2).maxHeadingError < threeDeadWheel(2).maxHeadingError);
+    }
+
+    @Test
+    public void costIsReported() {
+        final LocalizerReplay.Result result = threeDeadWheel(0);
+        Assert.assertTrue(result.nanosPerUpdate > 0);
+        Assert.assertTrue(result.bytesPerUpdate != 0);
+    }
+
+    @Test
+    public void fastLocalizersMatchTheOriginals() {
+        final LocalizerTrace threeDeadWheelTrace =
+                track.threeDeadWheel(PAR0_Y_TICKS, PAR1_Y_TICKS, PERP_X_TICKS, IN_PER_TICK, 2, 1);
+        final LocalizerReplay.Result three = LocalizerReplay.threeDeadWheel(threeDeadWheelTrace, IN_PER_TICK).run(0, 1);
+        final LocalizerReplay.Result fastThree =
+                LocalizerReplay.fastThreeDeadWheel(threeDeadWheelTrace, IN_PER_TICK).run(0, 1);
+        Assert.assertEquals(three.finalPositionError, fastThree.finalPositionError, 1e-9);
+        Assert.assertEquals(three.finalHeadingError, fastThree.finalHeadingError, 1e-9);
+
+        final LocalizerTrace twoDeadWheelTrace = track.twoDeadWheel(PAR0_Y_TICKS, PERP_X_TICKS, IN_PER_TICK, 2, 1);
+        final LocalizerReplay.Result two = LocalizerReplay.twoDeadWheel(twoDeadWheelTrace, IN_PER_TICK).run(0, 1);
+        final LocalizerReplay.Result fastTwo =
+                LocalizerReplay.fastTwoDeadWheel(twoDeadWheelTrace, IN_PER_TICK).run(0, 1);
+        Assert.assertEquals(two.finalPositionError, fastTwo.finalPositionError, 1e-9);
+        Assert.assertEquals(two.finalHeadingError, fastTwo.finalHeadingError, 1e-9);
+    }
+}
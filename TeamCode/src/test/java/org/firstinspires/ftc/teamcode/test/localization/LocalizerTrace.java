@@ -0,0 +1,259 @@
+package org.firstinspires.ftc.teamcode.test.localization;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A recorded stream of localizer inputs: for each sample, the position and velocity of every encoder and the IMU's
+ *  yaw and yaw rate, mirroring the fields of the Road Runner localizer input messages.  A trace may also hold the
+ *  robot's true pose at each sample, which is what drift is measured against.
+ * <p>
+ * Traces come either from {@link SyntheticTrack} or from a CSV file (see {@link #readCsv(File)}).
+ */
+public final class LocalizerTrace {
+    private final long[] timestamps;
+    private final String[] encoderNames;
+    private final int[][] positions;
+    private final int[][] velocities;
+    private final double[] yaws;
+    private final double[] yawRates;
+    private final double[] truthXs;
+    private final double[] truthYs;
+    private final double[] truthHeadings;
+
+    /**
+     * @param timestamps When each sample was taken, in nanoseconds
+     * @param encoderNames The name of each encoder, e.g. "par0"
+     * @param positions The position of each encoder at each sample, in ticks, indexed [encoder][sample]
+     * @param velocities The velocity of each encoder at each sample, in ticks per second, indexed [encoder][sample]
+     * @param yaws The IMU's yaw at each sample, in radians, or null if the trace has no IMU
+     * @param yawRates The IMU's yaw rate at each sample, in radians per second, or null if the trace has no IMU
+     * @param truthXs The robot's true x position at each sample, in inches, or null if the trace has no ground truth
+     * @param truthYs The robot's true y position at each sample, in inches, or null if the trace has no ground truth
+     * @param truthHeadings The robot's true heading at each sample, in radians, or null if the trace has no ground
+     *                      truth
+     * @throws IllegalArgumentException The arrays are not all the same length
+     */
+    public LocalizerTrace(long[] timestamps, String[] encoderNames, int[][] positions, int[][] velocities,
+                          double[] yaws, double[] yawRates,
+                          double[] truthXs, double[] truthYs, double[] truthHeadings) {
+        final int size = timestamps.length;
+        if (positions.length != encoderNames.length || velocities.length != encoderNames.length) {
+            throw new IllegalArgumentException("Every encoder needs positions and velocities");
+        }
+        for (int i = 0; i < encoderNames.length; i++) {
+            checkLength(positions[i], size);
+            checkLength(velocities[i], size);
+        }
+        if ((yaws == null) != (yawRates == null)) {
+            throw new IllegalArgumentException("Yaws and yaw rates must both be given or both be null");
+        }
+        if ((truthXs == null) != (truthYs == null) || (truthXs == null) != (truthHeadings == null)) {
+            throw new IllegalArgumentException("Ground truth must be complete or absent");
+        }
+        if (yaws != null) {
+            checkLength(yaws, size);
+            checkLength(yawRates, size);
+        }
+        if (truthXs != null) {
+            checkLength(truthXs, size);
+            checkLength(truthYs, size);
+            checkLength(truthHeadings, size);
+        }
+
+        this.timestamps = timestamps;
+        this.encoderNames = encoderNames;
+        this.positions = positions;
+        this.velocities = velocities;
+        this.yaws = yaws;
+        this.yawRates = yawRates;
+        this.truthXs = truthXs;
+        this.truthYs = truthYs;
+        this.truthHeadings = truthHeadings;
+    }
+
+    private static void checkLength(int[] array, int size) {
+        if (array.length != size) {
+            throw new IllegalArgumentException("Expected " + size + " samples but got " + array.length);
+        }
+    }
+
+    private static void checkLength(double[] array, int size) {
+        if (array.length != size) {
+            throw new IllegalArgumentException("Expected " + size + " samples but got " + array.length);
+        }
+    }
+
+    /**
+     * @return The amount of samples
+     */
+    public int size() {
+        return timestamps.length;
+    }
+
+    public long getTimestamp(int sample) {
+        return timestamps[sample];
+    }
+
+    /**
+     * @return The index of the encoder with the given name
+     * @throws IllegalArgumentException The trace has no such encoder
+     */
+    public int getEncoderIndex(String name) {
+        for (int i = 0; i < encoderNames.length; i++) {
+            if (encoderNames[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("The trace has no encoder named " + name
+                + "; it has " + Arrays.toString(encoderNames));
+    }
+
+    public int getPosition(int encoder, int sample) {
+        return positions[encoder][sample];
+    }
+
+    public int getVelocity(int encoder, int sample) {
+        return velocities[encoder][sample];
+    }
+
+    public boolean hasImu() {
+        return yaws != null;
+    }
+
+    public double getYaw(int sample) {
+        return yaws[sample];
+    }
+
+    public double getYawRate(int sample) {
+        return yawRates[sample];
+    }
+
+    public boolean hasTruth() {
+        return truthXs != null;
+    }
+
+    public double getTruthX(int sample) {
+        return truthXs[sample];
+    }
+
+    public double getTruthY(int sample) {
+        return truthYs[sample];
+    }
+
+    public double getTruthHeading(int sample) {
+        return truthHeadings[sample];
+    }
+
+    /**
+     * Reads a trace from a CSV file with a header row.  Columns are named after the fields of the localizer input
+     *  messages: {@code timestamp} (nanoseconds), {@code <encoder>.position} and {@code <encoder>.velocity} for each
+     *  encoder (e.g. {@code par0.position}), and optionally {@code yaw} and {@code zRotationRate} (radians).  Ground
+     *  truth, if present, is in {@code truth.x}, {@code truth.y} (inches) and {@code truth.heading} (radians).  Other
+     *  columns are ignored.
+     * @throws IOException The file could not be read or is malformed
+     */
+    public static LocalizerTrace readCsv(File path) throws IOException {
+        final List<String[]> rows = new ArrayList<>();
+        final String[] header;
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8))) {
+            final String headerLine = in.readLine();
+            if (headerLine == null) {
+                throw new IOException(path + " is empty");
+            }
+            header = headerLine.trim().split("\\s*,\\s*");
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    rows.add(line.trim().split("\\s*,\\s*"));
+                }
+            }
+        }
+
+        final List<String> encoderNames = new ArrayList<>();
+        for (String column : header) {
+            if (column.endsWith(".position")) {
+                encoderNames.add(column.substring(0, column.length() - ".position".length()));
+            }
+        }
+
+        final int size = rows.size();
+        final long[] timestamps = new long[size];
+        final int[][] positions = new int[encoderNames.size()][size];
+        final int[][] velocities = new int[encoderNames.size()][size];
+        final int timestampColumn = requireColumn(header, "timestamp");
+        final int[] positionColumns = new int[encoderNames.size()];
+        final int[] velocityColumns = new int[encoderNames.size()];
+        for (int i = 0; i < encoderNames.size(); i++) {
+            positionColumns[i] = requireColumn(header, encoderNames.get(i) + ".position");
+            velocityColumns[i] = requireColumn(header, encoderNames.get(i) + ".velocity");
+        }
+        final int yawColumn = findColumn(header, "yaw");
+        final int yawRateColumn = findColumn(header, "zRotationRate");
+        final int truthXColumn = findColumn(header, "truth.x");
+        final int truthYColumn = findColumn(header, "truth.y");
+        final int truthHeadingColumn = findColumn(header, "truth.heading");
+
+        final double[] yaws = yawColumn >= 0 ? new double[size] : null;
+        final double[] yawRates = yawColumn >= 0 ? new double[size] : null;
+        final boolean hasTruth = truthXColumn >= 0 && truthYColumn >= 0 && truthHeadingColumn >= 0;
+        final double[] truthXs = hasTruth ? new double[size] : null;
+        final double[] truthYs = hasTruth ? new double[size] : null;
+        final double[] truthHeadings = hasTruth ? new double[size] : null;
+
+        for (int row = 0; row < size; row++) {
+            final String[] cells = rows.get(row);
+            if (cells.length < header.length) {
+                throw new IOException("Row " + (row + 2) + " has " + cells.length + " cells but the header has "
+                        + header.length);
+            }
+            try {
+                timestamps[row] = Long.parseLong(cells[timestampColumn]);
+                for (int i = 0; i < positionColumns.length; i++) {
+                    positions[i][row] = Integer.parseInt(cells[positionColumns[i]]);
+                    velocities[i][row] = Integer.parseInt(cells[velocityColumns[i]]);
+                }
+                if (yaws != null) {
+                    yaws[row] = Double.parseDouble(cells[yawColumn]);
+                    yawRates[row] = yawRateColumn >= 0 ? Double.parseDouble(cells[yawRateColumn]) : 0;
+                }
+                if (hasTruth) {
+                    truthXs[row] = Double.parseDouble(cells[truthXColumn]);
+                    truthYs[row] = Double.parseDouble(cells[truthYColumn]);
+                    truthHeadings[row] = Double.parseDouble(cells[truthHeadingColumn]);
+                }
+            }
+            catch (NumberFormatException e) {
+                throw new IOException("Row " + (row + 2) + " is malformed", e);
+            }
+        }
+
+        return new LocalizerTrace(timestamps, encoderNames.toArray(new String[0]), positions, velocities,
+                yaws, yawRates, truthXs, truthYs, truthHeadings);
+    }
+
+    private static int findColumn(String[] header, String name) {
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int requireColumn(String[] header, String name) throws IOException {
+        final int column = findColumn(header, name);
+        if (column < 0) {
+            throw new IOException("Missing column " + name);
+        }
+        return column;
+    }
+}
@@ -0,0 +1,49 @@
+package org.firstinspires.ftc.teamcode.test.localization;
+
+import com.acmerobotics.roadrunner.ftc.Encoder;
+import com.acmerobotics.roadrunner.ftc.PositionVelocityPair;
+import com.qualcomm.robotcore.hardware.DcMotorController;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+
+/**
+ * An encoder that reports whatever reading it was last given, so that a localizer can be fed a recorded or synthetic
+ *  stream.  Readings are reported as-is: recorded readings already have the encoder's direction applied.
+ */
+public final class ReplayEncoder implements Encoder {
+    private int position;
+    private int velocity;
+    private DcMotorSimple.Direction direction = DcMotorSimple.Direction.FORWARD;
+
+    /**
+     * Sets the reading returned by {@link #getPositionAndVelocity()}
+     * @param position In ticks
+     * @param velocity In ticks per second
+     */
+    public void set(int position, int velocity) {
+        this.position = position;
+        this.velocity = velocity;
+    }
+
+    @Override
+    public PositionVelocityPair getPositionAndVelocity() {
+        return new PositionVelocityPair(position, velocity, position, velocity);
+    }
+
+    /**
+     * @return Null, since there is no motor controller behind a replayed encoder
+     */
+    @Override
+    public DcMotorController getController() {
+        return null;
+    }
+
+    @Override
+    public DcMotorSimple.Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public void setDirection(DcMotorSimple.Direction direction) {
+        this.direction = direction;
+    }
+}
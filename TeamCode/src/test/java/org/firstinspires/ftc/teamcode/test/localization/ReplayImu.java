@@ -0,0 +1,91 @@
+package org.firstinspires.ftc.teamcode.test.localization;
+
+import com.qualcomm.robotcore.hardware.IMU;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.AngularVelocity;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesOrder;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesReference;
+import org.firstinspires.ftc.robotcore.external.navigation.Orientation;
+import org.firstinspires.ftc.robotcore.external.navigation.Quaternion;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+
+/**
+ * An IMU that reports whatever yaw and yaw rate it was last given, so that a localizer can be fed a recorded or
+ *  synthetic stream.  Pitch and roll are always zero.  Only the methods the localizers call are supported.
+ */
+public final class ReplayImu implements IMU {
+    private double yaw;
+    private double yawRate;
+    private long timestamp;
+
+    /**
+     * Sets the reading returned by the IMU
+     * @param yaw In radians
+     * @param yawRate In radians per second
+     * @param timestamp When the reading was taken, in nanoseconds
+     */
+    public void set(double yaw, double yawRate, long timestamp) {
+        this.yaw = yaw;
+        this.yawRate = yawRate;
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public YawPitchRollAngles getRobotYawPitchRollAngles() {
+        return new YawPitchRollAngles(AngleUnit.RADIANS, yaw, 0, 0, timestamp);
+    }
+
+    @Override
+    public AngularVelocity getRobotAngularVelocity(AngleUnit angleUnit) {
+        return new AngularVelocity(angleUnit, 0, 0, (float) angleUnit.fromRadians(yawRate), timestamp);
+    }
+
+    @Override
+    public boolean initialize(Parameters parameters) {
+        return true;
+    }
+
+    @Override
+    public void resetYaw() {
+        throw new UnsupportedOperationException("A replayed IMU cannot be reset");
+    }
+
+    @Override
+    public Orientation getRobotOrientation(AxesReference reference, AxesOrder order, AngleUnit angleUnit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Quaternion getRobotOrientationAsQuaternion() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public String getDeviceName() {
+        return "Replayed IMU";
+    }
+
+    @Override
+    public String getConnectionInfo() {
+        return "";
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
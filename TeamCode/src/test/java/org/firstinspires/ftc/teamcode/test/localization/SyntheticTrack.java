@@ -0,0 +1,244 @@
+package org.firstinspires.ftc.teamcode.test.localization;
+
+import java.util.Random;
+
+/**
+ * A ground-truth robot path, from which the readings each localizer's sensors would have produced along it can be
+ *  generated.
+ * <p>
+ * The robot's velocity, in its own frame, is held constant between samples, so the true pose is integrated exactly
+ *  with the same exponential map that Road Runner uses to apply twists.  A localizer that is fed perfect readings
+ *  therefore only drifts because of encoder quantization; {@code slipTicks} adds a random walk on top of each encoder
+ *  to model wheel slip.
+ */
+public final class SyntheticTrack {
+    private final long[] timestamps;
+    private final double[] xs, ys, headings;
+
+    /**
+     * The robot-frame motion from the previous sample to each sample (zero for the first sample), in inches and
+     *  radians
+     */
+    private final double[] dxs, dys, dHeadings;
+
+    /**
+     * The robot-frame velocity at each sample, in inches and radians per second
+     */
+    private final double[] vxs, vys, omegas;
+
+    private SyntheticTrack(int size) {
+        timestamps = new long[size];
+        xs = new double[size];
+        ys = new double[size];
+        headings = new double[size];
+        dxs = new double[size];
+        dys = new double[size];
+        dHeadings = new double[size];
+        vxs = new double[size];
+        vys = new double[size];
+        omegas = new double[size];
+    }
+
+    /**
+     * Generates a path that drives forwards and backwards, strafes and turns all at once, with each sinusoid at a
+     *  different frequency so that the robot covers a range of combined motions
+     * @param durationSeconds How long the path lasts
+     * @param periodSeconds The time between samples, i.e. the loop period of the localizer
+     */
+    public static SyntheticTrack weave(double durationSeconds, double periodSeconds) {
+        final int size = (int) Math.round(durationSeconds / periodSeconds) + 1;
+        final SyntheticTrack track = new SyntheticTrack(size);
+        for (int i = 0; i < size; i++) {
+            final double t = i * periodSeconds;
+            track.timestamps[i] = Math.round(t * 1e9);
+            track.vxs[i] = 40 * Math.sin(0.5 * t);
+            track.vys[i] = 25 * Math.sin(0.3 * t + 1);
+            track.omegas[i] = 2 * Math.sin(0.7 * t);
+        }
+        track.integrate(periodSeconds);
+        return track;
+    }
+
+    private void integrate(double periodSeconds) {
+        for (int i = 1; i < size(); i++) {
+            // hold the velocity from the start of the interval, as a localizer's loop would see it
+            final double dx = vxs[i - 1] * periodSeconds;
+            final double dy = vys[i - 1] * periodSeconds;
+            final double dHeading = omegas[i - 1] * periodSeconds;
+            dxs[i] = dx;
+            dys[i] = dy;
+            dHeadings[i] = dHeading;
+
+            // the exponential map of se(2), as used by Pose2d.plus(Twist2d)
+            final double s, c;
+            if (Math.abs(dHeading) < 1e-9) {
+                s = 1 - dHeading * dHeading / 6;
+                c = dHeading / 2;
+            }
+            else {
+                s = Math.sin(dHeading) / dHeading;
+                c = (1 - Math.cos(dHeading)) / dHeading;
+            }
+            final double localX = s * dx - c * dy;
+            final double localY = c * dx + s * dy;
+            final double cos = Math.cos(headings[i - 1]);
+            final double sin = Math.sin(headings[i - 1]);
+            xs[i] = xs[i - 1] + cos * localX - sin * localY;
+            ys[i] = ys[i - 1] + sin * localX + cos * localY;
+            headings[i] = headings[i - 1] + dHeading;
+        }
+    }
+
+    public int size() {
+        return timestamps.length;
+    }
+
+    /**
+     * @return When the robot was at the sample's pose, in nanoseconds
+     */
+    public long getTimestamp(int sample) {
+        return timestamps[sample];
+    }
+
+    /**
+     * @return The robot's true x position at the sample, in inches
+     */
+    public double getX(int sample) {
+        return xs[sample];
+    }
+
+    /**
+     * @return The robot's true y position at the sample, in inches
+     */
+    public double getY(int sample) {
+        return ys[sample];
+    }
+
+    /**
+     * @return The robot's true heading at the sample, in radians; not wrapped
+     */
+    public double getHeading(int sample) {
+        return headings[sample];
+    }
+
+    /**
+     * @return The robot's motion along its forward axis since the previous sample, in inches
+     */
+    public double getDx(int sample) {
+        return dxs[sample];
+    }
+
+    /**
+     * @return The robot's motion along its left axis since the previous sample, in inches
+     */
+    public double getDy(int sample) {
+        return dys[sample];
+    }
+
+    /**
+     * @return The robot's rotation since the previous sample, in radians
+     */
+    public double getDHeading(int sample) {
+        return dHeadings[sample];
+    }
+
+    /**
+     * Generates the readings of a three dead wheel localizer.  The geometry is in the same units and conventions as
+     *  {@code ThreeDeadWheelLocalizer.Params}.
+     */
+    public LocalizerTrace threeDeadWheel(double par0YTicks, double par1YTicks, double perpXTicks, double inPerTick,
+                                         double slipTicks, long seed) {
+        final Random random = new Random(seed);
+        final int[][] positions = new int[3][size()];
+        final int[][] velocities = new int[3][size()];
+        deadWheel(par0YTicks, inPerTick, true, slipTicks, random, positions[0], velocities[0]);
+        deadWheel(par1YTicks, inPerTick, true, slipTicks, random, positions[1], velocities[1]);
+        deadWheel(perpXTicks, inPerTick, false, slipTicks, random, positions[2], velocities[2]);
+        return new LocalizerTrace(timestamps, new String[] {"par0", "par1", "perp"}, positions, velocities,
+                null, null, xs, ys, headings);
+    }
+
+    /**
+     * Generates the readings of a two dead wheel localizer and its IMU.  The geometry is in the same units and
+     *  conventions as {@code TwoDeadWheelLocalizer.Params}.
+     */
+    public LocalizerTrace twoDeadWheel(double parYTicks, double perpXTicks, double inPerTick,
+                                       double slipTicks, long seed) {
+        final Random random = new Random(seed);
+        final int[][] positions = new int[2][size()];
+        final int[][] velocities = new int[2][size()];
+        deadWheel(parYTicks, inPerTick, true, slipTicks, random, positions[0], velocities[0]);
+        deadWheel(perpXTicks, inPerTick, false, slipTicks, random, positions[1], velocities[1]);
+        return new LocalizerTrace(timestamps, new String[] {"par", "perp"}, positions, velocities,
+                wrappedHeadings(), omegas.clone(), xs, ys, headings);
+    }
+
+    /**
+     * Generates the readings of the drive motor encoders and IMU used by {@code MecanumDrive.DriveLocalizer}.  The
+     *  geometry is in the same units as {@code MecanumDrive.Params}.
+     */
+    public LocalizerTrace mecanum(double trackWidthTicks, double inPerTick, double lateralInPerTick,
+                                  double slipTicks, long seed) {
+        final Random random = new Random(seed);
+        // the inverse of MecanumKinematics.forward, with its track width and lateral multiplier
+        final double trackWidth = inPerTick * trackWidthTicks;
+        final double lateralMultiplier = inPerTick / lateralInPerTick;
+        final double[] lateralSigns = {-1, 1, -1, 1};
+        final double[] angularSigns = {-1, -1, 1, 1};
+        final int[][] positions = new int[4][size()];
+        final int[][] velocities = new int[4][size()];
+        final double[] deltas = new double[size()];
+        final double[] rates = new double[size()];
+        for (int wheel = 0; wheel < 4; wheel++) {
+            for (int i = 0; i < size(); i++) {
+                deltas[i] = (dxs[i] + lateralSigns[wheel] * lateralMultiplier * dys[i]
+                        + angularSigns[wheel] * trackWidth * dHeadings[i]) / inPerTick;
+                rates[i] = (vxs[i] + lateralSigns[wheel] * lateralMultiplier * vys[i]
+                        + angularSigns[wheel] * trackWidth * omegas[i]) / inPerTick;
+            }
+            encoder(deltas, rates, slipTicks, random, positions[wheel], velocities[wheel]);
+        }
+        return new LocalizerTrace(timestamps, new String[] {"leftFront", "leftBack", "rightBack", "rightFront"},
+                positions, velocities, wrappedHeadings(), omegas.clone(), xs, ys, headings);
+    }
+
+    /**
+     * @param offsetTicks For a parallel wheel, its y position; for a perpendicular wheel, its x position
+     * @param parallel Whether the wheel measures motion along the robot's x axis rather than its y axis
+     */
+    private void deadWheel(double offsetTicks, double inPerTick, boolean parallel, double slipTicks, Random random,
+                           int[] positions, int[] velocities) {
+        // matches the model the localizers invert: reading = translation / inPerTick + offset * rotation
+        final double[] deltas = new double[size()];
+        final double[] rates = new double[size()];
+        for (int i = 0; i < size(); i++) {
+            deltas[i] = (parallel ? dxs[i] : dys[i]) / inPerTick + offsetTicks * dHeadings[i];
+            rates[i] = (parallel ? vxs[i] : vys[i]) / inPerTick + offsetTicks * omegas[i];
+        }
+        encoder(deltas, rates, slipTicks, random, positions, velocities);
+    }
+
+    private static void encoder(double[] deltas, double[] rates, double slipTicks, Random random,
+                                int[] positions, int[] velocities) {
+        double position = 0;
+        for (int i = 0; i < deltas.length; i++) {
+            position += deltas[i];
+            if (i > 0) {
+                position += slipTicks * random.nextGaussian();
+            }
+            positions[i] = (int) Math.round(position);
+            velocities[i] = (int) Math.round(rates[i]);
+        }
+    }
+
+    /**
+     * @return The true headings wrapped to [-pi, pi), as an IMU reports them
+     */
+    private double[] wrappedHeadings() {
+        final double[] wrapped = new double[size()];
+        for (int i = 0; i < size(); i++) {
+            wrapped[i] = headings[i] - 2 * Math.PI * Math.floor((headings[i] + Math.PI) / (2 * Math.PI));
+        }
+        return wrapped;
+    }
+}
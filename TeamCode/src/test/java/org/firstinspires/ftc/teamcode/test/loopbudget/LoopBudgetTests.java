@@ -0,0 +1,225 @@
+package org.firstinspires.ftc.teamcode.test.loopbudget;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.firstinspires.ftc.teamcode.modules.Odometry;
+import org.firstinspires.ftc.teamcode.modules.core.LoopScheduler;
+import org.firstinspires.ftc.teamcode.modules.core.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.opmode.autonomous.BasketAutonomous;
+import org.firstinspires.ftc.teamcode.opmode.teleop.TeleOpMain;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeHardwareMap;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeTelemetry;
+import org.firstinspires.ftc.teamcode.test.simulator.OpModeFlags;
+import org.firstinspires.ftc.teamcode.test.simulator.RobotModel;
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.firstinspires.ftc.teamcode.util.GamepadLogReader;
+import org.firstinspires.ftc.teamcode.util.GamepadLogWriter;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Holds the OpModes' control loops to a budget: how long a cycle may take, how many hardware calls it may make and
+ *  how much it may allocate.  Each OpMode runs once unmeasured so that the JIT compiler has warmed up, then again
+ *  under a {@link LoopMeter}.
+ * <p>
+ * The times are generous, since they depend on the machine running the tests; they only catch a loop that has become
+ *  much slower.  The hardware calls and allocations don't depend on the machine, so their budgets are tight: when
+ *  a change makes a loop cheaper, lower them to keep it that way.
+ */
+public class LoopBudgetTests {
+    /**
+     * How many TeleOp loops to run before measuring, and how many to measure
+     */
+    private static final int WARMUP_LOOPS = 2000, MEASURED_LOOPS = 5000;
+
+    /**
+     * The 99th percentile of the time a cycle takes, in nanoseconds.  The robot's loop runs at 200 Hz, so a cycle
+     *  has 5 ms in all, most of which goes to waiting on the hubs.
+     */
+    private static final long P99_CYCLE_NANOS = 2_000_000;
+
+    /**
+     * The most hardware calls any one TeleOp loop may make
+     */
+    private static final long TELEOP_MAX_HARDWARE_CALLS = 20;
+
+    /**
+     * The most hardware calls any one loop of the replayed TeleOp session may make.  A gamepad log rounds the sticks
+     *  and triggers, so the replay sees slightly different input than the script, and a few outputs change in
+     *  different loops.
+     */
+    private static final long REPLAYED_TELEOP_MAX_HARDWARE_CALLS = 21;
+
+    /**
+     * The most bytes a TeleOp loop may allocate on average
+     */
+    private static final double TELEOP_MEAN_ALLOCATED_BYTES = 512;
+
+    /**
+     * The most hardware calls any one autonomous cycle may make
+     */
+    private static final long AUTONOMOUS_MAX_HARDWARE_CALLS = 40;
+
+    /**
+     * The most bytes an autonomous cycle may allocate on average.  Only the mean is held to a budget, since the cycle
+     *  that builds each command is counted along with it.
+     */
+    private static final double AUTONOMOUS_MEAN_ALLOCATED_BYTES = 512;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeHardwareMap hardwareMap;
+    private LoopMeter meter;
+    private boolean recordTelemetry, sampleInBackground, recordGamepads, resetSlidePosition;
+
+    @Before
+    public void setUp() {
+        recordTelemetry = TelemetryChannels.RECORD;
+        sampleInBackground = Odometry.SAMPLE_IN_BACKGROUND;
+        recordGamepads = TeleOpMain.RECORD_GAMEPADS;
+        resetSlidePosition = TeleOpMain.resetSlidePosition;
+        TelemetryChannels.RECORD = false; // nowhere to write recordings
+        TeleOpMain.RECORD_GAMEPADS = false;
+        Odometry.SAMPLE_IN_BACKGROUND = false; // its allocations wouldn't be counted, and it would see time jump
+        createRobot();
+    }
+
+    @After
+    public void tearDown() {
+        Clock.setSource(null);
+        Thread.interrupted(); // don't leave a stop meant for the OpMode on the test's thread
+        TelemetryChannels.RECORD = recordTelemetry;
+        Odometry.SAMPLE_IN_BACKGROUND = sampleInBackground;
+        TeleOpMain.RECORD_GAMEPADS = recordGamepads;
+        TeleOpMain.resetSlidePosition = resetSlidePosition;
+    }
+
+    private void createRobot() {
+        hardwareMap = FakeHardwareMap.createRobot();
+        meter = new LoopMeter(new RobotModel(hardwareMap), hardwareMap);
+        Clock.setSource(meter);
+    }
+
+    /**
+     * Sets the gamepads as the drivers might hold them in a given loop: driving around in circles while the arm goes
+     *  from moving to scoring, back to moving and down to the intake, grabbing and ejecting along the way
+     */
+    private static void script(int loop, Gamepad gamepad1, Gamepad gamepad2) {
+        final double t = loop / 200.0;
+        gamepad1.left_stick_x = (float) Math.sin(t);
+        gamepad1.left_stick_y = (float) -Math.cos(t * 0.7);
+        gamepad1.right_stick_x = (float) (0.5 * Math.sin(t * 1.3));
+        gamepad1.right_bumper = loop % 1000 >= 800;
+        gamepad1.right_trigger = (float) (0.5 + 0.5 * Math.sin(t * 2));
+
+        final int step = loop % 2000;
+        gamepad2.a = step < 20 || (step >= 1000 && step < 1020);
+        gamepad2.x = step >= 500 && step < 520;
+        gamepad2.b = step >= 1500 && step < 1520;
+        gamepad2.left_bumper = step >= 1600 && step < 1800;
+        gamepad2.right_bumper = step >= 700 && step < 800;
+    }
+
+    private void runTeleOp(int loops, boolean measure) {
+        final TeleOpMain opMode = new TeleOpMain();
+        opMode.hardwareMap = hardwareMap;
+        opMode.telemetry = new FakeTelemetry();
+        opMode.gamepad1 = new Gamepad();
+        opMode.gamepad2 = new Gamepad();
+
+        opMode.init();
+        opMode.init_loop();
+        opMode.start();
+        if (measure) {
+            meter.reset();
+        }
+        try {
+            for (int i = 0; i < loops; i++) {
+                script(i, opMode.gamepad1, opMode.gamepad2);
+                opMode.loop();
+                opMode.telemetry.update();
+            }
+        }
+        finally {
+            opMode.stop();
+        }
+    }
+
+    @Test
+    public void teleOpLoopStaysInBudget() {
+        runTeleOp(WARMUP_LOOPS, false);
+        createRobot();
+        runTeleOp(MEASURED_LOOPS, true);
+
+        Assert.assertEquals(meter.format(), MEASURED_LOOPS, meter.getCycles());
+        assertInBudget(TELEOP_MAX_HARDWARE_CALLS, TELEOP_MEAN_ALLOCATED_BYTES);
+    }
+
+    @Test
+    public void replayedTeleOpStaysInBudget() throws IOException {
+        // record the script as the robot would, one frame per loop
+        final File path = folder.newFile("session.gamepads");
+        final Gamepad gamepad1 = new Gamepad(), gamepad2 = new Gamepad();
+        final long periodNanos = (long) (1e9 / LoopScheduler.LOOP_RATE_HZ);
+        try (GamepadLogWriter writer = new GamepadLogWriter(path, MEASURED_LOOPS)) {
+            for (int i = 0; i < MEASURED_LOOPS; i++) {
+                script(i, gamepad1, gamepad2);
+                writer.write(i * periodNanos, gamepad1, gamepad2);
+            }
+        }
+
+        final TeleOpReplay replay = new TeleOpReplay(new GamepadLogReader(path));
+        replay.run();
+        meter = replay.run();
+
+        Assert.assertEquals(meter.format(), MEASURED_LOOPS, meter.getCycles());
+        assertInBudget(REPLAYED_TELEOP_MAX_HARDWARE_CALLS, TELEOP_MEAN_ALLOCATED_BYTES);
+    }
+
+    private void runAutonomous() {
+        final BasketAutonomous opMode = new BasketAutonomous();
+        opMode.hardwareMap = hardwareMap;
+        opMode.telemetry = new FakeTelemetry();
+        opMode.gamepad1 = new Gamepad();
+        opMode.gamepad2 = new Gamepad();
+
+        meter.setListener(() -> {
+            if (opMode.getAutonomousDurationNanos() >= 0) {
+                OpModeFlags.requestStop(opMode);
+            }
+        });
+        OpModeFlags.markStarted(opMode); // as if play were pressed right after init
+        try {
+            opMode.runOpMode();
+        }
+        catch (InterruptedException e) {
+            // stopped once it was done
+        }
+        Assert.assertTrue("The autonomous didn't finish", opMode.getAutonomousDurationNanos() >= 0);
+    }
+
+    @Test
+    public void autonomousCyclesStayInBudget() {
+        runAutonomous();
+        createRobot();
+        runAutonomous();
+
+        Assert.assertTrue(meter.format(), meter.getCycles() > 0);
+        assertInBudget(AUTONOMOUS_MAX_HARDWARE_CALLS, AUTONOMOUS_MEAN_ALLOCATED_BYTES);
+    }
+
+    private void assertInBudget(long maxHardwareCalls, double meanAllocatedBytes) {
+        final String summary = meter.format();
+        Assert.assertTrue("Cycles are too slow: " + summary, meter.getCycleTimeNanos(99) <= P99_CYCLE_NANOS);
+        Assert.assertTrue("Too many hardware calls: " + summary, meter.getMaxHardwareCalls() <= maxHardwareCalls);
+        Assert.assertTrue("Too much allocated: " + summary, meter.getMeanAllocatedBytes() <= meanAllocatedBytes);
+    }
+}
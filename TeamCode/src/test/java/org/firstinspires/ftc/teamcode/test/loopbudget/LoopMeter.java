@@ -0,0 +1,163 @@
+package org.firstinspires.ftc.teamcode.test.loopbudget;
+
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeHardwareMap;
+import org.firstinspires.ftc.teamcode.test.simulator.RobotModel;
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.firstinspires.ftc.teamcode.util.LatencyHistogram;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * A virtual clock that measures every control loop cycle of the thread that created it.  Control loops end each cycle
+ *  by sleeping on the {@link Clock} (through {@code LoopScheduler.awaitNextCycle()}), so the meter takes the time
+ *  between one sleep and the next as a cycle, and records how long it really took, how many hardware calls it made
+ *  and how many bytes it allocated.
+ * <p>
+ * Sleeping doesn't wait: it moves the clock forward and steps the {@link RobotModel} through that time, so the
+ *  mechanisms move between cycles as they would on the robot.  Neither the physics nor the meter's own bookkeeping is
+ *  counted in any cycle.  The clock stands still while a cycle runs, so no cycle is ever late.
+ * <p>
+ * Only allocations on the measured thread are counted, not those of background threads.  Other threads may read the
+ *  clock, but they sleep in real time without moving it.
+ */
+public final class LoopMeter implements Clock.Source {
+    private static final long START_NANOS = 1_000_000_000L;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final Thread thread = Thread.currentThread();
+    private final RobotModel robot;
+    private final FakeHardwareMap hardwareMap;
+
+    /**
+     * What reading the allocation counter allocates itself, in bytes
+     */
+    private final long allocationOverhead;
+
+    private volatile long nanos = START_NANOS;
+    private Runnable listener = null;
+
+    private long cycleStartNanos, cycleStartCalls, cycleStartBytes;
+
+    private final LatencyHistogram cycleTimes = new LatencyHistogram();
+    private long maxCalls, totalCalls, maxBytes, totalBytes;
+
+    /**
+     * @param robot The physics to advance
+     * @param hardwareMap The hardware map that the robot's calls are counted on
+     * @throws UnsupportedOperationException The JVM can't count the bytes a thread allocates
+     */
+    public LoopMeter(RobotModel robot, FakeHardwareMap hardwareMap) {
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new UnsupportedOperationException("This JVM can't count allocated bytes");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        this.robot = robot;
+        this.hardwareMap = hardwareMap;
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            final long before = getAllocatedBytes();
+            overhead = Math.min(overhead, getAllocatedBytes() - before);
+        }
+        allocationOverhead = overhead;
+        startCycle();
+    }
+
+    private long getAllocatedBytes() {
+        return threads.getThreadAllocatedBytes(thread.getId());
+    }
+
+    private void startCycle() {
+        cycleStartCalls = hardwareMap.getTotalCallCount();
+        cycleStartBytes = getAllocatedBytes();
+        cycleStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanos;
+    }
+
+    @Override
+    public void sleep(long nanos) throws InterruptedException {
+        if (Thread.currentThread() != thread) {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+            return;
+        }
+        final long endNanos = System.nanoTime();
+        final long bytes = Math.max(0, getAllocatedBytes() - cycleStartBytes - allocationOverhead);
+        final long calls = hardwareMap.getTotalCallCount() - cycleStartCalls;
+        cycleTimes.record(endNanos - cycleStartNanos);
+        maxCalls = Math.max(maxCalls, calls);
+        totalCalls += calls;
+        maxBytes = Math.max(maxBytes, bytes);
+        totalBytes += bytes;
+
+        if (listener != null) {
+            listener.run();
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        this.nanos += nanos;
+        robot.advance(nanos / 1e9);
+        startCycle();
+    }
+
+    /**
+     * @param listener Something to run at the end of each cycle, e.g. to stop the OpMode once it is done.  Its time
+     *                 and allocations aren't counted.
+     */
+    public void setListener(Runnable listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Forgets every cycle measured so far, e.g. once the JIT compiler has warmed up
+     */
+    public void reset() {
+        cycleTimes.reset();
+        maxCalls = totalCalls = maxBytes = totalBytes = 0;
+        startCycle();
+    }
+
+    public long getCycles() {
+        return cycleTimes.getCount();
+    }
+
+    /**
+     * @param percentile e.g. 99 for the 99th percentile
+     * @return How long cycles took, in nanoseconds
+     */
+    public long getCycleTimeNanos(double percentile) {
+        return cycleTimes.getPercentileNanos(percentile);
+    }
+
+    public long getMaxHardwareCalls() {
+        return maxCalls;
+    }
+
+    public double getMeanHardwareCalls() {
+        return getCycles() == 0 ? 0 : (double) totalCalls / getCycles();
+    }
+
+    public long getMaxAllocatedBytes() {
+        return maxBytes;
+    }
+
+    public double getMeanAllocatedBytes() {
+        return getCycles() == 0 ? 0 : (double) totalBytes / getCycles();
+    }
+
+    /**
+     * @return A summary of the cycles measured, for failure messages
+     */
+    public String format() {
+        return String.format(Locale.US,
+                "%d cycles: p50 %.1f us, p99 %.1f us, max %.1f us; hardware calls mean %.1f, max %d;"
+                        + " bytes allocated mean %.0f, max %d",
+                getCycles(), getCycleTimeNanos(50) / 1e3, getCycleTimeNanos(99) / 1e3,
+                cycleTimes.getMaxNanos() / 1e3, getMeanHardwareCalls(), maxCalls, getMeanAllocatedBytes(), maxBytes);
+    }
+}
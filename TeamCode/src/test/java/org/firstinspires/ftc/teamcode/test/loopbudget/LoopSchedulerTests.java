@@ -0,0 +1,62 @@
+package org.firstinspires.ftc.teamcode.test.loopbudget;
+
+import org.firstinspires.ftc.teamcode.modules.core.LoopScheduler;
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LoopSchedulerTests {
+    private static final long MILLISECOND = 1_000_000;
+
+    private double loopRateHz;
+    private long nowNanos = 1_000_000_000L;
+
+    @Before
+    public void setUp() {
+        loopRateHz = LoopScheduler.LOOP_RATE_HZ;
+        LoopScheduler.LOOP_RATE_HZ = 200;
+        Clock.setSource(new Clock.Source() {
+            @Override
+            public long nanoTime() {
+                return nowNanos;
+            }
+
+            @Override
+            public void sleep(long nanos) {
+                nowNanos += nanos;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        LoopScheduler.LOOP_RATE_HZ = loopRateHz;
+        Clock.setSource(null);
+    }
+
+    @Test
+    public void cyclesOnTimeAreNotLate() throws InterruptedException {
+        final LoopScheduler scheduler = new LoopScheduler();
+        for (int i = 0; i < 3; i++) {
+            nowNanos += MILLISECOND;
+            scheduler.awaitNextCycle();
+        }
+        Assert.assertEquals(0, scheduler.getOverruns());
+        Assert.assertEquals(0, scheduler.getMaxLatenessNanos());
+        Assert.assertEquals(5 * MILLISECOND, scheduler.getLastPeriodNanos());
+    }
+
+    @Test
+    public void overrunsAreLateByTheirExcess() throws InterruptedException {
+        final LoopScheduler scheduler = new LoopScheduler();
+        scheduler.awaitNextCycle(); // sets the first deadline, 5 ms from now
+        nowNanos += 8 * MILLISECOND;
+        scheduler.awaitNextCycle();
+
+        Assert.assertEquals(1, scheduler.getOverruns());
+        Assert.assertEquals(3 * MILLISECOND, scheduler.getMaxLatenessNanos());
+        Assert.assertEquals(3 * MILLISECOND / 2.0, scheduler.getMeanLatenessNanos(), 0);
+    }
+}
@@ -0,0 +1,126 @@
+package org.firstinspires.ftc.teamcode.test.loopbudget;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.firstinspires.ftc.teamcode.modules.Odometry;
+import org.firstinspires.ftc.teamcode.modules.core.LoopScheduler;
+import org.firstinspires.ftc.teamcode.modules.core.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.opmode.teleop.TeleOpMain;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeHardwareMap;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeTelemetry;
+import org.firstinspires.ftc.teamcode.test.simulator.RobotModel;
+import org.firstinspires.ftc.teamcode.util.Clock;
+import org.firstinspires.ftc.teamcode.util.GamepadLogReader;
+
+import java.util.function.Consumer;
+
+/**
+ * Replays a driving session recorded by {@link TeleOpMain} through a new {@link TeleOpMain} on fake hardware, so that
+ *  a real session can be run again and again as a workload.  The OpMode runs on the calling thread from
+ *  {@code init()} through {@code stop()}, under a {@link LoopMeter} that measures every loop and moves a
+ *  {@link RobotModel} between them.
+ * <p>
+ * Each loop gets the gamepads as they were in the last frame recorded at or before the same time since the first
+ *  loop, so a recorded loop that overran still lines up with the simulated ones.  The replay ends once the time of the
+ *  last frame has passed.
+ * <p>
+ * The clock and the tunables it overrides are static, so only one replay or simulation runs at a time.
+ */
+public final class TeleOpReplay {
+    private final GamepadLogReader log;
+    private Consumer<RobotModel> afterLoop = null;
+    private RobotModel robot;
+
+    public TeleOpReplay(GamepadLogReader log) {
+        this.log = log;
+    }
+
+    /**
+     * @param afterLoop Something to run at the end of each loop, e.g. to follow how the mechanisms respond.  Its cost
+     *                  isn't counted in the loop's.
+     * @return This replay
+     */
+    public TeleOpReplay setAfterLoop(Consumer<RobotModel> afterLoop) {
+        this.afterLoop = afterLoop;
+        return this;
+    }
+
+    /**
+     * Runs the replay.  To measure compiled code rather than the interpreter, run it once before the run that counts.
+     * @return What the loops cost; init and start aren't counted
+     */
+    public LoopMeter run() {
+        if (LoopScheduler.LOOP_RATE_HZ <= 0) {
+            throw new IllegalStateException("Replaying needs a paced loop, but LoopScheduler.LOOP_RATE_HZ is "
+                    + LoopScheduler.LOOP_RATE_HZ);
+        }
+        final boolean record = TelemetryChannels.RECORD, sampleInBackground = Odometry.SAMPLE_IN_BACKGROUND,
+                recordGamepads = TeleOpMain.RECORD_GAMEPADS, resetSlidePosition = TeleOpMain.resetSlidePosition;
+        TelemetryChannels.RECORD = false; // nowhere to write recordings
+        TeleOpMain.RECORD_GAMEPADS = false;
+        Odometry.SAMPLE_IN_BACKGROUND = false; // its allocations wouldn't be counted, and it would see time jump
+
+        final FakeHardwareMap hardwareMap = FakeHardwareMap.createRobot();
+        robot = new RobotModel(hardwareMap);
+        final LoopMeter meter = new LoopMeter(robot, hardwareMap);
+        Clock.setSource(meter);
+        final TeleOpMain opMode = new TeleOpMain();
+        try {
+            opMode.hardwareMap = hardwareMap;
+            opMode.telemetry = new FakeTelemetry();
+            opMode.gamepad1 = new Gamepad();
+            opMode.gamepad2 = new Gamepad();
+
+            opMode.init();
+            opMode.init_loop();
+            opMode.start();
+            meter.reset();
+            if (afterLoop != null) {
+                meter.setListener(() -> afterLoop.accept(robot));
+            }
+            try {
+                replay(opMode);
+            }
+            finally {
+                opMode.stop();
+            }
+        }
+        finally {
+            Thread.interrupted(); // don't leave a stop meant for the OpMode on the caller's thread
+            Clock.setSource(null);
+            TelemetryChannels.RECORD = record;
+            Odometry.SAMPLE_IN_BACKGROUND = sampleInBackground;
+            TeleOpMain.RECORD_GAMEPADS = recordGamepads;
+            TeleOpMain.resetSlidePosition = resetSlidePosition;
+        }
+        return meter;
+    }
+
+    private void replay(TeleOpMain opMode) {
+        if (log.size() == 0) {
+            return;
+        }
+        final long lastNanos = log.getTimestampNanos(log.size() - 1);
+        final long firstLoopNanos = Clock.nanoTime();
+        int frame = 0;
+        while (true) {
+            final long elapsedNanos = Clock.nanoTime() - firstLoopNanos;
+            if (elapsedNanos > lastNanos) {
+                return;
+            }
+            while (frame + 1 < log.size() && log.getTimestampNanos(frame + 1) <= elapsedNanos) {
+                frame++;
+            }
+            log.apply(frame, opMode.gamepad1, opMode.gamepad2);
+            opMode.loop();
+            opMode.telemetry.update();
+        }
+    }
+
+    /**
+     * @return The robot's physics from the last run, or null before the first
+     */
+    public RobotModel getRobot() {
+        return robot;
+    }
+}
@@ -0,0 +1,54 @@
+package org.firstinspires.ftc.teamcode.test.moduleregistry;
+
+import org.firstinspires.ftc.teamcode.modules.core.Module;
+import org.firstinspires.ftc.teamcode.modules.core.MotorPowerUpdater;
+
+/**
+ * Modules with no hardware, for exercising {@link org.firstinspires.ftc.teamcode.modules.core.ModuleRegistry}
+ *  without an OpMode
+ */
+final class FakeModules {
+    private FakeModules() {}
+
+    /**
+     * A module that does nothing
+     */
+    static class Passive extends Module {
+        Passive() {
+            super(null);
+        }
+
+        @Override
+        public void ensureSafety() {}
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public void log() {}
+    }
+
+    /**
+     * A module that counts its updates
+     */
+    static class Mechanism extends Passive implements MotorPowerUpdater {
+        long updates = 0;
+
+        @Override
+        public void updateMotorPowers() {
+            updates++;
+        }
+
+        @Override
+        public boolean isUpdateNecessary() {
+            return true;
+        }
+    }
+
+    /**
+     * A mechanism with a more specific type, for lookups by superclass
+     */
+    static final class Lift extends Mechanism {}
+}
@@ -0,0 +1,64 @@
+package org.firstinspires.ftc.teamcode.test.moduleregistry;
+
+import org.firstinspires.ftc.teamcode.modules.core.Module;
+import org.firstinspires.ftc.teamcode.modules.core.ModuleRegistry;
+import org.firstinspires.ftc.teamcode.modules.core.MotorPowerUpdater;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ModuleRegistryTests {
+    @Test
+    public void findReturnsFirstInstance() {
+        final ModuleRegistry registry = new ModuleRegistry();
+        final FakeModules.Passive passive = new FakeModules.Passive();
+        final FakeModules.Lift lift = new FakeModules.Lift();
+        final FakeModules.Mechanism mechanism = new FakeModules.Mechanism();
+        registry.add(passive);
+        registry.add(lift);
+        registry.add(mechanism);
+
+        Assert.assertSame(passive, registry.find(FakeModules.Passive.class));
+        Assert.assertSame(lift, registry.find(FakeModules.Mechanism.class));
+        Assert.assertSame(lift, registry.find(FakeModules.Lift.class));
+        // answered from the map the second time, and must agree with the scan
+        Assert.assertSame(lift, registry.find(FakeModules.Mechanism.class));
+    }
+
+    @Test
+    public void missesAreNotRemembered() {
+        final ModuleRegistry registry = new ModuleRegistry();
+        registry.add(new FakeModules.Passive());
+        Assert.assertNull(registry.find(FakeModules.Lift.class));
+
+        final FakeModules.Lift lift = new FakeModules.Lift();
+        registry.add(lift);
+        Assert.assertSame(lift, registry.find(FakeModules.Lift.class));
+    }
+
+    @Test
+    public void modulesAreSortedByRole() {
+        final ModuleRegistry registry = new ModuleRegistry();
+        final FakeModules.Mechanism first = new FakeModules.Mechanism();
+        final FakeModules.Lift second = new FakeModules.Lift();
+        registry.add(first);
+        registry.add(new FakeModules.Passive());
+        registry.add(second);
+
+        Assert.assertEquals(3, registry.size());
+        Assert.assertArrayEquals(new MotorPowerUpdater[] {first, second}, registry.getMotorPowerUpdaters());
+        Assert.assertEquals(0, registry.getConcurrentModules().length);
+    }
+
+    @Test
+    public void arraysHandedOutAreNotModified() {
+        final ModuleRegistry registry = new ModuleRegistry();
+        registry.add(new FakeModules.Mechanism());
+        final Module[] modules = registry.getModules();
+        final MotorPowerUpdater[] mechanisms = registry.getMotorPowerUpdaters();
+
+        registry.add(new FakeModules.Mechanism());
+        Assert.assertEquals(1, modules.length);
+        Assert.assertEquals(1, mechanisms.length);
+        Assert.assertEquals(2, registry.getMotorPowerUpdaters().length);
+    }
+}
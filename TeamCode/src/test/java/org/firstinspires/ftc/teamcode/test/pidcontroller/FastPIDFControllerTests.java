@@ -0,0 +1,123 @@
+package org.firstinspires.ftc.teamcode.test.pidcontroller;
+
+import org.firstinspires.ftc.teamcode.hardware.FastPIDFController;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FastPIDFControllerTests {
+    private static final long MS = 1_000_000;
+
+    @Test
+    public void integralDependsOnElapsedTimeNotCallCount() {
+        final FastPIDFController even = new FastPIDFController(0, 1, 0);
+        final FastPIDFController uneven = new FastPIDFController(0, 1, 0);
+        even.setIntegralLimit(100);
+        uneven.setIntegralLimit(100);
+        even.setSetPoint(1);
+        uneven.setSetPoint(1);
+
+        // both accumulate a constant error of 1 over 100ms
+        for (long t = 0; t <= 100; t += 10) {
+            even.calculate(0, t * MS);
+        }
+        uneven.calculate(0, 0);
+        uneven.calculate(0, 5 * MS);
+        uneven.calculate(0, 80 * MS);
+        final double output = uneven.calculate(0, 100 * MS);
+
+        Assert.assertEquals(even.calculate(0, 100 * MS), output, 1e-9);
+        Assert.assertEquals(0.1, output, 1e-9);
+    }
+
+    @Test
+    public void repeatedTimestampDoesNotUpdateIntegralOrDerivative() {
+        final FastPIDFController controller = new FastPIDFController(0, 1, 1);
+        controller.setSetPoint(1);
+        controller.calculate(0, 0);
+        final double output = controller.calculate(0, 10 * MS);
+        Assert.assertEquals(output, controller.calculate(0.5, 10 * MS), 1e-9);
+    }
+
+    @Test
+    public void setPointIsNotReachedBeforeFirstMeasurement() {
+        final FastPIDFController controller = new FastPIDFController(1, 0, 0);
+        controller.setTolerance(1);
+        controller.setSetPoint(100);
+        Assert.assertFalse(controller.atSetPoint());
+        Assert.assertEquals(100, controller.getPositionError(), 1e-9);
+    }
+
+    @Test
+    public void changingSetPointDoesNotCauseDerivativeKick() {
+        final FastPIDFController controller = new FastPIDFController(0, 0, 1);
+        controller.calculate(0, 0);
+        controller.calculate(0, 10 * MS);
+        controller.setSetPoint(1000);
+        Assert.assertEquals(0, controller.calculate(0, 20 * MS), 1e-9);
+    }
+
+    @Test
+    public void derivativeOpposesMotion() {
+        final FastPIDFController controller = new FastPIDFController(0, 0, 1);
+        controller.calculate(0, 0);
+        // moving at 100 units per second
+        Assert.assertEquals(-100, controller.calculate(1, 10 * MS), 1e-9);
+        Assert.assertEquals(-100, controller.getVelocityError(), 1e-9);
+    }
+
+    @Test
+    public void integralContributionIsClamped() {
+        final FastPIDFController controller = new FastPIDFController(0, 2, 0);
+        controller.setIntegralLimit(0.5);
+        controller.setSetPoint(10);
+        double output = 0;
+        for (long t = 0; t <= 1000; t += 10) {
+            output = controller.calculate(0, t * MS);
+        }
+        Assert.assertEquals(0.5, output, 1e-9);
+
+        // unwinds immediately once the error changes sign
+        Assert.assertTrue(controller.calculate(20, 1010 * MS) < 0.5);
+    }
+
+    @Test
+    public void accumulatedErrorIsClampedLikeFtclibByDefault() {
+        final FastPIDFController controller = new FastPIDFController(0, 0.004, 0);
+        controller.setSetPoint(10);
+        double output = 0;
+        for (long t = 0; t <= 1000; t += 10) {
+            output = controller.calculate(0, t * MS);
+        }
+        Assert.assertEquals(0.004, output, 1e-12);
+    }
+
+    @Test
+    public void unchangedGainsAreIgnored() {
+        final FastPIDFController controller = new FastPIDFController(1, 2, 3, 4);
+        Assert.assertFalse(controller.setPIDF(1, 2, 3, 4));
+        Assert.assertFalse(controller.setPID(1, 2, 3));
+        Assert.assertTrue(controller.setPID(1, 2, 5));
+        Assert.assertEquals(5, controller.getD(), 0);
+        Assert.assertEquals(4, controller.getF(), 0);
+    }
+
+    @Test
+    public void atSetPointUsesPositionTolerance() {
+        final FastPIDFController controller = new FastPIDFController(1, 0, 0);
+        controller.setTolerance(5);
+        controller.setSetPoint(100);
+        controller.calculate(90, 0);
+        Assert.assertFalse(controller.atSetPoint());
+        controller.calculate(97, 10 * MS);
+        Assert.assertTrue(controller.atSetPoint());
+    }
+
+    @Test
+    public void resetForgetsPreviousMeasurement() {
+        final FastPIDFController controller = new FastPIDFController(0, 0, 1);
+        controller.calculate(0, 0);
+        controller.reset();
+        // the jump from 0 to 1000 would otherwise look like a huge velocity
+        Assert.assertEquals(0, controller.calculate(1000, 10 * MS), 1e-9);
+    }
+}
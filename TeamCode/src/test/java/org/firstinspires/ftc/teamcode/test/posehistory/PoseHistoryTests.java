@@ -0,0 +1,116 @@
+package org.firstinspires.ftc.teamcode.test.posehistory;
+
+import org.firstinspires.ftc.teamcode.util.PoseHistory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PoseHistoryTests {
+    @Test
+    public void oldestPosesAreReplacedWhenFull() {
+        final PoseHistory history = new PoseHistory(3);
+        for (int i = 0; i < 5; i++) {
+            history.add(i, i, -i, 0);
+        }
+        Assert.assertEquals(3, history.size());
+        Assert.assertEquals(2, history.getX(0), 0);
+        Assert.assertEquals(4, history.getX(2), 0);
+        Assert.assertEquals(4, history.getTimestampNanos(2));
+    }
+
+    @Test
+    public void copiedPositionsAreOldestFirst() {
+        final PoseHistory history = new PoseHistory(4);
+        for (int i = 0; i < 6; i++) {
+            history.add(i, i, 10 * i, 0);
+        }
+        final double[] xs = new double[4];
+        final double[] ys = new double[4];
+        Assert.assertEquals(4, history.copyPositions(xs, ys));
+        Assert.assertArrayEquals(new double[] {2, 3, 4, 5}, xs, 0);
+        Assert.assertArrayEquals(new double[] {20, 30, 40, 50}, ys, 0);
+    }
+
+    @Test
+    public void poseAtTimeIsInterpolated() {
+        final PoseHistory history = new PoseHistory(8);
+        history.add(100, 0, 0, 0);
+        history.add(200, 10, 20, 1);
+        history.add(400, 30, 20, 1);
+
+        final double[] pose = new double[3];
+        Assert.assertTrue(history.getPoseAt(150, pose));
+        Assert.assertArrayEquals(new double[] {5, 10, 0.5}, pose, 1e-9);
+        Assert.assertTrue(history.getPoseAt(300, pose));
+        Assert.assertArrayEquals(new double[] {20, 20, 1}, pose, 1e-9);
+        Assert.assertTrue(history.getPoseAt(200, pose));
+        Assert.assertArrayEquals(new double[] {10, 20, 1}, pose, 1e-9);
+    }
+
+    @Test
+    public void headingIsInterpolatedTheShortWayAround() {
+        final PoseHistory history = new PoseHistory(2);
+        history.add(0, 0, 0, Math.PI - 0.1);
+        history.add(10, 0, 0, -Math.PI + 0.1);
+
+        final double[] pose = new double[3];
+        history.getPoseAt(5, pose);
+        Assert.assertEquals(Math.PI, pose[2], 1e-9);
+    }
+
+    @Test
+    public void timesOutsideHistoryAreClamped() {
+        final PoseHistory history = new PoseHistory(2);
+        final double[] pose = new double[3];
+        Assert.assertFalse(history.getPoseAt(0, pose));
+
+        history.add(100, 1, 2, 3);
+        history.add(200, 4, 5, 6);
+        Assert.assertFalse(history.getPoseAt(50, pose));
+        Assert.assertArrayEquals(new double[] {1, 2, 3}, pose, 0);
+        Assert.assertFalse(history.getPoseAt(250, pose));
+        Assert.assertArrayEquals(new double[] {4, 5, 6}, pose, 0);
+    }
+
+    @Test
+    public void predictedPoseIsExtrapolatedFromTheWindow() {
+        final PoseHistory history = new PoseHistory(8);
+        final double[] pose = new double[3];
+        Assert.assertFalse(history.getPredictedPose(0, 100, pose));
+
+        history.add(0, 0, 0, 0);
+        Assert.assertTrue(history.getPredictedPose(50, 100, pose));
+        Assert.assertArrayEquals(new double[] {0, 0, 0}, pose, 0);
+
+        history.add(100, 0, 0, 0);
+        history.add(200, 10, -10, 0.1);
+        history.add(300, 20, -20, 0.2);
+        // the window reaches back to 100, so the velocity is 10 per 100 ns
+        Assert.assertTrue(history.getPredictedPose(350, 200, pose));
+        Assert.assertArrayEquals(new double[] {25, -25, 0.25}, pose, 1e-9);
+        // a window shorter than the sample period still uses the two newest poses
+        Assert.assertTrue(history.getPredictedPose(400, 1, pose));
+        Assert.assertArrayEquals(new double[] {30, -30, 0.3}, pose, 1e-9);
+        // times within the history are interpolated
+        Assert.assertTrue(history.getPredictedPose(250, 200, pose));
+        Assert.assertArrayEquals(new double[] {15, -15, 0.15}, pose, 1e-9);
+    }
+
+    @Test
+    public void predictedHeadingTurnsTheShortWayAround() {
+        final PoseHistory history = new PoseHistory(2);
+        history.add(0, 0, 0, Math.PI - 0.1);
+        history.add(10, 0, 0, -Math.PI + 0.1);
+
+        final double[] pose = new double[3];
+        history.getPredictedPose(20, 10, pose);
+        Assert.assertEquals(-Math.PI + 0.3, pose[2], 1e-9);
+    }
+
+    @Test
+    public void posesMustBeAddedInOrder() {
+        final PoseHistory history = new PoseHistory(2);
+        history.add(100, 0, 0, 0);
+        Assert.assertThrows(IllegalArgumentException.class, () -> history.add(50, 0, 0, 0));
+        Assert.assertThrows(IndexOutOfBoundsException.class, () -> history.getX(1));
+    }
+}
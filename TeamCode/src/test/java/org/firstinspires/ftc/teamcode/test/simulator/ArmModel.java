@@ -0,0 +1,164 @@
+package org.firstinspires.ftc.teamcode.test.simulator;
+
+import org.firstinspires.ftc.teamcode.modules.Arm;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeHardwareMap;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeMotor;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeTouchSensor;
+
+/**
+ * The arm as a rigid body on a pivot, turned by its two motors and pulled down by gravity.
+ * <p>
+ * Each motor follows the usual DC motor model: its torque falls linearly from its stall torque at rest to 0 at its
+ *  free speed, and a braking motor with no power resists motion the same way.  Gravity's torque is greatest with the
+ *  arm level and grows as the slide extends, as does the arm's inertia.  The arm stops at the position switch below
+ *  and at its upper limit.
+ * <p>
+ * Angles are in degrees above level, as in {@link Arm#getCurrentRotation()} once the arm's position has been reset.
+ */
+public class ArmModel {
+    /**
+     * The ticks per revolution of the goBILDA 5203 117 RPM motors that drive the arm
+     */
+    public static final double MOTOR_TICKS_PER_REVOLUTION = (1 + 46.0 / 17) * (1 + 46.0 / 17) * (1 + 46.0 / 17) * 28;
+
+    /**
+     * The free speed of the arm's motors, in ticks per second
+     */
+    public static final double MOTOR_FREE_SPEED = 117 / 60.0 * MOTOR_TICKS_PER_REVOLUTION;
+
+    /**
+     * The reduction between the motors and the arm
+     */
+    public static double GEAR_RATIO = 5;
+
+    /**
+     * The stall torque of each motor, at its output shaft, in newton meters
+     */
+    public static double MOTOR_STALL_TORQUE = 6.7;
+
+    /**
+     * The torque gravity puts on the arm when it is level, in newton meters, with the slide retracted and extended
+     */
+    public static double GRAVITY_TORQUE_RETRACTED = 9, GRAVITY_TORQUE_EXTENDED = 16;
+
+    /**
+     * The arm's moment of inertia around its pivot, in kilogram square meters, with the slide retracted and extended
+     */
+    public static double INERTIA_RETRACTED = 0.3, INERTIA_EXTENDED = 0.8;
+
+    /**
+     * The torque lost to friction in the pivot and gearboxes while the arm moves, in newton meters
+     */
+    public static double FRICTION_TORQUE = 0.5;
+
+    /**
+     * Where the arm rests on the position switch, and how far above that the switch is still pressed, in degrees
+     */
+    public static double LOWER_LIMIT = -Arm.ARM_ROTATION_INTERNAL_BASE_RESET, SWITCH_TRAVEL = 0.5;
+
+    /**
+     * How high the arm can go, in degrees
+     */
+    public static double UPPER_LIMIT = 130;
+
+    /**
+     * Where the arm is when the robot is set up for a match, in degrees.  Its encoders read 0 here, which
+     *  {@link Arm} assumes is {@link Arm#ARM_ROTATION_INTERNAL_BASE_INITIAL} below level.
+     */
+    public static double START_ANGLE = -Arm.ARM_ROTATION_INTERNAL_BASE_INITIAL;
+
+    private final FakeMotor leftMotor, rightMotor;
+    private final FakeTouchSensor positionSwitch;
+
+    /**
+     * The arm's angle and angular velocity, in radians and radians per second
+     */
+    private double angle, velocity = 0;
+
+    public ArmModel(FakeHardwareMap hardwareMap) {
+        leftMotor = hardwareMap.getMotor(Arm.LEFT_ARM_MOTOR_NAME).setCharacteristics(MOTOR_FREE_SPEED, MOTOR_TICKS_PER_REVOLUTION);
+        rightMotor = hardwareMap.getMotor(Arm.RIGHT_ARM_MOTOR_NAME).setCharacteristics(MOTOR_FREE_SPEED, MOTOR_TICKS_PER_REVOLUTION);
+        positionSwitch = hardwareMap.getFake(FakeTouchSensor.class, Arm.POSITION_SWITCH_NAME);
+        angle = Math.toRadians(START_ANGLE);
+        updateSensors();
+    }
+
+    /**
+     * @param motor One of the arm's motors
+     * @param mounting 1 if the motor raises the arm when its shaft turns forward, -1 if it lowers it
+     * @return The torque the motor puts on the arm, in newton meters, positive upward
+     */
+    private double getMotorTorque(FakeMotor motor, double mounting) {
+        final double power = mounting * motor.getAppliedPower();
+        if (power == 0 && !motor.isBrakingAtZeroPower()) {
+            return 0;
+        }
+        final double freeSpeed = MOTOR_FREE_SPEED / MOTOR_TICKS_PER_REVOLUTION * 2 * Math.PI / GEAR_RATIO;
+        return MOTOR_STALL_TORQUE * GEAR_RATIO * (power - velocity / freeSpeed);
+    }
+
+    /**
+     * Moves the arm for a short time
+     * @param seconds How long to move for
+     * @param extension How far the slide is extended, from 0 to 1
+     */
+    public void step(double seconds, double extension) {
+        // the right motor faces the other way, which is why Arm reverses it
+        double torque = getMotorTorque(leftMotor, 1) + getMotorTorque(rightMotor, -1);
+        torque -= (GRAVITY_TORQUE_RETRACTED + (GRAVITY_TORQUE_EXTENDED - GRAVITY_TORQUE_RETRACTED) * extension)
+                * Math.cos(angle);
+        if (velocity != 0) {
+            torque -= Math.signum(velocity) * FRICTION_TORQUE;
+        }
+        else if (Math.abs(torque) <= FRICTION_TORQUE) {
+            torque = 0; // static friction holds the arm
+        }
+        else {
+            torque -= Math.signum(torque) * FRICTION_TORQUE;
+        }
+
+        final double inertia = INERTIA_RETRACTED + (INERTIA_EXTENDED - INERTIA_RETRACTED) * extension;
+        final double previousVelocity = velocity;
+        velocity += torque / inertia * seconds;
+        if (previousVelocity != 0 && Math.signum(velocity) != Math.signum(previousVelocity)
+                && Math.abs(torque) <= FRICTION_TORQUE * 2) {
+            velocity = 0; // friction stopped it within the step; don't let it reverse
+        }
+        angle += velocity * seconds;
+
+        final double lower = Math.toRadians(LOWER_LIMIT), upper = Math.toRadians(UPPER_LIMIT);
+        if (angle <= lower) {
+            angle = lower;
+            velocity = Math.max(velocity, 0);
+        }
+        else if (angle >= upper) {
+            angle = upper;
+            velocity = Math.min(velocity, 0);
+        }
+        updateSensors();
+    }
+
+    private void updateSensors() {
+        final double ticksPerRadian = MOTOR_TICKS_PER_REVOLUTION * GEAR_RATIO / (2 * Math.PI);
+        final double position = (angle - Math.toRadians(START_ANGLE)) * ticksPerRadian;
+        leftMotor.setShaftPosition(position);
+        leftMotor.setShaftVelocity(velocity * ticksPerRadian);
+        rightMotor.setShaftPosition(-position);
+        rightMotor.setShaftVelocity(-velocity * ticksPerRadian);
+        positionSwitch.setPressed(angle <= Math.toRadians(LOWER_LIMIT + SWITCH_TRAVEL));
+    }
+
+    /**
+     * @return The arm's angle, in degrees above level
+     */
+    public double getAngle() {
+        return Math.toDegrees(angle);
+    }
+
+    /**
+     * @return The arm's angular velocity, in degrees per second, positive upward
+     */
+    public double getVelocity() {
+        return Math.toDegrees(velocity);
+    }
+}
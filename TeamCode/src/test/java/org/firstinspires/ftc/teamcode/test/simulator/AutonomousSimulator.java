@@ -0,0 +1,85 @@
+package org.firstinspires.ftc.teamcode.test.simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simulates an autonomous from the command line, sweeping any tunables given, and prints how long each run and each
+ *  of its steps took.  For example:
+ * <pre>
+ * AutonomousSimulator org.firstinspires.ftc.teamcode.opmode.autonomous.BasketAutonomous \
+ *     org.firstinspires.ftc.teamcode.modules.Arm.ArmConfig.P_COEF=0.004,0.006,0.008 \
+ *     org.firstinspires.ftc.teamcode.opmode.autonomous.BasketAutonomous.OUTTAKE_DURATION_MS=300,500
+ * </pre>
+ * runs every combination of the values (6 runs here) in parallel.  Options: {@code --time-limit=SECONDS},
+ *  {@code --call-ms=MILLIS} (the time each hardware call takes) and {@code --threads=N}.
+ */
+public final class AutonomousSimulator {
+    private AutonomousSimulator() {}
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length == 0) {
+            System.err.println("Usage: AutonomousSimulator <opmode class> [--time-limit=s] [--call-ms=ms] [--threads=n]"
+                    + " [Class.FIELD=value,value,...]...");
+            System.exit(2);
+        }
+        final SimulationBatch batch = new SimulationBatch(args[0]);
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Map<String, Object>> combinations = new ArrayList<>();
+        combinations.add(new LinkedHashMap<>());
+        for (String arg : Arrays.asList(args).subList(1, args.length)) {
+            final int equals = arg.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected name=value: " + arg);
+            }
+            final String name = arg.substring(0, equals), value = arg.substring(equals + 1);
+            switch (name) {
+                case "--time-limit":
+                    batch.setTimeLimit(Double.parseDouble(value));
+                    break;
+                case "--call-ms":
+                    batch.setHardwareCallMillis(Double.parseDouble(value));
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                default:
+                    final List<Map<String, Object>> expanded = new ArrayList<>();
+                    for (Map<String, Object> combination : combinations) {
+                        for (String option : value.split(",")) {
+                            final Map<String, Object> next = new LinkedHashMap<>(combination);
+                            next.put(name, option);
+                            expanded.add(next);
+                        }
+                    }
+                    combinations = expanded;
+            }
+        }
+        for (Map<String, Object> combination : combinations) {
+            batch.addRun(combination);
+        }
+
+        final long startNanos = System.nanoTime();
+        final List<SimulationResult> results = batch.run(threads);
+        for (SimulationResult result : results) {
+            System.out.println(result.format());
+        }
+        if (results.size() > 1) {
+            final List<SimulationResult> ranked = new ArrayList<>(results);
+            // unfinished runs last
+            ranked.sort(Comparator.comparingDouble(result ->
+                    result.isFinished() ? result.getAutonomousSeconds() : Double.POSITIVE_INFINITY));
+            System.out.println("Fastest:");
+            for (SimulationResult result : ranked) {
+                System.out.println(result.isFinished()
+                        ? String.format("  %7.3f s  %s", result.getAutonomousSeconds(), result.getParameters())
+                        : String.format("  %9s  %s", "DNF", result.getParameters()));
+            }
+        }
+        System.out.printf("%d runs in %.2f s%n", results.size(), (System.nanoTime() - startNanos) / 1e9);
+    }
+}
@@ -0,0 +1,168 @@
+package org.firstinspires.ftc.teamcode.test.simulator;
+
+import org.firstinspires.ftc.teamcode.modules.DriveTrain;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeHardwareMap;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeMotor;
+
+/**
+ * The robot's motion on the field, driven by the powers of its four mecanum wheels.
+ * <p>
+ * The kinematics are the inverse of the mixing in {@link DriveTrain#setVelocity(double, double, double)}: a strafe,
+ *  forward and rotation request that doesn't saturate any wheel produces a robot velocity proportional to it on each
+ *  axis.  {@link #STRAFE_EFFICIENCY} is what that method's {@code sqrt(3)} strafe scaling compensates for.  The robot
+ *  approaches the velocity its wheels are set to with a first-order lag, which stands in for its mass and the motors'
+ *  torque.  Wheel slip and collisions with the field are not modeled.
+ * <p>
+ * Poses are in inches and radians, counterclockwise positive, in the frame the OTOS reports: at a heading of 0 the
+ *  robot's forward is +y and its right is +x.
+ */
+public class MecanumDriveModel {
+    /**
+     * The diameter of the wheels, in inches (goBILDA 104 mm mecanum wheels)
+     */
+    public static double WHEEL_DIAMETER = 104 / 25.4;
+
+    /**
+     * The distance between the left and right wheels, in inches
+     */
+    public static double TRACK_WIDTH = 14.5;
+
+    /**
+     * The distance between the front and back wheels, in inches
+     */
+    public static double WHEEL_BASE = 12.5;
+
+    /**
+     * How much slower the robot strafes than it drives forward at the same wheel speeds
+     */
+    public static double STRAFE_EFFICIENCY = 1 / Math.sqrt(3);
+
+    /**
+     * How long the robot takes to get 63% of the way to the velocity its wheels are set to, in seconds
+     */
+    public static double TIME_CONSTANT = 0.15;
+
+    private final FakeMotor frontLeft, frontRight, backLeft, backRight;
+
+    /**
+     * The robot's pose on the field
+     */
+    private double x = 0, y = 0, heading = 0;
+
+    /**
+     * The robot's velocity relative to itself, in inches per second and radians per second
+     */
+    private double strafeVelocity = 0, forwardVelocity = 0, angularVelocity = 0;
+
+    public MecanumDriveModel(FakeHardwareMap hardwareMap) {
+        frontLeft = hardwareMap.getMotor(DriveTrain.FRONT_LEFT_MECANUM_DRIVER_DEFAULT_NAME);
+        frontRight = hardwareMap.getMotor(DriveTrain.FRONT_RIGHT_MECANUM_DRIVER_DEFAULT_NAME);
+        backLeft = hardwareMap.getMotor(DriveTrain.BACK_LEFT_MECANUM_DRIVER_DEFAULT_NAME);
+        backRight = hardwareMap.getMotor(DriveTrain.BACK_RIGHT_MECANUM_DRIVER_DEFAULT_NAME);
+    }
+
+    /**
+     * @return How fast a wheel's surface moves at full power with no load, in inches per second
+     */
+    private double getFreeWheelSpeed(FakeMotor motor) {
+        return motor.getFreeSpeed() / motor.getTicksPerRevolution() * Math.PI * WHEEL_DIAMETER;
+    }
+
+    /**
+     * The left motors are mounted facing the other way, which is why {@link DriveTrain} reverses them; power that
+     *  turns their shafts forward drives their wheels backward
+     */
+    private static double getWheelPower(FakeMotor motor, boolean left) {
+        return left ? -motor.getAppliedPower() : motor.getAppliedPower();
+    }
+
+    /**
+     * Moves the robot for a short time
+     * @param seconds How long to move for.  This should be short compared to {@link #TIME_CONSTANT}.
+     */
+    public void step(double seconds) {
+        final double freeSpeed = getFreeWheelSpeed(frontLeft);
+        final double frontLeftPower = getWheelPower(frontLeft, true);
+        final double backLeftPower = getWheelPower(backLeft, true);
+        final double frontRightPower = getWheelPower(frontRight, false);
+        final double backRightPower = getWheelPower(backRight, false);
+        final double turningRadius = (TRACK_WIDTH + WHEEL_BASE) / 2;
+
+        final double targetForward = freeSpeed * (frontLeftPower + backLeftPower + frontRightPower + backRightPower) / 4;
+        final double targetStrafe = freeSpeed * STRAFE_EFFICIENCY
+                * (frontLeftPower - backLeftPower - frontRightPower + backRightPower) / 4;
+        final double targetAngular = freeSpeed
+                * (frontRightPower + backRightPower - frontLeftPower - backLeftPower) / 4 / turningRadius;
+
+        final double response = 1 - Math.exp(-seconds / TIME_CONSTANT);
+        forwardVelocity += (targetForward - forwardVelocity) * response;
+        strafeVelocity += (targetStrafe - strafeVelocity) * response;
+        angularVelocity += (targetAngular - angularVelocity) * response;
+
+        // integrate at the middle of the step's rotation, which keeps arcs from spiraling outward
+        final double midHeading = heading + angularVelocity * seconds / 2;
+        final double cos = Math.cos(midHeading), sin = Math.sin(midHeading);
+        x += (strafeVelocity * cos - forwardVelocity * sin) * seconds;
+        y += (strafeVelocity * sin + forwardVelocity * cos) * seconds;
+        heading += angularVelocity * seconds;
+
+        // the wheel speeds that produce the robot's actual velocity, for anything that reads the drive encoders
+        final double strafeWheelSpeed = strafeVelocity / STRAFE_EFFICIENCY;
+        final double turnWheelSpeed = angularVelocity * turningRadius;
+        moveWheel(frontLeft, true, forwardVelocity + strafeWheelSpeed - turnWheelSpeed, seconds);
+        moveWheel(backLeft, true, forwardVelocity - strafeWheelSpeed - turnWheelSpeed, seconds);
+        moveWheel(frontRight, false, forwardVelocity - strafeWheelSpeed + turnWheelSpeed, seconds);
+        moveWheel(backRight, false, forwardVelocity + strafeWheelSpeed + turnWheelSpeed, seconds);
+    }
+
+    private static void moveWheel(FakeMotor motor, boolean left, double surfaceSpeed, double seconds) {
+        final double ticksPerInch = motor.getTicksPerRevolution() / (Math.PI * WHEEL_DIAMETER);
+        final double shaftVelocity = (left ? -surfaceSpeed : surfaceSpeed) * ticksPerInch;
+        motor.setShaftVelocity(shaftVelocity);
+        motor.setShaftPosition(motor.getShaftPosition() + shaftVelocity * seconds);
+    }
+
+    /**
+     * Puts the robot somewhere, at rest
+     * @param x The x position, in inches
+     * @param y The y position, in inches
+     * @param heading The heading, in radians, counterclockwise positive
+     */
+    public void setPose(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        strafeVelocity = 0;
+        forwardVelocity = 0;
+        angularVelocity = 0;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @return The heading, in radians, counterclockwise positive.  This is not wrapped.
+     */
+    public double getHeading() {
+        return heading;
+    }
+
+    /**
+     * @return The angular velocity, in radians per second, counterclockwise positive
+     */
+    public double getAngularVelocity() {
+        return angularVelocity;
+    }
+
+    /**
+     * @return The speed the robot is moving across the field at, in inches per second
+     */
+    public double getSpeed() {
+        return Math.hypot(strafeVelocity, forwardVelocity);
+    }
+}
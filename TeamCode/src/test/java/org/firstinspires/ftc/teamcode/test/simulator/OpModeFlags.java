@@ -0,0 +1,63 @@
+package org.firstinspires.ftc.teamcode.test.simulator;
+
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+
+import java.lang.reflect.Field;
+
+/**
+ * Presses play and stop on a {@link LinearOpMode} the way the SDK's OpMode runner does, by setting the flags that
+ *  {@code waitForStart()} and {@code isStopRequested()} check.  These are package-private, since only the runner is
+ *  meant to set them.
+ */
+public final class OpModeFlags {
+    private OpModeFlags() {}
+
+    /**
+     * The flags, looked up the first time they're needed
+     */
+    private static final class Flags {
+        static final Field IS_STARTED = findFlag("isStarted");
+        static final Field STOP_REQUESTED = findFlag("stopRequested");
+    }
+
+    /**
+     * Presses play, so that {@code waitForStart()} returns
+     */
+    public static void markStarted(LinearOpMode opMode) {
+        setFlag(opMode, Flags.IS_STARTED);
+    }
+
+    /**
+     * Presses stop, so that {@code isStopRequested()} returns true
+     */
+    public static void requestStop(LinearOpMode opMode) {
+        setFlag(opMode, Flags.STOP_REQUESTED);
+    }
+
+    private static void setFlag(OpMode opMode, Field flag) {
+        try {
+            flag.setBoolean(opMode, true);
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can't set " + flag.getName(), e);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException The SDK has no such flag
+     */
+    private static Field findFlag(String name) {
+        for (Class<?> type = LinearOpMode.class; type != null; type = type.getSuperclass()) {
+            try {
+                final Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                return field;
+            }
+            catch (NoSuchFieldException e) {
+                // look further up
+            }
+        }
+        throw new IllegalStateException("OpModes in this version of the SDK have no " + name + " flag");
+    }
+}
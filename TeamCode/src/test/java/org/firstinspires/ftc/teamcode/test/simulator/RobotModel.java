@@ -0,0 +1,118 @@
+package org.firstinspires.ftc.teamcode.test.simulator;
+
+import org.firstinspires.ftc.teamcode.modules.FieldCentricDriveTrain;
+import org.firstinspires.ftc.teamcode.modules.Odometry;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeHardwareMap;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeImu;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeOtos;
+
+import java.util.Random;
+
+/**
+ * The whole robot: its drive train, arm and slide, moving the fake devices of a {@link FakeHardwareMap} the way the
+ *  real ones would move.  The intake and the game elements it picks up are not modeled, nor are the field's walls.
+ * <p>
+ * Physics runs in fixed steps of {@link #STEP_SECONDS}, however finely or coarsely time is advanced, so that results
+ *  don't depend on how often the control code happens to read the clock.
+ */
+public class RobotModel {
+    /**
+     * The length of one physics step, in seconds
+     */
+    public static double STEP_SECONDS = 0.001;
+
+    /**
+     * The standard deviation of the noise added to each OTOS reading, in inches and radians.  0 makes the readings
+     *  exact.
+     */
+    public static double OTOS_POSITION_NOISE = 0, OTOS_HEADING_NOISE = 0;
+
+    private final MecanumDriveModel drive;
+    private final ArmModel arm;
+    private final SlideModel slide;
+    private final FakeOtos otos;
+    private final FakeImu imu;
+    private final Random noise;
+
+    /**
+     * Time that has been advanced but is too short for a whole step, in seconds
+     */
+    private double pendingSeconds = 0;
+    private double elapsedSeconds = 0;
+
+    /**
+     * @param hardwareMap A map made by {@link FakeHardwareMap#createRobot()}
+     * @param seed The seed for the sensor noise, so that runs can be repeated
+     */
+    public RobotModel(FakeHardwareMap hardwareMap, long seed) {
+        drive = new MecanumDriveModel(hardwareMap);
+        arm = new ArmModel(hardwareMap);
+        slide = new SlideModel(hardwareMap);
+        otos = hardwareMap.getFake(FakeOtos.class, Odometry.OTOS_NAME);
+        imu = hardwareMap.getFake(FakeImu.class, FieldCentricDriveTrain.IMU_NAME);
+        noise = new Random(seed);
+        updateSensors();
+    }
+
+    public RobotModel(FakeHardwareMap hardwareMap) {
+        this(hardwareMap, 0);
+    }
+
+    /**
+     * Lets time pass for the robot
+     * @param seconds How much time passes
+     */
+    public void advance(double seconds) {
+        pendingSeconds += seconds;
+        boolean moved = false;
+        while (pendingSeconds >= STEP_SECONDS) {
+            drive.step(STEP_SECONDS);
+            arm.step(STEP_SECONDS, slide.getExtensionFraction());
+            slide.step(STEP_SECONDS, arm.getAngle());
+            pendingSeconds -= STEP_SECONDS;
+            elapsedSeconds += STEP_SECONDS;
+            moved = true;
+        }
+        if (moved) {
+            updateSensors();
+        }
+    }
+
+    private void updateSensors() {
+        otos.setPose(drive.getX() + noise.nextGaussian() * OTOS_POSITION_NOISE,
+                drive.getY() + noise.nextGaussian() * OTOS_POSITION_NOISE,
+                drive.getHeading() + noise.nextGaussian() * OTOS_HEADING_NOISE);
+        imu.setHeading(drive.getHeading());
+        imu.setHeadingVelocity(drive.getAngularVelocity());
+    }
+
+    /**
+     * Puts the robot somewhere on the field, at rest
+     * @param x The x position, in inches
+     * @param y The y position, in inches
+     * @param heading The heading, in radians, counterclockwise positive
+     */
+    public void setPose(double x, double y, double heading) {
+        drive.setPose(x, y, heading);
+        updateSensors();
+    }
+
+    public MecanumDriveModel getDrive() {
+        return drive;
+    }
+
+    public ArmModel getArm() {
+        return arm;
+    }
+
+    public SlideModel getSlide() {
+        return slide;
+    }
+
+    /**
+     * @return How much time the robot has moved for, in seconds
+     */
+    public double getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+}
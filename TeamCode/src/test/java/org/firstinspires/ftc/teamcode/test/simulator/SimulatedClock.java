@@ -0,0 +1,132 @@
+package org.firstinspires.ftc.teamcode.test.simulator;
+
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeHardwareMap;
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+/**
+ * A virtual clock that the robot's physics follows.  Sleeping doesn't wait: it moves the clock forward and steps the
+ *  {@link RobotModel} through the time that passed, so a paced control loop runs as fast as the computer can run it.
+ * <p>
+ * Code takes time on the robot too, mostly in calls to the hubs, so every hardware call made since the clock was
+ *  last read adds {@link #setHardwareCallNanos(long) a fixed cost}, and every read adds a tiny one so that a loop that
+ *  neither sleeps nor touches hardware still sees time pass.  Time spent computing on the simulating machine is not
+ *  counted.
+ * <p>
+ * The clock may be read from any thread, but it is only meant to be slept on by the OpMode's thread.
+ */
+public class SimulatedClock implements Clock.Source {
+    /**
+     * Where the clock starts, in nanoseconds.  Not 0, so that code which treats 0 as "never" still works.
+     */
+    private static final long START_NANOS = 1_000_000_000L;
+
+    /**
+     * What each read of the clock costs, in nanoseconds
+     */
+    private static final long READ_NANOS = 1_000;
+
+    private final RobotModel robot;
+    private final FakeHardwareMap hardwareMap;
+
+    private long nanos = START_NANOS;
+    private long hardwareCallNanos = 0;
+    private long countedCalls;
+    private double realTimeFactor = 0;
+    private long realStartNanos = System.nanoTime();
+    private Runnable listener = null;
+
+    /**
+     * @param robot The physics to advance
+     * @param hardwareMap The hardware map that the robot's calls are counted on
+     */
+    public SimulatedClock(RobotModel robot, FakeHardwareMap hardwareMap) {
+        this.robot = robot;
+        this.hardwareMap = hardwareMap;
+        countedCalls = hardwareMap.getTotalCallCount();
+    }
+
+    /**
+     * @param hardwareCallNanos How much time each hardware call takes, in nanoseconds.  1-3 ms is typical of a hub.
+     */
+    public synchronized void setHardwareCallNanos(long hardwareCallNanos) {
+        if (hardwareCallNanos < 0) {
+            throw new IllegalArgumentException("Hardware calls can't take negative time: " + hardwareCallNanos);
+        }
+        this.hardwareCallNanos = hardwareCallNanos;
+    }
+
+    /**
+     * Slows the simulation down so that it runs no faster than a multiple of real time, e.g. to watch it on FTC
+     *  Dashboard
+     * @param realTimeFactor How many times faster than real time to run at most, or 0 to run as fast as possible
+     */
+    public synchronized void setRealTimeFactor(double realTimeFactor) {
+        if (realTimeFactor < 0) {
+            throw new IllegalArgumentException("The real time factor can't be negative: " + realTimeFactor);
+        }
+        this.realTimeFactor = realTimeFactor;
+        realStartNanos = System.nanoTime() - (long) ((nanos - START_NANOS) / Math.max(realTimeFactor, 1));
+    }
+
+    /**
+     * @param listener Something to run each time the clock is read or slept on, e.g. to stop the OpMode once it is
+     *                 done.  It runs on the thread that moved the clock, but not while the clock's lock is held.
+     */
+    public synchronized void setListener(Runnable listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public long nanoTime() {
+        final long now;
+        final Runnable callback;
+        synchronized (this) {
+            final long totalCalls = hardwareMap.getTotalCallCount();
+            advance(READ_NANOS + (totalCalls - countedCalls) * hardwareCallNanos);
+            countedCalls = totalCalls;
+            now = nanos;
+            callback = listener;
+        }
+        if (callback != null) {
+            callback.run();
+        }
+        return now;
+    }
+
+    @Override
+    public void sleep(long nanos) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        final Runnable callback;
+        synchronized (this) {
+            advance(nanos);
+            callback = listener;
+            if (realTimeFactor > 0) {
+                final long realTargetNanos = realStartNanos + (long) ((this.nanos - START_NANOS) / realTimeFactor);
+                final long aheadNanos = realTargetNanos - System.nanoTime();
+                if (aheadNanos > 0) {
+                    wait(aheadNanos / 1_000_000, (int) (aheadNanos % 1_000_000));
+                }
+            }
+        }
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    private void advance(long deltaNanos) {
+        if (deltaNanos <= 0) {
+            return;
+        }
+        nanos += deltaNanos;
+        robot.advance(deltaNanos / 1e9);
+    }
+
+    /**
+     * @return How much virtual time has passed since the clock was created, in seconds
+     */
+    public synchronized double getElapsedSeconds() {
+        return (nanos - START_NANOS) / 1e9;
+    }
+}
@@ -0,0 +1,306 @@
+package org.firstinspires.ftc.teamcode.test.simulator;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.firstinspires.ftc.teamcode.modules.Odometry;
+import org.firstinspires.ftc.teamcode.modules.core.LoopScheduler;
+import org.firstinspires.ftc.teamcode.modules.core.ModuleManager;
+import org.firstinspires.ftc.teamcode.modules.core.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.opmode.autonomous.AutonomousBase;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeHardwareMap;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeTelemetry;
+import org.firstinspires.ftc.teamcode.util.Clock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs an autonomous OpMode against a {@link RobotModel} on a {@link SimulatedClock}, so that a whole autonomous
+ *  takes a fraction of a second.  The OpMode runs on the calling thread exactly as the SDK would run it, from
+ *  {@link AutonomousBase#runOpMode()} through {@code waitForEnd()}, and is stopped once it is done or once its time
+ *  limit passes.
+ * <p>
+ * The clock and the tunables it overrides are static, so only one simulation runs at a time in a class loader.  To
+ *  run many at once, use a {@link SimulationBatch}, which gives each its own.
+ */
+public final class Simulation {
+    /**
+     * How long an autonomous may run before it is stopped, in seconds: the autonomous period and some margin
+     */
+    public static final double DEFAULT_TIME_LIMIT_SECONDS = 35;
+
+    /**
+     * How long each hardware call takes by default, in milliseconds
+     */
+    public static final double DEFAULT_HARDWARE_CALL_MILLIS = 1;
+
+    /**
+     * Held while a simulation runs, since the clock is shared by everything in the class loader
+     */
+    private static final Object LOCK = new Object();
+
+    private final Class<? extends AutonomousBase> opModeClass;
+    private final Map<String, Object> overrides = new LinkedHashMap<>();
+    private double timeLimitSeconds = DEFAULT_TIME_LIMIT_SECONDS;
+    private double hardwareCallMillis = DEFAULT_HARDWARE_CALL_MILLIS;
+    private double realTimeFactor = 0;
+    private long seed = 0;
+
+    public Simulation(Class<? extends AutonomousBase> opModeClass) {
+        this.opModeClass = opModeClass;
+    }
+
+    /**
+     * @param seconds How long the autonomous may run before it is stopped
+     * @return This simulation
+     */
+    public Simulation setTimeLimit(double seconds) {
+        timeLimitSeconds = seconds;
+        return this;
+    }
+
+    /**
+     * @param millis How long each hardware call takes, in milliseconds
+     * @return This simulation
+     */
+    public Simulation setHardwareCallMillis(double millis) {
+        hardwareCallMillis = millis;
+        return this;
+    }
+
+    /**
+     * @param realTimeFactor How many times faster than real time to run at most, or 0 to run as fast as possible
+     * @return This simulation
+     * @see SimulatedClock#setRealTimeFactor(double)
+     */
+    public Simulation setRealTimeFactor(double realTimeFactor) {
+        this.realTimeFactor = realTimeFactor;
+        return this;
+    }
+
+    /**
+     * @param seed The seed for the robot's sensor noise
+     * @return This simulation
+     */
+    public Simulation setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Overrides a static tunable for the run, e.g. one of the OpMode's {@code @Config} positions.  Its old value is
+     *  put back afterward.
+     * @param field The field's class and name, e.g. {@code org.firstinspires.ftc.teamcode.modules.Arm.ArmConfig.P_COEF}
+     * @param value The value, either of the field's type or a string to parse as it
+     * @return This simulation
+     */
+    public Simulation override(String field, Object value) {
+        overrides.put(field, value);
+        return this;
+    }
+
+    /**
+     * Runs the autonomous
+     * @return What happened
+     */
+    public SimulationResult run() {
+        synchronized (LOCK) {
+            return runLocked();
+        }
+    }
+
+    private SimulationResult runLocked() {
+        if (LoopScheduler.LOOP_RATE_HZ <= 0) {
+            throw new IllegalStateException("Simulating needs a paced loop, but LoopScheduler.LOOP_RATE_HZ is "
+                    + LoopScheduler.LOOP_RATE_HZ);
+        }
+        final Map<String, String> parameters = new LinkedHashMap<>();
+        final List<Runnable> restorers = new ArrayList<>();
+        for (Map.Entry<String, Object> override : overrides.entrySet()) {
+            restorers.add(setStaticField(override.getKey(), override.getValue()));
+            parameters.put(override.getKey(), String.valueOf(override.getValue()));
+        }
+        final boolean record = TelemetryChannels.RECORD, sampleInBackground = Odometry.SAMPLE_IN_BACKGROUND;
+        TelemetryChannels.RECORD = false; // nowhere to write recordings
+        Odometry.SAMPLE_IN_BACKGROUND = false; // a sampling thread would see time jump
+
+        final FakeHardwareMap hardwareMap = FakeHardwareMap.createRobot();
+        final RobotModel robot = new RobotModel(hardwareMap, seed);
+        final SimulatedClock clock = new SimulatedClock(robot, hardwareMap);
+        clock.setHardwareCallNanos((long) (hardwareCallMillis * 1e6));
+        clock.setRealTimeFactor(realTimeFactor);
+
+        AutonomousBase opMode = null;
+        Throwable error = null;
+        final long realStartNanos = System.nanoTime();
+        Clock.setSource(clock);
+        try {
+            opMode = opModeClass.getDeclaredConstructor().newInstance();
+            opMode.hardwareMap = hardwareMap;
+            opMode.telemetry = new FakeTelemetry();
+            opMode.gamepad1 = new Gamepad();
+            opMode.gamepad2 = new Gamepad();
+
+            final AutonomousBase running = opMode;
+            clock.setListener(() -> {
+                if (running.getAutonomousDurationNanos() >= 0 || clock.getElapsedSeconds() >= timeLimitSeconds) {
+                    OpModeFlags.requestStop(running);
+                }
+            });
+            OpModeFlags.markStarted(opMode); // as if play were pressed right after init
+            opMode.runOpMode();
+        }
+        catch (InterruptedException e) {
+            // stopped, as at the end of the autonomous period
+        }
+        catch (ReflectiveOperationException | RuntimeException | Error e) {
+            error = e;
+        }
+        finally {
+            Thread.interrupted(); // don't leave a stop meant for the OpMode on the caller's thread
+            final ModuleManager moduleManager = opMode == null ? null : getModuleManager(opMode);
+            if (moduleManager != null && opMode.getAutonomousDurationNanos() < 0) {
+                moduleManager.unloadAll(); // it didn't get to waitForEnd()
+            }
+            Clock.setSource(null);
+            TelemetryChannels.RECORD = record;
+            Odometry.SAMPLE_IN_BACKGROUND = sampleInBackground;
+            for (Runnable restorer : restorers) {
+                restorer.run();
+            }
+        }
+
+        final double realSeconds = (System.nanoTime() - realStartNanos) / 1e9;
+        final ModuleManager moduleManager = opMode == null ? null : getModuleManager(opMode);
+        final long cycles = moduleManager == null ? 0 : moduleManager.getScheduler().getCycles();
+        return new SimulationResult(opModeClass.getName(), parameters, opMode, cycles, clock.getElapsedSeconds(),
+                realSeconds, hardwareMap.getTotalCallCount(), error);
+    }
+
+    private static ModuleManager getModuleManager(AutonomousBase opMode) {
+        try {
+            final Field field = AutonomousBase.class.getDeclaredField("moduleManager");
+            field.setAccessible(true);
+            return (ModuleManager) field.get(opMode);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Can't find the OpMode's module manager", e);
+        }
+    }
+
+    /**
+     * Finds a static field by its class and name
+     * @param name e.g. {@code org.firstinspires.ftc.teamcode.modules.Arm.ArmConfig.P_COEF}; nested classes may be
+     *             separated by either '.' or '$'
+     * @throws IllegalArgumentException There is no such field, or it can't be changed
+     */
+    static Field findStaticField(String name) {
+        final int fieldStart = name.lastIndexOf('.');
+        if (fieldStart < 0) {
+            throw new IllegalArgumentException("Not a Class.FIELD name: " + name);
+        }
+        String className = name.substring(0, fieldStart);
+        final String fieldName = name.substring(fieldStart + 1);
+        final ClassLoader loader = Simulation.class.getClassLoader();
+        while (true) {
+            try {
+                final Field field = Class.forName(className, true, loader).getField(fieldName);
+                if (!Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+                    throw new IllegalArgumentException(name + " is not a tunable static field");
+                }
+                return field;
+            }
+            catch (ClassNotFoundException e) {
+                // maybe a nested class; try the last '.' as a '$'
+                final int nestedStart = className.lastIndexOf('.');
+                if (nestedStart < 0) {
+                    throw new IllegalArgumentException("No class for " + name, e);
+                }
+                className = className.substring(0, nestedStart) + '$' + className.substring(nestedStart + 1);
+            }
+            catch (NoSuchFieldException e) {
+                throw new IllegalArgumentException("No public field " + name, e);
+            }
+        }
+    }
+
+    /**
+     * Converts a value to a field's type
+     * @throws IllegalArgumentException The value can't be converted
+     */
+    static Object convert(Object value, Class<?> type) {
+        final String text = String.valueOf(value).trim();
+        if (type == double.class) {
+            return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(text);
+        }
+        if (type == long.class) {
+            return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(text);
+        }
+        if (type == int.class) {
+            return value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(text);
+        }
+        if (type == boolean.class) {
+            return value instanceof Boolean ? value : Boolean.parseBoolean(text);
+        }
+        if (type == String.class) {
+            return text;
+        }
+        throw new IllegalArgumentException("Can't set fields of type " + type.getName());
+    }
+
+    /**
+     * Sets a static tunable
+     * @return Something that puts its old value back
+     */
+    private static Runnable setStaticField(String name, Object value) {
+        final Field field = findStaticField(name);
+        try {
+            final Object previous = field.get(null);
+            field.set(null, convert(value, field.getType()));
+            return () -> {
+                try {
+                    field.set(null, previous);
+                }
+                catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Can't set " + name, e);
+        }
+    }
+
+    /**
+     * Runs a simulation and serializes its result.  {@link SimulationBatch} calls this reflectively in a class loader
+     *  of its own, so everything passed in and out is a JDK type.
+     * @param opModeClassName The autonomous to run
+     * @param overrides The tunables to {@linkplain #override(String, Object) override}
+     * @param timeLimitSeconds How long the autonomous may run
+     * @param hardwareCallMillis How long each hardware call takes
+     * @return The serialized {@link SimulationResult}
+     */
+    public static byte[] runIsolated(String opModeClassName, Map<String, Object> overrides, double timeLimitSeconds,
+                                     double hardwareCallMillis) throws ClassNotFoundException, IOException {
+        final Simulation simulation = new Simulation(
+                Class.forName(opModeClassName, true, Simulation.class.getClassLoader()).asSubclass(AutonomousBase.class))
+                .setTimeLimit(timeLimitSeconds)
+                .setHardwareCallMillis(hardwareCallMillis);
+        for (Map.Entry<String, Object> override : overrides.entrySet()) {
+            simulation.override(override.getKey(), override.getValue());
+        }
+        final SimulationResult result = simulation.run();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(result);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,171 @@
+package org.firstinspires.ftc.teamcode.test.simulator;
+
+import org.firstinspires.ftc.teamcode.opmode.autonomous.AutonomousBase;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many simulations of an autonomous at once, e.g. to sweep a tunable.
+ * <p>
+ * The robot's tunables are static fields, and so is the {@linkplain org.firstinspires.ftc.teamcode.util.Clock clock},
+ *  so two simulations in the same class loader would trample each other.  Each run gets a class loader of its own
+ *  instead, with its own copy of every class on the class path; only the JDK is shared.
+ */
+public final class SimulationBatch {
+    private final String opModeClassName;
+    private final List<Map<String, Object>> runs = new ArrayList<>();
+    private double timeLimitSeconds = Simulation.DEFAULT_TIME_LIMIT_SECONDS;
+    private double hardwareCallMillis = Simulation.DEFAULT_HARDWARE_CALL_MILLIS;
+
+    public SimulationBatch(String opModeClassName) {
+        this.opModeClassName = opModeClassName;
+    }
+
+    public SimulationBatch(Class<? extends AutonomousBase> opModeClass) {
+        this(opModeClass.getName());
+    }
+
+    /**
+     * @see Simulation#setTimeLimit(double)
+     */
+    public SimulationBatch setTimeLimit(double seconds) {
+        timeLimitSeconds = seconds;
+        return this;
+    }
+
+    /**
+     * @see Simulation#setHardwareCallMillis(double)
+     */
+    public SimulationBatch setHardwareCallMillis(double millis) {
+        hardwareCallMillis = millis;
+        return this;
+    }
+
+    /**
+     * Adds a run
+     * @param overrides The tunables to {@linkplain Simulation#override(String, Object) override} in it, which may be
+     *                  empty to run with the current values
+     * @return This batch
+     */
+    public SimulationBatch addRun(Map<String, Object> overrides) {
+        runs.add(new LinkedHashMap<>(overrides));
+        return this;
+    }
+
+    /**
+     * Adds one run for each value of a tunable
+     * @param field The tunable's class and name
+     * @param values Its values
+     * @return This batch
+     */
+    public SimulationBatch addRuns(String field, Object... values) {
+        for (Object value : values) {
+            addRun(Collections.singletonMap(field, value));
+        }
+        return this;
+    }
+
+    /**
+     * Runs every run
+     * @param threads How many runs to do at once
+     * @return The results, in the order the runs were added
+     * @throws InterruptedException The thread was interrupted while waiting for the runs
+     * @throws IllegalStateException A run couldn't be started
+     */
+    public List<SimulationResult> run(int threads) throws InterruptedException {
+        final URL[] classPath = getClassPath();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, runs.size())));
+        try {
+            final List<Future<SimulationResult>> futures = new ArrayList<>();
+            for (Map<String, Object> overrides : runs) {
+                futures.add(executor.submit(() -> runIsolated(classPath, overrides)));
+            }
+            final List<SimulationResult> results = new ArrayList<>();
+            for (Future<SimulationResult> future : futures) {
+                try {
+                    results.add(future.get());
+                }
+                catch (ExecutionException e) {
+                    throw new IllegalStateException("A simulation couldn't run", e.getCause());
+                }
+            }
+            return results;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs every run, one at a time for each processor
+     * @see #run(int)
+     */
+    public List<SimulationResult> run() throws InterruptedException {
+        return run(Runtime.getRuntime().availableProcessors());
+    }
+
+    private SimulationResult runIsolated(URL[] classPath, Map<String, Object> overrides)
+            throws ReflectiveOperationException, IOException {
+        final Thread thread = Thread.currentThread();
+        final ClassLoader previousLoader = thread.getContextClassLoader();
+        // the parent is the loader above the application's, so nothing of the robot's is shared
+        try (URLClassLoader loader = new URLClassLoader(classPath, ClassLoader.getSystemClassLoader().getParent())) {
+            thread.setContextClassLoader(loader);
+            final Method run = loader.loadClass(Simulation.class.getName()).getMethod("runIsolated",
+                    String.class, Map.class, double.class, double.class);
+            final byte[] serialized;
+            try {
+                serialized = (byte[]) run.invoke(null, opModeClassName, overrides, timeLimitSeconds, hardwareCallMillis);
+            }
+            catch (InvocationTargetException e) {
+                throw new IllegalStateException("The simulation failed", e.getCause());
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+                return (SimulationResult) in.readObject();
+            }
+        }
+        finally {
+            thread.setContextClassLoader(previousLoader);
+        }
+    }
+
+    /**
+     * @return The class path this class was loaded from
+     */
+    private static URL[] getClassPath() {
+        final ClassLoader loader = SimulationBatch.class.getClassLoader();
+        if (loader instanceof URLClassLoader) {
+            return ((URLClassLoader) loader).getURLs();
+        }
+        final List<URL> urls = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            try {
+                urls.add(new File(entry).toURI().toURL());
+            }
+            catch (MalformedURLException e) {
+                throw new IllegalStateException("Bad class path entry " + entry, e);
+            }
+        }
+        return urls.toArray(new URL[0]);
+    }
+}
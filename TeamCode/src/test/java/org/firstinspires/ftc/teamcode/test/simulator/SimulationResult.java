@@ -0,0 +1,188 @@
+package org.firstinspires.ftc.teamcode.test.simulator;
+
+import org.firstinspires.ftc.teamcode.opmode.autonomous.AutonomousBase;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What happened in one simulated autonomous.  This only holds plain values, so that it can be passed between the
+ *  isolated class loaders of a {@link SimulationBatch}.
+ */
+public final class SimulationResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * One {@linkplain AutonomousBase.StepTime step} of the autonomous
+     */
+    public static final class Step implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private final double startSeconds, seconds;
+        private final boolean interrupted;
+
+        Step(String name, double startSeconds, double seconds, boolean interrupted) {
+            this.name = name;
+            this.startSeconds = startSeconds;
+            this.seconds = seconds;
+            this.interrupted = interrupted;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return When the step started, in seconds after the play button was pressed
+         */
+        public double getStartSeconds() {
+            return startSeconds;
+        }
+
+        public double getSeconds() {
+            return seconds;
+        }
+
+        public boolean wasInterrupted() {
+            return interrupted;
+        }
+    }
+
+    private final String opModeName;
+    private final Map<String, String> parameters;
+    private final boolean finished;
+    private final double autonomousSeconds;
+    private final List<Step> steps;
+    private final long cycles;
+    private final double virtualSeconds, realSeconds;
+    private final long hardwareCalls;
+    private final String error;
+
+    SimulationResult(String opModeName, Map<String, String> parameters, AutonomousBase opMode, long cycles,
+                     double virtualSeconds, double realSeconds, long hardwareCalls, Throwable error) {
+        this.opModeName = opModeName;
+        this.parameters = Collections.unmodifiableMap(new LinkedHashMap<>(parameters));
+        final long durationNanos = opMode == null ? -1 : opMode.getAutonomousDurationNanos();
+        finished = durationNanos >= 0;
+        autonomousSeconds = durationNanos / 1e9;
+        final List<Step> stepList = new ArrayList<>();
+        if (opMode != null) {
+            for (AutonomousBase.StepTime step : opMode.getStepTimes()) {
+                stepList.add(new Step(step.getName(), step.getStartNanos() / 1e9, step.getDurationNanos() / 1e9,
+                        step.wasInterrupted()));
+            }
+        }
+        steps = Collections.unmodifiableList(stepList);
+        this.cycles = cycles;
+        this.virtualSeconds = virtualSeconds;
+        this.realSeconds = realSeconds;
+        this.hardwareCalls = hardwareCalls;
+        this.error = error == null ? null : error.toString();
+    }
+
+    public String getOpModeName() {
+        return opModeName;
+    }
+
+    /**
+     * @return The tunables that were overridden for this run, by {@code Class.FIELD} name
+     */
+    public Map<String, String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return true if the autonomous reached its end before the time limit
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return The time from the play button being pressed to the autonomous being done, in seconds, or a negative
+     *  value if it didn't {@linkplain #isFinished() finish}
+     */
+    public double getAutonomousSeconds() {
+        return autonomousSeconds;
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return How many control loop cycles the OpMode ran
+     */
+    public long getCycles() {
+        return cycles;
+    }
+
+    /**
+     * @return How much time passed on the robot, in seconds
+     */
+    public double getVirtualSeconds() {
+        return virtualSeconds;
+    }
+
+    /**
+     * @return How long the simulation took to run, in seconds
+     */
+    public double getRealSeconds() {
+        return realSeconds;
+    }
+
+    /**
+     * @return How many times faster than real time the simulation ran
+     */
+    public double getSpeedup() {
+        return realSeconds == 0 ? Double.POSITIVE_INFINITY : virtualSeconds / realSeconds;
+    }
+
+    public long getHardwareCalls() {
+        return hardwareCalls;
+    }
+
+    /**
+     * @return A description of what the OpMode threw, or null if it ended normally
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return A multi-line report of the run
+     */
+    public String format() {
+        final StringBuilder builder = new StringBuilder(opModeName);
+        if (!parameters.isEmpty()) {
+            builder.append(' ').append(parameters);
+        }
+        builder.append('\n');
+        if (finished) {
+            builder.append(String.format("  done in %.3f s%n", autonomousSeconds));
+        }
+        else {
+            builder.append("  did not finish\n");
+        }
+        for (Step step : steps) {
+            builder.append(String.format("    %-24s %7.3f s at %7.3f s%s%n", step.name, step.seconds,
+                    step.startSeconds, step.interrupted ? " (interrupted)" : ""));
+        }
+        builder.append(String.format("  %d cycles, %d hardware calls, %.1f s simulated in %.2f s (%.0fx)%n",
+                cycles, hardwareCalls, virtualSeconds, realSeconds, getSpeedup()));
+        if (error != null) {
+            builder.append("  error: ").append(error).append('\n');
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
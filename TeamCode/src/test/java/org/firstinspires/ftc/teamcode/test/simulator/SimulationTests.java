@@ -0,0 +1,122 @@
+package org.firstinspires.ftc.teamcode.test.simulator;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Pose2D;
+import org.firstinspires.ftc.teamcode.modules.Arm;
+import org.firstinspires.ftc.teamcode.modules.DriveTrain;
+import org.firstinspires.ftc.teamcode.modules.core.Commands;
+import org.firstinspires.ftc.teamcode.modules.core.ModuleManager;
+import org.firstinspires.ftc.teamcode.modules.core.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.opmode.autonomous.AutonomousBase;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeHardwareMap;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeOpMode;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeTouchSensor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+public class SimulationTests {
+    /**
+     * Drives 2 feet to the right, then waits
+     */
+    public static class DriveAndWaitAuto extends AutonomousBase {
+        public static long WAIT_MS = 500;
+
+        @Override
+        public void runOpMode() throws InterruptedException {
+            waitForStart();
+            runCommand(step("Drive", driveTo(new Pose2D(DistanceUnit.INCH, 24, 0, AngleUnit.DEGREES, 0))));
+            runCommand(step("Wait", Commands.waitMillis(WAIT_MS)));
+            waitForEnd();
+        }
+    }
+
+    private FakeHardwareMap hardwareMap;
+    private RobotModel robot;
+    private ModuleManager moduleManager;
+    private boolean recordTelemetry;
+
+    @Before
+    public void setUp() {
+        recordTelemetry = TelemetryChannels.RECORD;
+        TelemetryChannels.RECORD = false; // nowhere to write recordings
+        final FakeOpMode opMode = new FakeOpMode();
+        hardwareMap = opMode.getFakeHardwareMap();
+        robot = new RobotModel(hardwareMap);
+        moduleManager = new ModuleManager(opMode);
+    }
+
+    @After
+    public void tearDown() {
+        moduleManager.unloadAll();
+        TelemetryChannels.RECORD = recordTelemetry;
+    }
+
+    private void drive(double strafe, double forward, double rotation) {
+        moduleManager.beginLoop();
+        moduleManager.getModule(DriveTrain.class).setVelocity(strafe, forward, rotation);
+        moduleManager.endLoop();
+        robot.advance(0.5);
+    }
+
+    @Test
+    public void strafingRightMovesAlongX() {
+        drive(0.5, 0, 0);
+        Assert.assertTrue(robot.getDrive().getX() > 1);
+        Assert.assertEquals(0, robot.getDrive().getY(), 1e-6);
+        Assert.assertEquals(0, robot.getDrive().getHeading(), 1e-6);
+    }
+
+    @Test
+    public void drivingForwardMovesAlongY() {
+        drive(0, 0.5, 0);
+        Assert.assertTrue(robot.getDrive().getY() > 1);
+        Assert.assertEquals(0, robot.getDrive().getX(), 1e-6);
+        Assert.assertEquals(0, robot.getDrive().getHeading(), 1e-6);
+    }
+
+    @Test
+    public void rotatingTurnsCounterclockwise() {
+        drive(0, 0, 0.5);
+        Assert.assertTrue(robot.getDrive().getHeading() > 0.1);
+    }
+
+    @Test
+    public void unpoweredArmSettlesOnThePositionSwitch() {
+        final Arm arm = moduleManager.getModule(Arm.class);
+        arm.deactivate();
+        robot.advance(3);
+        Assert.assertEquals(ArmModel.LOWER_LIMIT, robot.getArm().getAngle(), 1e-6);
+        Assert.assertTrue(hardwareMap.getFake(FakeTouchSensor.class, Arm.POSITION_SWITCH_NAME).isPressed());
+    }
+
+    @Test
+    public void autonomousRunsFasterThanRealTime() {
+        final SimulationResult result = new Simulation(DriveAndWaitAuto.class).run();
+        Assert.assertNull(result.getError(), result.getError());
+        Assert.assertTrue(result.format(), result.isFinished());
+        Assert.assertTrue(result.format(), result.getVirtualSeconds() > result.getRealSeconds());
+
+        final List<SimulationResult.Step> steps = result.getSteps();
+        Assert.assertEquals(2, steps.size());
+        Assert.assertEquals("Drive", steps.get(0).getName());
+        Assert.assertFalse(result.format(), steps.get(0).wasInterrupted());
+        Assert.assertEquals(DriveAndWaitAuto.WAIT_MS / 1000.0, steps.get(1).getSeconds(), 0.02);
+    }
+
+    @Test
+    public void batchRunsAreIsolated() throws InterruptedException {
+        final String waitField = DriveAndWaitAuto.class.getName() + ".WAIT_MS";
+        final List<SimulationResult> results = new SimulationBatch(DriveAndWaitAuto.class)
+                .addRuns(waitField, 200, 1200)
+                .run(2);
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals(0.2, results.get(0).getSteps().get(1).getSeconds(), 0.02);
+        Assert.assertEquals(1.2, results.get(1).getSteps().get(1).getSeconds(), 0.02);
+        Assert.assertEquals(500, DriveAndWaitAuto.WAIT_MS); // untouched here
+    }
+}
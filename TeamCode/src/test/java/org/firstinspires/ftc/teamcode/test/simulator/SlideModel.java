@@ -0,0 +1,93 @@
+package org.firstinspires.ftc.teamcode.test.simulator;
+
+import org.firstinspires.ftc.teamcode.modules.LinearSlide;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeHardwareMap;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeMotor;
+
+/**
+ * The linear slide, extended and retracted by its motor.
+ * <p>
+ * The slide approaches the speed its power would give it with a first-order lag, less whatever part of gravity
+ *  pulls along it while the arm is raised.  It stops dead at either end of its travel; since the motor keeps
+ *  pushing, its current rises there, which is what makes {@link LinearSlide} reset its encoder.
+ * <p>
+ * Extensions are in encoder ticks from fully retracted.
+ */
+public class SlideModel {
+    /**
+     * How far the slide can physically extend, in ticks.  This is a bit past where {@link LinearSlide} considers it
+     *  fully extended.
+     */
+    public static double MAX_EXTENSION = 2600;
+
+    /**
+     * How long the slide takes to get 63% of the way to the speed its power is set to, in seconds
+     */
+    public static double TIME_CONSTANT = 0.08;
+
+    /**
+     * The fraction of the motor's full power that gravity cancels with the arm pointing straight up
+     */
+    public static double GRAVITY_FRACTION = 0.15;
+
+    private final FakeMotor motor;
+
+    /**
+     * The slide's extension and its speed, in ticks and ticks per second
+     */
+    private double extension = 0, velocity = 0;
+
+    public SlideModel(FakeHardwareMap hardwareMap) {
+        motor = hardwareMap.getMotor(LinearSlide.SLIDE_MOTOR_NAME);
+        updateSensors();
+    }
+
+    /**
+     * Moves the slide for a short time
+     * @param seconds How long to move for
+     * @param armAngle The arm's angle, in degrees above level
+     */
+    public void step(double seconds, double armAngle) {
+        // the motor extends the slide when it turns backward, which is why LinearSlide reverses it
+        final double power = -motor.getAppliedPower();
+        final double gravity = GRAVITY_FRACTION * Math.sin(Math.toRadians(armAngle));
+        final double targetVelocity;
+        if (power == 0 && motor.isBrakingAtZeroPower()) {
+            targetVelocity = 0;
+        }
+        else {
+            targetVelocity = (power - gravity) * motor.getFreeSpeed();
+        }
+        velocity += (targetVelocity - velocity) * (1 - Math.exp(-seconds / TIME_CONSTANT));
+        extension += velocity * seconds;
+
+        if (extension <= 0) {
+            extension = 0;
+            velocity = Math.max(velocity, 0);
+        }
+        else if (extension >= MAX_EXTENSION) {
+            extension = MAX_EXTENSION;
+            velocity = Math.min(velocity, 0);
+        }
+        updateSensors();
+    }
+
+    private void updateSensors() {
+        motor.setShaftPosition(-extension);
+        motor.setShaftVelocity(-velocity);
+    }
+
+    /**
+     * @return The slide's extension, in ticks from fully retracted
+     */
+    public double getExtension() {
+        return extension;
+    }
+
+    /**
+     * @return The slide's extension as a fraction of how far it can extend, from 0 to 1
+     */
+    public double getExtensionFraction() {
+        return extension / MAX_EXTENSION;
+    }
+}
@@ -0,0 +1,115 @@
+package org.firstinspires.ftc.teamcode.test.switchstatement;
+
+import org.firstinspires.ftc.teamcode.util.FrozenIntSwitchStatement;
+import org.firstinspires.ftc.teamcode.util.FrozenSwitchStatement;
+import org.firstinspires.ftc.teamcode.util.IntSwitchStatement;
+import org.firstinspires.ftc.teamcode.util.SwitchStatement;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FreezeTests {
+    private enum Direction {
+        NORTH, EAST, SOUTH {
+            @Override
+            public String toString() {
+                return "south"; // gives this constant a class body of its own
+            }
+        }, WEST
+    }
+
+    private static class ObjectWithConstantHashCode {
+        @Override
+        public int hashCode() {
+            return 5;
+        }
+    }
+
+    @Test
+    public void frozenMatchesOriginal() {
+        final SwitchStatement<String, Integer> statement = new SwitchStatement<>(String::hashCode)
+                .addCase("hello", str -> 1)
+                .addCase("whee", str -> 15)
+                .addCase("yeet", str -> 36);
+        final FrozenSwitchStatement<String, Integer> frozen = statement.freeze();
+        for (String str : new String[] {"hello", "whee", "yeet", "fddsiofpe232"}) {
+            Assert.assertEquals(statement.execute(str), frozen.execute(str));
+        }
+    }
+
+    @Test
+    public void nullRunsDefaultCase() {
+        final FrozenSwitchStatement<Object, Object> frozen = new SwitchStatement<Object, Object>(obj -> "default")
+                .addCase(new Object(), obj -> "case")
+                .freeze();
+        Assert.assertEquals("default", frozen.execute(null));
+    }
+
+    @Test
+    public void emptyStatementRunsDefaultCase() {
+        final FrozenIntSwitchStatement<String> frozen = new IntSwitchStatement<String>(String::length).freeze();
+        Assert.assertEquals(5, frozen.execute("hello"));
+    }
+
+    @Test
+    public void casesWithSameHashAreDistinguished() {
+        final Object obj1 = new ObjectWithConstantHashCode();
+        final Object obj2 = new ObjectWithConstantHashCode();
+        final Object obj3 = new ObjectWithConstantHashCode();
+        final FrozenIntSwitchStatement<Object> frozen = new IntSwitchStatement<>(obj -> -1)
+                .addCase(obj1, obj -> 1)
+                .addCase(obj2, obj -> 2)
+                .addCase(obj3, obj -> 3)
+                .freeze();
+        Assert.assertEquals(1, frozen.execute(obj1));
+        Assert.assertEquals(2, frozen.execute(obj2));
+        Assert.assertEquals(3, frozen.execute(obj3));
+        Assert.assertEquals(-1, frozen.execute(new ObjectWithConstantHashCode()));
+    }
+
+    @Test
+    public void enumCasesAreLookedUpByOrdinal() {
+        final FrozenIntSwitchStatement<Object> frozen = new IntSwitchStatement<>(obj -> -1)
+                .addCase(Direction.EAST, d -> 90)
+                .addCase(Direction.SOUTH, d -> 180)
+                .freeze();
+        Assert.assertEquals(90, frozen.execute(Direction.EAST));
+        Assert.assertEquals(180, frozen.execute(Direction.SOUTH));
+        Assert.assertEquals(-1, frozen.execute(Direction.NORTH));
+        Assert.assertEquals(-1, frozen.execute(Thread.State.NEW)); // same ordinal as NORTH, different enum
+        Assert.assertEquals(-1, frozen.execute("EAST"));
+    }
+
+    @Test
+    public void classCasesAreLookedUp() {
+        final FrozenSwitchStatement<Class<?>, String> frozen = new SwitchStatement<Class<?>, String>(c -> "other")
+                .addCase(String.class, c -> "string")
+                .addCase(Integer.class, c -> "integer")
+                .addCase(Direction.class, c -> "direction")
+                .freeze();
+        Assert.assertEquals("string", frozen.execute(String.class));
+        Assert.assertEquals("integer", frozen.execute(Integer.class));
+        Assert.assertEquals("direction", frozen.execute(Direction.class));
+        Assert.assertEquals("other", frozen.execute(Object.class));
+    }
+
+    @Test
+    public void laterCasesDoNotAffectFrozenCopy() {
+        final SwitchStatement<String, String> statement = new SwitchStatement<String, String>(str -> "default")
+                .addCase("a", str -> "a");
+        final FrozenSwitchStatement<String, String> frozen = statement.freeze();
+        statement.addCase("b", str -> "b");
+        Assert.assertEquals("b", statement.execute("b"));
+        Assert.assertEquals("default", frozen.execute("b"));
+    }
+
+    @Test
+    public void intStatementValidatesLikeOriginal() {
+        final IntSwitchStatement<Object> statement = new IntSwitchStatement<>(obj -> 0);
+        final Object obj = new Object();
+        statement.addCase(obj, o -> 1);
+        Assert.assertThrows(NullPointerException.class, () -> new IntSwitchStatement<>(null));
+        Assert.assertThrows(NullPointerException.class, () -> statement.addCase(null, o -> 1));
+        Assert.assertThrows(IllegalArgumentException.class, () -> statement.addCase(obj, o -> 2));
+        Assert.assertEquals(1, statement.execute(obj));
+    }
+}
@@ -0,0 +1,79 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.modules.Arm;
+import org.firstinspires.ftc.teamcode.modules.core.ModuleManager;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeMotor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the arm's PID and feedforward ({@link Arm#updateMotorPowers()}) over whole control loop cycles, since
+ *  the controller only sees a new measurement when {@link ModuleManager#beginLoop()} refreshes the snapshot.
+ *  {@link #emptyCycle()} is the same cycle without the arm, so the difference between the two is the arm's share.
+ * <p>
+ * The arm's encoder reads somewhere new on every cycle, so the controller never settles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ArmBenchmark {
+    /**
+     * How many encoder readings to cycle through; a power of 2
+     */
+    private static final int POSITION_COUNT = 256;
+
+    private final double[] positions = new double[POSITION_COUNT];
+    private int position;
+
+    private BenchmarkRobot robot;
+    private ModuleManager moduleManager;
+    private Arm arm;
+    private FakeMotor leftMotor;
+
+    @Setup
+    public void setUp() {
+        robot = new BenchmarkRobot();
+        moduleManager = robot.getModuleManager();
+        arm = moduleManager.getModule(Arm.class);
+        arm.setTargetRotation(Arm.ARM_ROTATION_FRONT_SCORING_HIGH);
+        leftMotor = robot.getHardwareMap().getMotor(Arm.LEFT_ARM_MOTOR_NAME);
+        final Random random = new Random(0);
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            positions[i] = random.nextDouble() * 2000;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        robot.close();
+    }
+
+    private void moveArm() {
+        // the arm only reads the left motor's encoder
+        leftMotor.setShaftPosition(positions[position++ & (POSITION_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public void updateMotorPowers() {
+        moveArm();
+        moduleManager.beginLoop();
+        arm.updateMotorPowers();
+        moduleManager.endLoop();
+    }
+
+    @Benchmark
+    public void emptyCycle() {
+        moveArm();
+        moduleManager.beginLoop();
+        moduleManager.endLoop();
+    }
+}
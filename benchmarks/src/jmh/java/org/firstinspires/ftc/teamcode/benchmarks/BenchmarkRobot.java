@@ -0,0 +1,37 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.modules.core.ModuleManager;
+import org.firstinspires.ftc.teamcode.modules.core.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeHardwareMap;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeOpMode;
+
+/**
+ * The whole robot on {@linkplain FakeHardwareMap fake hardware}, with a module manager to load modules from.  Device
+ *  calls cost nothing, so what a benchmark measures is the robot's own code.
+ */
+final class BenchmarkRobot implements AutoCloseable {
+    private final FakeOpMode opMode;
+    private final ModuleManager moduleManager;
+    private final boolean recordTelemetry;
+
+    BenchmarkRobot() {
+        recordTelemetry = TelemetryChannels.RECORD;
+        TelemetryChannels.RECORD = false; // nowhere to write recordings
+        opMode = new FakeOpMode();
+        moduleManager = new ModuleManager(opMode);
+    }
+
+    FakeHardwareMap getHardwareMap() {
+        return opMode.getFakeHardwareMap();
+    }
+
+    ModuleManager getModuleManager() {
+        return moduleManager;
+    }
+
+    @Override
+    public void close() {
+        moduleManager.unloadAll();
+        TelemetryChannels.RECORD = recordTelemetry;
+    }
+}
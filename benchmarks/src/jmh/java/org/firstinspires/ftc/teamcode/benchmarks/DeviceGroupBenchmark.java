@@ -0,0 +1,48 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+import org.firstinspires.ftc.teamcode.hardware.ConditionalHardwareDeviceGroup;
+import org.firstinspires.ftc.teamcode.modules.DriveTrain;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeHardwareMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ConditionalHardwareDeviceGroup#requireLoadedDevice(Class, String)}, which modules call for every
+ *  device they touch in a cycle, on a group of the four drive motors
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DeviceGroupBenchmark {
+    private static final String[] NAMES = {
+            DriveTrain.FRONT_LEFT_MECANUM_DRIVER_DEFAULT_NAME,
+            DriveTrain.FRONT_RIGHT_MECANUM_DRIVER_DEFAULT_NAME,
+            DriveTrain.BACK_LEFT_MECANUM_DRIVER_DEFAULT_NAME,
+            DriveTrain.BACK_RIGHT_MECANUM_DRIVER_DEFAULT_NAME
+    };
+
+    private ConditionalHardwareDeviceGroup group;
+    private int name;
+
+    @Setup
+    public void setUp() {
+        group = new ConditionalHardwareDeviceGroup(FakeHardwareMap.createRobot());
+        for (String name : NAMES) {
+            group.tryLoadDevice(DcMotorEx.class, name);
+        }
+    }
+
+    @Benchmark
+    public DcMotorEx requireLoadedDevice() {
+        return group.requireLoadedDevice(DcMotorEx.class, NAMES[name++ & 3]);
+    }
+}
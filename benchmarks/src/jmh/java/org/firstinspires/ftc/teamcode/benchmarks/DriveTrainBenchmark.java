@@ -0,0 +1,70 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.modules.DriveTrain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DriveTrain#setVelocity(double, double, double)}: the mecanum mixing and normalization, and for the
+ *  field-centric drive train the rotation of the input by the robot's heading as well.
+ * <p>
+ * Writes are held in the output stage for the whole run, as they are between {@code beginLoop()} and
+ *  {@code endLoop()}, so pushing them to the motors isn't counted.  The sticks move on every call so that no write
+ *  is skipped as redundant.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DriveTrainBenchmark {
+    /**
+     * How many stick positions to cycle through; a power of 2
+     */
+    private static final int INPUT_COUNT = 256;
+
+    @Param({"DriveTrain", "FieldCentricDriveTrain"})
+    public String module;
+
+    private final double[] strafe = new double[INPUT_COUNT];
+    private final double[] forward = new double[INPUT_COUNT];
+    private final double[] rotation = new double[INPUT_COUNT];
+    private int input;
+
+    private BenchmarkRobot robot;
+    private DriveTrain driveTrain;
+
+    @Setup
+    public void setUp() throws ClassNotFoundException {
+        final Random random = new Random(0);
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            strafe[i] = random.nextDouble() * 2 - 1;
+            forward[i] = random.nextDouble() * 2 - 1;
+            rotation[i] = random.nextDouble() * 2 - 1;
+        }
+        robot = new BenchmarkRobot();
+        driveTrain = robot.getModuleManager().getModule(Class.forName(DriveTrain.class.getPackage().getName() + "."
+                + module).asSubclass(DriveTrain.class));
+        robot.getModuleManager().beginLoop();
+    }
+
+    @TearDown
+    public void tearDown() {
+        robot.getModuleManager().endLoop();
+        robot.close();
+    }
+
+    @Benchmark
+    public void setVelocity() {
+        final int i = input++ & (INPUT_COUNT - 1);
+        driveTrain.setVelocity(strafe[i], forward[i], rotation[i]);
+    }
+}
@@ -0,0 +1,70 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+import com.acmerobotics.roadrunner.Action;
+import com.acmerobotics.roadrunner.Pose2d;
+import com.acmerobotics.roadrunner.PoseVelocity2d;
+import com.acmerobotics.roadrunner.Vector2d;
+
+import org.firstinspires.ftc.teamcode.roadrunner.MecanumDrive;
+import org.firstinspires.ftc.teamcode.test.fakehardware.FakeHardwareMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Road Runner's {@link MecanumDrive} on fake hardware: {@link MecanumDrive#setDrivePowers(PoseVelocity2d)}
+ *  (inverse kinematics and normalization), and one iteration of the follower (localization, the holonomic
+ *  controller, inverse kinematics and the motor feedforward) while running a turn.
+ * <p>
+ * The follower is given a fresh packet every iteration, as {@code Actions.runBlocking} does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MecanumDriveBenchmark {
+    /**
+     * How many drive powers to cycle through; a power of 2
+     */
+    private static final int POWER_COUNT = 256;
+
+    /**
+     * How far the followed turn goes, in radians.  It takes minutes, so it outlasts every fork.
+     */
+    private static final double TURN_RADIANS = 1000;
+
+    private final PoseVelocity2d[] powers = new PoseVelocity2d[POWER_COUNT];
+    private int power;
+
+    private MecanumDrive drive;
+    private Action turn;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(0);
+        for (int i = 0; i < POWER_COUNT; i++) {
+            powers[i] = new PoseVelocity2d(new Vector2d(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1),
+                    random.nextDouble() * 2 - 1);
+        }
+        final Pose2d start = new Pose2d(0, 0, 0);
+        drive = new MecanumDrive(FakeHardwareMap.createRobot(), start);
+        turn = drive.actionBuilder(start).turn(TURN_RADIANS).build();
+    }
+
+    @Benchmark
+    public void setDrivePowers() {
+        drive.setDrivePowers(powers[power++ & (POWER_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public boolean followerIteration() {
+        return turn.run(new TelemetryPacket());
+    }
+}
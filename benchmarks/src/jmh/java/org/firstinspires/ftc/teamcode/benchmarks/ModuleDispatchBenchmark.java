@@ -0,0 +1,170 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.modules.core.Module;
+import org.firstinspires.ftc.teamcode.modules.core.ModuleRegistry;
+import org.firstinspires.ftc.teamcode.modules.core.MotorPowerUpdater;
+import org.firstinspires.ftc.teamcode.util.LatencyHistogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what it costs {@code ModuleManager.updateMotorPowerLoops()} to reach its mechanisms as the amount of
+ *  loaded modules grows.  Each cycle updates every mechanism and records its time in a profiler section, either the
+ *  way the manager used to (a list of modules, an {@code instanceof} check on each and a map lookup for the section)
+ *  or through a {@link ModuleRegistry} and a parallel array of sections.  Half of the modules are mechanisms.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ModuleDispatchBenchmark {
+    @Param({"2", "4", "8", "16", "32", "64"})
+    public int moduleCount;
+
+    private ScanningDispatcher scanning;
+    private RegistryDispatcher registry;
+
+    /**
+     * A module with no hardware that does nothing
+     */
+    private static class Passive extends Module {
+        Passive() {
+            super(null);
+        }
+
+        @Override
+        public void ensureSafety() {}
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public void log() {}
+    }
+
+    /**
+     * A module that counts its updates
+     */
+    private static class Mechanism extends Passive implements MotorPowerUpdater {
+        long updates = 0;
+
+        @Override
+        public void updateMotorPowers() {
+            updates++;
+        }
+
+        @Override
+        public boolean isUpdateNecessary() {
+            return true;
+        }
+    }
+
+    /**
+     * A mechanism of a second class, so that the {@code instanceof} checks and interface calls aren't all monomorphic
+     */
+    private static final class Lift extends Mechanism {}
+
+    /**
+     * The old dispatch: scans every module and looks its section up each cycle
+     */
+    private static final class ScanningDispatcher {
+        private final List<Module> modules = new ArrayList<>();
+        private final Map<Object, LatencyHistogram> sections = new IdentityHashMap<>();
+
+        void add(Module module) {
+            modules.add(module);
+            if (module instanceof MotorPowerUpdater) {
+                sections.put(module, new LatencyHistogram());
+            }
+        }
+
+        void cycle() {
+            for (int i = 0; i < modules.size(); i++) {
+                final Module module = modules.get(i);
+                if (module instanceof MotorPowerUpdater) {
+                    final MotorPowerUpdater mechanism = (MotorPowerUpdater) module;
+                    final long start = System.nanoTime();
+                    if (mechanism.isUpdateNecessary()) {
+                        mechanism.updateMotorPowers();
+                    }
+                    sections.get(mechanism).record(System.nanoTime() - start);
+                }
+            }
+        }
+    }
+
+    /**
+     * The new dispatch: walks the precomputed mechanisms alongside their sections
+     */
+    private static final class RegistryDispatcher {
+        private final ModuleRegistry registry = new ModuleRegistry();
+        private LatencyHistogram[] sections = new LatencyHistogram[0];
+
+        void add(Module module) {
+            registry.add(module);
+            if (module instanceof MotorPowerUpdater) {
+                final LatencyHistogram[] grown = new LatencyHistogram[sections.length + 1];
+                System.arraycopy(sections, 0, grown, 0, sections.length);
+                grown[sections.length] = new LatencyHistogram();
+                sections = grown;
+            }
+        }
+
+        void cycle() {
+            final MotorPowerUpdater[] mechanisms = registry.getMotorPowerUpdaters();
+            final LatencyHistogram[] sections = this.sections;
+            for (int i = 0; i < mechanisms.length; i++) {
+                final MotorPowerUpdater mechanism = mechanisms[i];
+                final long start = System.nanoTime();
+                if (mechanism.isUpdateNecessary()) {
+                    mechanism.updateMotorPowers();
+                }
+                sections[i].record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        scanning = new ScanningDispatcher();
+        registry = new RegistryDispatcher();
+        for (int i = 0; i < moduleCount; i++) {
+            scanning.add(createModule(i));
+            registry.add(createModule(i));
+        }
+    }
+
+    private static Module createModule(int i) {
+        switch (i % 4) {
+            case 0:
+                return new Mechanism();
+            case 2:
+                return new Lift();
+            default:
+                return new Passive();
+        }
+    }
+
+    @Benchmark
+    public void scanning() {
+        scanning.cycle();
+    }
+
+    @Benchmark
+    public void registry() {
+        registry.cycle();
+    }
+}
@@ -0,0 +1,67 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import com.arcrobotics.ftclib.controller.PIDController;
+
+import org.firstinspires.ftc.teamcode.hardware.FastPIDFController;
+import org.firstinspires.ftc.teamcode.modules.Arm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link FastPIDFController} with the ftclib {@link PIDController} it replaced, each used the way the arm
+ *  uses its controller every cycle: copying the tunable gains in, then calculating an output for a new measurement
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PidControllerBenchmark {
+    /**
+     * How many measurements to cycle through; a power of 2
+     */
+    private static final int MEASUREMENT_COUNT = 256;
+
+    /**
+     * The time between measurements given to the fast controller, in nanoseconds.  ftclib's reads the clock itself.
+     */
+    private static final long PERIOD_NANOS = 5_000_000;
+
+    private final double[] measurements = new double[MEASUREMENT_COUNT];
+    private int measurement;
+    private long timestampNanos;
+
+    private PIDController ftclibController;
+    private FastPIDFController fastController;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(0);
+        for (int i = 0; i < MEASUREMENT_COUNT; i++) {
+            measurements[i] = random.nextDouble() * 2000;
+        }
+        ftclibController = new PIDController(Arm.ArmConfig.P_COEF, Arm.ArmConfig.I_COEF, Arm.ArmConfig.D_COEF);
+        ftclibController.setSetPoint(1000);
+        fastController = new FastPIDFController(Arm.ArmConfig.P_COEF, Arm.ArmConfig.I_COEF, Arm.ArmConfig.D_COEF);
+        fastController.setSetPoint(1000);
+    }
+
+    @Benchmark
+    public double ftclib() {
+        ftclibController.setPID(Arm.ArmConfig.P_COEF, Arm.ArmConfig.I_COEF, Arm.ArmConfig.D_COEF);
+        return ftclibController.calculate(measurements[measurement++ & (MEASUREMENT_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public double fast() {
+        fastController.setPID(Arm.ArmConfig.P_COEF, Arm.ArmConfig.I_COEF, Arm.ArmConfig.D_COEF);
+        timestampNanos += PERIOD_NANOS;
+        return fastController.calculate(measurements[measurement++ & (MEASUREMENT_COUNT - 1)], timestampNanos);
+    }
+}
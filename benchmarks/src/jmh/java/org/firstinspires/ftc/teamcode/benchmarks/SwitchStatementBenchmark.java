@@ -0,0 +1,78 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.util.FrozenIntSwitchStatement;
+import org.firstinspires.ftc.teamcode.util.FrozenSwitchStatement;
+import org.firstinspires.ftc.teamcode.util.IntSwitchStatement;
+import org.firstinspires.ftc.teamcode.util.SwitchStatement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of executing a {@link SwitchStatement}, its {@linkplain SwitchStatement#freeze() frozen} copy, a
+ *  {@link FrozenIntSwitchStatement} and a plain {@code switch} on the same string cases as the switch statement unit
+ *  tests.  One input in four matches no case.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SwitchStatementBenchmark {
+    private static final String[] INPUTS = {"hello", "whee", "yeet", "fddsiofpe232"};
+
+    private static final SwitchStatement<String, Integer> STATEMENT = new SwitchStatement<>(String::hashCode)
+            .addCase("hello", str -> 1)
+            .addCase("whee", str -> 15)
+            .addCase("yeet", str -> 36);
+
+    private static final FrozenSwitchStatement<String, Integer> FROZEN = STATEMENT.freeze();
+
+    private static final FrozenIntSwitchStatement<String> FROZEN_INT = new IntSwitchStatement<>(String::hashCode)
+            .addCase("hello", str -> 1)
+            .addCase("whee", str -> 15)
+            .addCase("yeet", str -> 36)
+            .freeze();
+
+    private int input;
+
+    private String nextInput() {
+        return INPUTS[input++ & 3];
+    }
+
+    private static int plainSwitch(String str) {
+        switch (str) {
+            case "hello":
+                return 1;
+            case "whee":
+                return 15;
+            case "yeet":
+                return 36;
+            default:
+                return str.hashCode();
+        }
+    }
+
+    @Benchmark
+    public Integer statement() {
+        return STATEMENT.execute(nextInput());
+    }
+
+    @Benchmark
+    public Integer frozen() {
+        return FROZEN.execute(nextInput());
+    }
+
+    @Benchmark
+    public int frozenInt() {
+        return FROZEN_INT.execute(nextInput());
+    }
+
+    @Benchmark
+    public int plainSwitch() {
+        return plainSwitch(nextInput());
+    }
+}